@@ -11,6 +11,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.sql.DataSource;
 import java.util.List;
@@ -33,6 +34,7 @@ import java.util.stream.Collectors;
         path = "classpath:/embedded/storage/content/errors/rus.json"
 )
 @Configuration
+@EnableScheduling
 @PropertySource("classpath:/embedded/storage/application.properties")
 @ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
 public class StorageServiceEmbeddedConfig {
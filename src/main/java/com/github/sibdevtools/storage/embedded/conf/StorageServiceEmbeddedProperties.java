@@ -1,12 +1,22 @@
 package com.github.sibdevtools.storage.embedded.conf;
 
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.MetaStorageMode;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author sibmaks
@@ -23,4 +33,468 @@ public class StorageServiceEmbeddedProperties {
     private int bufferSize;
     private ContentStorageFormat storageFormat;
     private String defaultStorageContainer;
+    /**
+     * Maximum size of encoded content in bytes, stored inline in database instead of storage container.
+     * Zero disables inline storing.
+     */
+    private int inlineThreshold;
+    /**
+     * Time to live of cached bucket. Bounds time while bucket changes made by other instances are not visible.
+     * Zero disables caching.
+     */
+    private Duration bucketCacheTtl;
+    /**
+     * Reject saving of content with a name already used by other content in the same bucket
+     */
+    private boolean uniqueNames;
+    private Upload upload = new Upload();
+    private Meta meta = new Meta();
+    private Scrub scrub = new Scrub();
+    private Reconcile reconcile = new Reconcile();
+    private Stats stats = new Stats();
+    private Quota quota = new Quota();
+    private Lifecycle lifecycle = new Lifecycle();
+    private Dictionary dictionary = new Dictionary();
+    private ExistenceFilter existenceFilter = new ExistenceFilter();
+    private Cache cache = new Cache();
+    private Prefetch prefetch = new Prefetch();
+    private WarmUp warmUp = new WarmUp();
+    private Io io = new Io();
+    private Memory memory = new Memory();
+
+    /**
+     * Multipart upload properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Upload {
+        /**
+         * Time to live of upload session, not completed sessions are aborted after it
+         */
+        private Duration sessionTtl;
+        /**
+         * Interval between expired upload sessions cleanups
+         */
+        private Duration cleanupInterval;
+    }
+
+    /**
+     * Content meta data properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+        /**
+         * Meta data storage mode for new contents
+         */
+        private MetaStorageMode mode = MetaStorageMode.ROWS;
+        /**
+         * Meta data keys, stored in separate rows in compact mode to be available for lookup
+         */
+        private Set<String> indexedKeys = new HashSet<>();
+        /**
+         * Interval between compaction of contents, stored in rows mode, in compact mode
+         */
+        private Duration compactionInterval;
+    }
+
+    /**
+     * Background integrity scrub properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scrub {
+        /**
+         * Scrub is enabled
+         */
+        private boolean enabled;
+        /**
+         * Interval between scrub batches
+         */
+        private Duration interval;
+        /**
+         * Interval between completion of scrub pass and start of next one
+         */
+        private Duration passInterval;
+        /**
+         * Maximum amount of contents checked in one batch
+         */
+        private int batchSize;
+        /**
+         * Maximum read rate of stored contents per second
+         */
+        private DataSize readRate;
+    }
+
+    /**
+     * Reconciliation of database contents with storage folder properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Reconcile {
+        /**
+         * Scheduled reconciliation is enabled
+         */
+        private boolean enabled;
+        /**
+         * Interval between scheduled reconciliations
+         */
+        private Duration interval;
+        /**
+         * Remove orphan files and contents without files on scheduled reconciliation
+         */
+        private boolean repair;
+        /**
+         * Minimal age of orphan file or content without file to be repaired, protects contents being saved or removed
+         */
+        private Duration gracePeriod;
+        /**
+         * Amount of bucket folders reconciled in parallel
+         */
+        private int parallelism;
+        /**
+         * Maximum amount of bucket folder content identifiers, sorted in memory.
+         * Larger folder listings are sorted through temporary run files
+         */
+        private int sortRunSize;
+    }
+
+    /**
+     * Bucket statistics properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stats {
+        /**
+         * Amount of statistics rows per bucket, concurrent content changes are spread between them
+         */
+        private int stripes;
+    }
+
+    /**
+     * Bucket quota properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Quota {
+        /**
+         * Interval of bucket usage reload from persisted statistics, bounds time while usage changes made
+         * by other instances are not visible
+         */
+        private Duration refreshInterval;
+    }
+
+    /**
+     * Content lifecycle properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lifecycle {
+        /**
+         * Lifecycle transitions are enabled
+         */
+        private boolean enabled;
+        /**
+         * Interval between lifecycle batches
+         */
+        private Duration interval;
+        /**
+         * Maximum amount of contents transited by each rule in one batch
+         */
+        private int batchSize;
+        /**
+         * Maximum read rate of stored contents per second
+         */
+        private DataSize readRate;
+        /**
+         * Transition rules
+         */
+        private List<Rule> rules = new ArrayList<>();
+    }
+
+    /**
+     * Content lifecycle transition rule
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+        /**
+         * Storage format of contents to re-encode
+         */
+        private ContentStorageFormat from;
+        /**
+         * Target storage format
+         */
+        private ContentStorageFormat to;
+        /**
+         * Minimal time passed since content modification to re-encode it
+         */
+        private Duration minAge = Duration.ZERO;
+    }
+
+    /**
+     * Content compression dictionaries properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Dictionary {
+        /**
+         * Background dictionary training is enabled
+         */
+        private boolean enabled;
+        /**
+         * Interval between checks of buckets, requiring dictionary training
+         */
+        private Duration interval;
+        /**
+         * Minimal age of bucket dictionary to be trained again on new bucket contents
+         */
+        private Duration retrainInterval;
+        /**
+         * Maximum amount of the latest bucket contents, sampled for training
+         */
+        private int sampleCount;
+        /**
+         * Minimal amount of sampled contents to train dictionary
+         */
+        private int minSampleCount;
+        /**
+         * Maximum size of sampled content, larger contents gain little from dictionary
+         */
+        private DataSize maxSampleSize;
+        /**
+         * Maximum dictionary size, deflate uses at most 32KB of it
+         */
+        private DataSize size;
+        /**
+         * Maximum amount of dictionaries, kept in memory
+         */
+        private int cacheSize;
+    }
+
+    /**
+     * Content existence filter properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExistenceFilter {
+        /**
+         * Reads of not existing contents are answered by filter without database.
+         * Contents saved by other service instances are not visible until filter rebuild,
+         * so filter should be enabled only if contents are written by single instance.
+         */
+        private boolean enabled;
+        /**
+         * Interval between filter rebuilds from database
+         */
+        private Duration rebuildInterval;
+        /**
+         * Expected amount of contents, filter is sized for twice the amount of stored contents if it is greater
+         */
+        private long expectedContents;
+        /**
+         * Target rate of not existing contents, reported by filter as possibly existing
+         */
+        private double falsePositiveRate;
+        /**
+         * Maximum filter memory, false positive rate grows if filter is limited by it
+         */
+        private DataSize maxMemory;
+    }
+
+    /**
+     * Decoded content cache properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cache {
+        /**
+         * Maximum total size of cached content data, zero disables caching
+         */
+        private DataSize maxSize;
+        /**
+         * Maximum size of cached content data, larger contents are not cached
+         */
+        private DataSize maxEntrySize;
+    }
+
+    /**
+     * Content prefetch properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Prefetch {
+        /**
+         * Amount of low priority prefetch threads
+         */
+        private int parallelism;
+        /**
+         * Maximum amount of queued prefetch hints, hints over it are dropped
+         */
+        private int queueSize;
+    }
+
+    /**
+     * Startup warm-up properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WarmUp {
+        /**
+         * Recently read contents are tracked and loaded on start
+         */
+        private boolean enabled;
+        /**
+         * Maximum amount of tracked recently read contents
+         */
+        private int maxContents;
+        /**
+         * Interval between persists of recently read contents
+         */
+        private Duration persistInterval;
+        /**
+         * Maximum warm-up duration
+         */
+        private Duration timeout;
+        /**
+         * Maximum total size of content data, loaded by warm-up
+         */
+        private DataSize maxSize;
+    }
+
+    /**
+     * Storage container I/O scheduling properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Io {
+        /**
+         * Storage container I/O is scheduled
+         */
+        private boolean enabled;
+        /**
+         * Maximum amount of concurrent storage container operations, zero disables concurrency limit
+         */
+        private int concurrency;
+        /**
+         * Maximum time of operation in queue, operation is rejected if it would wait longer
+         */
+        private Duration maxQueueTime;
+        /**
+         * Default bucket limits
+         */
+        private BucketIo defaults = new BucketIo();
+        /**
+         * Bucket limits by bucket code, not set limits are taken from defaults
+         */
+        private Map<String, BucketIo> buckets = new HashMap<>();
+    }
+
+    /**
+     * Bucket storage container I/O limits
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BucketIo {
+        /**
+         * Maximum operations per second, zero disables limit
+         */
+        private Double opsRate;
+        /**
+         * Maximum bytes per second, zero disables limit
+         */
+        private DataSize bytesRate;
+        /**
+         * Share of concurrent operations, bucket gets under contention
+         */
+        private Integer weight;
+    }
+
+    /**
+     * In-flight content memory budget properties
+     *
+     * @since 0.2.0
+     */
+    @Setter
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Memory {
+        /**
+         * Maximum size of content data, materialized in memory by concurrent requests, zero disables budget
+         */
+        private DataSize maxInFlight;
+        /**
+         * Minimum size of saved content, encoded through temporary file instead of memory, zero disables spilling
+         */
+        private DataSize spillThreshold;
+        /**
+         * Maximum time of request wait for memory budget, request is rejected if it would wait longer
+         */
+        private Duration maxWait;
+        /**
+         * Maximum size of encoded content after decoding on save, larger contents are rejected, zero disables limit
+         */
+        private DataSize maxDecodedSize;
+    }
 }
@@ -36,4 +36,22 @@ public class BucketFileDescriptionImpl implements BucketFileDescription {
      * Content modification date time
      */
     private final ZonedDateTime modifiedAt;
+    /**
+     * Source content size in bytes, {@code null} if not known
+     *
+     * @since 0.2.0
+     */
+    private final Long size;
+    /**
+     * CRC32C checksum of source content, {@code null} if not known
+     *
+     * @since 0.2.0
+     */
+    private final Long crc32c;
+    /**
+     * Hex encoded SHA-256 hash of source content, {@code null} if not known
+     *
+     * @since 0.2.0
+     */
+    private final String sha256;
 }
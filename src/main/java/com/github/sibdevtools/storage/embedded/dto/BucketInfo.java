@@ -0,0 +1,56 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+/**
+ * Immutable bucket snapshot, used by hot paths instead of bucket entity
+ *
+ * @param id            bucket identifier
+ * @param code          bucket code
+ * @param readonly      bucket readonly flag
+ * @param maxBytes      maximum size of stored bucket contents, {@code null} if not limited
+ * @param maxObjects    maximum amount of bucket contents, {@code null} if not limited
+ * @param storagePolicy bucket storage policy, not set attributes are resolved from service defaults
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public record BucketInfo(
+        long id,
+        String code,
+        boolean readonly,
+        Long maxBytes,
+        Long maxObjects,
+        StoragePolicy storagePolicy
+) {
+
+    /**
+     * Construct bucket snapshot without quota and with default storage policy
+     *
+     * @param id       bucket identifier
+     * @param code     bucket code
+     * @param readonly bucket readonly flag
+     */
+    public BucketInfo(long id, String code, boolean readonly) {
+        this(id, code, readonly, null, null);
+    }
+
+    /**
+     * Construct bucket snapshot with default storage policy
+     *
+     * @param id         bucket identifier
+     * @param code       bucket code
+     * @param readonly   bucket readonly flag
+     * @param maxBytes   maximum size of stored bucket contents, {@code null} if not limited
+     * @param maxObjects maximum amount of bucket contents, {@code null} if not limited
+     */
+    public BucketInfo(long id, String code, boolean readonly, Long maxBytes, Long maxObjects) {
+        this(id, code, readonly, maxBytes, maxObjects, StoragePolicy.DEFAULT);
+    }
+
+    /**
+     * Check if bucket has quota
+     *
+     * @return true if bucket size or amount of contents is limited
+     */
+    public boolean hasQuota() {
+        return maxBytes != null || maxObjects != null;
+    }
+}
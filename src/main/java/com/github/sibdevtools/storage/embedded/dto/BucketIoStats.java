@@ -0,0 +1,44 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Bucket storage container I/O scheduling statistics
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BucketIoStats {
+    /**
+     * Bucket identifier
+     */
+    private final long bucketId;
+    /**
+     * Amount of admitted operations
+     */
+    private final long operations;
+    /**
+     * Amount of operations, rejected because of exceeded queue time
+     */
+    private final long rejected;
+    /**
+     * Amount of operations, waiting in queue now
+     */
+    private final int queued;
+    /**
+     * Total time, admitted operations waited in queue
+     */
+    private final Duration totalQueueTime;
+    /**
+     * Maximum time, admitted operation waited in queue
+     */
+    private final Duration maxQueueTime;
+}
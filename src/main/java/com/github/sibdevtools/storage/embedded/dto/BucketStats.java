@@ -0,0 +1,30 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Bucket statistics
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BucketStats {
+    /**
+     * Amount of bucket contents
+     */
+    private final long contents;
+    /**
+     * Total size of bucket contents before encoding
+     */
+    private final long logicalBytes;
+    /**
+     * Total size of stored encoded bucket contents
+     */
+    private final long physicalBytes;
+}
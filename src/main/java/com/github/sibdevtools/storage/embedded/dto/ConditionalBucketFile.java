@@ -0,0 +1,29 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import com.github.sibdevtools.storage.api.dto.BucketFile;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ConditionalBucketFile {
+    /**
+     * Content is modified, i.e. entity tag is not matched to passed one
+     */
+    private final boolean modified;
+    /**
+     * Current content entity tag, {@code null} if content checksum is not known
+     */
+    private final String etag;
+    /**
+     * Content, {@code null} if content is not modified
+     */
+    private final BucketFile file;
+}
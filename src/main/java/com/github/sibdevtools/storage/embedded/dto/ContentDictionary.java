@@ -0,0 +1,12 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+/**
+ * Content compression dictionary
+ *
+ * @param id   dictionary identifier
+ * @param data preset dictionary bytes
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public record ContentDictionary(long id, byte[] data) {
+}
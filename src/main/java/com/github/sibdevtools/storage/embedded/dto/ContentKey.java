@@ -0,0 +1,17 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import java.util.UUID;
+
+/**
+ * Content key in bucket name order
+ *
+ * @param uid  content identifier
+ * @param name content name
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public record ContentKey(
+        UUID uid,
+        String name
+) {
+}
@@ -0,0 +1,31 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import com.github.sibdevtools.storage.api.dto.BucketFileDescription;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ContentListing {
+    /**
+     * Page contents, ordered by name
+     */
+    private final List<BucketFileDescription> contents;
+    /**
+     * Distinct name prefixes up to and including first delimiter after requested prefix, ordered
+     */
+    private final List<String> commonPrefixes;
+    /**
+     * Token to request next page, {@code null} if page is the last one
+     */
+    private final String continuationToken;
+}
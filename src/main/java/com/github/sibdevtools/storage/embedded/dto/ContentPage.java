@@ -0,0 +1,27 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import com.github.sibdevtools.storage.api.dto.BucketFileDescription;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ContentPage {
+    /**
+     * Page contents
+     */
+    private final List<BucketFileDescription> contents;
+    /**
+     * Token to request next page, {@code null} if page is the last one
+     */
+    private final String continuationToken;
+}
@@ -16,5 +16,17 @@ public enum ContentStorageFormat {
     /**
      * Store data in gzip format.
      */
-    GZIP
+    GZIP,
+    /**
+     * Store data in independently deflated blocks with block index, supports range reads.
+     *
+     * @since 0.2.0
+     */
+    BLOCK_DEFLATE,
+    /**
+     * Store data in deflate format with preset dictionary, trained per bucket from its contents.
+     *
+     * @since 0.2.0
+     */
+    DICTIONARY_DEFLATE
 }
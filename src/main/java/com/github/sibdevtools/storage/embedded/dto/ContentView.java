@@ -0,0 +1,61 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.Builder;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * Read-only content view, loaded without entity hydration
+ *
+ * @param uid              content identifier
+ * @param name             content name
+ * @param bucketId         bucket identifier
+ * @param storageFormat    content storage format
+ * @param storageContainer storage container type, {@code null} for contents stored in default container
+ * @param createdAt        content creation date time
+ * @param modifiedAt       content modification date time
+ * @param inlineData       inline encoded content, {@code null} if content stored in storage container or not loaded
+ * @param originalSize     source content size, {@code null} if not known
+ * @param encodedSize      encoded content size, {@code null} if not known
+ * @param crc32c           CRC32C checksum of source content, {@code null} if not known
+ * @param sha256           hex encoded SHA-256 hash of source content, {@code null} if not known
+ * @param meta             content meta data
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record ContentView(
+        String uid,
+        String name,
+        long bucketId,
+        ContentStorageFormat storageFormat,
+        String storageContainer,
+        ZonedDateTime createdAt,
+        ZonedDateTime modifiedAt,
+        byte[] inlineData,
+        Long originalSize,
+        Long encodedSize,
+        Long crc32c,
+        String sha256,
+        Map<String, String> meta
+) {
+
+    /**
+     * Build content description
+     *
+     * @return content description
+     */
+    public BucketFileDescriptionImpl toDescription() {
+        return BucketFileDescriptionImpl.builder()
+                .id(uid)
+                .name(name)
+                .meta(new BucketFileMetadataImpl(meta))
+                .createdAt(createdAt)
+                .modifiedAt(modifiedAt)
+                .size(originalSize)
+                .crc32c(crc32c)
+                .sha256(sha256)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Content in stored encoded form
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class EncodedBucketFile {
+    /**
+     * File content description
+     */
+    private final BucketFileDescriptionImpl description;
+    /**
+     * Storage format of encoded data
+     */
+    private final ContentStorageFormat storageFormat;
+    /**
+     * Encoded file data
+     */
+    private final byte[] data;
+}
@@ -0,0 +1,38 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * In-flight content memory budget statistics
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemoryBudgetStats {
+    /**
+     * Maximum size of in-flight content data in bytes, zero if budget is disabled
+     */
+    private final long limit;
+    /**
+     * Size of in-flight content data in bytes
+     */
+    private final long used;
+    /**
+     * Amount of requests, waiting for budget now
+     */
+    private final int waiting;
+    /**
+     * Amount of requests, rejected because of exceeded wait time
+     */
+    private final long rejected;
+    /**
+     * Amount of contents, encoded through temporary file
+     */
+    private final long spilled;
+}
@@ -0,0 +1,18 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+/**
+ * Meta data value match type
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public enum MetaMatchType {
+    /**
+     * Meta data value is equal to passed value.
+     */
+    EQUALS,
+    /**
+     * Meta data value starts with passed value.
+     */
+    PREFIX
+}
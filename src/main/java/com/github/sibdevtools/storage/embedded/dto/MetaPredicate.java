@@ -0,0 +1,20 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.Builder;
+
+/**
+ * Meta data search predicate
+ *
+ * @param key   meta data key
+ * @param value meta data value or value prefix
+ * @param match value match type, {@link MetaMatchType#EQUALS} if not passed
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record MetaPredicate(
+        String key,
+        String value,
+        MetaMatchType match
+) {
+}
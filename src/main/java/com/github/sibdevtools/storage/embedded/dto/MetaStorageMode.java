@@ -0,0 +1,18 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+/**
+ * Content meta data storage mode
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public enum MetaStorageMode {
+    /**
+     * Store each meta data entry in separate row.
+     */
+    ROWS,
+    /**
+     * Store whole meta data map in single content column, only indexed keys are stored in separate rows.
+     */
+    COMPACT
+}
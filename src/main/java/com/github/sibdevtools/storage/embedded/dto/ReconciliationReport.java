@@ -0,0 +1,56 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Result of reconciliation of database contents with storage folder
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ReconciliationReport {
+    /**
+     * Amount of reconciled buckets
+     */
+    private final long buckets;
+    /**
+     * Amount of content files found in storage folder
+     */
+    private final long files;
+    /**
+     * Amount of contents, stored in storage folder according to database
+     */
+    private final long contents;
+    /**
+     * Amount of files without content in database
+     */
+    private final long orphanFiles;
+    /**
+     * Amount of contents without file in storage folder
+     */
+    private final long danglingContents;
+    /**
+     * Amount of removed orphan files
+     */
+    private final long removedFiles;
+    /**
+     * Amount of removed contents without file
+     */
+    private final long removedContents;
+    /**
+     * Identifiers of found orphan files, limited sample
+     */
+    private final List<String> orphanFileIds;
+    /**
+     * Identifiers of found contents without file, limited sample
+     */
+    private final List<String> danglingContentIds;
+}
@@ -0,0 +1,42 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ScrubProgress {
+    /**
+     * Identifier of last checked content in current pass, {@code null} if pass is not in progress
+     */
+    private final String lastContentId;
+    /**
+     * Amount of checked contents in current pass
+     */
+    private final long checkedCount;
+    /**
+     * Amount of read stored bytes in current pass
+     */
+    private final long checkedBytes;
+    /**
+     * Amount of corrupt contents found in current pass
+     */
+    private final long corruptedCount;
+    /**
+     * Current pass start date time, {@code null} if scrub was never started
+     */
+    private final ZonedDateTime passStartedAt;
+    /**
+     * Last completed pass date time, {@code null} if no pass completed yet
+     */
+    private final ZonedDateTime passCompletedAt;
+}
@@ -0,0 +1,38 @@
+package com.github.sibdevtools.storage.embedded.dto;
+
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+
+/**
+ * Bucket storage policy. Not set attributes are resolved from service defaults.
+ *
+ * @param storageFormat    content storage format, {@code null} to use default one
+ * @param storageContainer storage container type, {@code null} to use default one
+ * @param compressionLevel compression level of compressing codecs, {@code null} to use codec default one
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public record StoragePolicy(
+        ContentStorageFormat storageFormat,
+        String storageContainer,
+        Integer compressionLevel
+) {
+    /**
+     * Policy without set attributes
+     */
+    public static final StoragePolicy DEFAULT = new StoragePolicy(null, null, null);
+
+    /**
+     * Resolve not set attributes
+     *
+     * @param defaultStorageFormat    default content storage format
+     * @param defaultStorageContainer default storage container type
+     * @return policy with all attributes set
+     */
+    public StoragePolicy resolve(ContentStorageFormat defaultStorageFormat, String defaultStorageContainer) {
+        return new StoragePolicy(
+                storageFormat == null ? defaultStorageFormat : storageFormat,
+                storageContainer == null ? defaultStorageContainer : storageContainer,
+                compressionLevel == null ? StorageCodec.DEFAULT_LEVEL : compressionLevel
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.sibdevtools.storage.embedded.entity;
 
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -32,4 +33,24 @@ public class BucketEntity {
     private ZonedDateTime modifiedAt;
     @Column(name = "readonly", nullable = false)
     private boolean readonly;
+    @Column(name = "max_bytes")
+    private Long maxBytes;
+    @Column(name = "max_objects")
+    private Long maxObjects;
+    /**
+     * Storage format of new contents, {@code null} to use default one
+     */
+    @Enumerated(value = EnumType.STRING)
+    @Column(name = "storage_format")
+    private ContentStorageFormat storageFormat;
+    /**
+     * Storage container type of new contents, {@code null} to use default one
+     */
+    @Column(name = "storage_container")
+    private String storageContainer;
+    /**
+     * Compression level of new contents, {@code null} to use codec default one
+     */
+    @Column(name = "compression_level")
+    private Integer compressionLevel;
 }
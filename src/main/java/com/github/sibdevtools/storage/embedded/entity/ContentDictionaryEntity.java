@@ -0,0 +1,40 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Content compression dictionary database entity. Dictionaries are immutable, encoded contents reference them by id.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_content_dictionary")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "content_dictionary")
+public class ContentDictionaryEntity {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(name = "bucket_id", nullable = false)
+    private long bucketId;
+    @Lob
+    @ToString.Exclude
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+    /**
+     * Amount of contents, dictionary trained on
+     */
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+}
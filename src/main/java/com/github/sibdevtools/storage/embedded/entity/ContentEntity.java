@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.ZonedDateTime;
+import java.util.UUID;
 
 /**
  * Content database entity
@@ -23,17 +24,57 @@ import java.time.ZonedDateTime;
 public class ContentEntity {
     @Id
     @Column(name = "uid")
-    private String uid;
+    private UUID uid;
     @Column(name = "name", nullable = false)
     private String name;
-    @ManyToOne(optional = false)
+    @ToString.Exclude
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "bucket_id", nullable = false)
     private BucketEntity bucket;
     @Enumerated(value = EnumType.STRING)
     @Column(name = "storage_format", nullable = false)
     private ContentStorageFormat storageFormat;
+    /**
+     * Storage container type, {@code null} for contents saved into default container before it was tracked
+     */
+    @Column(name = "storage_container")
+    private String storageContainer;
     @Column(name = "created_at", nullable = false)
     private ZonedDateTime createdAt;
     @Column(name = "modified_at", nullable = false)
     private ZonedDateTime modifiedAt;
+    /**
+     * Encoded content, stored inline for small contents instead of storage container
+     */
+    @Lob
+    @ToString.Exclude
+    @Column(name = "inline_data")
+    private byte[] inlineData;
+    /**
+     * Source content size in bytes, {@code null} for contents saved before sizes were tracked
+     */
+    @Column(name = "original_size")
+    private Long originalSize;
+    /**
+     * Encoded content size in bytes
+     */
+    @Column(name = "encoded_size")
+    private Long encodedSize;
+    /**
+     * CRC32C checksum of source content
+     */
+    @Column(name = "crc32c")
+    private Long crc32c;
+    /**
+     * Hex encoded SHA-256 hash of source content
+     */
+    @Column(name = "sha256")
+    private String sha256;
+    /**
+     * Compact encoded meta data, {@code null} if meta data stored in rows
+     */
+    @Lob
+    @ToString.Exclude
+    @Column(name = "meta_data")
+    private byte[] metaData;
 }
@@ -3,6 +3,8 @@ package com.github.sibdevtools.storage.embedded.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.UUID;
+
 /**
  * Content meta information database entity
  *
@@ -27,5 +29,5 @@ public class ContentMetaEntity {
     @Column(name = "meta_value", nullable = false)
     private String value;
     @Column(name = "content_uid", nullable = false)
-    private String contentUid;
+    private UUID contentUid;
 }
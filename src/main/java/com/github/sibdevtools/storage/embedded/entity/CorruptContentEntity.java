@@ -0,0 +1,33 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Corrupt content database entity, registered by integrity scrub
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_corrupt_content")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "corrupt_content")
+public class CorruptContentEntity {
+    @Id
+    @Column(name = "content_uid")
+    private UUID contentUid;
+    @Column(name = "bucket_id", nullable = false)
+    private long bucketId;
+    @Column(name = "reason", nullable = false)
+    private String reason;
+    @Column(name = "detected_at", nullable = false)
+    private ZonedDateTime detectedAt;
+}
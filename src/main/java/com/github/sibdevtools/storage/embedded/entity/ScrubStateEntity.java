@@ -0,0 +1,44 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Integrity scrub state database entity, persists scrub position between restarts
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_scrub_state")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "scrub_state")
+public class ScrubStateEntity {
+    @Id
+    @Column(name = "id")
+    private String id;
+    /**
+     * Identifier of last checked content in current pass, {@code null} if pass is not started
+     */
+    @Column(name = "last_uid")
+    private UUID lastUid;
+    @Column(name = "checked_count", nullable = false)
+    private long checkedCount;
+    @Column(name = "checked_bytes", nullable = false)
+    private long checkedBytes;
+    @Column(name = "corrupted_count", nullable = false)
+    private long corruptedCount;
+    @Column(name = "pass_started_at")
+    private ZonedDateTime passStartedAt;
+    @Column(name = "pass_completed_at")
+    private ZonedDateTime passCompletedAt;
+    @Column(name = "modified_at", nullable = false)
+    private ZonedDateTime modifiedAt;
+}
@@ -0,0 +1,37 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Multipart upload staged part database entity
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_upload_part")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "upload_part")
+public class UploadPartEntity {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(name = "upload_uid", nullable = false)
+    private String uploadUid;
+    @Column(name = "part_number", nullable = false)
+    private int partNumber;
+    @Column(name = "part_size", nullable = false)
+    private long size;
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+    @Column(name = "modified_at", nullable = false)
+    private ZonedDateTime modifiedAt;
+}
@@ -0,0 +1,37 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Multipart upload session database entity
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_upload_session")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "upload_session")
+public class UploadSessionEntity {
+    @Id
+    @Column(name = "uid")
+    private String uid;
+    @Column(name = "name", nullable = false)
+    private String name;
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "bucket_id", nullable = false)
+    private BucketEntity bucket;
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+    @Column(name = "modified_at", nullable = false)
+    private ZonedDateTime modifiedAt;
+    @Column(name = "expires_at", nullable = false)
+    private ZonedDateTime expiresAt;
+}
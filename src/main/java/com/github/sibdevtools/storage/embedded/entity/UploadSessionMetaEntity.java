@@ -0,0 +1,31 @@
+package com.github.sibdevtools.storage.embedded.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Multipart upload session meta information database entity
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Entity(name = "storage_service_upload_session_meta")
+@Getter
+@Setter
+@Builder
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "storage_service", name = "upload_session_meta")
+public class UploadSessionMetaEntity {
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+    @Column(name = "meta_key", nullable = false)
+    private String key;
+    @Column(name = "meta_value", nullable = false)
+    private String value;
+    @Column(name = "upload_uid", nullable = false)
+    private String uploadUid;
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class BucketQuotaExceededException extends ServiceException {
+
+    /**
+     * Construct a bucket quota exceeded exception.
+     *
+     * @param systemMessage system message
+     */
+    public BucketQuotaExceededException(String systemMessage) {
+        super(403, Constants.ERROR_SOURCE, "BUCKET_QUOTA_EXCEEDED", systemMessage);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class BucketRateLimitExceededException extends ServiceException {
+
+    /**
+     * Construct a bucket rate limit exceeded exception.
+     *
+     * @param systemMessage system message
+     */
+    public BucketRateLimitExceededException(String systemMessage) {
+        super(429, Constants.ERROR_SOURCE, "BUCKET_RATE_LIMIT_EXCEEDED", systemMessage);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class ContentAlreadyExistsException extends ServiceException {
+
+    /**
+     * Construct a content already exists exception.
+     *
+     * @param systemMessage system message
+     */
+    public ContentAlreadyExistsException(String systemMessage) {
+        super(409, Constants.ERROR_SOURCE, "CONTENT_ALREADY_EXISTS", systemMessage);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class InvalidQuotaException extends ServiceException {
+
+    /**
+     * Construct an invalid quota exception.
+     *
+     * @param systemMessage system message
+     */
+    public InvalidQuotaException(String systemMessage) {
+        super(400, Constants.ERROR_SOURCE, "INVALID_QUOTA", systemMessage);
+    }
+
+}
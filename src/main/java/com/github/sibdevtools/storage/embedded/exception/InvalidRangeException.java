@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class InvalidRangeException extends ServiceException {
+
+    /**
+     * Construct an invalid range exception.
+     *
+     * @param systemMessage system message
+     */
+    public InvalidRangeException(String systemMessage) {
+        super(416, Constants.ERROR_SOURCE, "INVALID_RANGE", systemMessage);
+    }
+
+}
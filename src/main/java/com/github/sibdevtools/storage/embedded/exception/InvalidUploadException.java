@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class InvalidUploadException extends ServiceException {
+
+    /**
+     * Construct an invalid upload exception.
+     *
+     * @param systemMessage system message
+     */
+    public InvalidUploadException(String systemMessage) {
+        super(400, Constants.ERROR_SOURCE, "INVALID_UPLOAD", systemMessage);
+    }
+
+}
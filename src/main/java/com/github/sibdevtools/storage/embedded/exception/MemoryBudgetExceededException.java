@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class MemoryBudgetExceededException extends ServiceException {
+
+    /**
+     * Construct a memory budget exceeded exception.
+     *
+     * @param systemMessage system message
+     */
+    public MemoryBudgetExceededException(String systemMessage) {
+        super(503, Constants.ERROR_SOURCE, "MEMORY_BUDGET_EXCEEDED", systemMessage);
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.exception;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.constant.Constants;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class UploadNotFoundException extends ServiceException {
+
+    /**
+     * Construct an upload not found exception.
+     *
+     * @param systemMessage system message
+     */
+    public UploadNotFoundException(String systemMessage) {
+        super(404, Constants.ERROR_SOURCE, "UPLOAD_NOT_FOUND", systemMessage);
+    }
+
+}
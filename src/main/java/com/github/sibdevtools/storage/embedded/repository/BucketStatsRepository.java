@@ -0,0 +1,167 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.dto.BucketStats;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * Bucket statistics repository. Statistics of each bucket are split into stripe rows,
+ * concurrent changes update different stripes, statistics are the sum of all bucket stripes.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Repository
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class BucketStatsRepository {
+    private static final String SELECT_STATS = """
+            SELECT COALESCE(SUM(s.content_count), 0) AS contents,
+                   COALESCE(SUM(s.logical_bytes), 0) AS logical_bytes,
+                   COALESCE(SUM(s.physical_bytes), 0) AS physical_bytes
+            FROM storage_service.bucket_stats s
+            WHERE s.bucket_id = ?
+            """;
+    private static final String INSERT_STRIPES = """
+            INSERT INTO storage_service.bucket_stats (bucket_id, stripe, content_count, logical_bytes, physical_bytes)
+            SELECT b.id, ?, 0, 0, 0
+            FROM storage_service.bucket b
+            WHERE b.code = ?
+              AND NOT EXISTS (
+                SELECT 1 FROM storage_service.bucket_stats s
+                WHERE s.bucket_id = b.id AND s.stripe = ?
+              )
+            """;
+    private static final String UPDATE_STRIPE = """
+            UPDATE storage_service.bucket_stats
+            SET content_count = content_count + ?,
+                logical_bytes = logical_bytes + ?,
+                physical_bytes = physical_bytes + ?
+            WHERE bucket_id = ? AND stripe = ?
+            """;
+    private static final String INSERT_STRIPE = """
+            INSERT INTO storage_service.bucket_stats (bucket_id, stripe, content_count, logical_bytes, physical_bytes)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String LOCK_STRIPES = """
+            SELECT s.stripe FROM storage_service.bucket_stats s
+            WHERE s.bucket_id = ?
+            FOR UPDATE
+            """;
+    private static final String CALCULATE_STATS = """
+            SELECT COUNT(*) AS contents,
+                   COALESCE(SUM(c.original_size), 0) AS logical_bytes,
+                   COALESCE(SUM(c.encoded_size), 0) AS physical_bytes
+            FROM storage_service.content c
+            WHERE c.bucket_id = ?
+            """;
+    private static final String DELETE_STRIPES = "DELETE FROM storage_service.bucket_stats WHERE bucket_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construct bucket statistics repository
+     *
+     * @param dataSource data source
+     */
+    @Autowired
+    public BucketStatsRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Create missing empty stripes of bucket
+     *
+     * @param bucketCode bucket code
+     * @param stripes    amount of stripes
+     */
+    public void createStripes(@Nonnull String bucketCode, int stripes) {
+        var args = new ArrayList<Object[]>(stripes);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            args.add(new Object[]{stripe, bucketCode, stripe});
+        }
+        jdbcTemplate.batchUpdate(INSERT_STRIPES, args);
+    }
+
+    /**
+     * Add deltas to bucket stripe. If stripe not exists, deltas are added to the first stripe.
+     *
+     * @param bucketId      bucket identifier
+     * @param stripe        stripe number
+     * @param contents      delta of contents amount
+     * @param logicalBytes  delta of contents size before encoding
+     * @param physicalBytes delta of stored contents size
+     */
+    public void add(long bucketId, int stripe, long contents, long logicalBytes, long physicalBytes) {
+        if (jdbcTemplate.update(UPDATE_STRIPE, contents, logicalBytes, physicalBytes, bucketId, stripe) > 0) {
+            return;
+        }
+        if (stripe != 0 && jdbcTemplate.update(UPDATE_STRIPE, contents, logicalBytes, physicalBytes, bucketId, 0) > 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_STRIPE, bucketId, 0, contents, logicalBytes, physicalBytes);
+    }
+
+    /**
+     * Get bucket statistics as sum of bucket stripes
+     *
+     * @param bucketId bucket identifier
+     * @return bucket statistics
+     */
+    @Nonnull
+    public BucketStats get(long bucketId) {
+        return jdbcTemplate.queryForObject(SELECT_STATS, (rs, rowNum) -> toStats(rs), bucketId);
+    }
+
+    /**
+     * Replace bucket stripes by statistics, calculated from bucket contents.
+     * Stripes are locked before calculation, so concurrent changes wait for the replacement.
+     * Should be called in transaction.
+     *
+     * @param bucketId bucket identifier
+     * @param stripes  amount of stripes
+     * @return calculated bucket statistics
+     */
+    @Nonnull
+    public BucketStats rebuild(long bucketId, int stripes) {
+        jdbcTemplate.queryForList(LOCK_STRIPES, Integer.class, bucketId);
+        var stats = jdbcTemplate.queryForObject(CALCULATE_STATS, (rs, rowNum) -> toStats(rs), bucketId);
+        jdbcTemplate.update(DELETE_STRIPES, bucketId);
+        jdbcTemplate.update(
+                INSERT_STRIPE,
+                bucketId,
+                0,
+                stats.getContents(),
+                stats.getLogicalBytes(),
+                stats.getPhysicalBytes()
+        );
+        for (int stripe = 1; stripe < stripes; stripe++) {
+            jdbcTemplate.update(INSERT_STRIPE, bucketId, stripe, 0, 0, 0);
+        }
+        return stats;
+    }
+
+    /**
+     * Remove all bucket stripes
+     *
+     * @param bucketId bucket identifier
+     */
+    public void delete(long bucketId) {
+        jdbcTemplate.update(DELETE_STRIPES, bucketId);
+    }
+
+    private static BucketStats toStats(ResultSet rs) throws SQLException {
+        return BucketStats.builder()
+                .contents(rs.getLong("contents"))
+                .logicalBytes(rs.getLong("logical_bytes"))
+                .physicalBytes(rs.getLong("physical_bytes"))
+                .build();
+    }
+}
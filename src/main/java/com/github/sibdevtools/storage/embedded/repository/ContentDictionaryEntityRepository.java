@@ -0,0 +1,28 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.ContentDictionaryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface ContentDictionaryEntityRepository extends JpaRepository<ContentDictionaryEntity, Long> {
+
+    /**
+     * Find the latest trained dictionary of bucket
+     *
+     * @param bucketId bucket identifier
+     * @return the latest dictionary or {@literal Optional#empty()} if bucket has no dictionaries
+     */
+    Optional<ContentDictionaryEntity> findFirstByBucketIdOrderByIdDesc(long bucketId);
+
+    /**
+     * Remove all dictionaries of bucket
+     *
+     * @param bucketId bucket identifier
+     */
+    void deleteAllByBucketId(long bucketId);
+}
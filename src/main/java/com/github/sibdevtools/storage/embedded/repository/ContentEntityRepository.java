@@ -1,17 +1,25 @@
 package com.github.sibdevtools.storage.embedded.repository;
 
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
 import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
 import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * @author sibmaks
  * @since 0.0.1
  */
-public interface ContentEntityRepository extends JpaRepository<ContentEntity, String> {
+public interface ContentEntityRepository extends JpaRepository<ContentEntity, UUID> {
     /**
      * Count all contents by bucket.
      *
@@ -20,6 +28,15 @@ public interface ContentEntityRepository extends JpaRepository<ContentEntity, St
      */
     long countAllByBucket(@Nonnull BucketEntity bucket);
 
+    /**
+     * Check if bucket has contents
+     *
+     * @param bucket bucket instance
+     * @return true if bucket has at least one content
+     * @since 0.2.0
+     */
+    boolean existsByBucket(@Nonnull BucketEntity bucket);
+
     /**
      * Find all content in buckets
      *
@@ -27,4 +44,132 @@ public interface ContentEntityRepository extends JpaRepository<ContentEntity, St
      * @return list of content
      */
     List<ContentEntity> findAllByBucket(BucketEntity bucketEntity);
+
+    /**
+     * Check if content with passed name exists in bucket
+     *
+     * @param bucketId bucket identifier
+     * @param name     content name
+     * @return true if content exists
+     * @since 0.2.0
+     */
+    boolean existsByBucketIdAndName(long bucketId, @Nonnull String name);
+
+    /**
+     * Find contents with identifier greater than passed one, in identifier order
+     *
+     * @param uid   identifier to start after
+     * @param limit maximum amount of contents
+     * @return list of content
+     * @since 0.2.0
+     */
+    List<ContentEntity> findAllByUidGreaterThanOrderByUid(@Nonnull UUID uid, @Nonnull Limit limit);
+
+    /**
+     * Find contents with meta data stored in rows
+     *
+     * @return list of content, at most 100
+     * @since 0.2.0
+     */
+    List<ContentEntity> findFirst100ByMetaDataIsNull();
+
+    /**
+     * Find contents in storage format, modified before passed time, with identifier greater than passed one,
+     * in identifier order
+     *
+     * @param storageFormat storage format
+     * @param modifiedAt    time to find contents modified before
+     * @param uid           identifier to start after
+     * @param limit         maximum amount of contents
+     * @return list of content
+     * @since 0.2.0
+     */
+    List<ContentEntity> findAllByStorageFormatAndModifiedAtBeforeAndUidGreaterThanOrderByUid(
+            @Nonnull ContentStorageFormat storageFormat,
+            @Nonnull ZonedDateTime modifiedAt,
+            @Nonnull UUID uid,
+            @Nonnull Limit limit
+    );
+
+    /**
+     * Change storage format of content if content is still stored in expected format
+     *
+     * @param uid         content identifier
+     * @param from        expected storage format
+     * @param to          new storage format
+     * @param encodedSize new encoded content size
+     * @param inlineData  new inline content, {@code null} if content stored in storage container
+     * @return amount of changed contents
+     * @since 0.2.0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE storage_service_content c " +
+            "SET c.storageFormat = :to, c.encodedSize = :encodedSize, c.inlineData = :inlineData " +
+            "WHERE c.uid = :uid AND c.storageFormat = :from")
+    int updateStorageFormat(@Param("uid") UUID uid,
+                            @Param("from") ContentStorageFormat from,
+                            @Param("to") ContentStorageFormat to,
+                            @Param("encodedSize") long encodedSize,
+                            @Param("inlineData") byte[] inlineData);
+
+    /**
+     * Change storage format of inline content and move it into storage container, if content is still stored in
+     * expected storage format
+     *
+     * @param uid              content identifier
+     * @param from             expected storage format
+     * @param to               new storage format
+     * @param encodedSize      new encoded content size
+     * @param storageContainer storage container, content is moved into
+     * @return amount of changed contents
+     * @since 0.2.0
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE storage_service_content c " +
+            "SET c.storageFormat = :to, c.encodedSize = :encodedSize, c.inlineData = NULL, " +
+            "c.storageContainer = :storageContainer " +
+            "WHERE c.uid = :uid AND c.storageFormat = :from")
+    int moveToStorageContainer(@Param("uid") UUID uid,
+                               @Param("from") ContentStorageFormat from,
+                               @Param("to") ContentStorageFormat to,
+                               @Param("encodedSize") long encodedSize,
+                               @Param("storageContainer") String storageContainer);
+
+    /**
+     * Find the latest contents of bucket, not larger than passed size
+     *
+     * @param bucketId     bucket identifier
+     * @param originalSize maximum source content size
+     * @param limit        maximum amount of contents
+     * @return list of content
+     * @since 0.2.0
+     */
+    List<ContentEntity> findAllByBucketIdAndOriginalSizeLessThanEqualOrderByCreatedAtDesc(
+            long bucketId,
+            long originalSize,
+            @Nonnull Limit limit
+    );
+
+    /**
+     * Check if bucket has contents, created after passed time
+     *
+     * @param bucketId  bucket identifier
+     * @param createdAt time to check contents created after
+     * @return true if bucket has at least one such content
+     * @since 0.2.0
+     */
+    boolean existsByBucketIdAndCreatedAtAfter(long bucketId, @Nonnull ZonedDateTime createdAt);
+
+    /**
+     * Find content identifiers greater than passed one, in identifier order
+     *
+     * @param uid   identifier to start after
+     * @param limit maximum amount of identifiers
+     * @return list of content identifiers
+     * @since 0.2.0
+     */
+    @Query("SELECT c.uid FROM storage_service_content c WHERE c.uid > :uid ORDER BY c.uid")
+    List<UUID> findUidsAfter(@Param("uid") UUID uid, Limit limit);
 }
@@ -2,8 +2,13 @@ package com.github.sibdevtools.storage.embedded.repository;
 
 import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * @author sibmaks
@@ -17,12 +22,25 @@ public interface ContentMetaEntityRepository extends JpaRepository<ContentMetaEn
      * @param uid content identifier
      * @return list of meta-info
      */
-    List<ContentMetaEntity> findAllByContentUid(String uid);
+    List<ContentMetaEntity> findAllByContentUid(UUID uid);
 
     /**
      * Remove all meta linked to content
      * @param uid content identifier
      */
-    void deleteAllByContentUid(String uid);
+    @Modifying
+    @Query("DELETE FROM storage_service_content_meta m WHERE m.contentUid = :uid")
+    void deleteAllByContentUid(@Param("uid") UUID uid);
 
-}
+    /**
+     * Remove all meta linked to content, except passed keys
+     *
+     * @param uid  content identifier
+     * @param keys keys to keep, should not be empty
+     * @since 0.2.0
+     */
+    @Modifying
+    @Query("DELETE FROM storage_service_content_meta m WHERE m.contentUid = :uid AND m.key NOT IN :keys")
+    void deleteAllByContentUidAndKeyNotIn(@Param("uid") UUID uid, @Param("keys") Collection<String> keys);
+
+}
\ No newline at end of file
@@ -0,0 +1,356 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentKey;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ContentView;
+import com.github.sibdevtools.storage.embedded.dto.MetaMatchType;
+import com.github.sibdevtools.storage.embedded.dto.MetaPredicate;
+import com.github.sibdevtools.storage.embedded.service.codec.MetaCodec;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only content repository. Content, bucket identifier and meta data are loaded
+ * in a single query without JPA entity hydration and persistence context registration.
+ * Meta data rows are joined only for contents without compact meta data.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Repository
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentReadRepository {
+    private static final String SELECT_CONTENT = """
+            SELECT c.uid, c.name, c.bucket_id, c.storage_format, c.storage_container, c.created_at, c.modified_at, %s,
+                   c.original_size, c.encoded_size, c.crc32c, c.sha256,
+                   c.meta_data, m.meta_key, m.meta_value
+            FROM storage_service.content c
+            LEFT JOIN storage_service.content_meta m ON m.content_uid = c.uid AND c.meta_data IS NULL
+            WHERE %s
+            """;
+    private static final String SELECT_CONTENT_WITH_DATA = SELECT_CONTENT.formatted("c.inline_data", "c.uid = ?");
+    private static final String SELECT_CONTENT_WITHOUT_DATA = SELECT_CONTENT.formatted("NULL AS inline_data", "c.uid = ?");
+    private static final String BY_NAME = """
+            c.uid = (
+                SELECT n.uid FROM storage_service.content n
+                WHERE n.bucket_id = ? AND n.name = ?
+                ORDER BY n.uid DESC
+                LIMIT 1
+            )""";
+    private static final String SELECT_CONTENT_WITH_DATA_BY_NAME = SELECT_CONTENT.formatted("c.inline_data", BY_NAME);
+    private static final String SELECT_CONTENT_WITHOUT_DATA_BY_NAME = SELECT_CONTENT.formatted("NULL AS inline_data", BY_NAME);
+    private static final String SELECT_CONTENTS_WITHOUT_DATA = SELECT_CONTENT.formatted("NULL AS inline_data", "c.uid IN (%s)") +
+            "ORDER BY c.uid";
+    private static final String SELECT_STORED_CONTENTS = """
+            SELECT c.uid, c.created_at
+            FROM storage_service.content c
+            WHERE c.bucket_id = ? AND c.inline_data IS NULL
+              AND (c.storage_container = ? OR (c.storage_container IS NULL AND ?))
+            ORDER BY c.uid
+            """;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construct read-only content repository
+     *
+     * @param dataSource data source
+     */
+    @Autowired
+    public ContentReadRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Find content view with meta data and inline content
+     *
+     * @param uid content identifier
+     * @return content view or empty if content not exists
+     */
+    @Nonnull
+    public Optional<ContentView> findById(@Nonnull UUID uid) {
+        return find(SELECT_CONTENT_WITH_DATA, uid);
+    }
+
+    /**
+     * Find content view with meta data, inline content is not loaded
+     *
+     * @param uid content identifier
+     * @return content view or empty if content not exists
+     */
+    @Nonnull
+    public Optional<ContentView> findDescriptionById(@Nonnull UUID uid) {
+        return find(SELECT_CONTENT_WITHOUT_DATA, uid);
+    }
+
+    /**
+     * Find content view by name with meta data and inline content.
+     * If bucket contains several contents with the same name the one with the greatest time-ordered identifier is returned.
+     *
+     * @param bucketId bucket identifier
+     * @param name     content name
+     * @return content view or empty if content not exists
+     */
+    @Nonnull
+    public Optional<ContentView> findByName(long bucketId, @Nonnull String name) {
+        return find(SELECT_CONTENT_WITH_DATA_BY_NAME, bucketId, name);
+    }
+
+    /**
+     * Find content view by name with meta data, inline content is not loaded.
+     * If bucket contains several contents with the same name the one with the greatest time-ordered identifier is returned.
+     *
+     * @param bucketId bucket identifier
+     * @param name     content name
+     * @return content view or empty if content not exists
+     */
+    @Nonnull
+    public Optional<ContentView> findDescriptionByName(long bucketId, @Nonnull String name) {
+        return find(SELECT_CONTENT_WITHOUT_DATA_BY_NAME, bucketId, name);
+    }
+
+    /**
+     * Find content views with meta data, inline content is not loaded
+     *
+     * @param uids content identifiers
+     * @return content views ordered by identifier
+     */
+    @Nonnull
+    public List<ContentView> findDescriptionsByIds(@Nonnull List<UUID> uids) {
+        if (uids.isEmpty()) {
+            return List.of();
+        }
+        var placeholders = String.join(", ", Collections.nCopies(uids.size(), "?"));
+        var sql = SELECT_CONTENTS_WITHOUT_DATA.formatted(placeholders);
+        var contentViews = jdbcTemplate.query(sql, ContentReadRepository::extractAll, uids.toArray());
+        return contentViews == null ? List.of() : contentViews;
+    }
+
+    /**
+     * Find identifiers of bucket contents matched all meta data predicates.
+     * First predicate is resolved by meta data index, others are checked per found content.
+     *
+     * @param bucketId   bucket identifier
+     * @param predicates meta data predicates, should not be empty
+     * @param after      identifier of last content from previous page, {@code null} for the first page
+     * @param limit      maximum amount of identifiers
+     * @return content identifiers in ascending order
+     */
+    @Nonnull
+    public List<UUID> searchByMeta(long bucketId,
+                                   @Nonnull List<MetaPredicate> predicates,
+                                   @Nullable UUID after,
+                                   int limit) {
+        var ordered = predicates.stream()
+                .sorted(Comparator.comparing(it -> getMatch(it) != MetaMatchType.EQUALS))
+                .toList();
+        var sql = new StringBuilder("""
+                SELECT m0.content_uid
+                FROM storage_service.content_meta m0
+                JOIN storage_service.content c ON c.uid = m0.content_uid
+                WHERE\s""");
+        var args = new ArrayList<>();
+        appendPredicate(sql, args, "m0", ordered.getFirst());
+        sql.append(" AND c.bucket_id = ?");
+        args.add(bucketId);
+        if (after != null) {
+            sql.append(" AND m0.content_uid > ?");
+            args.add(after);
+        }
+        for (int i = 1; i < ordered.size(); i++) {
+            var alias = "m" + i;
+            sql.append(" AND EXISTS (SELECT 1 FROM storage_service.content_meta ")
+                    .append(alias)
+                    .append(" WHERE ")
+                    .append(alias)
+                    .append(".content_uid = m0.content_uid AND ");
+            appendPredicate(sql, args, alias, ordered.get(i));
+            sql.append(')');
+        }
+        sql.append(" ORDER BY m0.content_uid LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> rs.getObject(1, UUID.class),
+                args.toArray()
+        );
+    }
+
+    /**
+     * Find keys of bucket contents with passed name prefix in name order.
+     * Contents are read by range scan of bucket name index starting from passed position.
+     *
+     * @param bucketId bucket identifier
+     * @param prefix   content name prefix, empty for all contents
+     * @param fromName name to start from
+     * @param afterUid identifier of content with {@code fromName} read on previous scan,
+     *                 {@code null} to include contents named {@code fromName}
+     * @param limit    maximum amount of keys
+     * @return content keys ordered by name and identifier
+     */
+    @Nonnull
+    public List<ContentKey> findKeysByName(long bucketId,
+                                           @Nonnull String prefix,
+                                           @Nonnull String fromName,
+                                           @Nullable UUID afterUid,
+                                           int limit) {
+        var sql = new StringBuilder("""
+                SELECT c.uid, c.name
+                FROM storage_service.content c
+                WHERE c.bucket_id = ?""");
+        var args = new ArrayList<>();
+        args.add(bucketId);
+        if (!prefix.isEmpty()) {
+            sql.append(" AND c.name LIKE ? ESCAPE '").append(LIKE_ESCAPE).append('\'');
+            args.add(escapeLike(prefix) + '%');
+        }
+        if (afterUid == null) {
+            sql.append(" AND c.name >= ?");
+            args.add(fromName);
+        } else {
+            sql.append(" AND (c.name > ? OR (c.name = ? AND c.uid > ?))");
+            args.add(fromName);
+            args.add(fromName);
+            args.add(afterUid);
+        }
+        sql.append(" ORDER BY c.name, c.uid LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> new ContentKey(rs.getObject(1, UUID.class), rs.getString(2)),
+                args.toArray()
+        );
+    }
+
+    /**
+     * Stream identifiers of bucket contents, stored in storage container, in identifier order.
+     * Rows are fetched by chunks, so bucket contents are not loaded into memory at once.
+     *
+     * @param bucketId         bucket identifier
+     * @param storageContainer storage container type
+     * @param defaultContainer passed storage container is default one,
+     *                         so contents saved before storage container was tracked are included
+     * @param consumer         consumer of content identifier and creation date time
+     */
+    public void forEachStoredContent(long bucketId,
+                                     @Nonnull String storageContainer,
+                                     boolean defaultContainer,
+                                     @Nonnull BiConsumer<UUID, ZonedDateTime> consumer) {
+        jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(SELECT_STORED_CONTENTS);
+                    statement.setFetchSize(STREAM_FETCH_SIZE);
+                    statement.setLong(1, bucketId);
+                    statement.setString(2, storageContainer);
+                    statement.setBoolean(3, defaultContainer);
+                    return statement;
+                },
+                (RowCallbackHandler) rs -> consumer.accept(
+                        rs.getObject("uid", UUID.class),
+                        getDateTime(rs, "created_at")
+                )
+        );
+    }
+
+    private static void appendPredicate(StringBuilder sql, List<Object> args, String alias, MetaPredicate predicate) {
+        sql.append(alias).append(".meta_key = ? AND ");
+        args.add(predicate.key());
+        if (getMatch(predicate) == MetaMatchType.PREFIX) {
+            sql.append(alias).append(".meta_value LIKE ? ESCAPE '").append(LIKE_ESCAPE).append('\'');
+            args.add(escapeLike(predicate.value()) + '%');
+        } else {
+            sql.append(alias).append(".meta_value = ?");
+            args.add(predicate.value());
+        }
+    }
+
+    private static MetaMatchType getMatch(MetaPredicate predicate) {
+        return predicate.match() == null ? MetaMatchType.EQUALS : predicate.match();
+    }
+
+    private static String escapeLike(String value) {
+        var escaped = new StringBuilder(value.length() + 8);
+        for (var c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    private Optional<ContentView> find(String sql, Object... args) {
+        var contentViews = jdbcTemplate.query(sql, ContentReadRepository::extractAll, args);
+        if (contentViews == null || contentViews.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(contentViews.getFirst());
+    }
+
+    private static List<ContentView> extractAll(ResultSet rs) throws SQLException {
+        var contentViews = new ArrayList<ContentView>();
+        ContentView.ContentViewBuilder builder = null;
+        Map<String, String> meta = null;
+        String uid = null;
+        while (rs.next()) {
+            var rowUid = rs.getObject("uid", UUID.class).toString();
+            if (!rowUid.equals(uid)) {
+                if (builder != null) {
+                    contentViews.add(builder.meta(meta).build());
+                }
+                uid = rowUid;
+                builder = ContentView.builder()
+                        .uid(rowUid)
+                        .name(rs.getString("name"))
+                        .bucketId(rs.getLong("bucket_id"))
+                        .storageFormat(ContentStorageFormat.valueOf(rs.getString("storage_format")))
+                        .storageContainer(rs.getString("storage_container"))
+                        .createdAt(getDateTime(rs, "created_at"))
+                        .modifiedAt(getDateTime(rs, "modified_at"))
+                        .inlineData(rs.getBytes("inline_data"))
+                        .originalSize(rs.getObject("original_size", Long.class))
+                        .encodedSize(rs.getObject("encoded_size", Long.class))
+                        .crc32c(rs.getObject("crc32c", Long.class))
+                        .sha256(rs.getString("sha256"));
+                var metaData = rs.getBytes("meta_data");
+                meta = metaData == null ? new HashMap<>() : MetaCodec.decode(metaData);
+            }
+            var key = rs.getString("meta_key");
+            if (key != null) {
+                meta.put(key, rs.getString("meta_value"));
+            }
+        }
+        if (builder != null) {
+            contentViews.add(builder.meta(meta).build());
+        }
+        return contentViews;
+    }
+
+    private static ZonedDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        var dateTime = rs.getObject(column, LocalDateTime.class);
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.CorruptContentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface CorruptContentEntityRepository extends JpaRepository<CorruptContentEntity, UUID> {
+
+    /**
+     * Remove records of already removed contents
+     *
+     * @return amount of removed records
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM storage_service_corrupt_content cc " +
+            "WHERE cc.contentUid NOT IN (SELECT c.uid FROM storage_service_content c)")
+    int deleteAllOfRemovedContents();
+}
@@ -0,0 +1,11 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.ScrubStateEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface ScrubStateEntityRepository extends JpaRepository<ScrubStateEntity, String> {
+}
@@ -0,0 +1,39 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.UploadPartEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface UploadPartEntityRepository extends JpaRepository<UploadPartEntity, Long> {
+
+    /**
+     * Find staged part of upload session
+     *
+     * @param uploadUid  upload session identifier
+     * @param partNumber part number
+     * @return staged part or {@literal Optional#empty()} if none found.
+     */
+    Optional<UploadPartEntity> findByUploadUidAndPartNumber(String uploadUid, int partNumber);
+
+    /**
+     * Get all staged parts of upload session ordered by part number
+     *
+     * @param uploadUid upload session identifier
+     * @return list of staged parts
+     */
+    List<UploadPartEntity> findAllByUploadUidOrderByPartNumber(String uploadUid);
+
+    /**
+     * Remove all staged parts of upload session
+     *
+     * @param uploadUid upload session identifier
+     */
+    void deleteAllByUploadUid(String uploadUid);
+
+}
@@ -0,0 +1,46 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface UploadSessionEntityRepository extends JpaRepository<UploadSessionEntity, String> {
+
+    /**
+     * Find first 100 upload sessions expired before passed moment
+     *
+     * @param moment expiration moment
+     * @return list of expired sessions
+     */
+    List<UploadSessionEntity> findFirst100ByExpiresAtBefore(ZonedDateTime moment);
+
+    /**
+     * Check is any upload session started in bucket
+     *
+     * @param bucket bucket instance
+     * @return true - at least one upload session exists, false - otherwise
+     */
+    boolean existsByBucket(BucketEntity bucket);
+
+    /**
+     * Find upload session and lock it until transaction end
+     *
+     * @param uid upload session identifier
+     * @return locked upload session or {@literal Optional#empty()} if none found.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM storage_service_upload_session s WHERE s.uid = :uid")
+    Optional<UploadSessionEntity> findForUpdate(@Param("uid") String uid);
+}
@@ -0,0 +1,29 @@
+package com.github.sibdevtools.storage.embedded.repository;
+
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionMetaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface UploadSessionMetaEntityRepository extends JpaRepository<UploadSessionMetaEntity, Long> {
+
+    /**
+     * Get all meta linked to upload session
+     *
+     * @param uploadUid upload session identifier
+     * @return list of meta-info
+     */
+    List<UploadSessionMetaEntity> findAllByUploadUid(String uploadUid);
+
+    /**
+     * Remove all meta linked to upload session
+     *
+     * @param uploadUid upload session identifier
+     */
+    void deleteAllByUploadUid(String uploadUid);
+
+}
@@ -0,0 +1,22 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+/**
+ * Initiate multipart upload request
+ *
+ * @param bucket bucket code
+ * @param name   content name
+ * @param meta   content meta data
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record InitiateUploadRq(
+        String bucket,
+        String name,
+        Map<String, String> meta
+) {
+}
@@ -0,0 +1,25 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import lombok.Builder;
+
+/**
+ * List bucket contents by name prefix request.
+ * If delimiter is passed, contents with delimiter in the name after prefix are grouped into common prefixes.
+ *
+ * @param bucket            bucket code
+ * @param prefix            content name prefix, {@code null} to list all contents
+ * @param delimiter         name segments delimiter, {@code null} to list without grouping
+ * @param continuationToken continuation token from previous page, {@code null} for the first page
+ * @param limit             maximum amount of contents and common prefixes in page
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record ListContentRq(
+        String bucket,
+        String prefix,
+        String delimiter,
+        String continuationToken,
+        int limit
+) {
+}
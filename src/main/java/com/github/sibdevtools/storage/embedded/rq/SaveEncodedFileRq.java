@@ -0,0 +1,27 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import lombok.Builder;
+
+import java.util.Map;
+
+/**
+ * Save already encoded content request. Content is stored as is if its encoding matches bucket storage format.
+ *
+ * @param bucket   bucket code
+ * @param name     content name
+ * @param meta     content meta data
+ * @param encoding content encoding
+ * @param data     encoded content
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record SaveEncodedFileRq(
+        String bucket,
+        String name,
+        Map<String, String> meta,
+        ContentStorageFormat encoding,
+        byte[] data
+) {
+}
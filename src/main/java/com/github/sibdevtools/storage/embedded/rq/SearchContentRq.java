@@ -0,0 +1,25 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import com.github.sibdevtools.storage.embedded.dto.MetaPredicate;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Search bucket contents by meta data request
+ *
+ * @param bucket            bucket code
+ * @param predicates        meta data predicates, all should match
+ * @param continuationToken continuation token from previous page, {@code null} for the first page
+ * @param limit             page size
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record SearchContentRq(
+        String bucket,
+        List<MetaPredicate> predicates,
+        String continuationToken,
+        int limit
+) {
+}
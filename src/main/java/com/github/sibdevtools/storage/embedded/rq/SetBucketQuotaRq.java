@@ -0,0 +1,20 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import lombok.Builder;
+
+/**
+ * Set bucket quota request
+ *
+ * @param bucket     bucket code
+ * @param maxBytes   maximum size of stored bucket contents, {@code null} to remove limit
+ * @param maxObjects maximum amount of bucket contents, {@code null} to remove limit
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record SetBucketQuotaRq(
+        String bucket,
+        Long maxBytes,
+        Long maxObjects
+) {
+}
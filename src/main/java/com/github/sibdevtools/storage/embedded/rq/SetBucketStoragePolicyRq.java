@@ -0,0 +1,23 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import lombok.Builder;
+
+/**
+ * Set bucket storage policy request. Policy is applied to contents saved after it, stored contents are not changed.
+ *
+ * @param bucket           bucket code
+ * @param storageFormat    content storage format, {@code null} to use default one
+ * @param storageContainer storage container type, {@code null} to use default one
+ * @param compressionLevel compression level from 0 to 9 or -1 for codec default one, {@code null} to use codec default one
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record SetBucketStoragePolicyRq(
+        String bucket,
+        ContentStorageFormat storageFormat,
+        String storageContainer,
+        Integer compressionLevel
+) {
+}
@@ -0,0 +1,20 @@
+package com.github.sibdevtools.storage.embedded.rq;
+
+import lombok.Builder;
+
+/**
+ * Upload part of multipart upload request
+ *
+ * @param uploadId   upload session identifier
+ * @param partNumber part number, starts from 1
+ * @param data       part content
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Builder
+public record UploadPartRq(
+        String uploadId,
+        int partNumber,
+        byte[] data
+) {
+}
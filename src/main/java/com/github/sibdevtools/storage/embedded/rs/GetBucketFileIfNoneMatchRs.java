@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+import com.github.sibdevtools.storage.embedded.dto.ConditionalBucketFile;
+
+/**
+ * Conditional get content response, body contains content only if it is modified
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class GetBucketFileIfNoneMatchRs extends StandardBodyRs<ConditionalBucketFile> {
+    /**
+     * Construct conditional get content response
+     *
+     * @param file conditional content
+     */
+    public GetBucketFileIfNoneMatchRs(ConditionalBucketFile file) {
+        super(file);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+import com.github.sibdevtools.storage.embedded.dto.BucketStats;
+
+/**
+ * Get bucket statistics response, body contains bucket statistics
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class GetBucketStatsRs extends StandardBodyRs<BucketStats> {
+    /**
+     * Construct get bucket statistics response
+     *
+     * @param stats bucket statistics
+     */
+    public GetBucketStatsRs(BucketStats stats) {
+        super(stats);
+    }
+}
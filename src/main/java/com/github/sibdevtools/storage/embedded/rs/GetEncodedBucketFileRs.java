@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+import com.github.sibdevtools.storage.embedded.dto.EncodedBucketFile;
+
+/**
+ * Get content in stored encoded form response
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class GetEncodedBucketFileRs extends StandardBodyRs<EncodedBucketFile> {
+    /**
+     * Construct get encoded content response
+     *
+     * @param file encoded content
+     */
+    public GetEncodedBucketFileRs(EncodedBucketFile file) {
+        super(file);
+    }
+}
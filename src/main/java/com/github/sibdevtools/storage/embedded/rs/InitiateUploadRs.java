@@ -0,0 +1,20 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+
+/**
+ * Initiate multipart upload response, body contains upload session identifier
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class InitiateUploadRs extends StandardBodyRs<String> {
+    /**
+     * Construct initiate multipart upload response
+     *
+     * @param uploadId upload session identifier
+     */
+    public InitiateUploadRs(String uploadId) {
+        super(uploadId);
+    }
+}
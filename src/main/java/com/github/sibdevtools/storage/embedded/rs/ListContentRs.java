@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+import com.github.sibdevtools.storage.embedded.dto.ContentListing;
+
+/**
+ * List bucket contents response, body contains page of contents and common prefixes
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class ListContentRs extends StandardBodyRs<ContentListing> {
+    /**
+     * Construct list bucket contents response
+     *
+     * @param listing contents listing page
+     */
+    public ListContentRs(ContentListing listing) {
+        super(listing);
+    }
+}
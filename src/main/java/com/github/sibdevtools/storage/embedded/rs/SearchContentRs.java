@@ -0,0 +1,21 @@
+package com.github.sibdevtools.storage.embedded.rs;
+
+import com.github.sibdevtools.common.api.rs.StandardBodyRs;
+import com.github.sibdevtools.storage.embedded.dto.ContentPage;
+
+/**
+ * Search bucket contents response, body contains page of found contents
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class SearchContentRs extends StandardBodyRs<ContentPage> {
+    /**
+     * Construct search bucket contents response
+     *
+     * @param page found contents page
+     */
+    public SearchContentRs(ContentPage page) {
+        super(page);
+    }
+}
@@ -0,0 +1,327 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.BucketIoStats;
+import com.github.sibdevtools.storage.embedded.exception.BucketRateLimitExceededException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control of storage container I/O.
+ * <p>
+ * Operation first passes bucket token buckets of operations and bytes per second, then takes one of concurrent
+ * operation slots. If slots are busy operations wait in weighted fair queue: each operation gets virtual finish
+ * time, advanced by operation cost divided by bucket weight, so bucket, flooding the queue, pushes only own
+ * operations back and other buckets keep their share. Operation is rejected if it would wait in queue longer than
+ * maximum queue time.
+ * <p>
+ * Read bytes are known only after read, so they are charged after the fact and delay the next bucket operations.
+ * Bucket limits are resolved on the first bucket operation.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class BucketIoScheduler {
+    /**
+     * Bytes, costing as much as operation itself in fair queue
+     */
+    private static final long COST_UNIT = 64 * 1024;
+
+    private final BucketRegistry bucketRegistry;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<Long, BucketState> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparingDouble(Waiter::finishTag)
+                    .thenComparingLong(Waiter::sequence)
+    );
+    private int running;
+    private double virtualTime;
+    private long sequence;
+
+    /**
+     * Construct bucket I/O scheduler
+     *
+     * @param bucketRegistry bucket registry
+     * @param properties     embedded storage service properties
+     */
+    @Autowired
+    public BucketIoScheduler(BucketRegistry bucketRegistry,
+                             StorageServiceEmbeddedProperties properties) {
+        this.bucketRegistry = bucketRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * Wait for bucket operation admission. Returned permit should be closed after operation.
+     *
+     * @param bucketId bucket identifier
+     * @param bytes    operation bytes, if known before operation
+     * @return operation permit
+     * @throws BucketRateLimitExceededException if operation would wait in queue longer than maximum queue time
+     */
+    @Nonnull
+    public Permit acquire(long bucketId, long bytes) {
+        var ioProperties = properties.getIo();
+        if (!ioProperties.isEnabled()) {
+            return Permit.NONE;
+        }
+        var state = buckets.computeIfAbsent(bucketId, this::createState);
+        var startedAt = System.nanoTime();
+        var deadline = startedAt + ioProperties.getMaxQueueTime().toNanos();
+
+        var delay = Math.max(state.ops.reserve(1, startedAt), state.bytes.reserve(bytes, startedAt));
+        if (startedAt + delay - deadline > 0) {
+            state.ops.refund(1);
+            state.bytes.refund(bytes);
+            state.rejected.increment();
+            throw new BucketRateLimitExceededException("Bucket I/O rate limit exceeded");
+        }
+
+        state.queued.incrementAndGet();
+        boolean slot;
+        try {
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            slot = takeSlot(state, bytes, deadline, ioProperties.getConcurrency());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UnexpectedErrorException("Interrupted while waiting for bucket I/O", e);
+        } finally {
+            state.queued.decrementAndGet();
+        }
+        state.onAdmitted(System.nanoTime() - startedAt);
+        return new Permit(this, state, slot);
+    }
+
+    /**
+     * Get I/O statistics of bucket
+     *
+     * @param bucketId bucket identifier
+     * @return bucket statistics, empty if bucket had no scheduled operations
+     */
+    @Nonnull
+    public BucketIoStats getStats(long bucketId) {
+        var state = buckets.get(bucketId);
+        if (state == null) {
+            return BucketIoStats.builder()
+                    .bucketId(bucketId)
+                    .totalQueueTime(Duration.ZERO)
+                    .maxQueueTime(Duration.ZERO)
+                    .build();
+        }
+        return state.toStats();
+    }
+
+    /**
+     * Get I/O statistics of all buckets, had scheduled operations
+     *
+     * @return buckets statistics
+     */
+    @Nonnull
+    public List<BucketIoStats> getStats() {
+        return buckets.values()
+                .stream()
+                .map(BucketState::toStats)
+                .toList();
+    }
+
+    private boolean takeSlot(BucketState state, long bytes, long deadline, int concurrency)
+            throws InterruptedException {
+        if (concurrency <= 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (running < concurrency && waiters.isEmpty()) {
+                running++;
+                return true;
+            }
+            var cost = 1 + (double) bytes / COST_UNIT;
+            var finishTag = Math.max(virtualTime, state.lastFinishTag) + cost / state.weight;
+            state.lastFinishTag = finishTag;
+            var waiter = new Waiter(finishTag, sequence++, lock.newCondition());
+            waiters.add(waiter);
+            try {
+                while (!waiter.granted) {
+                    var remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        waiters.remove(waiter);
+                        state.rejected.increment();
+                        throw new BucketRateLimitExceededException("Bucket I/O queue time exceeded");
+                    }
+                    waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    releaseSlot();
+                } else {
+                    waiters.remove(waiter);
+                }
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            var next = waiters.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+            virtualTime = next.finishTag;
+            next.granted = true;
+            next.condition.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private BucketState createState(long bucketId) {
+        var ioProperties = properties.getIo();
+        var defaults = ioProperties.getDefaults();
+        var limits = bucketRegistry.findById(bucketId)
+                .map(BucketInfo::code)
+                .map(ioProperties.getBuckets()::get)
+                .orElse(defaults);
+        var opsRate = limits.getOpsRate() == null ? defaults.getOpsRate() : limits.getOpsRate();
+        var bytesRate = limits.getBytesRate() == null ? defaults.getBytesRate() : limits.getBytesRate();
+        var weight = limits.getWeight() == null ? defaults.getWeight() : limits.getWeight();
+        var now = System.nanoTime();
+        return new BucketState(
+                bucketId,
+                new TokenBucket(opsRate == null ? 0 : opsRate, now),
+                new TokenBucket(bytesRate == null ? 0 : bytesRate.toBytes(), now),
+                weight == null ? 1 : Math.max(1, weight)
+        );
+    }
+
+    /**
+     * Storage container operation permit
+     */
+    public static final class Permit implements AutoCloseable {
+        /**
+         * Permit of not scheduled operation
+         */
+        public static final Permit NONE = new Permit(null, null, false);
+
+
+        private final BucketIoScheduler scheduler;
+        private final BucketState state;
+        private boolean slot;
+
+        private Permit(BucketIoScheduler scheduler, BucketState state, boolean slot) {
+            this.scheduler = scheduler;
+            this.state = state;
+            this.slot = slot;
+        }
+
+        /**
+         * Charge bytes, known only after operation, e.g. read bytes
+         *
+         * @param bytes operation bytes
+         */
+        public void charge(long bytes) {
+            if (state != null && bytes > 0) {
+                state.bytes.reserve(bytes, System.nanoTime());
+            }
+        }
+
+        /**
+         * Release concurrent operation slot
+         */
+        @Override
+        public void close() {
+            if (slot) {
+                slot = false;
+                scheduler.releaseSlot();
+            }
+        }
+    }
+
+    private static final class BucketState {
+        private final long bucketId;
+        private final TokenBucket ops;
+        private final TokenBucket bytes;
+        private final int weight;
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder totalQueueNanos = new LongAdder();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+        /**
+         * Virtual finish time of the last queued bucket operation, guarded by scheduler lock
+         */
+        private double lastFinishTag;
+
+        private BucketState(long bucketId, TokenBucket ops, TokenBucket bytes, int weight) {
+            this.bucketId = bucketId;
+            this.ops = ops;
+            this.bytes = bytes;
+            this.weight = weight;
+        }
+
+        private void onAdmitted(long queueNanos) {
+            operations.increment();
+            totalQueueNanos.add(queueNanos);
+            maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+        }
+
+        private BucketIoStats toStats() {
+            return BucketIoStats.builder()
+                    .bucketId(bucketId)
+                    .operations(operations.sum())
+                    .rejected(rejected.sum())
+                    .queued(queued.get())
+                    .totalQueueTime(Duration.ofNanos(totalQueueNanos.sum()))
+                    .maxQueueTime(Duration.ofNanos(maxQueueNanos.get()))
+                    .build();
+        }
+    }
+
+    private static final class Waiter {
+        private final double finishTag;
+        private final long sequence;
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(double finishTag, long sequence, Condition condition) {
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+
+        private double finishTag() {
+            return finishTag;
+        }
+
+        private long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.exception.BucketQuotaExceededException;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bucket quota enforcement. Usage of buckets with quota is kept in memory: persisted bucket statistics,
+ * loaded once per refresh interval, plus space reserved by not completed transactions.
+ * Reservation is released on transaction rollback and becomes part of usage on commit,
+ * so quota check does not query database on each save.
+ * <p>
+ * Transaction holds shared commit lock from before commit till its completion, refresh loads statistics
+ * under exclusive commit lock. So each committed change is either included in loaded statistics or applied
+ * to usage after load, and is never counted twice.
+ * <p>
+ * Usage changes made by other service instances sharing the same database become visible after refresh.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class BucketQuotaService {
+    private final BucketStatsService bucketStatsService;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<Long, Usage> usages = new ConcurrentHashMap<>();
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+
+    /**
+     * Construct bucket quota service
+     *
+     * @param bucketStatsService bucket statistics service
+     * @param properties         embedded storage service properties
+     */
+    @Autowired
+    public BucketQuotaService(BucketStatsService bucketStatsService,
+                              StorageServiceEmbeddedProperties properties) {
+        this.bucketStatsService = bucketStatsService;
+        this.properties = properties;
+    }
+
+    /**
+     * Reserve space for new bucket content. If transaction is active reservation is released on its completion,
+     * otherwise reservation is applied to usage immediately.
+     *
+     * @param bucket bucket
+     * @param bytes  size of stored content
+     * @throws BucketQuotaExceededException if content does not fit bucket quota
+     */
+    public void reserve(@Nonnull BucketInfo bucket, long bytes) {
+        var bucketId = bucket.id();
+        if (!bucket.hasQuota()) {
+            usages.remove(bucketId);
+            return;
+        }
+        var usage = usages.computeIfAbsent(bucketId, it -> new Usage());
+        refresh(bucketId, usage);
+        synchronized (usage) {
+            var maxObjects = bucket.maxObjects();
+            if (maxObjects != null && usage.objects + usage.reservedObjects + 1 > maxObjects) {
+                throw new BucketQuotaExceededException("Bucket objects quota exceeded");
+            }
+            var maxBytes = bucket.maxBytes();
+            if (maxBytes != null && usage.bytes + usage.reservedBytes + bytes > maxBytes) {
+                throw new BucketQuotaExceededException("Bucket bytes quota exceeded");
+            }
+            usage.reservedObjects++;
+            usage.reservedBytes += bytes;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(bucketId, bytes, true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new CommitSynchronization() {
+            @Override
+            void onCompletion(boolean committed) {
+                release(bucketId, bytes, committed);
+            }
+        });
+    }
+
+    /**
+     * Account removed bucket content. If transaction is active usage is changed after commit.
+     *
+     * @param bucketId bucket identifier
+     * @param bytes    size of removed stored content
+     */
+    public void onDeleted(long bucketId, long bytes) {
+        if (!usages.containsKey(bucketId)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(bucketId, -bytes, -1);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new CommitSynchronization() {
+            @Override
+            void onCompletion(boolean committed) {
+                if (committed) {
+                    add(bucketId, -bytes, -1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Account changed stored size of bucket content. If transaction is active usage is changed after commit.
+     *
+     * @param bucketId bucket identifier
+     * @param bytes    delta of stored content size
+     */
+    public void onResized(long bucketId, long bytes) {
+        if (!usages.containsKey(bucketId)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(bucketId, bytes, 0);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new CommitSynchronization() {
+            @Override
+            void onCompletion(boolean committed) {
+                if (committed) {
+                    add(bucketId, bytes, 0);
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop in-memory usage of bucket, it is loaded again on next reservation
+     *
+     * @param bucketId bucket identifier
+     */
+    public void invalidate(long bucketId) {
+        usages.remove(bucketId);
+    }
+
+    private void refresh(long bucketId, Usage usage) {
+        synchronized (usage) {
+            if (!usage.isExpired()) {
+                return;
+            }
+        }
+        commitLock.writeLock().lock();
+        try {
+            synchronized (usage) {
+                if (!usage.isExpired()) {
+                    return;
+                }
+            }
+            var stats = bucketStatsService.get(bucketId);
+            synchronized (usage) {
+                usage.bytes = stats.getPhysicalBytes();
+                usage.objects = stats.getContents();
+                usage.expiresAt = System.nanoTime() + properties.getQuota().getRefreshInterval().toNanos();
+                usage.loaded = true;
+            }
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    private void release(long bucketId, long bytes, boolean committed) {
+        var usage = usages.get(bucketId);
+        if (usage == null) {
+            return;
+        }
+        synchronized (usage) {
+            usage.reservedObjects = Math.max(0, usage.reservedObjects - 1);
+            usage.reservedBytes = Math.max(0, usage.reservedBytes - bytes);
+            if (committed) {
+                usage.objects++;
+                usage.bytes += bytes;
+            }
+        }
+    }
+
+    private void add(long bucketId, long bytes, long objects) {
+        var usage = usages.get(bucketId);
+        if (usage == null) {
+            return;
+        }
+        synchronized (usage) {
+            usage.objects += objects;
+            usage.bytes += bytes;
+        }
+    }
+
+    /**
+     * Transaction synchronization, holding shared commit lock from before commit till transaction completion
+     */
+    private abstract class CommitSynchronization implements TransactionSynchronization {
+        private boolean locked;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitLock.readLock().lock();
+            locked = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                onCompletion(status == STATUS_COMMITTED);
+            } finally {
+                if (locked) {
+                    locked = false;
+                    commitLock.readLock().unlock();
+                }
+            }
+        }
+
+        abstract void onCompletion(boolean committed);
+    }
+
+    /**
+     * Bucket usage, guarded by own monitor
+     */
+    private static final class Usage {
+        private boolean loaded;
+        private long expiresAt;
+        private long bytes;
+        private long objects;
+        private long reservedBytes;
+        private long reservedObjects;
+
+        private boolean isExpired() {
+            return !loaded || System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
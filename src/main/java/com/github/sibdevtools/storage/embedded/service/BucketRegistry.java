@@ -0,0 +1,135 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.StoragePolicy;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process bucket cache, keyed by bucket code and identifier.
+ * <p>
+ * Local changes are applied through {@link #invalidate(String)}. Changes made by other service instances
+ * sharing the same database become visible after cache entry time to live is elapsed,
+ * so it should be kept short. Zero time to live disables caching.
+ * Missing buckets are never cached.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Component
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class BucketRegistry {
+    private final BucketEntityRepository bucketEntityRepository;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<String, CachedBucket> byCode = new ConcurrentHashMap<>();
+    private final Map<Long, CachedBucket> byId = new ConcurrentHashMap<>();
+
+    /**
+     * Construct bucket registry
+     *
+     * @param bucketEntityRepository bucket entity repository
+     * @param properties             embedded storage service properties
+     */
+    @Autowired
+    public BucketRegistry(BucketEntityRepository bucketEntityRepository,
+                          StorageServiceEmbeddedProperties properties) {
+        this.bucketEntityRepository = bucketEntityRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Find bucket by code
+     *
+     * @param code bucket code
+     * @return bucket or empty if bucket not exists
+     */
+    @Nonnull
+    public Optional<BucketInfo> findByCode(@Nonnull String code) {
+        var cached = byCode.get(code);
+        if (cached != null && cached.isAlive()) {
+            return Optional.of(cached.bucket());
+        }
+        return bucketEntityRepository.findByCode(code)
+                .map(this::put);
+    }
+
+    /**
+     * Find bucket by identifier
+     *
+     * @param id bucket identifier
+     * @return bucket or empty if bucket not exists
+     */
+    @Nonnull
+    public Optional<BucketInfo> findById(long id) {
+        var cached = byId.get(id);
+        if (cached != null && cached.isAlive()) {
+            return Optional.of(cached.bucket());
+        }
+        return bucketEntityRepository.findById(id)
+                .map(this::put);
+    }
+
+    /**
+     * Evict bucket from cache. If transaction is active bucket is evicted again after its completion,
+     * so values loaded by concurrent readers before commit are not kept.
+     *
+     * @param code bucket code
+     */
+    public void invalidate(@Nonnull String code) {
+        evict(code);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(code);
+                }
+            });
+        }
+    }
+
+    private BucketInfo put(BucketEntity bucketEntity) {
+        var bucket = new BucketInfo(
+                bucketEntity.getId(),
+                bucketEntity.getCode(),
+                bucketEntity.isReadonly(),
+                bucketEntity.getMaxBytes(),
+                bucketEntity.getMaxObjects(),
+                new StoragePolicy(
+                        bucketEntity.getStorageFormat(),
+                        bucketEntity.getStorageContainer(),
+                        bucketEntity.getCompressionLevel()
+                )
+        );
+        var ttl = properties.getBucketCacheTtl();
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return bucket;
+        }
+        var cached = new CachedBucket(bucket, System.nanoTime() + ttl.toNanos());
+        byCode.put(bucket.code(), cached);
+        byId.put(bucket.id(), cached);
+        return bucket;
+    }
+
+    private void evict(String code) {
+        byCode.remove(code);
+        byId.values().removeIf(it -> it.bucket().code().equals(code));
+    }
+
+    private record CachedBucket(BucketInfo bucket, long expiresAt) {
+
+        boolean isAlive() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketStats;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.repository.BucketStatsRepository;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Incrementally maintained bucket statistics. Statistics are changed in the transaction of content change,
+ * each change is applied to random bucket stripe to avoid contention on single bucket row.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class BucketStatsService {
+    private final BucketStatsRepository bucketStatsRepository;
+    private final StorageServiceEmbeddedProperties properties;
+
+    /**
+     * Construct bucket statistics service
+     *
+     * @param bucketStatsRepository bucket statistics repository
+     * @param properties            embedded storage service properties
+     */
+    @Autowired
+    public BucketStatsService(BucketStatsRepository bucketStatsRepository,
+                              StorageServiceEmbeddedProperties properties) {
+        this.bucketStatsRepository = bucketStatsRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Create statistics stripes of new bucket
+     *
+     * @param bucketCode bucket code
+     */
+    public void create(@Nonnull String bucketCode) {
+        bucketStatsRepository.createStripes(bucketCode, getStripes());
+    }
+
+    /**
+     * Account saved content in bucket statistics
+     *
+     * @param contentEntity saved content
+     */
+    public void onSaved(@Nonnull ContentEntity contentEntity) {
+        add(contentEntity, 1);
+    }
+
+    /**
+     * Account removed content in bucket statistics
+     *
+     * @param contentEntity removed content
+     */
+    public void onDeleted(@Nonnull ContentEntity contentEntity) {
+        add(contentEntity, -1);
+    }
+
+    /**
+     * Account changed stored size of re-encoded content in bucket statistics
+     *
+     * @param bucketId      bucket identifier
+     * @param encodedSize   previous encoded content size
+     * @param reencodedSize new encoded content size
+     */
+    public void onReencoded(long bucketId, Long encodedSize, long reencodedSize) {
+        var stripe = ThreadLocalRandom.current().nextInt(getStripes());
+        bucketStatsRepository.add(bucketId, stripe, 0, 0, reencodedSize - getSize(encodedSize));
+    }
+
+    /**
+     * Get bucket statistics
+     *
+     * @param bucketId bucket identifier
+     * @return bucket statistics
+     */
+    @Nonnull
+    public BucketStats get(long bucketId) {
+        return bucketStatsRepository.get(bucketId);
+    }
+
+    /**
+     * Recalculate bucket statistics from bucket contents, fixes drift of incrementally maintained statistics.
+     * Should be called in transaction.
+     *
+     * @param bucketId bucket identifier
+     * @return recalculated bucket statistics
+     */
+    @Nonnull
+    public BucketStats rebuild(long bucketId) {
+        return bucketStatsRepository.rebuild(bucketId, getStripes());
+    }
+
+    /**
+     * Remove statistics of bucket
+     *
+     * @param bucketId bucket identifier
+     */
+    public void delete(long bucketId) {
+        bucketStatsRepository.delete(bucketId);
+    }
+
+    private void add(ContentEntity contentEntity, int sign) {
+        var stripe = ThreadLocalRandom.current().nextInt(getStripes());
+        bucketStatsRepository.add(
+                contentEntity.getBucket().getId(),
+                stripe,
+                sign,
+                sign * getSize(contentEntity.getOriginalSize()),
+                sign * getSize(contentEntity.getEncodedSize())
+        );
+    }
+
+    private int getStripes() {
+        return Math.max(1, properties.getStats().getStripes());
+    }
+
+    private static long getSize(Long size) {
+        return size == null ? 0 : size;
+    }
+}
@@ -0,0 +1,219 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.api.rs.GetBucketFileRs;
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileImpl;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory cache of decoded contents with their descriptions.
+ * <p>
+ * Contents are immutable, so cached content is valid until content removal. Cache is limited by total size of
+ * cached content data, the least recently used contents are evicted first. Contents larger than maximum entry size
+ * are not cached. Loaded content is put only if no content was removed since load start,
+ * so content, removed while it was loaded, is not cached.
+ * <p>
+ * Cache keeps own copy of content data and returns a new copy to each caller, so callers can't change cached data.
+ * Lookups do not take a lock: reads are recorded into read buffer and applied to access order in batches.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentCache {
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<UUID, Entry> contents = new ConcurrentHashMap<>();
+    private final ReadBuffer<UUID> reads = new ReadBuffer<>(READ_BUFFER_SIZE);
+    private final AtomicLong removals = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Access order of cached contents, guarded by lock
+     */
+    private final LinkedHashMap<UUID, Entry> order = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Total size of cached content data, guarded by lock
+     */
+    private long size;
+
+    /**
+     * Construct content cache
+     *
+     * @param properties embedded storage service properties
+     */
+    @Autowired
+    public ContentCache(StorageServiceEmbeddedProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Get cached content
+     *
+     * @param uid content identifier
+     * @return copy of cached content or empty if content is not cached
+     */
+    @Nonnull
+    public Optional<GetBucketFileRs> get(@Nonnull UUID uid) {
+        return find(uid)
+                .map(Entry::toFile);
+    }
+
+    /**
+     * Get description of cached content
+     *
+     * @param uid content identifier
+     * @return cached content description or empty if content is not cached
+     */
+    @Nonnull
+    public Optional<BucketFileDescriptionImpl> getDescription(@Nonnull UUID uid) {
+        return find(uid)
+                .map(Entry::description);
+    }
+
+    /**
+     * Mark content load start, passed to {@link #put(UUID, BucketFileDescriptionImpl, byte[], long)}
+     *
+     * @return load mark
+     */
+    public long mark() {
+        return removals.get();
+    }
+
+    /**
+     * Put loaded content into cache. Cache keeps own copy of content data.
+     *
+     * @param uid         content identifier
+     * @param description loaded content description
+     * @param data        loaded content data
+     * @param mark        mark, taken before content load
+     */
+    public void put(@Nonnull UUID uid, @Nonnull BucketFileDescriptionImpl description, byte[] data, long mark) {
+        var cacheProperties = properties.getCache();
+        var maxSize = cacheProperties.getMaxSize().toBytes();
+        var contentSize = data == null ? 0 : data.length;
+        if (maxSize <= 0 || contentSize > Math.min(maxSize, cacheProperties.getMaxEntrySize().toBytes())) {
+            return;
+        }
+        var entry = new Entry(description, data == null ? null : data.clone());
+        lock.lock();
+        try {
+            reads.drain(order::get);
+            if (mark != removals.get()) {
+                return;
+            }
+            var replaced = order.put(uid, entry);
+            contents.put(uid, entry);
+            if (replaced != null) {
+                size -= replaced.size();
+            }
+            size += contentSize;
+            var iterator = order.entrySet().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                var eldest = iterator.next();
+                size -= eldest.getValue().size();
+                contents.remove(eldest.getKey());
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evict removed content. If transaction is active content is evicted again after commit.
+     *
+     * @param uid content identifier
+     */
+    public void evict(@Nonnull UUID uid) {
+        remove(uid);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(uid);
+            }
+        });
+    }
+
+    /**
+     * Total size of cached content data in bytes
+     *
+     * @return cached data size
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Optional<Entry> find(UUID uid) {
+        var entry = contents.get(uid);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (reads.record(uid) && lock.tryLock()) {
+            try {
+                reads.drain(order::get);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return Optional.of(entry);
+    }
+
+    private void remove(UUID uid) {
+        removals.incrementAndGet();
+        lock.lock();
+        try {
+            var removed = order.remove(uid);
+            contents.remove(uid);
+            if (removed != null) {
+                size -= removed.size();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cached content
+     *
+     * @param description content description
+     * @param data        content data, not exposed to callers
+     */
+    private record Entry(BucketFileDescriptionImpl description, byte[] data) {
+
+        private long size() {
+            return data == null ? 0 : data.length;
+        }
+
+        private GetBucketFileRs toFile() {
+            var bucketFile = BucketFileImpl.builder()
+                    .description(description)
+                    .data(data == null ? null : data.clone())
+                    .build();
+            return new GetBucketFileRs(bucketFile);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentDictionary;
+import com.github.sibdevtools.storage.embedded.entity.ContentDictionaryEntity;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.repository.ContentDictionaryEntityRepository;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content compression dictionaries of buckets.
+ * <p>
+ * Dictionaries are immutable and kept in memory by identifier, the least recently used are evicted
+ * when cache size is exceeded. The latest dictionary of bucket is used to encode new contents,
+ * it is cached for bucket cache time to live, so dictionaries trained by other service instances
+ * become visible after it.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentDictionaryService {
+    private final ContentDictionaryEntityRepository contentDictionaryEntityRepository;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<Long, ContentDictionary> dictionaries;
+    private final Map<Long, CachedDictionary> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Construct content dictionary service
+     *
+     * @param contentDictionaryEntityRepository content dictionary entity repository
+     * @param properties                        embedded storage service properties
+     */
+    @Autowired
+    public ContentDictionaryService(ContentDictionaryEntityRepository contentDictionaryEntityRepository,
+                                    StorageServiceEmbeddedProperties properties) {
+        this.contentDictionaryEntityRepository = contentDictionaryEntityRepository;
+        this.properties = properties;
+        this.dictionaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ContentDictionary> eldest) {
+                return size() > Math.max(1, properties.getDictionary().getCacheSize());
+            }
+        };
+    }
+
+    /**
+     * Find the latest dictionary of bucket, used to encode new contents
+     *
+     * @param bucketId bucket identifier
+     * @return dictionary or empty if bucket has no dictionaries
+     */
+    @Nonnull
+    public Optional<ContentDictionary> findLatest(long bucketId) {
+        var cached = latest.get(bucketId);
+        if (cached != null && cached.isAlive()) {
+            return Optional.ofNullable(cached.dictionary());
+        }
+        var dictionary = contentDictionaryEntityRepository.findFirstByBucketIdOrderByIdDesc(bucketId)
+                .map(this::put)
+                .orElse(null);
+        cache(bucketId, dictionary);
+        return Optional.ofNullable(dictionary);
+    }
+
+    /**
+     * Get dictionary by identifier
+     *
+     * @param id dictionary identifier
+     * @return dictionary
+     * @throws UnexpectedErrorException if dictionary not exists
+     */
+    @Nonnull
+    public ContentDictionary get(long id) {
+        synchronized (dictionaries) {
+            var dictionary = dictionaries.get(id);
+            if (dictionary != null) {
+                return dictionary;
+            }
+        }
+        return contentDictionaryEntityRepository.findById(id)
+                .map(this::put)
+                .orElseThrow(() -> new UnexpectedErrorException("Content dictionary not found: %d".formatted(id)));
+    }
+
+    /**
+     * Save new dictionary of bucket, it becomes the latest bucket dictionary
+     *
+     * @param bucketId    bucket identifier
+     * @param data        preset dictionary bytes
+     * @param sampleCount amount of contents, dictionary trained on
+     * @return saved dictionary
+     */
+    @Nonnull
+    public ContentDictionary save(long bucketId, @Nonnull byte[] data, int sampleCount) {
+        var entity = ContentDictionaryEntity.builder()
+                .bucketId(bucketId)
+                .data(data)
+                .sampleCount(sampleCount)
+                .createdAt(ZonedDateTime.now())
+                .build();
+        var dictionary = put(contentDictionaryEntityRepository.save(entity));
+        cache(bucketId, dictionary);
+        return dictionary;
+    }
+
+    /**
+     * Remove all dictionaries of bucket. Should be called only for bucket without contents.
+     *
+     * @param bucketId bucket identifier
+     */
+    public void delete(long bucketId) {
+        contentDictionaryEntityRepository.deleteAllByBucketId(bucketId);
+        latest.remove(bucketId);
+    }
+
+    private ContentDictionary put(ContentDictionaryEntity entity) {
+        var dictionary = new ContentDictionary(entity.getId(), entity.getData());
+        synchronized (dictionaries) {
+            dictionaries.put(dictionary.id(), dictionary);
+        }
+        return dictionary;
+    }
+
+    private void cache(long bucketId, ContentDictionary dictionary) {
+        var ttl = properties.getBucketCacheTtl();
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        latest.put(bucketId, new CachedDictionary(dictionary, System.nanoTime() + ttl.toNanos()));
+    }
+
+    private record CachedDictionary(ContentDictionary dictionary, long expiresAt) {
+
+        boolean isAlive() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+    }
+}
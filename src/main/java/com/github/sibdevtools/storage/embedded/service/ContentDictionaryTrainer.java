@@ -0,0 +1,125 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentDictionary;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentDictionaryEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.DictionaryTrainer;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * Background training of content compression dictionaries. Dictionaries are trained for buckets,
+ * storing contents in {@link ContentStorageFormat#DICTIONARY_DEFLATE} format, on the latest small bucket contents.
+ * Bucket dictionary is trained again after retrain interval, if bucket got new contents.
+ * Samples are read bypassing content cache, so training does not evict contents, read by clients.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentDictionaryTrainer {
+    private final BucketEntityRepository bucketEntityRepository;
+    private final ContentEntityRepository contentEntityRepository;
+    private final ContentDictionaryEntityRepository contentDictionaryEntityRepository;
+    private final ContentDictionaryService contentDictionaryService;
+    private final StorageServiceEmbedded storageServiceEmbedded;
+    private final StorageServiceEmbeddedProperties properties;
+
+    /**
+     * Construct content dictionary trainer
+     *
+     * @param bucketEntityRepository            bucket entity repository
+     * @param contentEntityRepository           content entity repository
+     * @param contentDictionaryEntityRepository content dictionary entity repository
+     * @param contentDictionaryService          content dictionary service
+     * @param storageServiceEmbedded            embedded storage service
+     * @param properties                        embedded storage service properties
+     */
+    @Autowired
+    public ContentDictionaryTrainer(BucketEntityRepository bucketEntityRepository,
+                                    ContentEntityRepository contentEntityRepository,
+                                    ContentDictionaryEntityRepository contentDictionaryEntityRepository,
+                                    ContentDictionaryService contentDictionaryService,
+                                    StorageServiceEmbedded storageServiceEmbedded,
+                                    StorageServiceEmbeddedProperties properties) {
+        this.bucketEntityRepository = bucketEntityRepository;
+        this.contentEntityRepository = contentEntityRepository;
+        this.contentDictionaryEntityRepository = contentDictionaryEntityRepository;
+        this.contentDictionaryService = contentDictionaryService;
+        this.storageServiceEmbedded = storageServiceEmbedded;
+        this.properties = properties;
+    }
+
+    /**
+     * Train dictionaries of buckets without dictionary or with outdated one
+     */
+    @Scheduled(fixedDelayString = "${service.storage.embedded.dictionary.interval}")
+    public void trainOutdated() {
+        var dictionaryProperties = properties.getDictionary();
+        if (!dictionaryProperties.isEnabled()) {
+            return;
+        }
+        for (var bucket : bucketEntityRepository.findAll()) {
+            var storageFormat = bucket.getStorageFormat() == null ?
+                    properties.getStorageFormat() :
+                    bucket.getStorageFormat();
+            if (storageFormat != ContentStorageFormat.DICTIONARY_DEFLATE) {
+                continue;
+            }
+            var bucketId = bucket.getId();
+            var latest = contentDictionaryEntityRepository.findFirstByBucketIdOrderByIdDesc(bucketId);
+            if (latest.isPresent()) {
+                var createdAt = latest.get().getCreatedAt();
+                if (createdAt.plus(dictionaryProperties.getRetrainInterval()).isAfter(ZonedDateTime.now()) ||
+                        !contentEntityRepository.existsByBucketIdAndCreatedAtAfter(bucketId, createdAt)) {
+                    continue;
+                }
+            }
+            train(bucketId);
+        }
+    }
+
+    /**
+     * Train new bucket dictionary on the latest small bucket contents
+     *
+     * @param bucketId bucket identifier
+     * @return trained dictionary or empty if bucket has not enough contents or contents have nothing in common
+     */
+    @Nonnull
+    public Optional<ContentDictionary> train(long bucketId) {
+        var dictionaryProperties = properties.getDictionary();
+        var contents = contentEntityRepository.findAllByBucketIdAndOriginalSizeLessThanEqualOrderByCreatedAtDesc(
+                bucketId,
+                dictionaryProperties.getMaxSampleSize().toBytes(),
+                Limit.of(dictionaryProperties.getSampleCount())
+        );
+        var samples = new ArrayList<byte[]>(contents.size());
+        for (var content : contents) {
+            try {
+                samples.add(storageServiceEmbedded.getData(content.getUid()));
+            } catch (RuntimeException e) {
+                // content removed or unreadable, sampled contents are enough without it
+            }
+        }
+        if (samples.isEmpty() || samples.size() < dictionaryProperties.getMinSampleCount()) {
+            return Optional.empty();
+        }
+        var dictionary = DictionaryTrainer.train(samples, (int) dictionaryProperties.getSize().toBytes());
+        if (dictionary.length == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(contentDictionaryService.save(bucketId, dictionary, samples.size()));
+    }
+}
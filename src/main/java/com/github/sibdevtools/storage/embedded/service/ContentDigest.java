@@ -0,0 +1,91 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+import lombok.Getter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.CRC32C;
+
+/**
+ * Content size and checksums accumulator. Computes CRC32C, which is hardware-accelerated by JDK intrinsics,
+ * and SHA-256 of source content in one pass.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public final class ContentDigest {
+    private final CRC32C crc32c;
+    private final MessageDigest sha256;
+    /**
+     * Amount of digested bytes
+     */
+    @Getter
+    private long size;
+    private String sha256Hex;
+
+    /**
+     * Construct empty content digest
+     */
+    public ContentDigest() {
+        this.crc32c = new CRC32C();
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnexpectedErrorException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Compute digest of content
+     *
+     * @param bytes content
+     * @return content digest
+     */
+    @Nonnull
+    public static ContentDigest of(@Nonnull byte[] bytes) {
+        var digest = new ContentDigest();
+        digest.update(bytes, 0, bytes.length);
+        return digest;
+    }
+
+    /**
+     * Update digest with content chunk
+     *
+     * @param bytes  content chunk buffer
+     * @param offset chunk offset in buffer
+     * @param length chunk length
+     */
+    public void update(@Nonnull byte[] bytes, int offset, int length) {
+        if (sha256Hex != null) {
+            throw new IllegalStateException("Digest is already completed");
+        }
+        crc32c.update(bytes, offset, length);
+        sha256.update(bytes, offset, length);
+        size += length;
+    }
+
+    /**
+     * Get CRC32C checksum of digested content
+     *
+     * @return checksum
+     */
+    public long getCrc32c() {
+        return crc32c.getValue();
+    }
+
+    /**
+     * Get SHA-256 hash of digested content. Digest should not be updated after it.
+     *
+     * @return hex encoded hash
+     */
+    @Nonnull
+    public String getSha256() {
+        if (sha256Hex == null) {
+            sha256Hex = HexFormat.of().formatHex(sha256.digest());
+        }
+        return sha256Hex;
+    }
+}
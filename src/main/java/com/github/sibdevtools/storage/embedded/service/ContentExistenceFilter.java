@@ -0,0 +1,170 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate in-memory set of existing content identifiers, used to answer reads of not existing contents
+ * without database.
+ * <p>
+ * Filter is built on start and rebuilt periodically by streaming content identifiers from database.
+ * Saved contents are added before commit, so filter never misses committed content, rolled back ones
+ * are reported as possibly existing until rebuild. Removed contents are removed from filter after commit.
+ * Contents, saved while filter is built, are added to both current and building filter.
+ * Until filter is built all contents are reported as possibly existing.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentExistenceFilter {
+    private static final UUID MIN_UID = new UUID(0, 0);
+    private static final int PAGE_SIZE = 1000;
+
+    private final ContentEntityRepository contentEntityRepository;
+    private final StorageServiceEmbeddedProperties properties;
+    /**
+     * Contents, saved in not completed transactions
+     */
+    private final Set<UUID> saving = ConcurrentHashMap.newKeySet();
+    private volatile CountingBloomFilter filter;
+    private volatile CountingBloomFilter building;
+
+    /**
+     * Construct content existence filter
+     *
+     * @param contentEntityRepository content entity repository
+     * @param properties              embedded storage service properties
+     */
+    @Autowired
+    public ContentExistenceFilter(ContentEntityRepository contentEntityRepository,
+                                  StorageServiceEmbeddedProperties properties) {
+        this.contentEntityRepository = contentEntityRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Check if content definitely not exists
+     *
+     * @param uid content identifier
+     * @return true if content definitely not exists, false if content may exist
+     */
+    public boolean isMissing(@Nonnull UUID uid) {
+        var current = filter;
+        return current != null && !current.mightContain(uid);
+    }
+
+    /**
+     * Add saved content. Should be called before transaction commit.
+     *
+     * @param uid content identifier
+     */
+    public void onSaved(@Nonnull UUID uid) {
+        if (!properties.getExistenceFilter().isEnabled()) {
+            return;
+        }
+        saving.add(uid);
+        var current = filter;
+        if (current != null) {
+            current.add(uid);
+        }
+        var next = building;
+        if (next != null) {
+            next.add(uid);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            saving.remove(uid);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                saving.remove(uid);
+            }
+        });
+    }
+
+    /**
+     * Remove deleted content. If transaction is active content is removed after commit.
+     * Content is not removed from filter, built while content was deleted, it's reported as possibly existing.
+     *
+     * @param uid content identifier
+     */
+    public void onDeleted(@Nonnull UUID uid) {
+        var current = filter;
+        if (current == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(current, uid);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(current, uid);
+            }
+        });
+    }
+
+    /**
+     * Scheduled filter rebuild
+     */
+    @Scheduled(fixedDelayString = "${service.storage.embedded.existence-filter.rebuild-interval}")
+    public void rebuildScheduled() {
+        if (!properties.getExistenceFilter().isEnabled()) {
+            filter = null;
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Build filter from database content identifiers and replace current filter with it
+     */
+    public synchronized void rebuild() {
+        var filterProperties = properties.getExistenceFilter();
+        var expected = Math.max(filterProperties.getExpectedContents(), contentEntityRepository.count() * 2);
+        var next = CountingBloomFilter.create(
+                expected,
+                filterProperties.getFalsePositiveRate(),
+                filterProperties.getMaxMemory().toBytes()
+        );
+        building = next;
+        try {
+            saving.forEach(next::add);
+            var lastUid = MIN_UID;
+            while (true) {
+                var uids = contentEntityRepository.findUidsAfter(lastUid, Limit.of(PAGE_SIZE));
+                uids.forEach(next::add);
+                if (uids.size() < PAGE_SIZE) {
+                    break;
+                }
+                lastUid = uids.get(uids.size() - 1);
+            }
+            filter = next;
+        } finally {
+            building = null;
+        }
+    }
+
+    private void remove(CountingBloomFilter removeFrom, UUID uid) {
+        // filter rebuilt after content removal may not contain it
+        if (filter == removeFrom) {
+            removeFrom.remove(uid);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * External sort of content identifiers.
+ * <p>
+ * Identifiers are collected into in-memory run of limited size. Full run is sorted and written into temporary file,
+ * sorted identifiers are produced by merge of run files, so memory usage does not depend on amount of identifiers.
+ * Run files are removed on close.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class ContentIdSorter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Path folder;
+    private final int runSize;
+    private final Comparator<UUID> order;
+    private final List<UUID> run = new ArrayList<>();
+    private final List<RunFile> runFiles = new ArrayList<>();
+    private final List<DataInputStream> readers = new ArrayList<>();
+    private long size;
+    private boolean sorted;
+
+    /**
+     * Construct content identifiers sorter
+     *
+     * @param folder  folder of temporary run files
+     * @param runSize maximum amount of identifiers, sorted in memory
+     * @param order   identifiers order
+     */
+    ContentIdSorter(Path folder, int runSize, Comparator<UUID> order) {
+        this.folder = folder;
+        this.runSize = Math.max(1, runSize);
+        this.order = order;
+    }
+
+    /**
+     * Add identifier
+     *
+     * @param uid content identifier
+     */
+    void add(UUID uid) {
+        if (sorted) {
+            throw new IllegalStateException("Identifiers are already sorted");
+        }
+        if (run.size() == runSize) {
+            writeRun();
+        }
+        run.add(uid);
+        size++;
+    }
+
+    /**
+     * Get amount of added identifiers
+     *
+     * @return amount of identifiers
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Get iterator over added identifiers in sort order. Identifiers can't be added after it.
+     *
+     * @return sorted identifiers
+     */
+    Iterator<UUID> sorted() {
+        if (sorted) {
+            throw new IllegalStateException("Identifiers are already sorted");
+        }
+        sorted = true;
+        if (runFiles.isEmpty()) {
+            run.sort(order);
+            return run.iterator();
+        }
+        if (!run.isEmpty()) {
+            writeRun();
+        }
+        var queue = new PriorityQueue<RunCursor>((a, b) -> order.compare(a.head, b.head));
+        try {
+            for (var runFile : runFiles) {
+                var reader = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile.path()), BUFFER_SIZE));
+                readers.add(reader);
+                var cursor = new RunCursor(reader, runFile.length());
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't read content identifiers run", e);
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public UUID next() {
+                var cursor = queue.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                var uid = cursor.head;
+                try {
+                    if (cursor.advance()) {
+                        queue.add(cursor);
+                    }
+                } catch (IOException e) {
+                    throw new UnexpectedErrorException("Can't read content identifiers run", e);
+                }
+                return uid;
+            }
+        };
+    }
+
+    /**
+     * Remove run files
+     */
+    @Override
+    public void close() {
+        for (var reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // ignore, file is removed below
+            }
+        }
+        try {
+            for (var runFile : runFiles) {
+                Files.deleteIfExists(runFile.path());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't delete content identifiers run", e);
+        }
+    }
+
+    private void writeRun() {
+        run.sort(order);
+        try {
+            var path = Files.createTempFile(Files.createDirectories(folder), "ids", ".run");
+            runFiles.add(new RunFile(path, run.size()));
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+                for (var uid : run) {
+                    out.writeLong(uid.getMostSignificantBits());
+                    out.writeLong(uid.getLeastSignificantBits());
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't write content identifiers run", e);
+        }
+        run.clear();
+    }
+
+    private record RunFile(Path path, int length) {
+    }
+
+    /**
+     * Sequential reader of sorted run file
+     */
+    private static final class RunCursor {
+        private final DataInput input;
+        private int remaining;
+        private UUID head;
+
+        private RunCursor(DataInput input, int length) {
+            this.input = input;
+            this.remaining = length;
+        }
+
+        private boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            head = new UUID(input.readLong(), input.readLong());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Content identifiers utilities.
+ * <p>
+ * Identifiers are time-ordered UUID version 7: 48 bits of unix epoch milliseconds, followed by random bits.
+ * Random bits are taken from per-thread {@code DRBG} {@link SecureRandom}, so identifiers are not predictable from
+ * previously issued ones. Each thread owns its own generator state: default {@code NativePRNG} instances share
+ * single global lock even if they are created per thread. All 74 random bits are filled by one call to generator.
+ * Time-ordered keys are appended to the end of primary key index instead of being scattered over it.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public final class ContentIds {
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final int RANDOM_BYTES = 10;
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(ContentIds::newRandom);
+    private static final ThreadLocal<byte[]> RANDOM_BUFFER = ThreadLocal.withInitial(() -> new byte[RANDOM_BYTES]);
+
+    private ContentIds() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Generate new time-ordered identifier
+     *
+     * @return identifier
+     */
+    @Nonnull
+    public static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    /**
+     * Generate new time-ordered identifier for passed timestamp
+     *
+     * @param epochMillis unix epoch milliseconds
+     * @return identifier
+     */
+    @Nonnull
+    static UUID next(long epochMillis) {
+        var bytes = RANDOM_BUFFER.get();
+        RANDOM.get().nextBytes(bytes);
+        var buffer = ByteBuffer.wrap(bytes);
+        var mostSigBits = (epochMillis << 16) | VERSION | (buffer.getShort() & 0x0FFFL);
+        var leastSigBits = VARIANT | (buffer.getLong() & 0x3FFF_FFFF_FFFF_FFFFL);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static SecureRandom newRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("DRBG secure random is not available", e);
+        }
+    }
+
+    /**
+     * Parse identifier from string representation
+     *
+     * @param id identifier string representation
+     * @return identifier or empty if passed string is not valid identifier
+     */
+    @Nonnull
+    public static Optional<UUID> parse(@Nonnull String id) {
+        if (id.length() != 36) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.CountingOutputStream;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import lombok.extern.apachecommons.CommonsLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Background content lifecycle. Re-encodes contents between storage formats according to configured rules.
+ * Each rule walks contents of its source format in identifier order by small batches at limited read rate.
+ * <p>
+ * Re-encoded content replaces stored one atomically, containers supporting blob framing record new format with
+ * content, so readers decode content correctly before content row is changed. Content row is changed only if
+ * content is still stored in source format, so readers are never blocked and concurrent removal wins.
+ * Contents of buckets, storage format of which resolves to rule source format, are skipped,
+ * so contents are never re-encoded against bucket or service storage format.
+ * <p>
+ * Content is decoded and re-encoded through streams, so content of any size is transited in constant memory.
+ * Inline content, growing over inline threshold, is moved into bucket storage container.
+ * Content, failed to transit, stays in source format, is logged and retried on the next pass.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@CommonsLog
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentLifecycle {
+    private static final UUID MIN_UID = new UUID(0, 0);
+
+    private final ContentEntityRepository contentEntityRepository;
+    private final BucketRegistry bucketRegistry;
+    private final BucketStatsService bucketStatsService;
+    private final BucketQuotaService bucketQuotaService;
+    private final Map<ContentStorageFormat, StorageCodec> storageCodecs;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<String, StorageContainer> storageContainers;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Walk position of each rule, by rule index
+     */
+    private final Map<Integer, UUID> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Construct content lifecycle
+     *
+     * @param contentEntityRepository content entity repository
+     * @param bucketRegistry          bucket registry
+     * @param bucketStatsService      bucket statistics service
+     * @param bucketQuotaService      bucket quota service
+     * @param storageCodecs           storage codecs
+     * @param properties              embedded storage service properties
+     * @param storageContainers       storage containers
+     * @param transactionManager      transaction manager
+     */
+    @Autowired
+    public ContentLifecycle(ContentEntityRepository contentEntityRepository,
+                            BucketRegistry bucketRegistry,
+                            BucketStatsService bucketStatsService,
+                            BucketQuotaService bucketQuotaService,
+                            @Qualifier("storageCodecsMap")
+                            Map<ContentStorageFormat, StorageCodec> storageCodecs,
+                            StorageServiceEmbeddedProperties properties,
+                            @Qualifier("storageContainerMap")
+                            Map<String, StorageContainer> storageContainers,
+                            PlatformTransactionManager transactionManager) {
+        this.contentEntityRepository = contentEntityRepository;
+        this.bucketRegistry = bucketRegistry;
+        this.bucketStatsService = bucketStatsService;
+        this.bucketQuotaService = bucketQuotaService;
+        this.storageCodecs = storageCodecs;
+        this.properties = properties;
+        this.storageContainers = storageContainers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Transit next batch of contents by each rule
+     */
+    @Scheduled(fixedDelayString = "${service.storage.embedded.lifecycle.interval}")
+    public void transit() {
+        var lifecycleProperties = properties.getLifecycle();
+        if (!lifecycleProperties.isEnabled()) {
+            return;
+        }
+        var rules = lifecycleProperties.getRules();
+        var startedAt = System.nanoTime();
+        var readBytes = 0L;
+        for (int i = 0; i < rules.size() && !Thread.currentThread().isInterrupted(); i++) {
+            var rule = rules.get(i);
+            var from = rule.getFrom();
+            var to = rule.getTo();
+            if (from == null || to == null || from == to || !storageCodecs.containsKey(to)) {
+                continue;
+            }
+            var after = positions.getOrDefault(i, MIN_UID);
+            var contents = contentEntityRepository.findAllByStorageFormatAndModifiedAtBeforeAndUidGreaterThanOrderByUid(
+                    from,
+                    ZonedDateTime.now().minus(rule.getMinAge()),
+                    after,
+                    Limit.of(lifecycleProperties.getBatchSize())
+            );
+            var completed = contents.size() < lifecycleProperties.getBatchSize();
+            for (var content : contents) {
+                // position is moved first, so content, failing the run, is not retried until the next pass
+                positions.put(i, content.getUid());
+                try {
+                    readBytes += transit(content, from, to);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Can't transit content %s from %s to %s".formatted(content.getUid(), from, to), e);
+                }
+                if (!ReadThrottle.throttle(startedAt, readBytes, lifecycleProperties.getReadRate().toBytes())) {
+                    completed = false;
+                    break;
+                }
+            }
+            if (completed) {
+                positions.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Re-encode content into target format
+     *
+     * @param content content
+     * @param from    source storage format
+     * @param to      target storage format
+     * @return amount of read bytes
+     * @throws IOException on content read or write error
+     */
+    private long transit(ContentEntity content,
+                         ContentStorageFormat from,
+                         ContentStorageFormat to) throws IOException {
+        var bucketId = content.getBucket().getId();
+        var bucketInfo = bucketRegistry.findById(bucketId)
+                .orElse(null);
+        if (bucketInfo == null) {
+            return 0;
+        }
+        var storagePolicy = bucketInfo.storagePolicy()
+                .resolve(properties.getStorageFormat(), properties.getDefaultStorageContainer());
+        if (storagePolicy.storageFormat() == from) {
+            return 0;
+        }
+        var level = storagePolicy.compressionLevel();
+
+        if (content.getInlineData() != null) {
+            return transitInline(content, from, to, level, storagePolicy.storageContainer());
+        }
+
+        var uid = content.getUid();
+        var contentId = uid.toString();
+        var storageContainer = getStorageContainer(content);
+        try (var stored = storageContainer.open(bucketId, contentId)) {
+            var storedSize = stored.size();
+            var storedFormat = stored.getFormat() == null ? from : stored.getFormat();
+            var encodedSize = storedSize;
+            if (storedFormat != to) {
+                var sourceCodec = getSourceCodec(content, storedFormat);
+                if (sourceCodec == null) {
+                    return storedSize;
+                }
+                var written = new AtomicLong();
+                storageContainer.write(bucketId, contentId, to, out -> {
+                    var countingOut = new CountingOutputStream(out);
+                    var originalSize = reencode(content, sourceCodec, stored, to, level, countingOut);
+                    written.set(countingOut.getCount());
+                    return originalSize;
+                });
+                encodedSize = written.get();
+            }
+
+            if (!update(content, from, to, encodedSize, null, null) && !contentEntityRepository.existsById(uid)) {
+                storageContainer.delete(bucketId, contentId);
+            }
+            return storedSize;
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Re-encode inline content into target format. Content, growing over inline threshold, is moved into storage
+     * container.
+     *
+     * @param content              inline content
+     * @param from                 source storage format
+     * @param to                   target storage format
+     * @param level                compression level
+     * @param storageContainerType storage container of bucket
+     * @return amount of read bytes
+     * @throws IOException on content write error
+     */
+    private long transitInline(ContentEntity content,
+                               ContentStorageFormat from,
+                               ContentStorageFormat to,
+                               int level,
+                               String storageContainerType) throws IOException {
+        var inlineData = content.getInlineData();
+        var sourceCodec = getSourceCodec(content, from);
+        if (sourceCodec == null) {
+            return inlineData.length;
+        }
+        var inlineOut = new InlineOutputStream(properties.getInlineThreshold());
+        try (var stored = new ByteArrayRandomAccessContent(inlineData)) {
+            reencode(content, sourceCodec, stored, to, level, inlineOut);
+        }
+        if (!inlineOut.isOverflowed()) {
+            update(content, from, to, inlineOut.size(), inlineOut.toByteArray(), null);
+            return inlineData.length;
+        }
+
+        var bucketId = content.getBucket().getId();
+        var contentId = content.getUid().toString();
+        var storageContainer = storageContainers.get(storageContainerType);
+        if (storageContainer == null) {
+            throw new UnexpectedErrorException("Unsupported storage container: %s".formatted(storageContainerType));
+        }
+        var written = new AtomicLong();
+        storageContainer.write(bucketId, contentId, to, out -> {
+            var countingOut = new CountingOutputStream(out);
+            try (var stored = new ByteArrayRandomAccessContent(inlineData)) {
+                var originalSize = reencode(content, sourceCodec, stored, to, level, countingOut);
+                written.set(countingOut.getCount());
+                return originalSize;
+            }
+        });
+        if (!update(content, from, to, written.get(), null, storageContainerType)) {
+            // content is removed or transited concurrently and stays inline
+            storageContainer.delete(bucketId, contentId);
+        }
+        return inlineData.length;
+    }
+
+    /**
+     * Stream content through source codec decoder into target codec encoder and verify decoded content against
+     * stored size and checksum. Target stream is closed.
+     *
+     * @param content     content
+     * @param sourceCodec source storage codec
+     * @param stored      stored content
+     * @param to          target storage format
+     * @param level       compression level
+     * @param out         target stream
+     * @return decoded content size
+     * @throws IOException on read or write error
+     */
+    private long reencode(ContentEntity content,
+                          StorageCodec sourceCodec,
+                          RandomAccessContent stored,
+                          ContentStorageFormat to,
+                          int level,
+                          OutputStream out) throws IOException {
+        var bucketId = content.getBucket().getId();
+        var buffer = new byte[Math.max(1, properties.getBufferSize())];
+        var checksum = new CRC32C();
+        var size = 0L;
+        try (var decoded = sourceCodec.decodeStream(stored);
+             var encoded = storageCodecs.get(to).encodeStream(bucketId, out, level)) {
+            int read;
+            while ((read = decoded.read(buffer)) != -1) {
+                checksum.update(buffer, 0, read);
+                size += read;
+                encoded.write(buffer, 0, read);
+            }
+            var originalSize = content.getOriginalSize();
+            if (originalSize != null && originalSize != size) {
+                throw new UnexpectedErrorException(
+                        "Content size mismatch, expected: %d, actual: %d".formatted(originalSize, size)
+                );
+            }
+            var crc32c = content.getCrc32c();
+            if (crc32c != null && checksum.getValue() != crc32c) {
+                throw new UnexpectedErrorException("Content checksum mismatch");
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Change content storage format, if content is still stored in source format
+     *
+     * @param content              content
+     * @param from                 source storage format
+     * @param to                   target storage format
+     * @param encodedSize          new encoded content size
+     * @param inlineData           new inline content, {@code null} if content stored in storage container
+     * @param storageContainerType storage container, content is moved into, {@code null} if content is not moved
+     * @return {@code true} if content is changed
+     */
+    private boolean update(ContentEntity content,
+                           ContentStorageFormat from,
+                           ContentStorageFormat to,
+                           long encodedSize,
+                           byte[] inlineData,
+                           String storageContainerType) {
+        var uid = content.getUid();
+        var bucketId = content.getBucket().getId();
+        var storedSize = content.getEncodedSize();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            var updated = storageContainerType == null ?
+                    contentEntityRepository.updateStorageFormat(uid, from, to, encodedSize, inlineData) :
+                    contentEntityRepository.moveToStorageContainer(uid, from, to, encodedSize, storageContainerType);
+            if (updated == 0) {
+                return false;
+            }
+            bucketStatsService.onReencoded(bucketId, storedSize, encodedSize);
+            bucketQuotaService.onResized(bucketId, encodedSize - (storedSize == null ? 0 : storedSize));
+            return true;
+        }));
+    }
+
+    private StorageCodec getSourceCodec(ContentEntity content, ContentStorageFormat storageFormat) {
+        var storageCodec = storageCodecs.get(storageFormat);
+        if (storageCodec == null) {
+            log.warn("Can't transit content %s, unsupported storage format: %s".formatted(content.getUid(), storageFormat));
+        }
+        return storageCodec;
+    }
+
+    private StorageContainer getStorageContainer(ContentEntity content) {
+        var storageContainerType = content.getStorageContainer();
+        if (storageContainerType == null) {
+            storageContainerType = properties.getDefaultStorageContainer();
+        }
+        var storageContainer = storageContainers.get(storageContainerType);
+        if (storageContainer == null) {
+            throw new UnexpectedErrorException("Unsupported storage container: %s".formatted(storageContainerType));
+        }
+        return storageContainer;
+    }
+
+    /**
+     * In-memory stream of re-encoded inline content. Content, exceeding inline threshold, is only counted.
+     */
+    private static final class InlineOutputStream extends ByteArrayOutputStream {
+        private final int threshold;
+        private boolean overflowed;
+
+        private InlineOutputStream(int threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (check(1)) {
+                super.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (check(len)) {
+                super.write(b, off, len);
+            }
+        }
+
+        private boolean isOverflowed() {
+            return overflowed;
+        }
+
+        private boolean check(int length) {
+            if (!overflowed && (threshold <= 0 || count + (long) length > threshold)) {
+                overflowed = true;
+                reset();
+            }
+            return !overflowed;
+        }
+    }
+}
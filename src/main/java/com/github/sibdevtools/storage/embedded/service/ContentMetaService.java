@@ -0,0 +1,155 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.MetaStorageMode;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.MetaCodec;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Content meta data service. Depending on configured mode meta data is stored in rows,
+ * or compact encoded in content column with only indexed keys stored in rows.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentMetaService {
+    private final ContentEntityRepository contentEntityRepository;
+    private final ContentMetaEntityRepository contentMetaEntityRepository;
+    private final StorageServiceEmbeddedProperties properties;
+
+    /**
+     * Construct content meta data service
+     *
+     * @param contentEntityRepository     content entity repository
+     * @param contentMetaEntityRepository content meta entity repository
+     * @param properties                  embedded storage service properties
+     */
+    @Autowired
+    public ContentMetaService(ContentEntityRepository contentEntityRepository,
+                              ContentMetaEntityRepository contentMetaEntityRepository,
+                              StorageServiceEmbeddedProperties properties) {
+        this.contentEntityRepository = contentEntityRepository;
+        this.contentMetaEntityRepository = contentMetaEntityRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Build compact meta data content column value
+     *
+     * @param meta meta data
+     * @return encoded meta data or {@code null} if meta data should be stored in rows
+     */
+    @Nullable
+    public byte[] toMetaData(@Nonnull Map<String, String> meta) {
+        if (properties.getMeta().getMode() != MetaStorageMode.COMPACT) {
+            return null;
+        }
+        return MetaCodec.encode(meta);
+    }
+
+    /**
+     * Save meta data rows of content. In compact mode only indexed keys are saved.
+     *
+     * @param contentEntity content, meta data column should be already built by {@link #toMetaData(Map)}
+     * @param meta          meta data
+     */
+    public void save(@Nonnull ContentEntity contentEntity, @Nonnull Map<String, String> meta) {
+        var compact = contentEntity.getMetaData() != null;
+        var indexedKeys = properties.getMeta().getIndexedKeys();
+        var uid = contentEntity.getUid();
+        var metaEntities = meta.entrySet()
+                .stream()
+                .filter(it -> !compact || indexedKeys.contains(it.getKey()))
+                .map(it -> ContentMetaEntity.builder()
+                        .key(it.getKey())
+                        .value(it.getValue())
+                        .contentUid(uid)
+                        .build()
+                )
+                .toList();
+        if (metaEntities.isEmpty()) {
+            return;
+        }
+        contentMetaEntityRepository.saveAll(metaEntities);
+    }
+
+    /**
+     * Get content meta data
+     *
+     * @param contentEntity content
+     * @return meta data
+     */
+    @Nonnull
+    public Map<String, String> get(@Nonnull ContentEntity contentEntity) {
+        var metaData = contentEntity.getMetaData();
+        if (metaData != null) {
+            return MetaCodec.decode(metaData);
+        }
+        return contentMetaEntityRepository.findAllByContentUid(contentEntity.getUid())
+                .stream()
+                .collect(Collectors.toMap(ContentMetaEntity::getKey, ContentMetaEntity::getValue));
+    }
+
+    /**
+     * Check if meta data key is stored in rows for all contents and can be used in search
+     *
+     * @param key meta data key
+     * @return true if key is searchable
+     */
+    public boolean isSearchable(@Nonnull String key) {
+        var metaProperties = properties.getMeta();
+        return metaProperties.getMode() != MetaStorageMode.COMPACT || metaProperties.getIndexedKeys().contains(key);
+    }
+
+    /**
+     * Remove all content meta data rows
+     *
+     * @param uid content identifier
+     */
+    public void delete(@Nonnull UUID uid) {
+        contentMetaEntityRepository.deleteAllByContentUid(uid);
+    }
+
+    /**
+     * Move meta data of contents, stored in rows, to compact column. Works only in compact mode.
+     */
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    @Scheduled(fixedDelayString = "${service.storage.embedded.meta.compaction-interval}")
+    public void compact() {
+        var metaProperties = properties.getMeta();
+        if (metaProperties.getMode() != MetaStorageMode.COMPACT) {
+            return;
+        }
+        var indexedKeys = metaProperties.getIndexedKeys();
+        for (var contentEntity : contentEntityRepository.findFirst100ByMetaDataIsNull()) {
+            var uid = contentEntity.getUid();
+            var meta = get(contentEntity);
+            contentEntity.setMetaData(MetaCodec.encode(meta));
+            contentEntityRepository.save(contentEntity);
+            if (indexedKeys.isEmpty()) {
+                contentMetaEntityRepository.deleteAllByContentUid(uid);
+            } else {
+                contentMetaEntityRepository.deleteAllByContentUidAndKeyNotIn(uid, indexedKeys);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous content prefetch and startup warm-up.
+ * <p>
+ * Contents are loaded on low priority threads the same way as they are read, so content descriptions and data
+ * get into content cache and stored content files into OS page cache. Prefetch is a hint: hints over queue size
+ * are dropped and load errors are ignored.
+ * <p>
+ * On start recently read contents, persisted by {@link HotContentTracker}, are loaded,
+ * the most recently read first, until warm-up timeout or size is reached.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentPrefetcher {
+    private final StorageServiceEmbedded storageServiceEmbedded;
+    private final HotContentTracker hotContentTracker;
+    private final StorageServiceEmbeddedProperties properties;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Construct content prefetcher
+     *
+     * @param storageServiceEmbedded embedded storage service
+     * @param hotContentTracker      hot content tracker
+     * @param properties             embedded storage service properties
+     */
+    @Autowired
+    public ContentPrefetcher(StorageServiceEmbedded storageServiceEmbedded,
+                             HotContentTracker hotContentTracker,
+                             StorageServiceEmbeddedProperties properties) {
+        this.storageServiceEmbedded = storageServiceEmbedded;
+        this.hotContentTracker = hotContentTracker;
+        this.properties = properties;
+        var prefetchProperties = properties.getPrefetch();
+        var parallelism = Math.max(1, prefetchProperties.getParallelism());
+        var threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(Math.max(1, prefetchProperties.getQueueSize())),
+                runnable -> {
+                    var thread = new Thread(runnable, "storage-prefetch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Load contents in background, so following reads are served from caches
+     *
+     * @param ids content identifiers
+     */
+    public void prefetch(@Nonnull Collection<String> ids) {
+        for (var id : ids) {
+            executor.execute(() -> load(id));
+        }
+    }
+
+    /**
+     * Start warm-up in background
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStart() {
+        if (!properties.getWarmUp().isEnabled()) {
+            return;
+        }
+        executor.execute(this::warmUp);
+    }
+
+    /**
+     * Load persisted recently read contents, the most recently read first, until warm-up timeout or size is reached
+     *
+     * @return amount of loaded contents
+     */
+    public int warmUp() {
+        var warmUpProperties = properties.getWarmUp();
+        var deadline = System.nanoTime() + warmUpProperties.getTimeout().toNanos();
+        var maxSize = warmUpProperties.getMaxSize().toBytes();
+        var size = 0L;
+        var loaded = 0;
+        for (var uid : hotContentTracker.load()) {
+            if (size >= maxSize || System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            var contentSize = load(uid.toString());
+            if (contentSize >= 0) {
+                size += contentSize;
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Stop background loads
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private long load(String id) {
+        try {
+            var data = storageServiceEmbedded.get(id).getBody().getData();
+            return data == null ? 0 : data.length;
+        } catch (RuntimeException e) {
+            // prefetch is a hint, content may be removed since
+            return -1;
+        }
+    }
+}
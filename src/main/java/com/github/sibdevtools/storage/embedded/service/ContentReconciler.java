@@ -0,0 +1,323 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ReconciliationReport;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
+import com.github.sibdevtools.storage.embedded.service.storage.FileStorageContainer;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Reconciliation of database contents with storage folder.
+ * Content saving and removal are not atomic between database and storage folder,
+ * so failures may leave files without content rows (orphan files) and content rows without files (dangling contents).
+ * <p>
+ * Bucket folders are reconciled in parallel. Folder listing is sorted and merge joined
+ * with bucket contents, streamed from database in identifier order, so database contents are not loaded into memory.
+ * Large folder listings are sorted through temporary run files in storage folder.
+ * Mismatches are counted as soon as they are found and repaired in bounded batches during the join.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentReconciler {
+    /**
+     * Database identifier order, identifiers are compared as unsigned 128-bit numbers
+     */
+    static final Comparator<UUID> UID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+    private static final int SAMPLE_LIMIT = 100;
+    private static final int REPAIR_BATCH_SIZE = 1000;
+    private static final String SORT_FOLDER = "sort";
+
+    private final BucketEntityRepository bucketEntityRepository;
+    private final ContentEntityRepository contentEntityRepository;
+    private final ContentReadRepository contentReadRepository;
+    private final FileStorageContainer fileStorageContainer;
+    private final StorageServiceEmbedded storageService;
+    private final StorageServiceEmbeddedProperties properties;
+
+    /**
+     * Construct content reconciler
+     *
+     * @param bucketEntityRepository  bucket entity repository
+     * @param contentEntityRepository content entity repository
+     * @param contentReadRepository   read-only content repository
+     * @param fileStorageContainer    file storage container
+     * @param storageService          storage service, used to remove dangling contents
+     * @param properties              embedded storage service properties
+     */
+    @Autowired
+    public ContentReconciler(BucketEntityRepository bucketEntityRepository,
+                             ContentEntityRepository contentEntityRepository,
+                             ContentReadRepository contentReadRepository,
+                             FileStorageContainer fileStorageContainer,
+                             StorageServiceEmbedded storageService,
+                             StorageServiceEmbeddedProperties properties) {
+        this.bucketEntityRepository = bucketEntityRepository;
+        this.contentEntityRepository = contentEntityRepository;
+        this.contentReadRepository = contentReadRepository;
+        this.fileStorageContainer = fileStorageContainer;
+        this.storageService = storageService;
+        this.properties = properties;
+    }
+
+    /**
+     * Scheduled reconciliation
+     */
+    @Scheduled(fixedDelayString = "${service.storage.embedded.reconcile.interval}")
+    public void reconcileScheduled() {
+        var reconcileProperties = properties.getReconcile();
+        if (!reconcileProperties.isEnabled()) {
+            return;
+        }
+        reconcile(reconcileProperties.isRepair());
+    }
+
+    /**
+     * Reconcile database contents, stored in file storage container, with storage folder.
+     * On repair orphan files and dangling contents, older than grace period, are removed.
+     * Dangling contents of readonly buckets are not removed.
+     *
+     * @param repair remove found orphan files and dangling contents
+     * @return reconciliation report
+     */
+    @Nonnull
+    public synchronized ReconciliationReport reconcile(boolean repair) {
+        var reconcileProperties = properties.getReconcile();
+        var graceBoundary = Instant.now().minus(reconcileProperties.getGracePeriod());
+
+        var bucketIds = new TreeSet<>(fileStorageContainer.getBucketIds());
+        bucketEntityRepository.findAll()
+                .stream()
+                .map(BucketEntity::getId)
+                .forEach(bucketIds::add);
+
+        var accumulator = new Accumulator();
+        var tasks = bucketIds.stream()
+                .map(bucketId -> ForkJoinTask.adapt(() -> reconcile(bucketId, repair, graceBoundary, accumulator)))
+                .toList();
+        var pool = new ForkJoinPool(Math.max(1, reconcileProperties.getParallelism()));
+        try {
+            pool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        return ReconciliationReport.builder()
+                .buckets(bucketIds.size())
+                .files(accumulator.files.sum())
+                .contents(accumulator.contents.sum())
+                .orphanFiles(accumulator.orphanFiles.sum())
+                .danglingContents(accumulator.danglingContents.sum())
+                .removedFiles(accumulator.removedFiles.sum())
+                .removedContents(accumulator.removedContents.sum())
+                .orphanFileIds(List.copyOf(accumulator.orphanFileIds))
+                .danglingContentIds(List.copyOf(accumulator.danglingContentIds))
+                .build();
+    }
+
+    private void reconcile(long bucketId, boolean repair, Instant graceBoundary, Accumulator accumulator) {
+        var merge = new MergeJoin(bucketId, repair, graceBoundary, accumulator);
+        try (var sorter = new ContentIdSorter(
+                Path.of(properties.getFolder(), SORT_FOLDER),
+                properties.getReconcile().getSortRunSize(),
+                UID_ORDER
+        )) {
+            fileStorageContainer.forEachContentId(bucketId, sorter::add);
+            accumulator.files.add(sorter.size());
+
+            merge.start(sorter.sorted());
+            contentReadRepository.forEachStoredContent(
+                    bucketId,
+                    fileStorageContainer.getType(),
+                    isDefaultStorageContainer(),
+                    merge
+            );
+            merge.finish();
+        }
+    }
+
+    private boolean removeOrphanFile(long bucketId, UUID uid, Instant graceBoundary) {
+        var contentId = uid.toString();
+        var modifiedAt = fileStorageContainer.getModifiedAt(bucketId, contentId)
+                .orElse(null);
+        if (modifiedAt == null || !modifiedAt.isBefore(graceBoundary) || contentEntityRepository.existsById(uid)) {
+            return false;
+        }
+        fileStorageContainer.delete(bucketId, contentId);
+        return true;
+    }
+
+    private boolean removeDanglingContent(long bucketId, DanglingContent content, Instant graceBoundary) {
+        var createdAt = content.createdAt();
+        if (createdAt == null || !createdAt.toInstant().isBefore(graceBoundary)) {
+            return false;
+        }
+        var contentId = content.uid().toString();
+        if (fileStorageContainer.getModifiedAt(bucketId, contentId).isPresent()) {
+            return false;
+        }
+        try {
+            storageService.delete(contentId);
+            return true;
+        } catch (BucketReadonlyException | BucketNotExistsException e) {
+            return false;
+        }
+    }
+
+    private boolean isDefaultStorageContainer() {
+        return fileStorageContainer.getType().equals(properties.getDefaultStorageContainer());
+    }
+
+    private record DanglingContent(UUID uid, ZonedDateTime createdAt) {
+    }
+
+    /**
+     * Merge join of sorted folder listing with bucket contents, streamed in identifier order.
+     * Found mismatches are counted immediately, repair candidates are buffered up to {@link #REPAIR_BATCH_SIZE}
+     * and repaired when buffer is full and on join finish, so join memory does not grow with mismatches amount.
+     */
+    private final class MergeJoin implements BiConsumer<UUID, ZonedDateTime> {
+        private final long bucketId;
+        private final boolean repair;
+        private final Instant graceBoundary;
+        private final Accumulator accumulator;
+        private final List<UUID> orphanFiles = new ArrayList<>();
+        private final List<DanglingContent> danglingContents = new ArrayList<>();
+        private Iterator<UUID> fileIds;
+        private UUID fileId;
+        private UUID previous;
+
+        private MergeJoin(long bucketId, boolean repair, Instant graceBoundary, Accumulator accumulator) {
+            this.bucketId = bucketId;
+            this.repair = repair;
+            this.graceBoundary = graceBoundary;
+            this.accumulator = accumulator;
+        }
+
+        private void start(Iterator<UUID> sortedFileIds) {
+            this.fileIds = sortedFileIds;
+            nextFile();
+        }
+
+        @Override
+        public void accept(UUID uid, ZonedDateTime createdAt) {
+            if (previous != null && UID_ORDER.compare(previous, uid) >= 0) {
+                throw new UnexpectedErrorException("Contents are not streamed in identifier order");
+            }
+            previous = uid;
+            accumulator.contents.increment();
+            while (fileId != null && UID_ORDER.compare(fileId, uid) < 0) {
+                orphanFile(fileId);
+                nextFile();
+            }
+            if (fileId != null && fileId.equals(uid)) {
+                nextFile();
+            } else {
+                danglingContent(new DanglingContent(uid, createdAt));
+            }
+        }
+
+        private void finish() {
+            while (fileId != null) {
+                orphanFile(fileId);
+                nextFile();
+            }
+            repairOrphanFiles();
+            repairDanglingContents();
+        }
+
+        private void orphanFile(UUID uid) {
+            accumulator.orphanFiles.increment();
+            accumulator.sample(accumulator.orphanFileIds, uid);
+            if (!repair) {
+                return;
+            }
+            orphanFiles.add(uid);
+            if (orphanFiles.size() >= REPAIR_BATCH_SIZE) {
+                repairOrphanFiles();
+            }
+        }
+
+        private void danglingContent(DanglingContent content) {
+            accumulator.danglingContents.increment();
+            accumulator.sample(accumulator.danglingContentIds, content.uid());
+            if (!repair) {
+                return;
+            }
+            danglingContents.add(content);
+            if (danglingContents.size() >= REPAIR_BATCH_SIZE) {
+                repairDanglingContents();
+            }
+        }
+
+        private void repairOrphanFiles() {
+            for (var uid : orphanFiles) {
+                if (removeOrphanFile(bucketId, uid, graceBoundary)) {
+                    accumulator.removedFiles.increment();
+                }
+            }
+            orphanFiles.clear();
+        }
+
+        private void repairDanglingContents() {
+            for (var content : danglingContents) {
+                if (removeDanglingContent(bucketId, content, graceBoundary)) {
+                    accumulator.removedContents.increment();
+                }
+            }
+            danglingContents.clear();
+        }
+
+        private void nextFile() {
+            fileId = fileIds.hasNext() ? fileIds.next() : null;
+        }
+    }
+
+    /**
+     * Reconciliation counters, shared between bucket tasks
+     */
+    private static final class Accumulator {
+        private final LongAdder files = new LongAdder();
+        private final LongAdder contents = new LongAdder();
+        private final LongAdder orphanFiles = new LongAdder();
+        private final LongAdder danglingContents = new LongAdder();
+        private final LongAdder removedFiles = new LongAdder();
+        private final LongAdder removedContents = new LongAdder();
+        private final List<String> orphanFileIds = new ArrayList<>();
+        private final List<String> danglingContentIds = new ArrayList<>();
+
+        private synchronized void sample(List<String> samples, UUID uid) {
+            if (samples.size() < SAMPLE_LIMIT) {
+                samples.add(uid.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ScrubProgress;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.CorruptContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.ScrubStateEntity;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.CorruptContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ScrubStateEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Background integrity scrubber. Walks all contents in identifier order by small batches,
+ * reads stored content at limited rate, decodes it and verifies stored size and checksum.
+ * Stored and decoded contents are verified through streams, so content of any size is checked in constant memory.
+ * Corrupt contents are registered in corrupt content table.
+ * Scrub position is persisted after each content, so walk is resumed after restart.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class ContentScrubber {
+    static final String STATE_ID = "CONTENT";
+    private static final UUID MIN_UID = new UUID(0, 0);
+    private static final int MAX_REASON_LENGTH = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ContentEntityRepository contentEntityRepository;
+    private final ScrubStateEntityRepository scrubStateEntityRepository;
+    private final CorruptContentEntityRepository corruptContentEntityRepository;
+    private final Map<ContentStorageFormat, StorageCodec> storageCodecs;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<String, StorageContainer> storageContainers;
+
+    /**
+     * Construct content integrity scrubber
+     *
+     * @param contentEntityRepository        content entity repository
+     * @param scrubStateEntityRepository     scrub state entity repository
+     * @param corruptContentEntityRepository corrupt content entity repository
+     * @param storageCodecs                  storage codecs
+     * @param properties                     embedded storage service properties
+     * @param storageContainers              storage containers
+     */
+    @Autowired
+    public ContentScrubber(ContentEntityRepository contentEntityRepository,
+                           ScrubStateEntityRepository scrubStateEntityRepository,
+                           CorruptContentEntityRepository corruptContentEntityRepository,
+                           @Qualifier("storageCodecsMap")
+                           Map<ContentStorageFormat, StorageCodec> storageCodecs,
+                           StorageServiceEmbeddedProperties properties,
+                           @Qualifier("storageContainerMap")
+                           Map<String, StorageContainer> storageContainers) {
+        this.contentEntityRepository = contentEntityRepository;
+        this.scrubStateEntityRepository = scrubStateEntityRepository;
+        this.corruptContentEntityRepository = corruptContentEntityRepository;
+        this.storageCodecs = storageCodecs;
+        this.properties = properties;
+        this.storageContainers = storageContainers;
+    }
+
+    /**
+     * Check next batch of contents. New pass is started when pass interval is elapsed after previous one.
+     */
+    @Scheduled(fixedDelayString = "${service.storage.embedded.scrub.interval}")
+    public void scrub() {
+        var scrubProperties = properties.getScrub();
+        if (!scrubProperties.isEnabled()) {
+            return;
+        }
+        var now = ZonedDateTime.now();
+        var state = scrubStateEntityRepository.findById(STATE_ID)
+                .orElseGet(() -> ScrubStateEntity.builder()
+                        .id(STATE_ID)
+                        .build());
+        if (state.getLastUid() == null) {
+            var passCompletedAt = state.getPassCompletedAt();
+            if (passCompletedAt != null && passCompletedAt.plus(scrubProperties.getPassInterval()).isAfter(now)) {
+                return;
+            }
+            state.setPassStartedAt(now);
+            state.setCheckedCount(0);
+            state.setCheckedBytes(0);
+            state.setCorruptedCount(0);
+        }
+
+        var after = state.getLastUid() == null ? MIN_UID : state.getLastUid();
+        var contents = contentEntityRepository.findAllByUidGreaterThanOrderByUid(
+                after,
+                Limit.of(scrubProperties.getBatchSize())
+        );
+        var startedAt = System.nanoTime();
+        var readBytes = 0L;
+        for (var content : contents) {
+            long checkedBytes;
+            try {
+                checkedBytes = check(content, state);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            readBytes += checkedBytes;
+            state.setLastUid(content.getUid());
+            state.setCheckedBytes(state.getCheckedBytes() + checkedBytes);
+            saveState(state);
+            if (!ReadThrottle.throttle(startedAt, readBytes, scrubProperties.getReadRate().toBytes())) {
+                break;
+            }
+        }
+
+        if (contents.size() < scrubProperties.getBatchSize() && !Thread.currentThread().isInterrupted()) {
+            state.setLastUid(null);
+            state.setPassCompletedAt(ZonedDateTime.now());
+            corruptContentEntityRepository.deleteAllOfRemovedContents();
+            saveState(state);
+        }
+    }
+
+    /**
+     * Get current scrub progress
+     *
+     * @return scrub progress
+     */
+    @Nonnull
+    public ScrubProgress getProgress() {
+        var state = scrubStateEntityRepository.findById(STATE_ID)
+                .orElseGet(ScrubStateEntity::new);
+        var lastUid = state.getLastUid();
+        return ScrubProgress.builder()
+                .lastContentId(lastUid == null ? null : lastUid.toString())
+                .checkedCount(state.getCheckedCount())
+                .checkedBytes(state.getCheckedBytes())
+                .corruptedCount(state.getCorruptedCount())
+                .passStartedAt(state.getPassStartedAt())
+                .passCompletedAt(state.getPassCompletedAt())
+                .build();
+    }
+
+    /**
+     * Get identifiers of contents, found corrupt by scrub
+     *
+     * @return corrupt content identifiers
+     */
+    @Nonnull
+    public List<String> getCorruptContentIds() {
+        return corruptContentEntityRepository.findAll()
+                .stream()
+                .map(it -> it.getContentUid().toString())
+                .toList();
+    }
+
+    private long check(ContentEntity content, ScrubStateEntity state) throws InterruptedException {
+        var uid = content.getUid();
+        var bucketId = content.getBucket().getId();
+        String reason;
+        long size;
+        try (var stored = open(content, bucketId)) {
+            size = stored.size();
+            reason = verify(content, stored);
+        } catch (FileNotFoundException e) {
+            if (!contentEntityRepository.existsById(uid)) {
+                return 0;
+            }
+            registerCorrupt(content, bucketId, state, "Stored content not found");
+            return 0;
+        } catch (RuntimeException e) {
+            registerCorrupt(content, bucketId, state, "Can't read content: %s".formatted(e.getMessage()));
+            return 0;
+        }
+        if (reason == null) {
+            state.setCheckedCount(state.getCheckedCount() + 1);
+            corruptContentEntityRepository.deleteById(uid);
+        } else {
+            registerCorrupt(content, bucketId, state, reason);
+        }
+        return size;
+    }
+
+    private RandomAccessContent open(ContentEntity content, long bucketId) {
+        var inlineData = content.getInlineData();
+        if (inlineData != null) {
+            return new ByteArrayRandomAccessContent(inlineData);
+        }
+        var storageContainerType = content.getStorageContainer();
+        if (storageContainerType == null) {
+            storageContainerType = properties.getDefaultStorageContainer();
+        }
+        var storageContainer = storageContainers.get(storageContainerType);
+        if (storageContainer == null) {
+            throw new UnexpectedErrorException("Unsupported storage container: %s".formatted(storageContainerType));
+        }
+        return storageContainer.open(bucketId, content.getUid().toString());
+    }
+
+    private String verify(ContentEntity content, RandomAccessContent stored) throws InterruptedException {
+        var storedCrc32c = stored.getCrc32c();
+        if (storedCrc32c != null) {
+            StreamChecksum storedChecksum;
+            try (var in = stored.openStream()) {
+                storedChecksum = StreamChecksum.of(in);
+            } catch (IOException e) {
+                throw new UnexpectedErrorException("Can't read stored content", e);
+            }
+            if ((int) storedChecksum.crc32c() != storedCrc32c) {
+                return "Stored content checksum mismatch";
+            }
+        }
+        var storageFormat = stored.getFormat() == null ? content.getStorageFormat() : stored.getFormat();
+        var encodedSize = content.getEncodedSize();
+        if (storageFormat == content.getStorageFormat() && encodedSize != null && encodedSize != stored.size()) {
+            return "Encoded size mismatch, expected: %d, actual: %d".formatted(encodedSize, stored.size());
+        }
+        var storageCodec = storageCodecs.get(storageFormat);
+        if (storageCodec == null) {
+            return "Unsupported storage format: %s".formatted(storageFormat);
+        }
+        StreamChecksum decoded;
+        try (var in = storageCodec.decodeStream(stored)) {
+            decoded = StreamChecksum.of(in);
+        } catch (IOException | RuntimeException e) {
+            return "Can't decode content: %s".formatted(e.getMessage());
+        }
+        var originalSize = content.getOriginalSize();
+        if (originalSize != null && originalSize != decoded.size()) {
+            return "Size mismatch, expected: %d, actual: %d".formatted(originalSize, decoded.size());
+        }
+        var crc32c = content.getCrc32c();
+        if (crc32c != null && decoded.crc32c() != crc32c) {
+            return "Checksum mismatch";
+        }
+        return null;
+    }
+
+    private void saveState(ScrubStateEntity state) {
+        state.setModifiedAt(ZonedDateTime.now());
+        scrubStateEntityRepository.save(state);
+    }
+
+    private void registerCorrupt(ContentEntity content, long bucketId, ScrubStateEntity state, String reason) {
+        state.setCheckedCount(state.getCheckedCount() + 1);
+        state.setCorruptedCount(state.getCorruptedCount() + 1);
+        var corruptContent = CorruptContentEntity.builder()
+                .contentUid(content.getUid())
+                .bucketId(bucketId)
+                .reason(reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason)
+                .detectedAt(ZonedDateTime.now())
+                .build();
+        corruptContentEntityRepository.save(corruptContent);
+    }
+
+    /**
+     * Size and CRC32C checksum of stream content
+     *
+     * @param size   content size in bytes
+     * @param crc32c content checksum
+     */
+    private record StreamChecksum(long size, long crc32c) {
+
+        private static StreamChecksum of(InputStream in) throws IOException, InterruptedException {
+            var checksum = new CRC32C();
+            var buffer = new byte[BUFFER_SIZE];
+            var size = 0L;
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                checksum.update(buffer, 0, read);
+                size += read;
+            }
+            return new StreamChecksum(size, checksum.getValue());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter of identifiers.
+ * <p>
+ * Each identifier increments {@code hashes} of 4-bit counters, so identifiers may be removed.
+ * Counter, reached maximum value, is not changed anymore: removal of identifiers, counted by it, can't be tracked.
+ * Counters are packed by 16 into {@code long} words and changed atomically, so filter is thread-safe.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class CountingBloomFilter {
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+    private static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashes;
+
+    /**
+     * Construct filter
+     *
+     * @param counters amount of counters
+     * @param hashes   amount of counters per identifier
+     */
+    CountingBloomFilter(long counters, int hashes) {
+        var wordCount = Math.max(1, Math.min(Integer.MAX_VALUE, (counters + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD));
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counters = wordCount * COUNTERS_PER_WORD;
+        this.hashes = Math.max(1, Math.min(MAX_HASHES, hashes));
+    }
+
+    /**
+     * Construct filter, sized for expected amount of identifiers and false positive rate.
+     * If optimal size exceeds memory limit filter is limited by it and false positive rate grows.
+     *
+     * @param expected          expected amount of identifiers
+     * @param falsePositiveRate target false positive rate
+     * @param maxBytes          maximum filter memory in bytes
+     * @return filter
+     */
+    @Nonnull
+    static CountingBloomFilter create(long expected, double falsePositiveRate, long maxBytes) {
+        var n = (double) Math.max(1, expected);
+        var p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        var optimalCounters = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        var maxCounters = Math.max(COUNTERS_PER_WORD, maxBytes * Byte.SIZE / COUNTER_BITS);
+        var counters = Math.min(optimalCounters, maxCounters);
+        var hashes = (int) Math.round(counters / n * Math.log(2));
+        return new CountingBloomFilter(counters, hashes);
+    }
+
+    /**
+     * Add identifier
+     *
+     * @param uid identifier
+     */
+    void add(@Nonnull UUID uid) {
+        var hash = hash(uid);
+        var step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            change(index(hash, step, i), 1);
+        }
+    }
+
+    /**
+     * Remove identifier. Should be called only for added identifier.
+     *
+     * @param uid identifier
+     */
+    void remove(@Nonnull UUID uid) {
+        var hash = hash(uid);
+        var step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            change(index(hash, step, i), -1);
+        }
+    }
+
+    /**
+     * Check if identifier may be added
+     *
+     * @param uid identifier
+     * @return false if identifier is definitely not added
+     */
+    boolean mightContain(@Nonnull UUID uid) {
+        var hash = hash(uid);
+        var step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            if (count(index(hash, step, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Filter memory in bytes
+     *
+     * @return filter memory
+     */
+    long memory() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Amount of counters per identifier
+     *
+     * @return amount of counters
+     */
+    int hashes() {
+        return hashes;
+    }
+
+    private long count(long index) {
+        var word = words.get((int) (index / COUNTERS_PER_WORD));
+        var shift = (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        return (word >>> shift) & MAX_COUNT;
+    }
+
+    private void change(long index, int delta) {
+        var wordIndex = (int) (index / COUNTERS_PER_WORD);
+        var shift = (int) (index % COUNTERS_PER_WORD) * COUNTER_BITS;
+        while (true) {
+            var word = words.get(wordIndex);
+            var count = (word >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT || (delta < 0 && count == 0)) {
+                return;
+            }
+            var changed = (word & ~(MAX_COUNT << shift)) | ((count + delta) << shift);
+            if (words.compareAndSet(wordIndex, word, changed)) {
+                return;
+            }
+        }
+    }
+
+    private long index(long hash, long step, int i) {
+        return Math.floorMod(hash + i * step, counters);
+    }
+
+    private static long hash(UUID uid) {
+        return mix(uid.getMostSignificantBits() ^ mix(uid.getLeastSignificantBits()));
+    }
+
+    private static long step(long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
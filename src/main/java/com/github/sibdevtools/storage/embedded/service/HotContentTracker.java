@@ -0,0 +1,183 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracking of recently read contents, replayed by startup warm-up.
+ * <p>
+ * The most recently read contents are kept in memory, the least recently read are dropped when maximum amount
+ * is exceeded. List is persisted into storage folder periodically and on shutdown,
+ * the most recently read contents first.
+ * <p>
+ * Reads are recorded into read buffer without a lock and are applied to the list in batches.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class HotContentTracker {
+    private static final String HOT_CONTENTS_FILE = "hot-contents";
+    private static final String HOT_CONTENTS_TMP_FILE = HOT_CONTENTS_FILE + ".tmp";
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    private final StorageServiceEmbeddedProperties properties;
+    private final ReadBuffer<UUID> reads = new ReadBuffer<>(READ_BUFFER_SIZE);
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Recently read contents, guarded by lock
+     */
+    private final LinkedHashMap<UUID, Boolean> contents;
+    private boolean changed;
+
+    /**
+     * Construct hot content tracker
+     *
+     * @param properties embedded storage service properties
+     */
+    @Autowired
+    public HotContentTracker(StorageServiceEmbeddedProperties properties) {
+        this.properties = properties;
+        this.contents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > Math.max(0, properties.getWarmUp().getMaxContents());
+            }
+        };
+    }
+
+    /**
+     * Record content read
+     *
+     * @param uid content identifier
+     */
+    public void onRead(@Nonnull UUID uid) {
+        if (!properties.getWarmUp().isEnabled()) {
+            return;
+        }
+        if (reads.record(uid) && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Forget removed content
+     *
+     * @param uid content identifier
+     */
+    public void onDeleted(@Nonnull UUID uid) {
+        lock.lock();
+        try {
+            drain();
+            if (contents.remove(uid) != null) {
+                changed = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Load persisted recently read contents
+     *
+     * @return content identifiers, the most recently read first, empty if nothing was persisted
+     */
+    @Nonnull
+    public List<UUID> load() {
+        var path = Path.of(properties.getFolder(), HOT_CONTENTS_FILE);
+        if (Files.notExists(path)) {
+            return List.of();
+        }
+        try {
+            var uids = new ArrayList<UUID>();
+            for (var line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                ContentIds.parse(line.strip())
+                        .ifPresent(uids::add);
+            }
+            lock.lock();
+            try {
+                drain();
+                for (int i = uids.size() - 1; i >= 0; i--) {
+                    contents.putIfAbsent(uids.get(i), Boolean.TRUE);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return uids;
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't read hot contents", e);
+        }
+    }
+
+    /**
+     * Persist recently read contents, if changed since last persist
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${service.storage.embedded.warm-up.persist-interval}")
+    public void persist() {
+        if (!properties.getWarmUp().isEnabled()) {
+            return;
+        }
+        List<UUID> uids;
+        lock.lock();
+        try {
+            drain();
+            if (!changed) {
+                return;
+            }
+            changed = false;
+            uids = new ArrayList<>(contents.keySet());
+        } finally {
+            lock.unlock();
+        }
+        Collections.reverse(uids);
+        var lines = uids.stream()
+                .map(UUID::toString)
+                .toList();
+        try {
+            var folder = Files.createDirectories(Path.of(properties.getFolder()));
+            var tmpPath = folder.resolve(HOT_CONTENTS_TMP_FILE);
+            Files.write(tmpPath, lines, StandardCharsets.UTF_8);
+            Files.move(tmpPath, folder.resolve(HOT_CONTENTS_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                changed = true;
+            } finally {
+                lock.unlock();
+            }
+            throw new UnexpectedErrorException("Can't persist hot contents", e);
+        }
+    }
+
+    private void drain() {
+        if (reads.drain(uid -> contents.put(uid, Boolean.TRUE))) {
+            changed = true;
+        }
+    }
+}
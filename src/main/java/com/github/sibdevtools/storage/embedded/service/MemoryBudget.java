@@ -0,0 +1,234 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.MemoryBudgetStats;
+import com.github.sibdevtools.storage.embedded.exception.MemoryBudgetExceededException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global budget of content data, materialized in memory by concurrent requests.
+ * <p>
+ * Request reserves size of content data it is going to materialize and releases it when done. Requests, not fitting
+ * into the budget, wait in arrival order, so large requests are not starved by small ones, and are rejected if they
+ * would wait longer than maximum wait time. Request larger than the whole budget takes the whole budget.
+ * Reservation can grow while data is materialized, if its size is not known beforehand.
+ * <p>
+ * Large saved contents are encoded through spill files in storage folder instead of memory.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class MemoryBudget {
+    private static final String SPILL_FOLDER = "spill";
+
+    private final StorageServiceEmbeddedProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final ArrayDeque<Object> waiters = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private long used;
+
+    /**
+     * Construct memory budget
+     *
+     * @param properties embedded storage service properties
+     */
+    @Autowired
+    public MemoryBudget(StorageServiceEmbeddedProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Reserve budget, waiting for it if budget is exhausted. Returned reservation should be closed when data is released.
+     *
+     * @param bytes size of content data in bytes
+     * @return budget reservation
+     * @throws MemoryBudgetExceededException if request would wait for budget longer than maximum wait time
+     */
+    @Nonnull
+    public Reservation reserve(long bytes) {
+        if (properties.getMemory().getMaxInFlight().toBytes() <= 0) {
+            return Reservation.NONE;
+        }
+        var reservation = new Reservation(this, 0);
+        reservation.grow(bytes);
+        return reservation;
+    }
+
+    /**
+     * Get maximum size of encoded content after decoding on save
+     *
+     * @return maximum decoded size in bytes, {@link Long#MAX_VALUE} if not limited
+     */
+    public long getMaxDecodedSize() {
+        var maxDecodedSize = properties.getMemory().getMaxDecodedSize();
+        if (maxDecodedSize == null || maxDecodedSize.toBytes() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return maxDecodedSize.toBytes();
+    }
+
+    /**
+     * Take additional budget, reservation never exceeds the whole budget
+     *
+     * @param reserved already reserved amount
+     * @param bytes    additional size of content data in bytes
+     * @return taken amount
+     */
+    private long acquire(long reserved, long bytes) {
+        var memoryProperties = properties.getMemory();
+        var limit = memoryProperties.getMaxInFlight().toBytes();
+        var amount = Math.min(bytes, limit - reserved);
+        if (amount <= 0) {
+            return 0;
+        }
+        var deadline = System.nanoTime() + memoryProperties.getMaxWait().toNanos();
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && used + amount <= limit) {
+                used += amount;
+                return amount;
+            }
+            var waiter = new Object();
+            waiters.addLast(waiter);
+            try {
+                while (waiters.peekFirst() != waiter || used + amount > limit) {
+                    var remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        throw new MemoryBudgetExceededException("In-flight memory budget exceeded");
+                    }
+                    released.awaitNanos(remaining);
+                }
+                used += amount;
+                return amount;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UnexpectedErrorException("Interrupted while waiting for memory budget", e);
+            } finally {
+                waiters.remove(waiter);
+                // the next waiter may fit now
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check if content should be encoded through spill file instead of memory
+     *
+     * @param bytes size of content data in bytes
+     * @return {@code true} if content should be spilled
+     */
+    public boolean shouldSpill(long bytes) {
+        var spillThreshold = properties.getMemory().getSpillThreshold().toBytes();
+        return spillThreshold > 0 && bytes >= spillThreshold;
+    }
+
+    /**
+     * Create empty spill file in storage folder
+     *
+     * @return spill file
+     */
+    SpillFile spill() {
+        try {
+            var folder = Files.createDirectories(Path.of(properties.getFolder(), SPILL_FOLDER));
+            var path = Files.createFile(folder.resolve("%s.spill".formatted(UUID.randomUUID())));
+            spilled.increment();
+            return new SpillFile(path);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't create spill file", e);
+        }
+    }
+
+    /**
+     * Get current budget usage
+     *
+     * @return budget statistics
+     */
+    @Nonnull
+    public MemoryBudgetStats getStats() {
+        var limit = properties.getMemory().getMaxInFlight().toBytes();
+        lock.lock();
+        try {
+            return MemoryBudgetStats.builder()
+                    .limit(Math.max(0, limit))
+                    .used(used)
+                    .waiting(waiters.size())
+                    .rejected(rejected.sum())
+                    .spilled(spilled.sum())
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long amount) {
+        lock.lock();
+        try {
+            used -= amount;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Memory budget reservation
+     */
+    public static final class Reservation implements AutoCloseable {
+        /**
+         * Reservation, not taking budget
+         */
+        public static final Reservation NONE = new Reservation(null, 0);
+
+        private final MemoryBudget budget;
+        private long amount;
+
+        private Reservation(MemoryBudget budget, long amount) {
+            this.budget = budget;
+            this.amount = amount;
+        }
+
+        /**
+         * Grow reservation, waiting for budget if it is exhausted
+         *
+         * @param bytes additional size of content data in bytes
+         * @throws MemoryBudgetExceededException if request would wait for budget longer than maximum wait time
+         */
+        public void grow(long bytes) {
+            if (budget != null && bytes > 0) {
+                amount += budget.acquire(amount, bytes);
+            }
+        }
+
+        /**
+         * Release reserved budget
+         */
+        @Override
+        public void close() {
+            if (amount > 0) {
+                var released = amount;
+                amount = 0;
+                budget.release(released);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free buffer of recorded reads.
+ * <p>
+ * Reads are recorded without taking a lock and are applied to lock guarded access order in batches,
+ * by the thread holding the lock. Reads, recorded while buffer is full, are dropped, so recording never blocks.
+ *
+ * @param <K> key type
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class ReadBuffer<K> {
+    private final Queue<K> reads = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final int drainThreshold;
+
+    /**
+     * Construct read buffer
+     *
+     * @param capacity maximum amount of buffered reads
+     */
+    ReadBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.drainThreshold = Math.max(1, this.capacity / 2);
+    }
+
+    /**
+     * Record read
+     *
+     * @param key read key
+     * @return {@code true} if buffer should be drained
+     */
+    boolean record(@Nonnull K key) {
+        if (size.get() >= capacity) {
+            return true;
+        }
+        reads.offer(key);
+        return size.incrementAndGet() >= drainThreshold;
+    }
+
+    /**
+     * Apply buffered reads in record order. Should be called under lock, guarding access order.
+     *
+     * @param action read consumer
+     * @return {@code true} if any read was applied
+     */
+    boolean drain(@Nonnull Consumer<K> action) {
+        var drained = false;
+        K key;
+        while ((key = reads.poll()) != null) {
+            size.decrementAndGet();
+            action.accept(key);
+            drained = true;
+        }
+        return drained;
+    }
+}
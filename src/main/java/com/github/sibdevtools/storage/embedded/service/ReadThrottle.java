@@ -0,0 +1,41 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read rate limiting of background jobs
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class ReadThrottle {
+
+    private ReadThrottle() {
+    }
+
+    /**
+     * Pause current thread to keep read rate under limit
+     *
+     * @param startedAt batch start in nanoseconds
+     * @param readBytes amount of read bytes from batch start
+     * @param readRate  maximum read rate in bytes per second
+     * @return false if current thread is interrupted
+     */
+    static boolean throttle(long startedAt, long readBytes, long readRate) {
+        if (readRate <= 0) {
+            return true;
+        }
+        var expectedNanos = (long) (readBytes * (double) TimeUnit.SECONDS.toNanos(1) / readRate);
+        var sleepNanos = expectedNanos - (System.nanoTime() - startedAt);
+        if (sleepNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalescing of concurrent loads by key.
+ * <p>
+ * The first caller of key becomes the leader and runs loader, callers coming while load is in flight
+ * wait for leader's result or error instead of running own load. Key is released once load is completed,
+ * so results are not cached: the next caller runs a new load.
+ * <p>
+ * Joined callers get a copy of leader's result, made by share function, so mutable results are not shared
+ * between callers.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> share;
+
+    /**
+     * Construct single flight of immutable results, shared between callers as is
+     */
+    SingleFlight() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * Construct single flight
+     *
+     * @param share function, copying leader's result for each joined caller
+     */
+    SingleFlight(@Nonnull UnaryOperator<V> share) {
+        this.share = share;
+    }
+
+    /**
+     * Load value of key or join load, already in flight
+     *
+     * @param key    load key
+     * @param loader value loader, called only by leader
+     * @return loaded value, joined callers get a copy of leader's value
+     */
+    V execute(@Nonnull K key, @Nonnull Supplier<V> loader) {
+        var flight = new CompletableFuture<V>();
+        var existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return share.apply(await(existing));
+        }
+        try {
+            var value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Amount of loads in flight
+     *
+     * @return loads in flight
+     */
+    int size() {
+        return inFlight.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return flight.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    var cause = e.getCause();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new CompletionException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
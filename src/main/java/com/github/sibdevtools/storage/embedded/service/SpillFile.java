@@ -0,0 +1,83 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Temporary file, holding content data instead of memory. File is removed on close.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class SpillFile implements AutoCloseable {
+    private final Path path;
+
+    /**
+     * Construct spill file
+     *
+     * @param path file path
+     */
+    SpillFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Open stream, writing into file from the start
+     *
+     * @return file output stream
+     * @throws IOException on open error
+     */
+    OutputStream output() throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(path));
+    }
+
+    /**
+     * Get size of written data
+     *
+     * @return data size in bytes
+     */
+    long size() {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't read spill file size", e);
+        }
+    }
+
+    /**
+     * Read written data into memory
+     *
+     * @return written data
+     */
+    byte[] read() {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't read spill file", e);
+        }
+    }
+
+    /**
+     * Copy written data into stream
+     *
+     * @param out target stream
+     * @throws IOException on read or write error
+     */
+    void copyTo(OutputStream out) throws IOException {
+        Files.copy(path, out);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't delete spill file", e);
+        }
+    }
+}
@@ -8,23 +8,47 @@ import com.github.sibdevtools.storage.api.service.StorageBucketService;
 import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
 import com.github.sibdevtools.storage.embedded.dto.BucketFileMetadataImpl;
 import com.github.sibdevtools.storage.embedded.dto.BucketImpl;
+import com.github.sibdevtools.storage.embedded.dto.ContentKey;
+import com.github.sibdevtools.storage.embedded.dto.ContentListing;
+import com.github.sibdevtools.storage.embedded.dto.ContentPage;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ContentView;
 import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
 import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
-import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
 import com.github.sibdevtools.storage.embedded.exception.BucketNotEmptyException;
 import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidQueryException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidQuotaException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidStoragePolicyException;
 import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
 import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
-import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionEntityRepository;
+import com.github.sibdevtools.storage.embedded.rq.ListContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SearchContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketQuotaRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketStoragePolicyRq;
+import com.github.sibdevtools.storage.embedded.rs.GetBucketStatsRs;
+import com.github.sibdevtools.storage.embedded.rs.ListContentRs;
+import com.github.sibdevtools.storage.embedded.rs.SearchContentRs;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
 import jakarta.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -34,24 +58,61 @@ import java.util.stream.Collectors;
 @Service
 @ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
 public class StorageBucketServiceEmbedded implements StorageBucketService {
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final char CURSOR_SEPARATOR = '/';
+
     private final BucketEntityRepository bucketEntityRepository;
     private final ContentEntityRepository contentEntityRepository;
-    private final ContentMetaEntityRepository contentMetaEntityRepository;
+    private final ContentMetaService contentMetaService;
+    private final UploadSessionEntityRepository uploadSessionEntityRepository;
+    private final BucketRegistry bucketRegistry;
+    private final ContentReadRepository contentReadRepository;
+    private final BucketStatsService bucketStatsService;
+    private final BucketQuotaService bucketQuotaService;
+    private final ContentDictionaryService contentDictionaryService;
+    private final Map<ContentStorageFormat, StorageCodec> storageCodecs;
+    private final Map<String, StorageContainer> storageContainers;
 
     /**
      * Construct embedded storage bucket service
      *
-     * @param bucketEntityRepository      bucket entity repository
-     * @param contentEntityRepository     content entity repository
-     * @param contentMetaEntityRepository content meta entity repository
+     * @param bucketEntityRepository        bucket entity repository
+     * @param contentEntityRepository       content entity repository
+     * @param contentMetaService            content meta data service
+     * @param uploadSessionEntityRepository upload session entity repository
+     * @param bucketRegistry                bucket registry
+     * @param contentReadRepository         read-only content repository
+     * @param bucketStatsService            bucket statistics service
+     * @param bucketQuotaService            bucket quota service
+     * @param contentDictionaryService      content dictionary service
+     * @param storageCodecs                 storage codecs
+     * @param storageContainers             storage containers
      */
     @Autowired
     public StorageBucketServiceEmbedded(BucketEntityRepository bucketEntityRepository,
                                         ContentEntityRepository contentEntityRepository,
-                                        ContentMetaEntityRepository contentMetaEntityRepository) {
+                                        ContentMetaService contentMetaService,
+                                        UploadSessionEntityRepository uploadSessionEntityRepository,
+                                        BucketRegistry bucketRegistry,
+                                        ContentReadRepository contentReadRepository,
+                                        BucketStatsService bucketStatsService,
+                                        BucketQuotaService bucketQuotaService,
+                                        ContentDictionaryService contentDictionaryService,
+                                        @Qualifier("storageCodecsMap")
+                                        Map<ContentStorageFormat, StorageCodec> storageCodecs,
+                                        @Qualifier("storageContainerMap")
+                                        Map<String, StorageContainer> storageContainers) {
         this.bucketEntityRepository = bucketEntityRepository;
         this.contentEntityRepository = contentEntityRepository;
-        this.contentMetaEntityRepository = contentMetaEntityRepository;
+        this.contentMetaService = contentMetaService;
+        this.uploadSessionEntityRepository = uploadSessionEntityRepository;
+        this.bucketRegistry = bucketRegistry;
+        this.contentReadRepository = contentReadRepository;
+        this.bucketStatsService = bucketStatsService;
+        this.bucketQuotaService = bucketQuotaService;
+        this.contentDictionaryService = contentDictionaryService;
+        this.storageCodecs = storageCodecs;
+        this.storageContainers = storageContainers;
     }
 
     @Nonnull
@@ -61,6 +122,8 @@ public class StorageBucketServiceEmbedded implements StorageBucketService {
     )
     public StandardRs create(@Nonnull String bucket) {
         bucketEntityRepository.saveIfNotExists(bucket);
+        bucketStatsService.create(bucket);
+        bucketRegistry.invalidate(bucket);
         return new StandardRs();
     }
 
@@ -89,14 +152,10 @@ public class StorageBucketServiceEmbedded implements StorageBucketService {
     private BucketFileDescription buildBucketFileDescription(ContentEntity it) {
         var uid = it.getUid();
 
-        var meta = contentMetaEntityRepository.findAllByContentUid(uid)
-                .stream()
-                .collect(Collectors.toMap(ContentMetaEntity::getKey, ContentMetaEntity::getValue));
-
-        var bucketMeta = new BucketFileMetadataImpl(meta);
+        var bucketMeta = new BucketFileMetadataImpl(contentMetaService.get(it));
 
         return BucketFileDescriptionImpl.builder()
-                .id(uid)
+                .id(uid.toString())
                 .name(it.getName())
                 .meta(bucketMeta)
                 .createdAt(it.getCreatedAt())
@@ -104,6 +163,236 @@ public class StorageBucketServiceEmbedded implements StorageBucketService {
                 .build();
     }
 
+    /**
+     * Search bucket contents by meta data. Contents are returned in identifier order,
+     * pages are requested by continuation token from previous page.
+     *
+     * @param rq search request
+     * @return page of found contents
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public SearchContentRs search(@Nonnull SearchContentRq rq) {
+        var limit = rq.limit();
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new InvalidQueryException("Limit should be between 1 and %d".formatted(MAX_PAGE_LIMIT));
+        }
+        var predicates = rq.predicates();
+        if (predicates == null || predicates.isEmpty()) {
+            throw new InvalidQueryException("At least one predicate is required");
+        }
+        for (var predicate : predicates) {
+            if (predicate.key() == null || predicate.value() == null) {
+                throw new InvalidQueryException("Predicate key and value are required");
+            }
+            if (!contentMetaService.isSearchable(predicate.key())) {
+                throw new InvalidQueryException("Meta key is not indexed: %s".formatted(predicate.key()));
+            }
+        }
+        var continuationToken = rq.continuationToken();
+        UUID after = null;
+        if (continuationToken != null) {
+            after = ContentIds.parse(continuationToken)
+                    .orElseThrow(() -> new InvalidQueryException("Invalid continuation token"));
+        }
+        var bucket = bucketRegistry.findByCode(rq.bucket())
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+
+        var uids = contentReadRepository.searchByMeta(bucket.id(), predicates, after, limit + 1);
+        var hasMore = uids.size() > limit;
+        var pageUids = hasMore ? uids.subList(0, limit) : uids;
+
+        var contents = contentReadRepository.findDescriptionsByIds(pageUids)
+                .stream()
+                .<BucketFileDescription>map(ContentView::toDescription)
+                .toList();
+        var page = ContentPage.builder()
+                .contents(contents)
+                .continuationToken(hasMore ? pageUids.getLast().toString() : null)
+                .build();
+        return new SearchContentRs(page);
+    }
+
+    /**
+     * List bucket contents with name prefix in name order. If delimiter is passed, contents with delimiter
+     * in the name after prefix are grouped into common prefixes, each common prefix is skipped by single index seek.
+     * Pages are requested by continuation token from previous page.
+     *
+     * @param rq listing request
+     * @return page of contents and common prefixes
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public ListContentRs list(@Nonnull ListContentRq rq) {
+        var limit = rq.limit();
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new InvalidQueryException("Limit should be between 1 and %d".formatted(MAX_PAGE_LIMIT));
+        }
+        var prefix = rq.prefix() == null ? "" : rq.prefix();
+        var delimiter = rq.delimiter() == null ? "" : rq.delimiter();
+        var continuationToken = rq.continuationToken();
+        var cursor = continuationToken == null ? new ListingCursor(prefix, null) : ListingCursor.parse(continuationToken);
+
+        var bucket = bucketRegistry.findByCode(rq.bucket())
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+
+        var keys = new ArrayList<ContentKey>();
+        var commonPrefixes = new ArrayList<String>();
+        var truncated = false;
+        scan:
+        while (true) {
+            var batchSize = limit - keys.size() - commonPrefixes.size() + 1;
+            var batch = contentReadRepository.findKeysByName(
+                    bucket.id(),
+                    prefix,
+                    cursor.name(),
+                    cursor.afterUid(),
+                    batchSize
+            );
+            for (var key : batch) {
+                var commonPrefix = getCommonPrefix(prefix, delimiter, key.name());
+                if (commonPrefix != null && !commonPrefixes.isEmpty() && commonPrefix.equals(commonPrefixes.getLast())) {
+                    cursor = new ListingCursor(key.name(), key.uid());
+                    continue;
+                }
+                if (keys.size() + commonPrefixes.size() == limit) {
+                    truncated = true;
+                    break scan;
+                }
+                if (commonPrefix == null) {
+                    keys.add(key);
+                    cursor = new ListingCursor(key.name(), key.uid());
+                    continue;
+                }
+                commonPrefixes.add(commonPrefix);
+                cursor = ListingCursor.skip(commonPrefix);
+                continue scan;
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        var contents = getDescriptions(keys);
+        var listing = ContentListing.builder()
+                .contents(contents)
+                .commonPrefixes(commonPrefixes)
+                .continuationToken(truncated ? cursor.toToken() : null)
+                .build();
+        return new ListContentRs(listing);
+    }
+
+    private static String getCommonPrefix(String prefix, String delimiter, String name) {
+        if (delimiter.isEmpty()) {
+            return null;
+        }
+        var index = name.indexOf(delimiter, prefix.length());
+        if (index < 0) {
+            return null;
+        }
+        return name.substring(0, index + delimiter.length());
+    }
+
+    private List<BucketFileDescription> getDescriptions(List<ContentKey> keys) {
+        var uids = keys.stream()
+                .map(ContentKey::uid)
+                .toList();
+        Map<String, BucketFileDescription> descriptions = contentReadRepository.findDescriptionsByIds(uids)
+                .stream()
+                .collect(Collectors.toMap(ContentView::uid, ContentView::toDescription));
+        return keys.stream()
+                .map(it -> descriptions.get(it.uid().toString()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Position of listing scan
+     *
+     * @param name     name to continue from
+     * @param afterUid identifier of last listed content with {@code name}, {@code null} to include contents with name
+     */
+    private record ListingCursor(String name, UUID afterUid) {
+
+        /**
+         * Build cursor, positioned after all names with passed prefix.
+         * Names starting with prefix are less than prefix with incremented last char,
+         * other names are greater or equal to it.
+         *
+         * @param prefix common prefix
+         * @return cursor
+         */
+        static ListingCursor skip(String prefix) {
+            var last = prefix.charAt(prefix.length() - 1);
+            if (last == Character.MAX_VALUE) {
+                return new ListingCursor(prefix, null);
+            }
+            return new ListingCursor(prefix.substring(0, prefix.length() - 1) + (char) (last + 1), null);
+        }
+
+        static ListingCursor parse(String token) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidQueryException("Invalid continuation token");
+            }
+            var separator = decoded.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidQueryException("Invalid continuation token");
+            }
+            var name = decoded.substring(separator + 1);
+            if (separator == 0) {
+                return new ListingCursor(name, null);
+            }
+            var afterUid = ContentIds.parse(decoded.substring(0, separator))
+                    .orElseThrow(() -> new InvalidQueryException("Invalid continuation token"));
+            return new ListingCursor(name, afterUid);
+        }
+
+        String toToken() {
+            var value = (afterUid == null ? "" : afterUid.toString()) + CURSOR_SEPARATOR + name;
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Get bucket statistics: amount of contents, size of contents before encoding and size of stored contents.
+     * Statistics are maintained incrementally, bucket contents are not scanned.
+     *
+     * @param bucketCode bucket code
+     * @return bucket statistics
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetBucketStatsRs getStats(@Nonnull String bucketCode) {
+        var bucket = bucketRegistry.findByCode(bucketCode)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        return new GetBucketStatsRs(bucketStatsService.get(bucket.id()));
+    }
+
+    /**
+     * Recalculate bucket statistics from bucket contents. Used to fix statistics drift.
+     *
+     * @param bucketCode bucket code
+     * @return recalculated bucket statistics
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public GetBucketStatsRs rebuildStats(@Nonnull String bucketCode) {
+        var bucket = bucketRegistry.findByCode(bucketCode)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        return new GetBucketStatsRs(bucketStatsService.rebuild(bucket.id()));
+    }
+
     @Nonnull
     @Override
     @Transactional(
@@ -124,6 +413,78 @@ public class StorageBucketServiceEmbedded implements StorageBucketService {
         bucketEntity.setModifiedAt(ZonedDateTime.now());
 
         bucketEntityRepository.save(bucketEntity);
+        bucketRegistry.invalidate(bucket);
+        return new StandardRs();
+    }
+
+    /**
+     * Set bucket quota. Quota is checked on new contents only, already stored contents are kept.
+     *
+     * @param rq set bucket quota request
+     * @return standard response
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public StandardRs setQuota(@Nonnull SetBucketQuotaRq rq) {
+        var maxBytes = rq.maxBytes();
+        var maxObjects = rq.maxObjects();
+        if (maxBytes != null && maxBytes < 0 || maxObjects != null && maxObjects < 0) {
+            throw new InvalidQuotaException("Quota should not be negative");
+        }
+        var bucket = rq.bucket();
+        var bucketEntity = bucketEntityRepository.findByCode(bucket)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+
+        bucketEntity.setMaxBytes(maxBytes);
+        bucketEntity.setMaxObjects(maxObjects);
+        bucketEntity.setModifiedAt(ZonedDateTime.now());
+
+        bucketEntityRepository.save(bucketEntity);
+        bucketRegistry.invalidate(bucket);
+        bucketQuotaService.invalidate(bucketEntity.getId());
+        return new StandardRs();
+    }
+
+    /**
+     * Set bucket storage policy. Policy is applied to new contents only, already stored contents are kept as is.
+     *
+     * @param rq set bucket storage policy request
+     * @return standard response
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public StandardRs setStoragePolicy(@Nonnull SetBucketStoragePolicyRq rq) {
+        var storageFormat = rq.storageFormat();
+        if (storageFormat != null && !storageCodecs.containsKey(storageFormat)) {
+            throw new InvalidStoragePolicyException("Unsupported storage format: %s".formatted(storageFormat));
+        }
+        var storageContainer = rq.storageContainer();
+        if (storageContainer != null && !storageContainers.containsKey(storageContainer)) {
+            throw new InvalidStoragePolicyException("Unsupported storage container: %s".formatted(storageContainer));
+        }
+        var compressionLevel = rq.compressionLevel();
+        if (compressionLevel != null &&
+                (compressionLevel < StorageCodec.DEFAULT_LEVEL || compressionLevel > StorageCodec.MAX_LEVEL)) {
+            throw new InvalidStoragePolicyException("Compression level should be from %d to %d"
+                    .formatted(StorageCodec.DEFAULT_LEVEL, StorageCodec.MAX_LEVEL));
+        }
+        var bucket = rq.bucket();
+        var bucketEntity = bucketEntityRepository.findByCode(bucket)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+
+        bucketEntity.setStorageFormat(storageFormat);
+        bucketEntity.setStorageContainer(storageContainer);
+        bucketEntity.setCompressionLevel(compressionLevel);
+        bucketEntity.setModifiedAt(ZonedDateTime.now());
+
+        bucketEntityRepository.save(bucketEntity);
+        bucketRegistry.invalidate(bucket);
         return new StandardRs();
     }
 
@@ -140,12 +501,17 @@ public class StorageBucketServiceEmbedded implements StorageBucketService {
         }
 
         var bucketEntity = optionalBucketEntity.get();
-        var contents = contentEntityRepository.countAllByBucket(bucketEntity);
-        if (contents > 0) {
+        if (contentEntityRepository.existsByBucket(bucketEntity)) {
             throw new BucketNotEmptyException("Bucket not empty");
         }
+        if (uploadSessionEntityRepository.existsByBucket(bucketEntity)) {
+            throw new BucketNotEmptyException("Bucket has active uploads");
+        }
 
+        bucketStatsService.delete(bucketEntity.getId());
+        contentDictionaryService.delete(bucketEntity.getId());
         bucketEntityRepository.delete(bucketEntity);
+        bucketRegistry.invalidate(bucket);
         return new StandardRs();
     }
 }
@@ -9,100 +9,322 @@ import com.github.sibdevtools.storage.api.service.StorageService;
 import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
 import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
 import com.github.sibdevtools.storage.embedded.dto.BucketFileImpl;
-import com.github.sibdevtools.storage.embedded.dto.BucketFileMetadataImpl;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.ConditionalBucketFile;
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ContentView;
+import com.github.sibdevtools.storage.embedded.dto.EncodedBucketFile;
+import com.github.sibdevtools.storage.embedded.dto.StoragePolicy;
 import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
-import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
 import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
 import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.ContentAlreadyExistsException;
 import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidContentEncodingException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidRangeException;
 import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
 import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
 import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
-import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
+import com.github.sibdevtools.storage.embedded.rq.SaveEncodedFileRq;
+import com.github.sibdevtools.storage.embedded.rs.GetBucketFileIfNoneMatchRs;
+import com.github.sibdevtools.storage.embedded.rs.GetEncodedBucketFileRs;
 import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
 import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import com.github.sibdevtools.storage.embedded.service.storage.StoredBlob;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.ZonedDateTime;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
+ * Embedded storage service.
+ * <p>
+ * Storage container I/O permits are taken before write transactions start, so bucket, throttled by I/O scheduler,
+ * waits without holding database connection and row locks.
+ *
  * @author sibmaks
  * @since 0.0.1
  */
 @Service
 @ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
 public class StorageServiceEmbedded implements StorageService {
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+
     private final BucketEntityRepository bucketEntityRepository;
     private final ContentEntityRepository contentEntityRepository;
-    private final ContentMetaEntityRepository contentMetaEntityRepository;
+    private final ContentMetaService contentMetaService;
+    private final ContentReadRepository contentReadRepository;
+    private final BucketRegistry bucketRegistry;
+    private final BucketStatsService bucketStatsService;
+    private final BucketQuotaService bucketQuotaService;
+    private final ContentExistenceFilter contentExistenceFilter;
+    private final ContentCache contentCache;
+    private final HotContentTracker hotContentTracker;
+    private final BucketIoScheduler bucketIoScheduler;
+    private final MemoryBudget memoryBudget;
     private final Map<ContentStorageFormat, StorageCodec> storageCodecs;
     private final StorageServiceEmbeddedProperties properties;
     private final Map<String, StorageContainer> storageContainers;
+    private final TransactionTemplate writeTransaction;
+    /**
+     * Content loads in flight, concurrent reads of the same content share single load and decode
+     */
+    private final SingleFlight<UUID, LoadedContent> contentLoads = new SingleFlight<>(LoadedContent::copy);
 
     /**
      * Construct embedded storage service
      *
      * @param bucketEntityRepository      bucket entity repository
      * @param contentEntityRepository     content entity repository
-     * @param contentMetaEntityRepository content meta entity repository
+     * @param contentMetaService          content meta data service
+     * @param contentReadRepository       read-only content repository
+     * @param bucketRegistry              bucket registry
+     * @param bucketStatsService          bucket statistics service
+     * @param bucketQuotaService          bucket quota service
+     * @param contentExistenceFilter      content existence filter
+     * @param contentCache                content cache
+     * @param hotContentTracker           hot content tracker
+     * @param bucketIoScheduler           bucket I/O scheduler
+     * @param memoryBudget                in-flight content memory budget
      * @param storageCodecs               storage codecs
      * @param properties                  embedded storage service properties
+     * @param storageContainers           storage containers
+     * @param transactionManager          transaction manager
      */
     @Autowired
     public StorageServiceEmbedded(BucketEntityRepository bucketEntityRepository,
                                   ContentEntityRepository contentEntityRepository,
-                                  ContentMetaEntityRepository contentMetaEntityRepository,
+                                  ContentMetaService contentMetaService,
+                                  ContentReadRepository contentReadRepository,
+                                  BucketRegistry bucketRegistry,
+                                  BucketStatsService bucketStatsService,
+                                  BucketQuotaService bucketQuotaService,
+                                  ContentExistenceFilter contentExistenceFilter,
+                                  ContentCache contentCache,
+                                  HotContentTracker hotContentTracker,
+                                  BucketIoScheduler bucketIoScheduler,
+                                  MemoryBudget memoryBudget,
                                   @Qualifier("storageCodecsMap")
                                   Map<ContentStorageFormat, StorageCodec> storageCodecs,
                                   StorageServiceEmbeddedProperties properties,
                                   @Qualifier("storageContainerMap")
-                                  Map<String, StorageContainer> storageContainers) {
+                                  Map<String, StorageContainer> storageContainers,
+                                  PlatformTransactionManager transactionManager) {
         this.bucketEntityRepository = bucketEntityRepository;
         this.contentEntityRepository = contentEntityRepository;
-        this.contentMetaEntityRepository = contentMetaEntityRepository;
+        this.contentMetaService = contentMetaService;
+        this.contentReadRepository = contentReadRepository;
+        this.bucketRegistry = bucketRegistry;
+        this.bucketStatsService = bucketStatsService;
+        this.bucketQuotaService = bucketQuotaService;
+        this.contentExistenceFilter = contentExistenceFilter;
+        this.contentCache = contentCache;
+        this.hotContentTracker = hotContentTracker;
+        this.bucketIoScheduler = bucketIoScheduler;
+        this.memoryBudget = memoryBudget;
         this.storageCodecs = storageCodecs;
         this.properties = properties;
         this.storageContainers = storageContainers;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Override
     @Nonnull
+    @Transactional(readOnly = true)
     public GetBucketFileRs get(@Nonnull String id) {
-        var contentEntity = contentEntityRepository.findById(id)
+        var uid = parseId(id)
                 .orElseThrow(() -> new FileNotFoundException("Content not found"));
+        return loadFile(uid);
+    }
 
-        var storageFormat = contentEntity.getStorageFormat();
-        var storageCodec = storageCodecs.get(storageFormat);
-        if (storageCodec == null) {
-            throw new UnexpectedErrorException("Unsupported storage format: %s".formatted(storageFormat));
+    /**
+     * Get content if its entity tag is not matched to passed one.
+     * Entity tag is SHA-256 hash of source content, stored on save,
+     * so not modified content is answered without storage container access and decoding.
+     *
+     * @param id   content identifier
+     * @param etag entity tag of client's content copy, {@code null} to get content unconditionally
+     * @return content if modified or not modified marker
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetBucketFileIfNoneMatchRs getIfNoneMatch(@Nonnull String id, @Nullable String etag) {
+        var contentView = parseId(id)
+                .flatMap(contentReadRepository::findById)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+
+        var currentEtag = contentView.sha256();
+        if (currentEtag != null && currentEtag.equals(etag)) {
+            var notModified = ConditionalBucketFile.builder()
+                    .modified(false)
+                    .etag(currentEtag)
+                    .build();
+            return new GetBucketFileIfNoneMatchRs(notModified);
         }
-        var bucket = contentEntity.getBucket();
+        var file = loadFile(UUID.fromString(contentView.uid()));
+        var modified = ConditionalBucketFile.builder()
+                .modified(true)
+                .etag(currentEtag)
+                .file(file.getBody())
+                .build();
+        return new GetBucketFileIfNoneMatchRs(modified);
+    }
 
-        var storageContainerType = properties.getDefaultStorageContainer();
-        var storageContainer = storageContainers.get(storageContainerType);
-        var content = storageContainer.get(bucket.getId(), id);
-        var decodedContent = storageCodec.decode(content);
+    /**
+     * Get content by name. If bucket contains several contents with the same name the one with the greatest time-ordered identifier is returned.
+     *
+     * @param bucket bucket code
+     * @param name   content name
+     * @return content description and content data
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetBucketFileRs getByName(@Nonnull String bucket, @Nonnull String name) {
+        var bucketInfo = bucketRegistry.findByCode(bucket)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        var contentView = contentReadRepository.findByName(bucketInfo.id(), name)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+        return getFile(contentView);
+    }
 
-        var bucketMeta = getBucketFileMetadata(id);
+    private GetBucketFileRs getFile(ContentView contentView) {
+        return toFile(contentView.toDescription(), decode(contentView));
+    }
 
-        var description = BucketFileDescriptionImpl.builder()
-                .id(contentEntity.getUid())
-                .name(contentEntity.getName())
-                .meta(bucketMeta)
-                .createdAt(contentEntity.getCreatedAt())
-                .modifiedAt(contentEntity.getModifiedAt())
+    private static GetBucketFileRs toFile(BucketFileDescriptionImpl description, byte[] data) {
+        var bucketFile = BucketFileImpl.builder()
+                .description(description)
+                .data(data)
                 .build();
+        return new GetBucketFileRs(bucketFile);
+    }
+
+    /**
+     * Decode content within memory budget. Contents, saved before sizes were recorded, reserve stored content size
+     * and grow reservation while decoded content grows.
+     */
+    private byte[] decode(ContentView contentView) {
+        var storageCodec = getStorageCodec(contentView.storageFormat());
+        var originalSize = contentView.originalSize();
+        try (var reservation = memoryBudget.reserve(getEncodedSize(contentView) + sizeOf(originalSize))) {
+            var content = getContent(contentView);
+            if (content.format() != null && content.format() != contentView.storageFormat()) {
+                storageCodec = getStorageCodec(content.format());
+            }
+            if (originalSize != null) {
+                return storageCodec.decode(content.data());
+            }
+            try (var decoded = storageCodec.decodeStream(new ByteArrayInputStream(content.data()))) {
+                return readDecoded(decoded, reservation, 0, Long.MAX_VALUE);
+            } catch (IOException e) {
+                throw new UnexpectedErrorException("Can't decode content", e);
+            }
+        }
+    }
+
+    /**
+     * Read decoded content, growing memory reservation while content grows
+     *
+     * @param reserved already reserved size of decoded content
+     * @param maxSize  maximum size of decoded content
+     * @throws InvalidContentEncodingException if decoded content exceeds maximum size
+     */
+    private static byte[] readDecoded(InputStream decoded,
+                                      MemoryBudget.Reservation reservation,
+                                      long reserved,
+                                      long maxSize) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var buffer = new byte[DECODE_BUFFER_SIZE];
+        int read;
+        while ((read = decoded.read(buffer)) != -1) {
+            var size = (long) out.size() + read;
+            if (size > maxSize) {
+                throw new InvalidContentEncodingException("Decoded content exceeds maximum size");
+            }
+            if (size > reserved) {
+                // grow geometrically, as output buffer does
+                var extra = Math.max(size - reserved, out.size());
+                reservation.grow(extra);
+                reserved += extra;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Get encoded content size. Size of contents, saved before sizes were recorded, is taken from stored content.
+     */
+    private long getEncodedSize(ContentView contentView) {
+        var encodedSize = contentView.encodedSize();
+        if (encodedSize != null) {
+            return encodedSize;
+        }
+        var inlineData = contentView.inlineData();
+        if (inlineData != null) {
+            return inlineData.length;
+        }
+        try (var content = openContent(contentView)) {
+            return content.size();
+        }
+    }
+
+    /**
+     * Get content range. Only requested range is read from storage container if storage codec supports it.
+     *
+     * @param id     content identifier
+     * @param offset range start in source content
+     * @param length range maximum length
+     * @return content description and content range data
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetBucketFileRs get(@Nonnull String id, long offset, int length) {
+        if (offset < 0 || length < 0) {
+            throw new InvalidRangeException("Range offset and length should not be negative");
+        }
+        var contentView = parseId(id)
+                .flatMap(contentReadRepository::findById)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+
+        var storageCodec = getStorageCodec(contentView.storageFormat());
+        var originalSize = contentView.originalSize();
+        var rangeSize = originalSize == null ? length : Math.min(length, Math.max(0, originalSize - offset));
+        byte[] decodedContent;
+        try (var ignored = memoryBudget.reserve(rangeSize);
+             var permit = acquireIo(contentView);
+             var content = openContent(contentView)) {
+            if (content.getFormat() != null && content.getFormat() != contentView.storageFormat()) {
+                storageCodec = getStorageCodec(content.getFormat());
+            }
+            decodedContent = storageCodec.decode(content, offset, length);
+            permit.charge(decodedContent.length);
+        }
+
+        var description = contentView.toDescription();
 
         var bucketFile = BucketFileImpl.builder()
                 .description(description)
@@ -111,109 +333,438 @@ public class StorageServiceEmbedded implements StorageService {
         return new GetBucketFileRs(bucketFile);
     }
 
-    private BucketFileMetadataImpl getBucketFileMetadata(String id) {
-        var meta = contentMetaEntityRepository.findAllByContentUid(id)
-                .stream()
-                .collect(Collectors.toMap(ContentMetaEntity::getKey, ContentMetaEntity::getValue));
+    /**
+     * Get stored content. Format, recorded with stored content, takes precedence over content row one,
+     * because stored content is replaced before row on re-encoding.
+     */
+    private StoredBlob getContent(ContentView contentView) {
+        var inlineData = contentView.inlineData();
+        if (inlineData != null) {
+            return new StoredBlob(contentView.storageFormat(), inlineData);
+        }
+        var storageContainer = getStorageContainer(contentView.storageContainer());
+        try (var permit = bucketIoScheduler.acquire(contentView.bucketId(), 0)) {
+            var blob = storageContainer.getBlob(contentView.bucketId(), contentView.uid());
+            permit.charge(blob.data().length);
+            return blob;
+        }
+    }
 
-        return new BucketFileMetadataImpl(meta);
+    /**
+     * Acquire storage container I/O permit, inline contents are read without storage container
+     */
+    private BucketIoScheduler.Permit acquireIo(ContentView contentView) {
+        if (contentView.inlineData() != null) {
+            return BucketIoScheduler.Permit.NONE;
+        }
+        return bucketIoScheduler.acquire(contentView.bucketId(), 0);
+    }
+
+    private RandomAccessContent openContent(ContentView contentView) {
+        var inlineData = contentView.inlineData();
+        if (inlineData != null) {
+            return new ByteArrayRandomAccessContent(inlineData, contentView.storageFormat());
+        }
+        var storageContainer = getStorageContainer(contentView.storageContainer());
+        return storageContainer.open(contentView.bucketId(), contentView.uid());
     }
 
     @Nonnull
     @Override
+    @Transactional(readOnly = true)
     public GetBucketFileDescriptionRs getDescription(@Nonnull String id) {
-        var contentEntity = contentEntityRepository.findById(id)
+        var uid = parseId(id);
+        var cached = uid.flatMap(contentCache::getDescription);
+        if (cached.isPresent()) {
+            return new GetBucketFileDescriptionRs(cached.get());
+        }
+        var contentView = uid
+                .flatMap(contentReadRepository::findDescriptionById)
                 .orElseThrow(() -> new FileNotFoundException("Content not found"));
 
-        var bucketMeta = getBucketFileMetadata(id);
+        var bucketFileDescription = contentView.toDescription();
+        return new GetBucketFileDescriptionRs(bucketFileDescription);
+    }
 
-        var bucketFileDescription = BucketFileDescriptionImpl.builder()
-                .id(contentEntity.getUid())
-                .name(contentEntity.getName())
-                .meta(bucketMeta)
-                .createdAt(contentEntity.getCreatedAt())
-                .modifiedAt(contentEntity.getModifiedAt())
-                .build();
+    /**
+     * Get content description by name. If bucket contains several contents with the same name
+     * the one with the greatest time-ordered identifier is returned.
+     *
+     * @param bucket bucket code
+     * @param name   content name
+     * @return content description
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetBucketFileDescriptionRs getDescriptionByName(@Nonnull String bucket, @Nonnull String name) {
+        var bucketInfo = bucketRegistry.findByCode(bucket)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        var contentView = contentReadRepository.findDescriptionByName(bucketInfo.id(), name)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+
+        var bucketFileDescription = contentView.toDescription();
         return new GetBucketFileDescriptionRs(bucketFileDescription);
     }
 
 
     @Nonnull
     @Override
-    @Transactional(
-            isolation = Isolation.READ_COMMITTED,
-            propagation = Propagation.REQUIRES_NEW
-    )
     public StandardRs delete(@Nonnull String id) {
-        var contentEntity = contentEntityRepository.findById(id)
+        var contentEntity = parseId(id)
+                .flatMap(contentEntityRepository::findById)
                 .orElse(null);
         if (contentEntity == null) {
             return new StandardRs();
         }
-        var bucket = contentEntity.getBucket();
-        if (bucket.isReadonly()) {
+        var bucketId = contentEntity.getBucket().getId();
+        var bucket = bucketRegistry.findById(bucketId)
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        if (bucket.readonly()) {
             throw new BucketReadonlyException("Bucket is readonly");
         }
-        contentMetaEntityRepository.deleteAllByContentUid(id);
+        var uid = contentEntity.getUid();
+        try (var ignored = contentEntity.getInlineData() == null ?
+                bucketIoScheduler.acquire(bucketId, 0) : BucketIoScheduler.Permit.NONE) {
+            writeTransaction.executeWithoutResult(status -> delete(uid));
+        }
+        return new StandardRs();
+    }
+
+    /**
+     * Delete content with its stored data, I/O permit is taken by caller
+     */
+    private void delete(UUID uid) {
+        var contentEntity = contentEntityRepository.findById(uid)
+                .orElse(null);
+        if (contentEntity == null) {
+            return;
+        }
+        var bucketId = contentEntity.getBucket().getId();
+        contentMetaService.delete(uid);
         contentEntityRepository.delete(contentEntity);
+        contentExistenceFilter.onDeleted(uid);
+        contentCache.evict(uid);
+        hotContentTracker.onDeleted(uid);
+        bucketStatsService.onDeleted(contentEntity);
+        var encodedSize = contentEntity.getEncodedSize();
+        bucketQuotaService.onDeleted(bucketId, encodedSize == null ? 0 : encodedSize);
 
-        var storageContainerType = properties.getDefaultStorageContainer();
-        var storageContainer = storageContainers.get(storageContainerType);
-        storageContainer.delete(bucket.getId(), id);
+        if (contentEntity.getInlineData() != null) {
+            return;
+        }
 
-        return new StandardRs();
+        var storageContainer = getStorageContainer(contentEntity.getStorageContainer());
+        storageContainer.delete(bucketId, uid.toString());
     }
 
     @Override
-    @Transactional(
-            isolation = Isolation.READ_COMMITTED,
-            propagation = Propagation.REQUIRES_NEW
-    )
     @Nonnull
     public SaveFileRs save(@Nonnull SaveFileRq rq) {
-        var bucket = rq.bucket();
+        var bucketInfo = getWritableBucket(rq.bucket(), rq.name());
+        var storagePolicy = bucketInfo.storagePolicy()
+                .resolve(properties.getStorageFormat(), properties.getDefaultStorageContainer());
+
+        var data = rq.data();
+        var digest = ContentDigest.of(data);
+        try (var ignored = memoryBudget.reserve(data.length)) {
+            return encodeAndSave(bucketInfo, storagePolicy, rq.name(), rq.meta(), digest, data);
+        }
+    }
+
+    /**
+     * Save already encoded content. Content is stored as is if its encoding matches bucket storage format,
+     * otherwise it is encoded into bucket storage format. Content is decoded once to verify it and to calculate
+     * its size and checksums. Decoded content is limited by maximum decoded size and is materialized within
+     * memory budget.
+     *
+     * @param rq save encoded content request
+     * @return saved content identifier
+     * @throws InvalidContentEncodingException if encoding is not supported or content does not match it
+     * @since 0.2.0
+     */
+    @Nonnull
+    public SaveFileRs saveEncoded(@Nonnull SaveEncodedFileRq rq) {
+        var bucketInfo = getWritableBucket(rq.bucket(), rq.name());
+        var storagePolicy = bucketInfo.storagePolicy()
+                .resolve(properties.getStorageFormat(), properties.getDefaultStorageContainer());
 
-        var bucketEntity = bucketEntityRepository.findByCode(bucket)
+        var encoding = rq.encoding();
+        var encodingCodec = encoding == null ? null : storageCodecs.get(encoding);
+        if (encodingCodec == null) {
+            throw new InvalidContentEncodingException("Unsupported content encoding: %s".formatted(encoding));
+        }
+        var encoded = rq.data();
+        // encoded content size is the first estimate of decoded one
+        try (var reservation = memoryBudget.reserve(encoded.length)) {
+            byte[] data;
+            try (var decoded = encodingCodec.decodeStream(new ByteArrayInputStream(encoded))) {
+                data = readDecoded(decoded, reservation, encoded.length, memoryBudget.getMaxDecodedSize());
+            } catch (InvalidContentEncodingException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                throw new InvalidContentEncodingException("Content does not match declared encoding: %s".formatted(encoding));
+            }
+            var digest = ContentDigest.of(data);
+
+            if (encoding == storagePolicy.storageFormat()) {
+                return save(bucketInfo, storagePolicy, rq.name(), rq.meta(), digest, encoded);
+            }
+            reservation.grow(data.length);
+            return encodeAndSave(bucketInfo, storagePolicy, rq.name(), rq.meta(), digest, data);
+        }
+    }
+
+    /**
+     * Get content in stored encoded form with its storage format, without decoding.
+     * Allows serving content encoded with a format, understood by client, e.g. gzip, without re-encoding.
+     *
+     * @param id content identifier
+     * @return content description, storage format and encoded content data
+     * @since 0.2.0
+     */
+    @Nonnull
+    @Transactional(readOnly = true)
+    public GetEncodedBucketFileRs getEncoded(@Nonnull String id) {
+        var contentView = parseId(id)
+                .flatMap(contentReadRepository::findById)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+        StoredBlob content;
+        try (var ignored = memoryBudget.reserve(getEncodedSize(contentView))) {
+            content = getContent(contentView);
+        }
+        var encodedFile = EncodedBucketFile.builder()
+                .description(contentView.toDescription())
+                .storageFormat(content.format() == null ? contentView.storageFormat() : content.format())
+                .data(content.data())
+                .build();
+        return new GetEncodedBucketFileRs(encodedFile);
+    }
+
+    /**
+     * Get content from cache or load it. Concurrent loads of the same content are coalesced,
+     * loaded content is cached.
+     */
+    private GetBucketFileRs loadFile(UUID uid) {
+        var file = contentCache.get(uid)
+                .orElseGet(() -> {
+                    var loaded = contentLoads.execute(uid, () -> {
+                        var mark = contentCache.mark();
+                        var contentView = contentReadRepository.findById(uid)
+                                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+                        var content = new LoadedContent(contentView.toDescription(), decode(contentView));
+                        contentCache.put(uid, content.description(), content.data(), mark);
+                        return content;
+                    });
+                    return toFile(loaded.description(), loaded.data());
+                });
+        hotContentTracker.onRead(uid);
+        return file;
+    }
+
+    /**
+     * Read content data, bypassing content cache and hot content tracking,
+     * so background reads do not evict or warm up contents, read by clients.
+     *
+     * @param uid content identifier
+     * @return decoded content data
+     */
+    @Nonnull
+    byte[] getData(@Nonnull UUID uid) {
+        var contentView = contentReadRepository.findById(uid)
+                .orElseThrow(() -> new FileNotFoundException("Content not found"));
+        return getFile(contentView).getBody().getData();
+    }
+
+    /**
+     * Parse content identifier, identifiers of definitely not existing contents are not returned
+     */
+    private Optional<UUID> parseId(String id) {
+        return ContentIds.parse(id)
+                .filter(uid -> !contentExistenceFilter.isMissing(uid));
+    }
+
+    private BucketInfo getWritableBucket(String bucket, String name) {
+        var bucketInfo = bucketRegistry.findByCode(bucket)
                 .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
 
-        if (bucketEntity.isReadonly()) {
+        if (bucketInfo.readonly()) {
             throw new BucketReadonlyException("Bucket is readonly");
         }
-        var storageFormat = properties.getStorageFormat();
-        var storageCodec = storageCodecs.get(storageFormat);
-        if (storageCodec == null) {
-            throw new UnexpectedErrorException("Unsupported storage format: %s".formatted(storageFormat));
+        if (properties.isUniqueNames() && contentEntityRepository.existsByBucketIdAndName(bucketInfo.id(), name)) {
+            throw new ContentAlreadyExistsException("Content with the same name already exists");
         }
+        return bucketInfo;
+    }
+
+    /**
+     * Encode content into bucket storage format and save it. Large contents are encoded through spill file,
+     * others are encoded in memory. Caller reserves memory budget for content size in both cases.
+     */
+    private SaveFileRs encodeAndSave(BucketInfo bucketInfo,
+                                     StoragePolicy storagePolicy,
+                                     String name,
+                                     Map<String, String> meta,
+                                     ContentDigest digest,
+                                     byte[] data) {
+        var storageCodec = getStorageCodec(storagePolicy.storageFormat());
+        if (memoryBudget.shouldSpill(data.length)) {
+            try (var spill = encodeSpilled(bucketInfo, storagePolicy, storageCodec, data)) {
+                return save(bucketInfo, storagePolicy, name, meta, digest, spill);
+            }
+        }
+        var encodedContent = storageCodec.encode(bucketInfo.id(), data, storagePolicy.compressionLevel());
+        return save(bucketInfo, storagePolicy, name, meta, digest, encodedContent);
+    }
+
+    private SpillFile encodeSpilled(BucketInfo bucketInfo,
+                                    StoragePolicy storagePolicy,
+                                    StorageCodec storageCodec,
+                                    byte[] data) {
+        var spill = memoryBudget.spill();
+        try (var out = spill.output();
+             var encoded = storageCodec.encodeStream(bucketInfo.id(), out, storagePolicy.compressionLevel())) {
+            encoded.write(data);
+        } catch (IOException e) {
+            spill.close();
+            throw new UnexpectedErrorException("Can't encode content", e);
+        } catch (RuntimeException e) {
+            spill.close();
+            throw e;
+        }
+        return spill;
+    }
+
+    /**
+     * Save content, encoded into spill file. Content is streamed from spill file into storage container,
+     * small encoded content is stored inline.
+     */
+    private SaveFileRs save(BucketInfo bucketInfo,
+                            StoragePolicy storagePolicy,
+                            String name,
+                            Map<String, String> meta,
+                            ContentDigest digest,
+                            SpillFile spill) {
+        var encodedSize = spill.size();
+        if (isInline(encodedSize)) {
+            return save(bucketInfo, storagePolicy, name, meta, digest, spill.read());
+        }
+        var storageContainer = getStorageContainer(storagePolicy.storageContainer());
+        try (var ignored = bucketIoScheduler.acquire(bucketInfo.id(), encodedSize)) {
+            return writeTransaction.execute(status -> {
+                var uid = saveEntity(bucketInfo, storagePolicy, name, meta, digest, encodedSize, null);
+                storageContainer.write(bucketInfo.id(), uid.toString(), storagePolicy.storageFormat(), out -> {
+                    spill.copyTo(out);
+                    return digest.getSize();
+                });
+                return new SaveFileRs(uid.toString());
+            });
+        }
+    }
+
+    private SaveFileRs save(BucketInfo bucketInfo,
+                            StoragePolicy storagePolicy,
+                            String name,
+                            Map<String, String> meta,
+                            ContentDigest digest,
+                            byte[] encodedContent) {
+        if (isInline(encodedContent.length)) {
+            return writeTransaction.execute(status -> {
+                var uid = saveEntity(bucketInfo, storagePolicy, name, meta, digest, encodedContent.length,
+                        encodedContent);
+                return new SaveFileRs(uid.toString());
+            });
+        }
+
+        var storageContainer = getStorageContainer(storagePolicy.storageContainer());
+        try (var ignored = bucketIoScheduler.acquire(bucketInfo.id(), encodedContent.length)) {
+            return writeTransaction.execute(status -> {
+                var uid = saveEntity(bucketInfo, storagePolicy, name, meta, digest, encodedContent.length, null);
+                storageContainer.save(bucketInfo.id(), uid.toString(), storagePolicy.storageFormat(),
+                        digest.getSize(), encodedContent);
+                return new SaveFileRs(uid.toString());
+            });
+        }
+    }
+
+    /**
+     * Reserve bucket quota and save content entity with meta data
+     *
+     * @param inlineData encoded content, stored inline, {@code null} if content is stored in storage container
+     * @return saved content identifier
+     */
+    private UUID saveEntity(BucketInfo bucketInfo,
+                            StoragePolicy storagePolicy,
+                            String name,
+                            Map<String, String> meta,
+                            ContentDigest digest,
+                            long encodedSize,
+                            byte[] inlineData) {
+        bucketQuotaService.reserve(bucketInfo, encodedSize);
+        var inline = inlineData != null;
+        var storageFormat = storagePolicy.storageFormat();
 
-        var uid = UUID.randomUUID().toString();
+        var uid = ContentIds.next();
         var entity = ContentEntity.builder()
                 .uid(uid)
-                .name(rq.name())
-                .bucket(bucketEntity)
+                .name(name)
+                .bucket(bucketEntityRepository.getReferenceById(bucketInfo.id()))
                 .storageFormat(storageFormat)
+                .storageContainer(inline ? null : storagePolicy.storageContainer())
                 .createdAt(ZonedDateTime.now())
                 .modifiedAt(ZonedDateTime.now())
+                .inlineData(inlineData)
+                .originalSize(digest.getSize())
+                .encodedSize(encodedSize)
+                .crc32c(digest.getCrc32c())
+                .sha256(digest.getSha256())
+                .metaData(contentMetaService.toMetaData(meta))
                 .build();
         contentEntityRepository.save(entity);
+        contentExistenceFilter.onSaved(uid);
+        bucketStatsService.onSaved(entity);
 
-        var metaEntities = rq.meta()
-                .entrySet()
-                .stream()
-                .map(it -> ContentMetaEntity.builder()
-                        .key(it.getKey())
-                        .value(it.getValue())
-                        .contentUid(uid)
-                        .build()
-                )
-                .toList();
-        contentMetaEntityRepository.saveAll(metaEntities);
+        contentMetaService.save(entity, meta);
+        return uid;
+    }
 
-        var storageContainerType = properties.getDefaultStorageContainer();
-        var storageContainer = storageContainers.get(storageContainerType);
-        var encodedContent = storageCodec.encode(rq.data());
-        storageContainer.save(bucketEntity.getId(), uid, encodedContent);
+    private StorageCodec getStorageCodec(ContentStorageFormat storageFormat) {
+        var storageCodec = storageCodecs.get(storageFormat);
+        if (storageCodec == null) {
+            throw new UnexpectedErrorException("Unsupported storage format: %s".formatted(storageFormat));
+        }
+        return storageCodec;
+    }
 
-        return new SaveFileRs(uid);
+    private StorageContainer getStorageContainer(String storageContainerType) {
+        var type = storageContainerType == null ? properties.getDefaultStorageContainer() : storageContainerType;
+        var storageContainer = storageContainers.get(type);
+        if (storageContainer == null) {
+            throw new UnexpectedErrorException("Unsupported storage container: %s".formatted(type));
+        }
+        return storageContainer;
     }
 
+    private boolean isInline(long encodedSize) {
+        var inlineThreshold = properties.getInlineThreshold();
+        return inlineThreshold > 0 && encodedSize <= inlineThreshold;
+    }
+
+    private static long sizeOf(Long size) {
+        return size == null ? 0 : size;
+    }
+
+
+    /**
+     * Content, loaded for coalesced callers
+     *
+     * @param description content description
+     * @param data        decoded content data
+     */
+    private record LoadedContent(BucketFileDescriptionImpl description, byte[] data) {
+
+        private LoadedContent copy() {
+            return new LoadedContent(description, data == null ? null : data.clone());
+        }
+    }
 }
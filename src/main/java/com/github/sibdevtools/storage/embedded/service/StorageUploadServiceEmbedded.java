@@ -0,0 +1,405 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.common.api.rs.StandardRs;
+import com.github.sibdevtools.storage.api.rs.SaveFileRs;
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadPartEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionMetaEntity;
+import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.ContentAlreadyExistsException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidUploadException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.exception.UploadNotFoundException;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadPartEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.rq.InitiateUploadRq;
+import com.github.sibdevtools.storage.embedded.rq.UploadPartRq;
+import com.github.sibdevtools.storage.embedded.rs.InitiateUploadRs;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.CountingOutputStream;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Multipart upload service. Content is uploaded by parts, in any order and in parallel,
+ * parts are staged in storage container and stitched by streaming on upload completion.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Service
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class StorageUploadServiceEmbedded {
+    private final BucketEntityRepository bucketEntityRepository;
+    private final ContentEntityRepository contentEntityRepository;
+    private final ContentMetaService contentMetaService;
+    private final UploadSessionEntityRepository uploadSessionEntityRepository;
+    private final UploadSessionMetaEntityRepository uploadSessionMetaEntityRepository;
+    private final UploadPartEntityRepository uploadPartEntityRepository;
+    private final BucketRegistry bucketRegistry;
+    private final BucketStatsService bucketStatsService;
+    private final BucketQuotaService bucketQuotaService;
+    private final ContentExistenceFilter contentExistenceFilter;
+    private final BucketIoScheduler bucketIoScheduler;
+    private final Map<ContentStorageFormat, StorageCodec> storageCodecs;
+    private final StorageServiceEmbeddedProperties properties;
+    private final Map<String, StorageContainer> storageContainers;
+
+    /**
+     * Construct embedded storage multipart upload service
+     *
+     * @param bucketEntityRepository            bucket entity repository
+     * @param contentEntityRepository           content entity repository
+     * @param contentMetaService                content meta data service
+     * @param uploadSessionEntityRepository     upload session entity repository
+     * @param uploadSessionMetaEntityRepository upload session meta entity repository
+     * @param uploadPartEntityRepository        upload part entity repository
+     * @param bucketRegistry                    bucket registry
+     * @param bucketStatsService                bucket statistics service
+     * @param bucketQuotaService                bucket quota service
+     * @param contentExistenceFilter            content existence filter
+     * @param bucketIoScheduler                 bucket I/O scheduler
+     * @param storageCodecs                     storage codecs
+     * @param properties                        embedded storage service properties
+     * @param storageContainers                 storage containers
+     */
+    @Autowired
+    public StorageUploadServiceEmbedded(BucketEntityRepository bucketEntityRepository,
+                                        ContentEntityRepository contentEntityRepository,
+                                        ContentMetaService contentMetaService,
+                                        UploadSessionEntityRepository uploadSessionEntityRepository,
+                                        UploadSessionMetaEntityRepository uploadSessionMetaEntityRepository,
+                                        UploadPartEntityRepository uploadPartEntityRepository,
+                                        BucketRegistry bucketRegistry,
+                                        BucketStatsService bucketStatsService,
+                                        BucketQuotaService bucketQuotaService,
+                                        ContentExistenceFilter contentExistenceFilter,
+                                        BucketIoScheduler bucketIoScheduler,
+                                        @Qualifier("storageCodecsMap")
+                                        Map<ContentStorageFormat, StorageCodec> storageCodecs,
+                                        StorageServiceEmbeddedProperties properties,
+                                        @Qualifier("storageContainerMap")
+                                        Map<String, StorageContainer> storageContainers) {
+        this.bucketEntityRepository = bucketEntityRepository;
+        this.contentEntityRepository = contentEntityRepository;
+        this.contentMetaService = contentMetaService;
+        this.uploadSessionEntityRepository = uploadSessionEntityRepository;
+        this.uploadSessionMetaEntityRepository = uploadSessionMetaEntityRepository;
+        this.uploadPartEntityRepository = uploadPartEntityRepository;
+        this.bucketRegistry = bucketRegistry;
+        this.bucketStatsService = bucketStatsService;
+        this.bucketQuotaService = bucketQuotaService;
+        this.contentExistenceFilter = contentExistenceFilter;
+        this.bucketIoScheduler = bucketIoScheduler;
+        this.storageCodecs = storageCodecs;
+        this.properties = properties;
+        this.storageContainers = storageContainers;
+    }
+
+    /**
+     * Start multipart upload session
+     *
+     * @param rq initiate upload request
+     * @return upload session identifier
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public InitiateUploadRs initiate(@Nonnull InitiateUploadRq rq) {
+        var bucket = bucketRegistry.findByCode(rq.bucket())
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+
+        if (bucket.readonly()) {
+            throw new BucketReadonlyException("Bucket is readonly");
+        }
+
+        var now = ZonedDateTime.now();
+        var uploadId = ContentIds.next().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .name(rq.name())
+                .bucket(bucketEntityRepository.getReferenceById(bucket.id()))
+                .createdAt(now)
+                .modifiedAt(now)
+                .expiresAt(now.plus(properties.getUpload().getSessionTtl()))
+                .build();
+        uploadSessionEntityRepository.save(sessionEntity);
+
+        var meta = rq.meta() == null ? Map.<String, String>of() : rq.meta();
+        var metaEntities = meta.entrySet()
+                .stream()
+                .map(it -> UploadSessionMetaEntity.builder()
+                        .key(it.getKey())
+                        .value(it.getValue())
+                        .uploadUid(uploadId)
+                        .build()
+                )
+                .toList();
+        uploadSessionMetaEntityRepository.saveAll(metaEntities);
+
+        return new InitiateUploadRs(uploadId);
+    }
+
+    /**
+     * Stage part of multipart upload. Repeated upload of the same part replaces previously staged one.
+     * Part is registered under upload session lock, so concurrent retries of the same part update the single part row.
+     *
+     * @param rq upload part request
+     * @return standard response
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public StandardRs uploadPart(@Nonnull UploadPartRq rq) {
+        var uploadId = rq.uploadId();
+        var partNumber = rq.partNumber();
+        if (partNumber < 1) {
+            throw new InvalidUploadException("Part number should be positive");
+        }
+        var data = rq.data();
+        if (data == null) {
+            throw new InvalidUploadException("Part content is empty");
+        }
+        var sessionEntity = getActiveSession(uploadId);
+
+        var storageContainer = getStorageContainer();
+        try (var ignored = bucketIoScheduler.acquire(sessionEntity.getBucket().getId(), data.length)) {
+            storageContainer.savePart(uploadId, partNumber, data);
+        }
+
+        uploadSessionEntityRepository.findForUpdate(uploadId)
+                .orElseThrow(() -> new UploadNotFoundException("Upload session not found"));
+        var now = ZonedDateTime.now();
+        var partEntity = uploadPartEntityRepository.findByUploadUidAndPartNumber(uploadId, partNumber)
+                .orElseGet(() -> UploadPartEntity.builder()
+                        .uploadUid(uploadId)
+                        .partNumber(partNumber)
+                        .createdAt(now)
+                        .build());
+        partEntity.setSize(data.length);
+        partEntity.setModifiedAt(now);
+        uploadPartEntityRepository.save(partEntity);
+
+        return new StandardRs();
+    }
+
+    /**
+     * Complete multipart upload. Staged parts are stitched in part number order into a new content.
+     * Upload session is locked first, so parts can't be uploaded and upload can't be completed or aborted
+     * concurrently. Stitched content is removed from storage container if completion is rolled back.
+     *
+     * @param uploadId upload session identifier
+     * @return identifier of created content
+     */
+    @Nonnull
+    @Transactional(
+            isolation = Isolation.READ_COMMITTED,
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public SaveFileRs complete(@Nonnull String uploadId) {
+        var sessionEntity = lockActiveSession(uploadId);
+        var bucketEntity = sessionEntity.getBucket();
+        if (bucketEntity.isReadonly()) {
+            throw new BucketReadonlyException("Bucket is readonly");
+        }
+        if (properties.isUniqueNames() &&
+                contentEntityRepository.existsByBucketIdAndName(bucketEntity.getId(), sessionEntity.getName())) {
+            throw new ContentAlreadyExistsException("Content with the same name already exists");
+        }
+
+        var parts = uploadPartEntityRepository.findAllByUploadUidOrderByPartNumber(uploadId);
+        if (parts.isEmpty()) {
+            throw new InvalidUploadException("Upload has no parts");
+        }
+
+        var bucketInfo = bucketRegistry.findById(bucketEntity.getId())
+                .orElseThrow(() -> new BucketNotExistsException("Bucket does not exists"));
+        var storagePolicy = bucketInfo.storagePolicy()
+                .resolve(properties.getStorageFormat(), properties.getDefaultStorageContainer());
+        var storageFormat = storagePolicy.storageFormat();
+        var storageCodec = storageCodecs.get(storageFormat);
+        if (storageCodec == null) {
+            throw new UnexpectedErrorException("Unsupported storage format: %s".formatted(storageFormat));
+        }
+        var storageContainer = storageContainers.get(storagePolicy.storageContainer());
+        if (storageContainer == null) {
+            throw new UnexpectedErrorException("Unsupported storage container: %s".formatted(storagePolicy.storageContainer()));
+        }
+
+        var meta = uploadSessionMetaEntityRepository.findAllByUploadUid(uploadId)
+                .stream()
+                .collect(Collectors.toMap(UploadSessionMetaEntity::getKey, UploadSessionMetaEntity::getValue));
+
+        var uid = ContentIds.next();
+        var contentId = uid.toString();
+        var digest = new ContentDigest();
+        var encodedSize = new AtomicLong();
+        var partsContainer = getStorageContainer();
+        try (var permit = bucketIoScheduler.acquire(bucketEntity.getId(), 0)) {
+            storageContainer.write(bucketEntity.getId(), contentId, storageFormat, out -> {
+                var countingOut = new CountingOutputStream(out);
+                var buffer = new byte[Math.max(1, properties.getBufferSize())];
+                try (var encoded = storageCodec.encodeStream(bucketEntity.getId(), countingOut, storagePolicy.compressionLevel())) {
+                    for (var part : parts) {
+                        try (var in = partsContainer.getPart(uploadId, part.getPartNumber())) {
+                            int read;
+                            while ((read = in.read(buffer)) != -1) {
+                                digest.update(buffer, 0, read);
+                                encoded.write(buffer, 0, read);
+                            }
+                        }
+                    }
+                }
+                encodedSize.set(countingOut.getCount());
+                return digest.getSize();
+            });
+            permit.charge(encodedSize.get());
+        }
+        deleteOnRollback(bucketEntity.getId(), contentId, storageContainer);
+        bucketQuotaService.reserve(bucketInfo, encodedSize.get());
+
+        var entity = ContentEntity.builder()
+                .uid(uid)
+                .name(sessionEntity.getName())
+                .bucket(bucketEntity)
+                .storageFormat(storageFormat)
+                .storageContainer(storagePolicy.storageContainer())
+                .createdAt(ZonedDateTime.now())
+                .modifiedAt(ZonedDateTime.now())
+                .originalSize(digest.getSize())
+                .encodedSize(encodedSize.get())
+                .crc32c(digest.getCrc32c())
+                .sha256(digest.getSha256())
+                .metaData(contentMetaService.toMetaData(meta))
+                .build();
+        contentEntityRepository.save(entity);
+        contentExistenceFilter.onSaved(uid);
+        bucketStatsService.onSaved(entity);
+
+        contentMetaService.save(entity, meta);
+
+        removeSession(sessionEntity, partsContainer);
+
+        return new SaveFileRs(contentId);
+    }
+
+    /**
+     * Abort multipart upload, all staged parts are removed. Upload session is locked, so abort waits for
+     * concurrent completion.
+     *
+     * @param uploadId upload session identifier
+     * @return standard response
+     */
+    @Nonnull
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    public StandardRs abort(@Nonnull String uploadId) {
+        var sessionEntity = uploadSessionEntityRepository.findForUpdate(uploadId)
+                .orElse(null);
+        if (sessionEntity == null) {
+            return new StandardRs();
+        }
+        removeSession(sessionEntity, getStorageContainer());
+        return new StandardRs();
+    }
+
+    /**
+     * Abort expired upload sessions
+     */
+    @Transactional(
+            propagation = Propagation.REQUIRES_NEW
+    )
+    @Scheduled(fixedDelayString = "${service.storage.embedded.upload.cleanup-interval}")
+    public void abortExpired() {
+        var storageContainer = getStorageContainer();
+        var expired = uploadSessionEntityRepository.findFirst100ByExpiresAtBefore(ZonedDateTime.now());
+        for (var sessionEntity : expired) {
+            removeSession(sessionEntity, storageContainer);
+        }
+    }
+
+    /**
+     * Remove written content from storage container if transaction is not committed,
+     * so failed completion does not leave orphan content
+     */
+    private void deleteOnRollback(long bucketId, String contentId, StorageContainer storageContainer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    storageContainer.delete(bucketId, contentId);
+                }
+            }
+        });
+    }
+
+    private UploadSessionEntity getActiveSession(String uploadId) {
+        return uploadSessionEntityRepository.findById(uploadId)
+                .filter(StorageUploadServiceEmbedded::isActive)
+                .orElseThrow(() -> new UploadNotFoundException("Upload session not found"));
+    }
+
+    private UploadSessionEntity lockActiveSession(String uploadId) {
+        return uploadSessionEntityRepository.findForUpdate(uploadId)
+                .filter(StorageUploadServiceEmbedded::isActive)
+                .orElseThrow(() -> new UploadNotFoundException("Upload session not found"));
+    }
+
+    private static boolean isActive(UploadSessionEntity sessionEntity) {
+        return sessionEntity.getExpiresAt().isAfter(ZonedDateTime.now());
+    }
+
+    /**
+     * Remove upload session. Staged part files are removed after commit, so rolled back removal keeps them.
+     */
+    private void removeSession(UploadSessionEntity sessionEntity, StorageContainer storageContainer) {
+        var uploadId = sessionEntity.getUid();
+        uploadPartEntityRepository.deleteAllByUploadUid(uploadId);
+        uploadSessionMetaEntityRepository.deleteAllByUploadUid(uploadId);
+        uploadSessionEntityRepository.delete(sessionEntity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            storageContainer.deleteParts(uploadId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                storageContainer.deleteParts(uploadId);
+            }
+        });
+    }
+
+    private StorageContainer getStorageContainer() {
+        var storageContainerType = properties.getDefaultStorageContainer();
+        return storageContainers.get(storageContainerType);
+    }
+}
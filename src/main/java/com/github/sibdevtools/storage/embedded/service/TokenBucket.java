@@ -0,0 +1,75 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter.
+ * <p>
+ * Tokens are refilled with fixed rate up to one second of it. Reservation takes tokens even if bucket has
+ * not enough of them: bucket goes into debt and caller should wait until debt is refilled, so later callers
+ * are queued behind it. Tokens are also taken after the fact, e.g. for read bytes known only after read.
+ * Single reservation takes at most bucket capacity, so operation larger than one second of rate waits at most
+ * for a full bucket instead of being never admitted.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+final class TokenBucket {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double rate;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * Construct full token bucket
+     *
+     * @param rate    tokens per second, not positive value disables limiting
+     * @param nanoTime current time in nanoseconds
+     */
+    TokenBucket(double rate, long nanoTime) {
+        this.rate = rate;
+        this.tokens = rate;
+        this.refilledAt = nanoTime;
+    }
+
+    /**
+     * Take tokens, amount is capped at bucket capacity
+     *
+     * @param amount   amount of tokens
+     * @param nanoTime current time in nanoseconds
+     * @return nanoseconds to wait until taken tokens are available, zero if available now
+     */
+    synchronized long reserve(double amount, long nanoTime) {
+        if (rate <= 0) {
+            return 0;
+        }
+        refill(nanoTime);
+        tokens -= Math.min(amount, rate);
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens * NANOS_PER_SECOND / rate);
+    }
+
+    /**
+     * Return tokens, taken by rejected reservation
+     *
+     * @param amount amount of tokens, passed to reservation
+     */
+    synchronized void refund(double amount) {
+        if (rate <= 0) {
+            return;
+        }
+        tokens = Math.min(rate, tokens + Math.min(amount, rate));
+    }
+
+    private void refill(long nanoTime) {
+        var elapsed = nanoTime - refilledAt;
+        if (elapsed <= 0) {
+            return;
+        }
+        tokens = Math.min(rate, tokens + elapsed * rate / NANOS_PER_SECOND);
+        refilledAt = nanoTime;
+    }
+}
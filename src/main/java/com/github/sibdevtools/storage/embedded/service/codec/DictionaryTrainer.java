@@ -0,0 +1,119 @@
+package com.github.sibdevtools.storage.embedded.service.codec;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preset deflate dictionary training.
+ * <p>
+ * Byte segments shared by several samples are collected: sample positions are marked as common if
+ * {@value #GRAM_SIZE} bytes starting at position occur in at least two samples, maximal runs of common positions
+ * form segments. Segments are selected by frequency multiplied by length until dictionary size is reached.
+ * The most valuable segments are placed at dictionary end, where deflate matches have the shortest distances.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public final class DictionaryTrainer {
+    private static final int GRAM_SIZE = 8;
+    private static final int MIN_FREQUENCY = 2;
+
+    private DictionaryTrainer() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Train dictionary on content samples
+     *
+     * @param samples        content samples
+     * @param dictionarySize maximum dictionary size
+     * @return trained dictionary, empty if samples have no common segments
+     */
+    @Nonnull
+    public static byte[] train(@Nonnull List<byte[]> samples, int dictionarySize) {
+        if (samples.size() < MIN_FREQUENCY || dictionarySize <= 0) {
+            return new byte[0];
+        }
+        var gramFrequencies = new HashMap<Long, Integer>();
+        for (var sample : samples) {
+            var grams = new HashSet<Long>();
+            for (int i = 0; i + GRAM_SIZE <= sample.length; i++) {
+                grams.add(gram(sample, i));
+            }
+            for (var gram : grams) {
+                gramFrequencies.merge(gram, 1, Integer::sum);
+            }
+        }
+
+        var segmentFrequencies = new HashMap<String, Integer>();
+        for (var sample : samples) {
+            var segments = new HashSet<String>();
+            var start = -1;
+            for (int i = 0; i + GRAM_SIZE <= sample.length; i++) {
+                var common = gramFrequencies.get(gram(sample, i)) >= MIN_FREQUENCY;
+                if (common && start < 0) {
+                    start = i;
+                } else if (!common && start >= 0) {
+                    segments.add(segment(sample, start, i - 1 + GRAM_SIZE, dictionarySize));
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                segments.add(segment(sample, start, sample.length, dictionarySize));
+            }
+            for (var segment : segments) {
+                segmentFrequencies.merge(segment, 1, Integer::sum);
+            }
+        }
+
+        var candidates = new ArrayList<>(segmentFrequencies.entrySet());
+        candidates.sort(Comparator.comparingLong(DictionaryTrainer::score).reversed());
+
+        var selected = new ArrayList<String>();
+        var selectedText = new StringBuilder();
+        var size = 0;
+        for (var candidate : candidates) {
+            var segment = candidate.getKey();
+            if (size + segment.length() > dictionarySize) {
+                continue;
+            }
+            if (selectedText.indexOf(segment) >= 0) {
+                continue;
+            }
+            selected.add(segment);
+            selectedText.append(segment);
+            size += segment.length();
+        }
+
+        var dictionary = new ByteArrayOutputStream(size);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            dictionary.writeBytes(selected.get(i).getBytes(StandardCharsets.ISO_8859_1));
+        }
+        return dictionary.toByteArray();
+    }
+
+    private static long score(Map.Entry<String, Integer> segment) {
+        return (long) segment.getValue() * segment.getKey().length();
+    }
+
+    private static long gram(byte[] sample, int offset) {
+        var gram = 0L;
+        for (int i = 0; i < GRAM_SIZE; i++) {
+            gram = (gram << 8) | (sample[offset + i] & 0xFF);
+        }
+        return gram;
+    }
+
+    private static String segment(byte[] sample, int from, int to, int maxLength) {
+        var length = Math.min(to - from, maxLength);
+        return new String(sample, from, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.sibdevtools.storage.embedded.service.codec;
+
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary meta data encoding.
+ * <p>
+ * Layout: {@code byte version, int entries count, entries count x (UTF key, UTF value)}.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public final class MetaCodec {
+    private static final byte VERSION = 1;
+
+    private MetaCodec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Encode meta data map
+     *
+     * @param meta meta data
+     * @return encoded meta data
+     */
+    @Nonnull
+    public static byte[] encode(@Nonnull Map<String, String> meta) {
+        var out = new ByteArrayOutputStream();
+        try (var data = new DataOutputStream(out)) {
+            data.writeByte(VERSION);
+            data.writeInt(meta.size());
+            for (var entry : meta.entrySet()) {
+                data.writeUTF(entry.getKey());
+                data.writeUTF(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't encode meta data", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode meta data map
+     *
+     * @param bytes encoded meta data
+     * @return meta data
+     */
+    @Nonnull
+    public static Map<String, String> decode(@Nonnull byte[] bytes) {
+        try (var data = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            var version = data.readByte();
+            if (version != VERSION) {
+                throw new UnexpectedErrorException("Unsupported meta data version: %s".formatted(version));
+            }
+            var size = data.readInt();
+            var meta = HashMap.<String, String>newHashMap(size);
+            for (int i = 0; i < size; i++) {
+                meta.put(data.readUTF(), data.readUTF());
+            }
+            return meta;
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't decode meta data", e);
+        }
+    }
+}
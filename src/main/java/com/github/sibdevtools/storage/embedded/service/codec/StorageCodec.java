@@ -1,6 +1,13 @@
 package com.github.sibdevtools.storage.embedded.service.codec;
 
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * Storage codec interface. Used for encoding/decoding content storage.
@@ -9,6 +16,19 @@ import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
  * @since 0.1.0
  */
 public interface StorageCodec {
+    /**
+     * Codec default compression level
+     *
+     * @since 0.2.0
+     */
+    int DEFAULT_LEVEL = -1;
+    /**
+     * Maximum compression level
+     *
+     * @since 0.2.0
+     */
+    int MAX_LEVEL = 9;
+
     /**
      * Encode source content into encoded byte array.
      *
@@ -17,6 +37,73 @@ public interface StorageCodec {
      */
     byte[] encode(byte[] bytes);
 
+    /**
+     * Wrap output stream, all written into returned stream content will be encoded.
+     * Closing of returned stream finishes encoding and closes passed stream.
+     *
+     * @param out encoded content output
+     * @return source content output
+     * @throws IOException on encoding error
+     * @since 0.2.0
+     */
+    OutputStream encodeStream(OutputStream out) throws IOException;
+
+    /**
+     * Encode source content with passed compression level.
+     * By default, level is ignored, compressing codecs should override it.
+     *
+     * @param bytes source content
+     * @param level compression level from 0 to 9 or {@link #DEFAULT_LEVEL}
+     * @return encoded content
+     * @since 0.2.0
+     */
+    default byte[] encode(byte[] bytes, int level) {
+        return encode(bytes);
+    }
+
+    /**
+     * Wrap output stream with passed compression level.
+     * By default, level is ignored, compressing codecs should override it.
+     *
+     * @param out   encoded content output
+     * @param level compression level from 0 to 9 or {@link #DEFAULT_LEVEL}
+     * @return source content output
+     * @throws IOException on encoding error
+     * @since 0.2.0
+     */
+    default OutputStream encodeStream(OutputStream out, int level) throws IOException {
+        return encodeStream(out);
+    }
+
+    /**
+     * Encode source content of bucket with passed compression level.
+     * By default, bucket is ignored, codecs using data trained on bucket contents should override it.
+     *
+     * @param bucketId bucket identifier
+     * @param bytes    source content
+     * @param level    compression level from 0 to 9 or {@link #DEFAULT_LEVEL}
+     * @return encoded content
+     * @since 0.2.0
+     */
+    default byte[] encode(long bucketId, byte[] bytes, int level) {
+        return encode(bytes, level);
+    }
+
+    /**
+     * Wrap output stream for encoding of bucket content with passed compression level.
+     * By default, bucket is ignored, codecs using data trained on bucket contents should override it.
+     *
+     * @param bucketId bucket identifier
+     * @param out      encoded content output
+     * @param level    compression level from 0 to 9 or {@link #DEFAULT_LEVEL}
+     * @return source content output
+     * @throws IOException on encoding error
+     * @since 0.2.0
+     */
+    default OutputStream encodeStream(long bucketId, OutputStream out, int level) throws IOException {
+        return encodeStream(out, level);
+    }
+
     /**
      * Decode encoded content into a source byte array.
      *
@@ -25,6 +112,66 @@ public interface StorageCodec {
      */
     byte[] decode(byte[] bytes);
 
+    /**
+     * Wrap stream of encoded content into stream of source content.
+     * By default, whole content is read and decoded in memory, streaming codecs should override it.
+     * Returned stream closes passed one.
+     *
+     * @param in encoded content stream
+     * @return source content stream
+     * @throws IOException on read error
+     * @since 0.2.0
+     */
+    default InputStream decodeStream(InputStream in) throws IOException {
+        try (in) {
+            return new ByteArrayInputStream(decode(in.readAllBytes()));
+        }
+    }
+
+    /**
+     * Open stream of source content, decoded from stored encoded content.
+     * By default, content is read sequentially and decoded by {@link #decodeStream(InputStream)}.
+     * Returned stream does not close content.
+     *
+     * @param content encoded content
+     * @return source content stream
+     * @throws IOException on read error
+     * @since 0.2.0
+     */
+    default InputStream decodeStream(RandomAccessContent content) throws IOException {
+        return decodeStream(content.openStream());
+    }
+
+    /**
+     * Decode range of source content from encoded content.
+     * By default, content is decoded as a stream, skipping source content before range and stopping after it,
+     * codecs supporting seeking should override it.
+     *
+     * @param content encoded content
+     * @param offset  source content range start
+     * @param length  source content range maximum length
+     * @return source content range, shorter than requested if range exceeds source content
+     * @since 0.2.0
+     */
+    default byte[] decode(RandomAccessContent content, long offset, int length) {
+        try (var decoded = decodeStream(content)) {
+            var remaining = offset;
+            while (remaining > 0) {
+                var skipped = decoded.skip(remaining);
+                if (skipped > 0) {
+                    remaining -= skipped;
+                } else if (decoded.read() < 0) {
+                    return new byte[0];
+                } else {
+                    remaining--;
+                }
+            }
+            return decoded.readNBytes(length);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't decode content range", e);
+        }
+    }
+
     /**
      * Get a format of encoded content.
      *
@@ -2,8 +2,12 @@ package com.github.sibdevtools.storage.embedded.service.codec.impl;
 
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Base64;
 
 /**
@@ -30,11 +34,41 @@ public class Base64Codec implements StorageCodec {
         return encoder.encode(bytes);
     }
 
+    @Override
+    public OutputStream encodeStream(OutputStream out) {
+        return encoder.wrap(out);
+    }
+
     @Override
     public byte[] decode(byte[] bytes) {
         return decoder.decode(bytes);
     }
 
+    @Override
+    public InputStream decodeStream(InputStream in) {
+        return decoder.wrap(in);
+    }
+
+    /**
+     * Each 3 source bytes are encoded into 4 bytes group, so only groups covering range are read and decoded.
+     */
+    @Override
+    public byte[] decode(RandomAccessContent content, long offset, int length) {
+        var firstGroup = offset / 3;
+        var lastGroup = (offset + length + 2) / 3;
+        var encodedFrom = firstGroup * 4;
+        var encodedTo = Math.min(content.size(), lastGroup * 4);
+        if (encodedFrom >= encodedTo) {
+            return new byte[0];
+        }
+        var decoded = decoder.decode(content.read(encodedFrom, (int) (encodedTo - encodedFrom)));
+        var from = (int) (offset % 3);
+        if (from >= decoded.length) {
+            return new byte[0];
+        }
+        return Arrays.copyOfRange(decoded, from, Math.min(decoded.length, from + length));
+    }
+
     @Override
     public ContentStorageFormat getFormat() {
         return ContentStorageFormat.BASE64;
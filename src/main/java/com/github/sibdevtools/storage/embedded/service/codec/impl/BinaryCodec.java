@@ -2,8 +2,12 @@ package com.github.sibdevtools.storage.embedded.service.codec.impl;
 
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+
 /**
  * No operation codec. Store data as is.
  *
@@ -18,11 +22,26 @@ public class BinaryCodec implements StorageCodec {
         return bytes;
     }
 
+    @Override
+    public OutputStream encodeStream(OutputStream out) {
+        return out;
+    }
+
     @Override
     public byte[] decode(byte[] bytes) {
         return bytes;
     }
 
+    @Override
+    public InputStream decodeStream(InputStream in) {
+        return in;
+    }
+
+    @Override
+    public byte[] decode(RandomAccessContent content, long offset, int length) {
+        return content.read(offset, length);
+    }
+
     @Override
     public ContentStorageFormat getFormat() {
         return ContentStorageFormat.BINARY;
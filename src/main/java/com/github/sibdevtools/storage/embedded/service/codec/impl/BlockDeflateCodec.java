@@ -0,0 +1,371 @@
+package com.github.sibdevtools.storage.embedded.service.codec.impl;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Block deflate codec. Content is split into fixed size blocks, each block is compressed independently.
+ * <p>
+ * Encoded layout: {@code [block 0]..[block N-1][N x int compressed block length][trailer]},
+ * trailer: {@code long original length, int block size, int block count, int magic}.
+ * Index is placed after blocks, so content can be encoded by streaming,
+ * range reads inflate only blocks covering requested range.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Component
+public class BlockDeflateCodec implements StorageCodec {
+    /**
+     * Default size of source content block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final int MAGIC = 0x53424C4B;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES * 3;
+
+    private final int blockSize;
+
+    /**
+     * Construct block deflate codec with default block size
+     */
+    public BlockDeflateCodec() {
+        this(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Construct block deflate codec
+     *
+     * @param blockSize size of source content block
+     */
+    public BlockDeflateCodec(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public byte[] encode(byte[] bytes) {
+        return encode(bytes, DEFAULT_LEVEL);
+    }
+
+    @Override
+    public byte[] encode(byte[] bytes, int level) {
+        var out = new ByteArrayOutputStream();
+        try (var encoder = encodeStream(out, level)) {
+            encoder.write(bytes);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't encode bytes to block deflate", e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public OutputStream encodeStream(OutputStream out) {
+        return encodeStream(out, DEFAULT_LEVEL);
+    }
+
+    @Override
+    public OutputStream encodeStream(OutputStream out, int level) {
+        return new BlockDeflateOutputStream(out, blockSize, level);
+    }
+
+    @Override
+    public byte[] decode(byte[] bytes) {
+        var content = new ByteArrayRandomAccessContent(bytes);
+        var trailer = readTrailer(content);
+        if (trailer.originalLength() > Integer.MAX_VALUE) {
+            throw new UnexpectedErrorException("Content is too large to decode into array");
+        }
+        return decode(content, trailer, 0, (int) trailer.originalLength());
+    }
+
+    @Override
+    public byte[] decode(RandomAccessContent content, long offset, int length) {
+        var trailer = readTrailer(content);
+        return decode(content, trailer, offset, length);
+    }
+
+    /**
+     * Blocks are inflated one by one, so only one source block is kept in memory.
+     */
+    @Override
+    public InputStream decodeStream(RandomAccessContent content) {
+        var trailer = readTrailer(content);
+        return new BlockInflaterInputStream(content, trailer, readIndex(content, trailer));
+    }
+
+    @Override
+    public ContentStorageFormat getFormat() {
+        return ContentStorageFormat.BLOCK_DEFLATE;
+    }
+
+    private static byte[] decode(RandomAccessContent content, Trailer trailer, long offset, int length) {
+        var originalLength = trailer.originalLength();
+        if (offset >= originalLength || length <= 0) {
+            return new byte[0];
+        }
+        var end = Math.min(originalLength, offset + length);
+        var blockSize = trailer.blockSize();
+        var firstBlock = (int) (offset / blockSize);
+        var lastBlock = (int) ((end - 1) / blockSize);
+
+        var blockLengths = readIndex(content, trailer);
+        var compressedFrom = 0L;
+        for (int i = 0; i < firstBlock; i++) {
+            compressedFrom += blockLengths[i];
+        }
+        var compressedLength = 0;
+        for (int i = firstBlock; i <= lastBlock; i++) {
+            compressedLength += blockLengths[i];
+        }
+        var compressed = content.read(compressedFrom, compressedLength);
+
+        var decoded = new byte[(int) (end - offset)];
+        var block = new byte[blockSize];
+        var inflater = new Inflater(true);
+        try {
+            var compressedOffset = 0;
+            var decodedOffset = 0;
+            for (int i = firstBlock; i <= lastBlock; i++) {
+                var blockStart = (long) i * blockSize;
+                var from = (int) (Math.max(offset, blockStart) - blockStart);
+                var to = (int) (Math.min(end, blockStart + blockSize) - blockStart);
+                inflate(inflater, compressed, compressedOffset, blockLengths[i], block, to);
+                System.arraycopy(block, from, decoded, decodedOffset, to - from);
+                compressedOffset += blockLengths[i];
+                decodedOffset += to - from;
+            }
+        } finally {
+            inflater.end();
+        }
+        return decoded;
+    }
+
+    private static void inflate(Inflater inflater,
+                                byte[] compressed,
+                                int offset,
+                                int length,
+                                byte[] block,
+                                int inflateLength) {
+        inflater.reset();
+        inflater.setInput(compressed, offset, length);
+        var inflated = 0;
+        try {
+            while (inflated < inflateLength) {
+                var read = inflater.inflate(block, inflated, inflateLength - inflated);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new UnexpectedErrorException("Can't decode block deflate content, block is truncated");
+                }
+                inflated += read;
+            }
+        } catch (DataFormatException e) {
+            throw new UnexpectedErrorException("Can't decode block deflate content", e);
+        }
+    }
+
+    private static Trailer readTrailer(RandomAccessContent content) {
+        var size = content.size();
+        if (size < TRAILER_SIZE) {
+            throw new UnexpectedErrorException("Can't decode block deflate content, trailer not found");
+        }
+        var buffer = ByteBuffer.wrap(content.read(size - TRAILER_SIZE, TRAILER_SIZE));
+        var originalLength = buffer.getLong();
+        var blockSize = buffer.getInt();
+        var blockCount = buffer.getInt();
+        var magic = buffer.getInt();
+        if (magic != MAGIC || blockSize <= 0 || blockCount < 0 || originalLength < 0 ||
+                size < TRAILER_SIZE + (long) blockCount * Integer.BYTES) {
+            throw new UnexpectedErrorException("Can't decode block deflate content, trailer is corrupted");
+        }
+        return new Trailer(originalLength, blockSize, blockCount, size);
+    }
+
+    private static int[] readIndex(RandomAccessContent content, Trailer trailer) {
+        var indexSize = trailer.blockCount() * Integer.BYTES;
+        var indexOffset = trailer.contentSize() - TRAILER_SIZE - indexSize;
+        var buffer = ByteBuffer.wrap(content.read(indexOffset, indexSize));
+        var blockLengths = new int[trailer.blockCount()];
+        for (int i = 0; i < blockLengths.length; i++) {
+            blockLengths[i] = buffer.getInt();
+        }
+        return blockLengths;
+    }
+
+    private record Trailer(long originalLength, int blockSize, int blockCount, long contentSize) {
+    }
+
+    /**
+     * Input stream, sequentially inflating content blocks
+     */
+    private static final class BlockInflaterInputStream extends InputStream {
+        private final RandomAccessContent content;
+        private final Trailer trailer;
+        private final int[] blockLengths;
+        private final byte[] block;
+        private final Inflater inflater = new Inflater(true);
+        private int nextBlock;
+        private long compressedOffset;
+        private long decodedOffset;
+        private int blockLimit;
+        private int blockPosition;
+        private boolean closed;
+
+        private BlockInflaterInputStream(RandomAccessContent content, Trailer trailer, int[] blockLengths) {
+            this.content = content;
+            this.trailer = trailer;
+            this.blockLengths = blockLengths;
+            this.block = new byte[trailer.blockSize()];
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return block[blockPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            var read = Math.min(len, blockLimit - blockPosition);
+            System.arraycopy(block, blockPosition, b, off, read);
+            blockPosition += read;
+            return read;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                inflater.end();
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (blockPosition < blockLimit) {
+                return true;
+            }
+            if (nextBlock >= blockLengths.length || decodedOffset >= trailer.originalLength()) {
+                return false;
+            }
+            var compressedLength = blockLengths[nextBlock++];
+            var compressed = content.read(compressedOffset, compressedLength);
+            compressedOffset += compressedLength;
+            blockLimit = (int) Math.min(block.length, trailer.originalLength() - decodedOffset);
+            blockPosition = 0;
+            inflate(inflater, compressed, 0, compressed.length, block, blockLimit);
+            decodedOffset += blockLimit;
+            return true;
+        }
+    }
+
+    /**
+     * Output stream, compresses content by blocks and writes block index on close
+     */
+    private static final class BlockDeflateOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final Deflater deflater;
+        private final byte[] block;
+        private final byte[] compressed;
+        private int[] blockLengths;
+        private int blockCount;
+        private int blockPosition;
+        private long originalLength;
+        private boolean closed;
+
+        private BlockDeflateOutputStream(OutputStream out, int blockSize, int level) {
+            this.out = out;
+            this.deflater = new Deflater(level, true);
+            this.block = new byte[blockSize];
+            this.compressed = new byte[Math.max(512, blockSize / 4)];
+            this.blockLengths = new int[16];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            block[blockPosition++] = (byte) b;
+            if (blockPosition == block.length) {
+                flushBlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                var toCopy = Math.min(length, block.length - blockPosition);
+                System.arraycopy(bytes, offset, block, blockPosition, toCopy);
+                blockPosition += toCopy;
+                offset += toCopy;
+                length -= toCopy;
+                if (blockPosition == block.length) {
+                    flushBlock();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flushBlock();
+                var index = ByteBuffer.allocate(blockCount * Integer.BYTES + TRAILER_SIZE);
+                for (int i = 0; i < blockCount; i++) {
+                    index.putInt(blockLengths[i]);
+                }
+                index.putLong(originalLength);
+                index.putInt(block.length);
+                index.putInt(blockCount);
+                index.putInt(MAGIC);
+                out.write(index.array());
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockPosition == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(block, 0, blockPosition);
+            deflater.finish();
+            var blockLength = 0;
+            while (!deflater.finished()) {
+                var written = deflater.deflate(compressed);
+                out.write(compressed, 0, written);
+                blockLength += written;
+            }
+            if (blockCount == blockLengths.length) {
+                blockLengths = Arrays.copyOf(blockLengths, blockCount * 2);
+            }
+            blockLengths[blockCount++] = blockLength;
+            originalLength += blockPosition;
+            blockPosition = 0;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.sibdevtools.storage.embedded.service.codec.impl;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentDictionary;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.service.ContentDictionaryService;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Dictionary deflate codec. Content is compressed with preset dictionary, trained on bucket contents,
+ * so small contents of the same structure are compressed well from the first byte.
+ * <p>
+ * Encoded layout: {@code int magic, long dictionary id, zlib stream}, dictionary id is {@code 0}
+ * if content compressed without dictionary. Dictionaries are immutable, so content stays decodable
+ * after bucket dictionary is trained again.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@Component
+@ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
+public class DictionaryDeflateCodec implements StorageCodec {
+    private static final int MAGIC = 0x53444354;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final long NO_DICTIONARY = 0;
+
+    private final ContentDictionaryService contentDictionaryService;
+
+    /**
+     * Construct dictionary deflate codec
+     *
+     * @param contentDictionaryService content dictionary service
+     */
+    @Autowired
+    public DictionaryDeflateCodec(ContentDictionaryService contentDictionaryService) {
+        this.contentDictionaryService = contentDictionaryService;
+    }
+
+    @Override
+    public byte[] encode(byte[] bytes) {
+        return encode(bytes, null, DEFAULT_LEVEL);
+    }
+
+    @Override
+    public byte[] encode(byte[] bytes, int level) {
+        return encode(bytes, null, level);
+    }
+
+    @Override
+    public byte[] encode(long bucketId, byte[] bytes, int level) {
+        var dictionary = contentDictionaryService.findLatest(bucketId)
+                .orElse(null);
+        return encode(bytes, dictionary, level);
+    }
+
+    @Override
+    public OutputStream encodeStream(OutputStream out) throws IOException {
+        return encodeStream(out, null, DEFAULT_LEVEL);
+    }
+
+    @Override
+    public OutputStream encodeStream(OutputStream out, int level) throws IOException {
+        return encodeStream(out, null, level);
+    }
+
+    @Override
+    public OutputStream encodeStream(long bucketId, OutputStream out, int level) throws IOException {
+        var dictionary = contentDictionaryService.findLatest(bucketId)
+                .orElse(null);
+        return encodeStream(out, dictionary, level);
+    }
+
+    @Override
+    public byte[] decode(byte[] bytes) {
+        if (bytes.length < HEADER_SIZE) {
+            throw new UnexpectedErrorException("Can't decode dictionary deflate content, header not found");
+        }
+        var header = ByteBuffer.wrap(bytes, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC) {
+            throw new UnexpectedErrorException("Can't decode dictionary deflate content, header is corrupted");
+        }
+        var dictionaryId = header.getLong();
+
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            var out = new ByteArrayOutputStream(bytes.length * 4);
+            var buffer = new byte[8192];
+            while (!inflater.finished()) {
+                var read = inflater.inflate(buffer);
+                if (read > 0) {
+                    out.write(buffer, 0, read);
+                } else if (inflater.needsDictionary()) {
+                    if (dictionaryId == NO_DICTIONARY) {
+                        throw new UnexpectedErrorException("Can't decode dictionary deflate content, dictionary not set");
+                    }
+                    inflater.setDictionary(contentDictionaryService.get(dictionaryId).data());
+                } else if (inflater.needsInput()) {
+                    throw new UnexpectedErrorException("Can't decode dictionary deflate content, content is truncated");
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new UnexpectedErrorException("Can't decode dictionary deflate content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public InputStream decodeStream(InputStream in) throws IOException {
+        try {
+            var header = ByteBuffer.wrap(in.readNBytes(HEADER_SIZE));
+            if (header.remaining() < HEADER_SIZE) {
+                throw new IOException("Can't decode dictionary deflate content, header not found");
+            }
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Can't decode dictionary deflate content, header is corrupted");
+            }
+            return new DictionaryInflaterInputStream(in, header.getLong());
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ContentStorageFormat getFormat() {
+        return ContentStorageFormat.DICTIONARY_DEFLATE;
+    }
+
+    private static byte[] encode(byte[] bytes, ContentDictionary dictionary, int level) {
+        var out = new ByteArrayOutputStream();
+        try (var encoder = encodeStream(out, dictionary, level)) {
+            encoder.write(bytes);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't encode bytes to dictionary deflate", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static OutputStream encodeStream(OutputStream out,
+                                             ContentDictionary dictionary,
+                                             int level) throws IOException {
+        var header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putLong(dictionary == null ? NO_DICTIONARY : dictionary.id());
+        out.write(header.array());
+        var deflater = new Deflater(level);
+        if (dictionary != null && dictionary.data().length > 0) {
+            deflater.setDictionary(dictionary.data());
+        }
+        return new DictionaryDeflaterOutputStream(out, deflater);
+    }
+
+    /**
+     * Inflater input stream, setting content dictionary on demand and releasing own inflater on close
+     */
+    private final class DictionaryInflaterInputStream extends InflaterInputStream {
+        private final long dictionaryId;
+
+        private DictionaryInflaterInputStream(InputStream in, long dictionaryId) {
+            super(in, new Inflater());
+            this.dictionaryId = dictionaryId;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var read = super.read(b, off, len);
+            if (read < 0 && inf.needsDictionary()) {
+                if (dictionaryId == NO_DICTIONARY) {
+                    throw new IOException("Can't decode dictionary deflate content, dictionary not set");
+                }
+                inf.setDictionary(contentDictionaryService.get(dictionaryId).data());
+                read = super.read(b, off, len);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+    /**
+     * Deflater output stream, releasing own deflater on close
+     */
+    private static final class DictionaryDeflaterOutputStream extends DeflaterOutputStream {
+
+        private DictionaryDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.stereotype.Component;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -22,8 +24,13 @@ public class GZipCodec implements StorageCodec {
 
     @Override
     public byte[] encode(byte[] bytes) {
+        return encode(bytes, DEFAULT_LEVEL);
+    }
+
+    @Override
+    public byte[] encode(byte[] bytes, int level) {
         var out = new ByteArrayOutputStream();
-        try (var gzip = new GZIPOutputStream(out)) {
+        try (var gzip = encodeStream(out, level)) {
             gzip.write(bytes);
         } catch (IOException e) {
             throw new UnexpectedErrorException("Can't encode bytes to GZip", e);
@@ -31,6 +38,16 @@ public class GZipCodec implements StorageCodec {
         return out.toByteArray();
     }
 
+    @Override
+    public OutputStream encodeStream(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out);
+    }
+
+    @Override
+    public OutputStream encodeStream(OutputStream out, int level) throws IOException {
+        return new LeveledGZIPOutputStream(out, level);
+    }
+
     @Override
     public byte[] decode(byte[] bytes) {
         var out = new ByteArrayInputStream(bytes);
@@ -41,8 +58,29 @@ public class GZipCodec implements StorageCodec {
         }
     }
 
+    @Override
+    public InputStream decodeStream(InputStream in) throws IOException {
+        try {
+            return new GZIPInputStream(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
     @Override
     public ContentStorageFormat getFormat() {
         return ContentStorageFormat.GZIP;
     }
+
+    /**
+     * GZip output stream with configurable compression level
+     */
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
 }
@@ -0,0 +1,174 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Stored blob frame. Frame header is placed before encoded content and makes blob self-describing.
+ * <p>
+ * Header layout, big-endian: {@code magic (8 bytes), version (1 byte), codec id (1 byte), flags (1 byte),
+ * reserved (1 byte), original length (long), payload length (long), payload CRC32C (int),
+ * [content identifier (16 bytes), if flag is set], header CRC32C (int)}.
+ * <p>
+ * Blobs without magic are legacy headerless blobs and contain encoded content only.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public final class BlobFrame {
+    /**
+     * Maximum size of frame header in bytes
+     */
+    public static final int MAX_HEADER_SIZE = 52;
+    private static final byte[] MAGIC = {(byte) 0x89, 'S', 'B', 'L', 'O', 'B', '\r', '\n'};
+    private static final byte VERSION = 1;
+    private static final byte FLAG_UID = 1;
+    private static final int BASE_HEADER_SIZE = 36;
+    private static final int UID_SIZE = 16;
+
+    private BlobFrame() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Get size of frame header
+     *
+     * @param uid content identifier, {@code null} if not stored in header
+     * @return header size in bytes
+     */
+    public static int getHeaderSize(@Nullable UUID uid) {
+        return uid == null ? BASE_HEADER_SIZE : BASE_HEADER_SIZE + UID_SIZE;
+    }
+
+    /**
+     * Encode frame header
+     *
+     * @param header frame header
+     * @return encoded header, ready for read
+     */
+    @Nonnull
+    public static ByteBuffer encode(@Nonnull Header header) {
+        var uid = header.uid();
+        var buffer = ByteBuffer.allocate(getHeaderSize(uid));
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(getCodecId(header.format()));
+        buffer.put(uid == null ? 0 : FLAG_UID);
+        buffer.put((byte) 0);
+        buffer.putLong(header.originalLength());
+        buffer.putLong(header.payloadLength());
+        buffer.putInt(header.payloadCrc32c());
+        if (uid != null) {
+            buffer.putLong(uid.getMostSignificantBits());
+            buffer.putLong(uid.getLeastSignificantBits());
+        }
+        buffer.putInt(crc32c(buffer.array(), buffer.position()));
+        return buffer.flip();
+    }
+
+    /**
+     * Decode frame header from blob beginning
+     *
+     * @param bytes blob beginning, at least {@link #MAX_HEADER_SIZE} bytes if blob is long enough
+     * @return frame header or empty if blob is legacy headerless blob
+     */
+    @Nonnull
+    public static Optional<Header> decode(@Nonnull byte[] bytes) {
+        if (bytes.length < MAGIC.length || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return Optional.empty();
+        }
+        if (bytes.length < BASE_HEADER_SIZE) {
+            throw new UnexpectedErrorException("Blob frame header is truncated");
+        }
+        var buffer = ByteBuffer.wrap(bytes);
+        buffer.position(MAGIC.length);
+        var version = buffer.get();
+        if (version != VERSION) {
+            throw new UnexpectedErrorException("Unsupported blob frame version: %s".formatted(version));
+        }
+        var format = getFormat(buffer.get());
+        var flags = buffer.get();
+        buffer.get();
+        var originalLength = buffer.getLong();
+        var payloadLength = buffer.getLong();
+        var payloadCrc32c = buffer.getInt();
+        UUID uid = null;
+        if ((flags & FLAG_UID) != 0) {
+            if (bytes.length < BASE_HEADER_SIZE + UID_SIZE) {
+                throw new UnexpectedErrorException("Blob frame header is truncated");
+            }
+            uid = new UUID(buffer.getLong(), buffer.getLong());
+        }
+        var headerCrc32c = crc32c(bytes, buffer.position());
+        if (buffer.getInt() != headerCrc32c) {
+            throw new UnexpectedErrorException("Blob frame header is corrupted");
+        }
+        if (originalLength < 0 || payloadLength < 0) {
+            throw new UnexpectedErrorException("Blob frame header is corrupted");
+        }
+        return Optional.of(new Header(format, originalLength, payloadLength, payloadCrc32c, uid));
+    }
+
+    /**
+     * Compute CRC32C checksum of payload
+     *
+     * @param bytes payload
+     * @return checksum
+     */
+    public static int crc32c(@Nonnull byte[] bytes) {
+        return crc32c(bytes, bytes.length);
+    }
+
+    private static int crc32c(byte[] bytes, int length) {
+        var crc32c = new CRC32C();
+        crc32c.update(bytes, 0, length);
+        return (int) crc32c.getValue();
+    }
+
+    private static byte getCodecId(ContentStorageFormat format) {
+        return switch (format) {
+            case BASE64 -> 1;
+            case BINARY -> 2;
+            case GZIP -> 3;
+            case BLOCK_DEFLATE -> 4;
+            case DICTIONARY_DEFLATE -> 5;
+        };
+    }
+
+    private static ContentStorageFormat getFormat(byte codecId) {
+        return switch (codecId) {
+            case 1 -> ContentStorageFormat.BASE64;
+            case 2 -> ContentStorageFormat.BINARY;
+            case 3 -> ContentStorageFormat.GZIP;
+            case 4 -> ContentStorageFormat.BLOCK_DEFLATE;
+            case 5 -> ContentStorageFormat.DICTIONARY_DEFLATE;
+            default -> throw new UnexpectedErrorException("Unknown blob frame codec id: %s".formatted(codecId));
+        };
+    }
+
+    /**
+     * Blob frame header
+     *
+     * @param format         content storage format, defines codec for payload decoding
+     * @param originalLength source content length
+     * @param payloadLength  encoded content length
+     * @param payloadCrc32c  CRC32C checksum of encoded content
+     * @param uid            content identifier, {@code null} if not stored
+     */
+    public record Header(
+            ContentStorageFormat format,
+            long originalLength,
+            long payloadLength,
+            int payloadCrc32c,
+            UUID uid
+    ) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+
+import java.util.Arrays;
+
+/**
+ * Random access content backed by byte array
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class ByteArrayRandomAccessContent implements RandomAccessContent {
+    private final byte[] content;
+    private final ContentStorageFormat format;
+
+    /**
+     * Construct byte array random access content
+     *
+     * @param content stored content
+     */
+    public ByteArrayRandomAccessContent(byte[] content) {
+        this(content, null);
+    }
+
+    /**
+     * Construct byte array random access content with recorded storage format
+     *
+     * @param content stored content
+     * @param format  storage format of stored content, {@code null} if not recorded
+     */
+    public ByteArrayRandomAccessContent(byte[] content, ContentStorageFormat format) {
+        this.content = content;
+        this.format = format;
+    }
+
+    @Override
+    public long size() {
+        return content.length;
+    }
+
+    @Override
+    public byte[] read(long position, int length) {
+        if (position >= content.length) {
+            return new byte[0];
+        }
+        var from = (int) position;
+        var to = (int) Math.min(content.length, position + length);
+        return Arrays.copyOfRange(content, from, to);
+    }
+
+    @Override
+    public ContentStorageFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Content producer, used for streaming content into storage container.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@FunctionalInterface
+public interface ContentWriter {
+    /**
+     * Write content into passed stream.
+     * Stream is owned by storage container and closed by it.
+     *
+     * @param out container output stream
+     * @return length of source content
+     * @throws IOException on write error
+     */
+    long write(OutputStream out) throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import lombok.Getter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream, counts bytes written into delegate stream
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    /**
+     * Amount of written bytes
+     */
+    @Getter
+    private long count;
+
+    /**
+     * Construct counting output stream
+     *
+     * @param out delegate stream
+     */
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        count += length;
+    }
+}
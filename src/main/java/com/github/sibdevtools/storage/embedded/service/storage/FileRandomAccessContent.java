@@ -0,0 +1,94 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Random access content backed by file channel, uses positional reads.
+ * Content may start at offset in file, e.g. after blob frame header.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class FileRandomAccessContent implements RandomAccessContent {
+    private final FileChannel channel;
+    private final long offset;
+    private final ContentStorageFormat format;
+    private final Integer crc32c;
+
+    /**
+     * Construct file random access content
+     *
+     * @param channel opened for read file channel
+     */
+    FileRandomAccessContent(FileChannel channel) {
+        this(channel, 0, null, null);
+    }
+
+    /**
+     * Construct file random access content, starting at offset in file
+     *
+     * @param channel opened for read file channel
+     * @param offset  content offset in file
+     * @param format  storage format, recorded in file, {@code null} if not recorded
+     * @param crc32c  content checksum, recorded in file, {@code null} if not recorded
+     */
+    FileRandomAccessContent(FileChannel channel, long offset, ContentStorageFormat format, Integer crc32c) {
+        this.channel = channel;
+        this.offset = offset;
+        this.format = format;
+        this.crc32c = crc32c;
+    }
+
+    @Override
+    public long size() {
+        try {
+            return channel.size() - offset;
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+    }
+
+    @Override
+    public byte[] read(long position, int length) {
+        var size = size();
+        if (position >= size) {
+            return new byte[0];
+        }
+        var buffer = ByteBuffer.allocate((int) Math.min(length, size - position));
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + position + buffer.position()) < 0) {
+                    return Arrays.copyOf(buffer.array(), buffer.position());
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public ContentStorageFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public Integer getCrc32c() {
+        return crc32c;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+    }
+}
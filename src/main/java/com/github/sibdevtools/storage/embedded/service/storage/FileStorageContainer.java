@@ -1,6 +1,7 @@
 package com.github.sibdevtools.storage.embedded.service.storage;
 
 import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
 import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
 import jakarta.annotation.PostConstruct;
@@ -8,22 +9,44 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
 
 /**
+ * File storage container. Contents are stored in files, prefixed by {@link BlobFrame} header.
+ * Legacy headerless files are read as is.
+ *
  * @author sibmaks
  * @since 0.1.14
  */
 @Service
 @ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
 public class FileStorageContainer implements StorageContainer {
+    private static final String UPLOADS_FOLDER = "uploads";
+    private static final String TMP_FOLDER = "tmp";
+    private static final String CONTENT_EXTENSION = ".data";
+
     private final StorageServiceEmbeddedProperties properties;
 
     public FileStorageContainer(StorageServiceEmbeddedProperties properties) {
@@ -42,8 +65,159 @@ public class FileStorageContainer implements StorageContainer {
 
     @Override
     public byte[] get(long bucketId, String contentId) {
+        return getBlob(bucketId, contentId).data();
+    }
+
+    @Override
+    public StoredBlob getBlob(long bucketId, String contentId) {
         var path = getPath(bucketId, contentId);
-        return readContent(path);
+        var content = readContent(path);
+        var header = BlobFrame.decode(content).orElse(null);
+        if (header == null) {
+            return new StoredBlob(null, content);
+        }
+        var headerSize = BlobFrame.getHeaderSize(header.uid());
+        if (content.length - headerSize != header.payloadLength()) {
+            throw new UnexpectedErrorException("Blob is truncated: %s".formatted(path));
+        }
+        var payload = Arrays.copyOfRange(content, headerSize, content.length);
+        if (BlobFrame.crc32c(payload) != header.payloadCrc32c()) {
+            throw new UnexpectedErrorException("Blob checksum mismatch: %s".formatted(path));
+        }
+        return new StoredBlob(header.format(), payload);
+    }
+
+    /**
+     * Open stored content for positional reads. Frame header and payload length are validated,
+     * payload checksum is not validated, because it requires full payload read.
+     *
+     * @param bucketId  bucket identifier
+     * @param contentId content identifier
+     * @return opened content
+     */
+    @Override
+    public RandomAccessContent open(long bucketId, String contentId) {
+        var path = getPath(bucketId, contentId);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            var header = readHeader(channel).orElse(null);
+            if (header == null) {
+                return new FileRandomAccessContent(channel);
+            }
+            var headerSize = BlobFrame.getHeaderSize(header.uid());
+            if (channel.size() - headerSize != header.payloadLength()) {
+                throw new UnexpectedErrorException("Blob is truncated: %s".formatted(path));
+            }
+            return new FileRandomAccessContent(channel, headerSize, header.format(), header.payloadCrc32c());
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File not found", e);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UnexpectedErrorException("Unexpected error", e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Read frame header of stored content. Used to identify content format and owner without database.
+     *
+     * @param bucketId  bucket identifier
+     * @param contentId content identifier
+     * @return frame header or empty if content is stored without frame
+     * @since 0.2.0
+     */
+    public Optional<BlobFrame.Header> readHeader(long bucketId, String contentId) {
+        var path = getPath(bucketId, contentId);
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File not found", e);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+    }
+
+    /**
+     * Get identifiers of buckets, having content folder
+     *
+     * @return bucket identifiers
+     * @since 0.2.0
+     */
+    public List<Long> getBucketIds() {
+        var folder = Path.of(properties.getFolder());
+        if (Files.notExists(folder)) {
+            return List.of();
+        }
+        var bucketIds = new ArrayList<Long>();
+        try (var paths = Files.newDirectoryStream(folder, Files::isDirectory)) {
+            for (var path : paths) {
+                var bucketId = parseBucketId(path.getFileName().toString());
+                if (bucketId != null) {
+                    bucketIds.add(bucketId);
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't list buckets", e);
+        }
+        return bucketIds;
+    }
+
+    /**
+     * Stream identifiers of contents, stored in bucket folder. Files, not named by content identifier, are skipped.
+     * Folder is listed without reading file attributes and identifiers are not collected in memory.
+     *
+     * @param bucketId bucket identifier
+     * @param action   consumer of content identifiers in directory order
+     * @since 0.2.0
+     */
+    public void forEachContentId(long bucketId, Consumer<UUID> action) {
+        var folder = Path.of(properties.getFolder(), String.valueOf(bucketId));
+        if (Files.notExists(folder)) {
+            return;
+        }
+        try (var paths = Files.newDirectoryStream(folder, "*" + CONTENT_EXTENSION)) {
+            for (var path : paths) {
+                var name = path.getFileName().toString();
+                var uid = parseUid(name.substring(0, name.length() - CONTENT_EXTENSION.length()));
+                if (uid != null) {
+                    action.accept(uid);
+                }
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't list bucket contents: %s".formatted(bucketId), e);
+        }
+    }
+
+    /**
+     * Get last modification time of stored content
+     *
+     * @param bucketId  bucket identifier
+     * @param contentId content identifier
+     * @return modification time or empty if content not exists
+     * @since 0.2.0
+     */
+    public Optional<Instant> getModifiedAt(long bucketId, String contentId) {
+        var path = getPath(bucketId, contentId);
+        try {
+            return Optional.of(Files.getLastModifiedTime(path).toInstant());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+    }
+
+    private static Optional<BlobFrame.Header> readHeader(FileChannel channel) throws IOException {
+        var buffer = ByteBuffer.allocate((int) Math.min(BlobFrame.MAX_HEADER_SIZE, channel.size()));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        return BlobFrame.decode(Arrays.copyOf(buffer.array(), buffer.position()));
     }
 
     @Override
@@ -61,6 +235,61 @@ public class FileStorageContainer implements StorageContainer {
         }
     }
 
+    @Override
+    public void save(long id, String uid, ContentStorageFormat format, long originalLength, byte[] data) {
+        var path = getPath(id, uid);
+        createDirectoriesIfNotExists(path.getParent());
+
+        var header = BlobFrame.encode(
+                new BlobFrame.Header(format, originalLength, data.length, BlobFrame.crc32c(data), parseUid(uid))
+        );
+        var expectedLength = header.remaining() + data.length;
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            var buffers = new ByteBuffer[]{header, ByteBuffer.wrap(data)};
+            var written = 0L;
+            while (written < expectedLength) {
+                written += channel.write(buffers);
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't create content", e);
+        }
+    }
+
+    @Override
+    public void write(long id, String uid, ContentStorageFormat format, ContentWriter writer) {
+        var path = getPath(id, uid);
+        createDirectoriesIfNotExists(path.getParent());
+
+        var contentUid = parseUid(uid);
+        var headerSize = BlobFrame.getHeaderSize(contentUid);
+        var tmpPath = getTmpPath();
+        try {
+            try (var channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                channel.position(headerSize);
+                var payload = new PayloadOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), Math.max(1, properties.getBufferSize()))
+                );
+                long originalLength;
+                try (payload) {
+                    originalLength = writer.write(payload);
+                }
+                var header = BlobFrame.encode(
+                        new BlobFrame.Header(format, originalLength, payload.count, (int) payload.crc32c.getValue(), contentUid)
+                );
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(tmpPath);
+            throw new UnexpectedErrorException("Can't create content", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tmpPath);
+            throw e;
+        }
+    }
+
     @Override
     public void delete(long bucketId, String contentId) {
         var path = getPath(bucketId, contentId);
@@ -75,6 +304,50 @@ public class FileStorageContainer implements StorageContainer {
         }
     }
 
+    @Override
+    public void savePart(String uploadId, int partNumber, byte[] data) {
+        var path = getPartPath(uploadId, partNumber);
+        createDirectoriesIfNotExists(path.getParent());
+
+        var tmpPath = getTmpPath();
+        try {
+            Files.write(tmpPath, data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            Files.move(tmpPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(tmpPath);
+            throw new UnexpectedErrorException("Can't save upload part", e);
+        }
+    }
+
+    @Override
+    public InputStream getPart(String uploadId, int partNumber) {
+        var path = getPartPath(uploadId, partNumber);
+        try {
+            return Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            throw new UnexpectedErrorException("Upload part not found: %s".formatted(partNumber), e);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Unexpected error", e);
+        }
+    }
+
+    @Override
+    public void deleteParts(String uploadId) {
+        var path = Path.of(properties.getFolder(), UPLOADS_FOLDER, uploadId);
+        if (Files.notExists(path)) {
+            return;
+        }
+        try (var paths = Files.walk(path)) {
+            var sorted = paths.sorted(Comparator.reverseOrder())
+                    .toList();
+            for (var it : sorted) {
+                Files.deleteIfExists(it);
+            }
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't delete upload parts", e);
+        }
+    }
+
     @Override
     public String getType() {
         return "FILE";
@@ -82,7 +355,18 @@ public class FileStorageContainer implements StorageContainer {
 
     private Path getPath(long bucketId, String id) {
         var folder = properties.getFolder();
-        return Path.of(folder, String.valueOf(bucketId), "%s.data".formatted(id));
+        return Path.of(folder, String.valueOf(bucketId), id + CONTENT_EXTENSION);
+    }
+
+    private Path getPartPath(String uploadId, int partNumber) {
+        var folder = properties.getFolder();
+        return Path.of(folder, UPLOADS_FOLDER, uploadId, "%d.part".formatted(partNumber));
+    }
+
+    private Path getTmpPath() {
+        var folder = Path.of(properties.getFolder(), TMP_FOLDER);
+        createDirectoriesIfNotExists(folder);
+        return folder.resolve("%s.tmp".formatted(UUID.randomUUID()));
     }
 
     private byte[] readContent(Path path) {
@@ -108,6 +392,41 @@ public class FileStorageContainer implements StorageContainer {
         }
     }
 
+    private static Long parseBucketId(String name) {
+        try {
+            return Long.parseLong(name);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static UUID parseUid(String uid) {
+        try {
+            return UUID.fromString(uid);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // channel is not used anymore
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // temporary file will be overwritten or removed manually
+        }
+    }
+
     private static void createDirectoriesIfNotExists(Path path) {
         if (Files.exists(path)) {
             if (!Files.isDirectory(path)) {
@@ -121,4 +440,41 @@ public class FileStorageContainer implements StorageContainer {
             }
         }
     }
+
+    /**
+     * Frame payload stream, computes payload length and checksum.
+     * Closing of the stream only flushes written payload, channel is closed by container after header is written.
+     */
+    private static final class PayloadOutputStream extends FilterOutputStream {
+        private final CRC32C crc32c = new CRC32C();
+        private long count;
+        private boolean closed;
+
+        private PayloadOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc32c.update(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            crc32c.update(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            out.flush();
+        }
+    }
 }
@@ -1,35 +1,76 @@
 package com.github.sibdevtools.storage.embedded.service.storage;
 
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * In-memory storage container. Storage format is kept with content, if passed on save.
+ *
  * @author sibmaks
  * @since 0.1.14
  */
 @Service
 @ConditionalOnProperty(name = "service.storage.mode", havingValue = "EMBEDDED")
 public class InMemoryStorageContainer implements StorageContainer {
-    private final Map<Long, Map<String, byte[]>> contents;
+    private final Map<Long, Map<String, StoredBlob>> contents;
+    private final Map<String, Map<Integer, byte[]>> uploads;
 
     public InMemoryStorageContainer() {
         this.contents = new ConcurrentHashMap<>();
+        this.uploads = new ConcurrentHashMap<>();
     }
 
     @Override
     public byte[] get(long bucketId, String contentId) {
-        return contents.get(bucketId)
+        return getBlob(bucketId, contentId).data();
+    }
+
+    @Override
+    public StoredBlob getBlob(long bucketId, String contentId) {
+        var blob = contents.getOrDefault(bucketId, Map.of())
                 .get(contentId);
+        if (blob == null) {
+            throw new FileNotFoundException("File not found");
+        }
+        return blob;
+    }
+
+    @Override
+    public RandomAccessContent open(long bucketId, String contentId) {
+        var blob = getBlob(bucketId, contentId);
+        return new ByteArrayRandomAccessContent(blob.data(), blob.format());
     }
 
     @Override
     public void save(long id, String uid, byte[] data) {
-        var bucket = contents.computeIfAbsent(id, it -> new ConcurrentHashMap<>());
-        bucket.put(uid, data);
+        put(id, uid, new StoredBlob(null, data));
+    }
+
+    @Override
+    public void save(long id, String uid, ContentStorageFormat format, long originalLength, byte[] data) {
+        put(id, uid, new StoredBlob(format, data));
+    }
+
+    @Override
+    public void write(long id, String uid, ContentStorageFormat format, ContentWriter writer) {
+        var out = new ByteArrayOutputStream();
+        try (out) {
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UnexpectedErrorException("Can't create content", e);
+        }
+        put(id, uid, new StoredBlob(format, out.toByteArray()));
     }
 
     @Override
@@ -38,9 +79,35 @@ public class InMemoryStorageContainer implements StorageContainer {
                 .remove(contentId);
     }
 
+    @Override
+    public void savePart(String uploadId, int partNumber, byte[] data) {
+        var parts = uploads.computeIfAbsent(uploadId, it -> new ConcurrentHashMap<>());
+        parts.put(partNumber, data);
+    }
+
+    @Override
+    public InputStream getPart(String uploadId, int partNumber) {
+        var parts = uploads.getOrDefault(uploadId, Map.of());
+        var part = parts.get(partNumber);
+        if (part == null) {
+            throw new UnexpectedErrorException("Upload part not found: %s".formatted(partNumber));
+        }
+        return new ByteArrayInputStream(part);
+    }
+
+    @Override
+    public void deleteParts(String uploadId) {
+        uploads.remove(uploadId);
+    }
+
     @Override
     public String getType() {
         return "IN_MEMORY";
     }
 
+    private void put(long bucketId, String contentId, StoredBlob blob) {
+        var bucket = contents.computeIfAbsent(bucketId, it -> new ConcurrentHashMap<>());
+        bucket.put(contentId, blob);
+    }
+
 }
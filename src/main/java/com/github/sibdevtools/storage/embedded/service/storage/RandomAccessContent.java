@@ -0,0 +1,61 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+
+/**
+ * Stored content, opened for positional reads.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public interface RandomAccessContent extends AutoCloseable {
+    /**
+     * Get stored content size in bytes.
+     *
+     * @return content size
+     */
+    long size();
+
+    /**
+     * Read stored content range. Returned array is shorter than requested if range exceeds content size.
+     *
+     * @param position start position
+     * @param length   maximum amount of bytes to read
+     * @return read bytes
+     */
+    byte[] read(long position, int length);
+
+    /**
+     * Open buffered stream, sequentially reading stored content from the start.
+     * Stream is valid until content is closed.
+     *
+     * @return content stream
+     */
+    default InputStream openStream() {
+        return new BufferedInputStream(new RandomAccessContentInputStream(this), 64 * 1024);
+    }
+
+    /**
+     * Get storage format, recorded with stored content.
+     *
+     * @return storage format or {@code null} if not recorded
+     */
+    default ContentStorageFormat getFormat() {
+        return null;
+    }
+
+    /**
+     * Get CRC32C checksum of stored content, recorded with it. Checksum is not validated on read.
+     *
+     * @return checksum or {@code null} if not recorded
+     */
+    default Integer getCrc32c() {
+        return null;
+    }
+
+    @Override
+    void close();
+}
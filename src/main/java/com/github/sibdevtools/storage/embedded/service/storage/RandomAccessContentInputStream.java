@@ -0,0 +1,76 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import java.io.InputStream;
+
+/**
+ * Input stream, sequentially reading random access content by positional reads.
+ * Stream does not own content, content is closed by its owner.
+ *
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class RandomAccessContentInputStream extends InputStream {
+    private final RandomAccessContent content;
+    private long position;
+    private long mark;
+
+    /**
+     * Construct stream, reading content from the start
+     *
+     * @param content random access content
+     */
+    RandomAccessContentInputStream(RandomAccessContent content) {
+        this.content = content;
+    }
+
+    @Override
+    public int read() {
+        var bytes = content.read(position, 1);
+        if (bytes.length == 0) {
+            return -1;
+        }
+        position++;
+        return bytes[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        var bytes = content.read(position, len);
+        if (bytes.length == 0) {
+            return -1;
+        }
+        System.arraycopy(bytes, 0, b, off, bytes.length);
+        position += bytes.length;
+        return bytes.length;
+    }
+
+    @Override
+    public long skip(long n) {
+        var skipped = Math.max(0, Math.min(n, content.size() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, content.size() - position));
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() {
+        position = mark;
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.sibdevtools.storage.embedded.service.storage;
 
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+
+import java.io.InputStream;
+
 /**
  * @author sibmaks
  * @since 0.1.14
@@ -7,10 +11,87 @@ package com.github.sibdevtools.storage.embedded.service.storage;
 public interface StorageContainer {
     byte[] get(long bucketId, String contentId);
 
+    /**
+     * Get stored content with its storage format. Containers, supporting blob framing, return format
+     * recorded with content, so content stays decodable while its database row is not yet updated to new format.
+     *
+     * @param bucketId  bucket identifier
+     * @param contentId content identifier
+     * @return stored content
+     * @since 0.2.0
+     */
+    default StoredBlob getBlob(long bucketId, String contentId) {
+        return new StoredBlob(null, get(bucketId, contentId));
+    }
+
+    /**
+     * Open stored content for positional reads. Returned content should be closed by caller.
+     *
+     * @param bucketId  bucket identifier
+     * @param contentId content identifier
+     * @return opened content
+     * @since 0.2.0
+     */
+    RandomAccessContent open(long bucketId, String contentId);
+
     void save(long id, String uid, byte[] data);
 
+    /**
+     * Save encoded content. Containers, supporting blob framing, store content format and length with content.
+     *
+     * @param id             bucket identifier
+     * @param uid            content identifier
+     * @param format         content storage format
+     * @param originalLength source content length
+     * @param data           encoded content
+     * @since 0.2.0
+     */
+    default void save(long id, String uid, ContentStorageFormat format, long originalLength, byte[] data) {
+        save(id, uid, data);
+    }
+
+    /**
+     * Save content produced by writer. Content becomes visible only if writer completes successfully.
+     * Already stored content is replaced atomically, so readers get either previous or new content.
+     *
+     * @param id     bucket identifier
+     * @param uid    content identifier
+     * @param format content storage format
+     * @param writer content writer
+     * @since 0.2.0
+     */
+    void write(long id, String uid, ContentStorageFormat format, ContentWriter writer);
+
     void delete(long bucketId, String contentId);
 
+    /**
+     * Stage a part of multipart upload. Already staged part with the same number is replaced.
+     *
+     * @param uploadId   upload session identifier
+     * @param partNumber part number
+     * @param data       part content
+     * @since 0.2.0
+     */
+    void savePart(String uploadId, int partNumber, byte[] data);
+
+    /**
+     * Open staged part of multipart upload for reading.
+     *
+     * @param uploadId   upload session identifier
+     * @param partNumber part number
+     * @return part content stream
+     * @since 0.2.0
+     */
+    InputStream getPart(String uploadId, int partNumber);
+
+    /**
+     * Remove all staged parts of multipart upload.
+     *
+     * @param uploadId upload session identifier
+     * @since 0.2.0
+     */
+    void deleteParts(String uploadId);
+
     String getType();
 
 }
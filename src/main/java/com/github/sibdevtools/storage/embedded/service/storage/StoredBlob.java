@@ -0,0 +1,17 @@
+package com.github.sibdevtools.storage.embedded.service.storage;
+
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+
+/**
+ * Stored content with storage format, recorded by storage container
+ *
+ * @param format storage format of stored content, {@code null} if not recorded by container
+ * @param data   encoded content
+ * @author sibmaks
+ * @since 0.2.0
+ */
+public record StoredBlob(
+        ContentStorageFormat format,
+        byte[] data
+) {
+}
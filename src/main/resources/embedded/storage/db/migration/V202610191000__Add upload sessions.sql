@@ -0,0 +1,38 @@
+SET SCHEMA storage_service;
+
+CREATE TABLE IF NOT EXISTS upload_session
+(
+    uid         varchar(255) NOT NULL,
+    name        varchar(255) NOT NULL,
+    bucket_id   bigint       NOT NULL,
+    created_at  timestamp    NOT NULL,
+    modified_at timestamp    NOT NULL,
+    expires_at  timestamp    NOT NULL,
+    FOREIGN KEY (bucket_id) REFERENCES bucket (id),
+    CONSTRAINT upload_session_pk PRIMARY KEY (uid)
+);
+
+CREATE INDEX IF NOT EXISTS upload_session_expires_at_idx ON upload_session (expires_at);
+
+CREATE TABLE IF NOT EXISTS upload_session_meta
+(
+    id         bigint        NOT NULL AUTO_INCREMENT,
+    meta_key   varchar(255)  NOT NULL,
+    meta_value varchar(2048) NOT NULL,
+    upload_uid varchar(255)  NOT NULL,
+    FOREIGN KEY (upload_uid) REFERENCES upload_session (uid),
+    CONSTRAINT upload_session_meta_pk PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS upload_part
+(
+    id          bigint       NOT NULL AUTO_INCREMENT,
+    upload_uid  varchar(255) NOT NULL,
+    part_number integer      NOT NULL,
+    part_size   bigint       NOT NULL,
+    created_at  timestamp    NOT NULL,
+    modified_at timestamp    NOT NULL,
+    FOREIGN KEY (upload_uid) REFERENCES upload_session (uid),
+    CONSTRAINT upload_part_pk PRIMARY KEY (id),
+    CONSTRAINT upload_part_number_uk UNIQUE (upload_uid, part_number)
+);
@@ -0,0 +1,42 @@
+SET SCHEMA storage_service;
+
+CREATE TABLE IF NOT EXISTS content_v2
+(
+    uid            uuid         NOT NULL,
+    name           varchar(255) NOT NULL,
+    bucket_id      bigint       NOT NULL,
+    storage_format varchar(64)  NOT NULL,
+    created_at     timestamp    NOT NULL,
+    modified_at    timestamp    NOT NULL,
+    inline_data    BLOB         NULL,
+    FOREIGN KEY (bucket_id) REFERENCES bucket (id),
+    CONSTRAINT content_v2_pk PRIMARY KEY (uid)
+);
+
+INSERT INTO content_v2 (uid, name, bucket_id, storage_format, created_at, modified_at, inline_data)
+SELECT CAST(uid AS uuid), name, bucket_id, storage_format, created_at, modified_at, inline_data
+FROM content;
+
+CREATE TABLE IF NOT EXISTS content_meta_v2
+(
+    id          bigint        NOT NULL AUTO_INCREMENT,
+    meta_key    varchar(255)  NOT NULL,
+    meta_value  varchar(2048) NOT NULL,
+    content_uid uuid          NOT NULL,
+    FOREIGN KEY (content_uid) REFERENCES content_v2 (uid),
+    CONSTRAINT content_meta_v2_pk PRIMARY KEY (id)
+);
+
+INSERT INTO content_meta_v2 (meta_key, meta_value, content_uid)
+SELECT meta_key, meta_value, CAST(content_uid AS uuid)
+FROM content_meta
+ORDER BY id;
+
+DROP TABLE content_meta;
+DROP TABLE content;
+
+ALTER TABLE content_v2 RENAME TO content;
+ALTER TABLE content_meta_v2 RENAME TO content_meta;
+
+ALTER TABLE content RENAME CONSTRAINT content_v2_pk TO content_pk;
+ALTER TABLE content_meta RENAME CONSTRAINT content_meta_v2_pk TO content_meta_pk;
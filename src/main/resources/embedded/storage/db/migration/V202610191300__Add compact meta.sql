@@ -0,0 +1,4 @@
+SET SCHEMA storage_service;
+
+ALTER TABLE content
+    ADD meta_data BLOB NULL;
@@ -0,0 +1,3 @@
+SET SCHEMA storage_service;
+
+CREATE INDEX IF NOT EXISTS content_meta_key_value_idx ON content_meta (meta_key, meta_value, content_uid);
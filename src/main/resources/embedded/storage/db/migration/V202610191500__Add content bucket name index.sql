@@ -0,0 +1,3 @@
+SET SCHEMA storage_service;
+
+CREATE INDEX IF NOT EXISTS content_bucket_name_idx ON content (bucket_id, name, uid);
@@ -0,0 +1,13 @@
+SET SCHEMA storage_service;
+
+ALTER TABLE content
+    ADD original_size BIGINT NULL;
+
+ALTER TABLE content
+    ADD encoded_size BIGINT NULL;
+
+ALTER TABLE content
+    ADD crc32c BIGINT NULL;
+
+ALTER TABLE content
+    ADD sha256 VARCHAR(64) NULL;
@@ -0,0 +1,23 @@
+SET SCHEMA storage_service;
+
+CREATE TABLE IF NOT EXISTS scrub_state
+(
+    id                varchar(64) NOT NULL,
+    last_uid          uuid        NULL,
+    checked_count     bigint      NOT NULL,
+    checked_bytes     bigint      NOT NULL,
+    corrupted_count   bigint      NOT NULL,
+    pass_started_at   timestamp   NULL,
+    pass_completed_at timestamp   NULL,
+    modified_at       timestamp   NOT NULL,
+    CONSTRAINT scrub_state_pk PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS corrupt_content
+(
+    content_uid uuid          NOT NULL,
+    bucket_id   bigint        NOT NULL,
+    reason      varchar(1024) NOT NULL,
+    detected_at timestamp     NOT NULL,
+    CONSTRAINT corrupt_content_pk PRIMARY KEY (content_uid)
+);
@@ -0,0 +1,3 @@
+SET SCHEMA storage_service;
+
+CREATE INDEX IF NOT EXISTS content_bucket_uid_idx ON content (bucket_id, uid);
@@ -0,0 +1,22 @@
+SET SCHEMA storage_service;
+
+CREATE TABLE IF NOT EXISTS bucket_stats
+(
+    bucket_id      bigint  NOT NULL,
+    stripe         integer NOT NULL,
+    content_count  bigint  NOT NULL,
+    logical_bytes  bigint  NOT NULL,
+    physical_bytes bigint  NOT NULL,
+    FOREIGN KEY (bucket_id) REFERENCES bucket (id),
+    CONSTRAINT bucket_stats_pk PRIMARY KEY (bucket_id, stripe)
+);
+
+INSERT INTO bucket_stats (bucket_id, stripe, content_count, logical_bytes, physical_bytes)
+SELECT b.id,
+       0,
+       COUNT(c.uid),
+       COALESCE(SUM(c.original_size), 0),
+       COALESCE(SUM(c.encoded_size), 0)
+FROM bucket b
+         LEFT JOIN content c ON c.bucket_id = b.id
+GROUP BY b.id;
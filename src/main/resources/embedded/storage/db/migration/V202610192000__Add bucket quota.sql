@@ -0,0 +1,4 @@
+SET SCHEMA storage_service;
+
+ALTER TABLE bucket ADD COLUMN IF NOT EXISTS max_bytes bigint NULL;
+ALTER TABLE bucket ADD COLUMN IF NOT EXISTS max_objects bigint NULL;
@@ -0,0 +1,7 @@
+SET SCHEMA storage_service;
+
+ALTER TABLE bucket ADD COLUMN IF NOT EXISTS storage_format varchar(64) NULL;
+ALTER TABLE bucket ADD COLUMN IF NOT EXISTS storage_container varchar(64) NULL;
+ALTER TABLE bucket ADD COLUMN IF NOT EXISTS compression_level int NULL;
+
+ALTER TABLE content ADD COLUMN IF NOT EXISTS storage_container varchar(64) NULL;
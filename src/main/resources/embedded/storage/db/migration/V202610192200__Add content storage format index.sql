@@ -0,0 +1,3 @@
+SET SCHEMA storage_service;
+
+CREATE INDEX IF NOT EXISTS content_storage_format_idx ON content (storage_format, uid);
@@ -0,0 +1,14 @@
+SET SCHEMA storage_service;
+
+CREATE TABLE IF NOT EXISTS content_dictionary
+(
+    id           bigint    NOT NULL AUTO_INCREMENT,
+    bucket_id    bigint    NOT NULL,
+    data         blob      NOT NULL,
+    sample_count integer   NOT NULL,
+    created_at   timestamp NOT NULL,
+    FOREIGN KEY (bucket_id) REFERENCES bucket (id),
+    CONSTRAINT content_dictionary_pk PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS content_dictionary_bucket_idx ON content_dictionary (bucket_id, id);
@@ -1,13 +1,41 @@
 package com.github.sibdevtools.storage.embedded;
 
+import com.github.sibdevtools.storage.api.dto.BucketFileDescription;
+import com.github.sibdevtools.storage.api.rq.SaveFileRq;
 import com.github.sibdevtools.storage.api.service.StorageBucketService;
+import com.github.sibdevtools.storage.api.service.StorageService;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.MetaMatchType;
+import com.github.sibdevtools.storage.embedded.dto.MetaPredicate;
 import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.BucketQuotaExceededException;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidStoragePolicyException;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.rq.ListContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SaveEncodedFileRq;
+import com.github.sibdevtools.storage.embedded.rq.SearchContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketQuotaRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketStoragePolicyRq;
+import com.github.sibdevtools.storage.embedded.service.BucketRegistry;
+import com.github.sibdevtools.storage.embedded.service.ContentDictionaryTrainer;
+import com.github.sibdevtools.storage.embedded.service.ContentLifecycle;
+import com.github.sibdevtools.storage.embedded.service.StorageBucketServiceEmbedded;
+import com.github.sibdevtools.storage.embedded.service.StorageServiceEmbedded;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +48,20 @@ import static org.junit.jupiter.api.Assertions.*;
 class StorageBucketServiceEmbeddedIntegrationTest {
     @Autowired
     private StorageBucketService storageBucketService;
+    @Autowired
+    private StorageBucketServiceEmbedded storageBucketServiceEmbedded;
+    @Autowired
+    private StorageService storageService;
+    @Autowired
+    private ContentEntityRepository contentEntityRepository;
+    @Autowired
+    private ContentLifecycle contentLifecycle;
+    @Autowired
+    private ContentDictionaryTrainer contentDictionaryTrainer;
+    @Autowired
+    private BucketRegistry bucketRegistry;
+    @Autowired
+    private StorageServiceEmbedded storageServiceEmbedded;
 
     @Test
     void testCreateAndGet() {
@@ -51,4 +93,428 @@ class StorageBucketServiceEmbeddedIntegrationTest {
         );
         assertEquals("Bucket does not exists", exception.getMessage());
     }
+
+    @Test
+    void testSearchByMeta() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        var expected = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(save(bucketCode, Map.of("type", "report_" + i, "owner", "alice")));
+        }
+        save(bucketCode, Map.of("type", "report_5", "owner", "bob"));
+        save(bucketCode, Map.of("type", "reportX", "owner", "alice"));
+        save(bucketCode, Map.of("owner", "alice"));
+
+        var otherBucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(otherBucketCode);
+        save(otherBucketCode, Map.of("type", "report_0", "owner", "alice"));
+
+        var predicates = List.of(
+                MetaPredicate.builder()
+                        .key("type")
+                        .value("report_")
+                        .match(MetaMatchType.PREFIX)
+                        .build(),
+                MetaPredicate.builder()
+                        .key("owner")
+                        .value("alice")
+                        .build()
+        );
+
+        var found = new ArrayList<String>();
+        String continuationToken = null;
+        do {
+            var page = storageBucketServiceEmbedded.search(
+                    SearchContentRq.builder()
+                            .bucket(bucketCode)
+                            .predicates(predicates)
+                            .continuationToken(continuationToken)
+                            .limit(2)
+                            .build()
+            ).getBody();
+            assertTrue(page.getContents().size() <= 2);
+            page.getContents()
+                    .stream()
+                    .map(BucketFileDescription::getId)
+                    .forEach(found::add);
+            continuationToken = page.getContinuationToken();
+        } while (continuationToken != null);
+
+        expected.sort(Comparator.comparing(UUID::fromString));
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testSearchByMetaEquals() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        var value = UUID.randomUUID().toString();
+        var fileId = save(bucketCode, Map.of("key", value));
+        save(bucketCode, Map.of("key", value + "-suffix"));
+
+        var page = storageBucketServiceEmbedded.search(
+                SearchContentRq.builder()
+                        .bucket(bucketCode)
+                        .predicates(List.of(new MetaPredicate("key", value, MetaMatchType.EQUALS)))
+                        .limit(10)
+                        .build()
+        ).getBody();
+
+        assertNull(page.getContinuationToken());
+        assertEquals(1, page.getContents().size());
+
+        var content = page.getContents().getFirst();
+        assertEquals(fileId, content.getId());
+        assertEquals(value, content.getMeta().get("key"));
+    }
+
+    @Test
+    void testListWithPrefixAndDelimiter() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        for (var name : List.of(
+                "tenant/2023/01/report.pdf",
+                "tenant/2024/10/report.pdf",
+                "tenant/2024/10/summary.pdf",
+                "tenant/2024/11/report.pdf",
+                "tenant/2024/index.html",
+                "tenant/2024/readme.txt",
+                "tenant/2024_backup/report.pdf",
+                "other/2024/report.pdf"
+        )) {
+            saveNamed(bucketCode, name);
+        }
+
+        var names = new ArrayList<String>();
+        var commonPrefixes = new ArrayList<String>();
+        String continuationToken = null;
+        do {
+            var listing = storageBucketServiceEmbedded.list(
+                    ListContentRq.builder()
+                            .bucket(bucketCode)
+                            .prefix("tenant/2024/")
+                            .delimiter("/")
+                            .continuationToken(continuationToken)
+                            .limit(1)
+                            .build()
+            ).getBody();
+            assertEquals(1, listing.getContents().size() + listing.getCommonPrefixes().size());
+            listing.getContents()
+                    .stream()
+                    .map(BucketFileDescription::getName)
+                    .forEach(names::add);
+            commonPrefixes.addAll(listing.getCommonPrefixes());
+            continuationToken = listing.getContinuationToken();
+        } while (continuationToken != null);
+
+        assertEquals(List.of("tenant/2024/index.html", "tenant/2024/readme.txt"), names);
+        assertEquals(List.of("tenant/2024/10/", "tenant/2024/11/"), commonPrefixes);
+    }
+
+    @Test
+    void testListWithoutDelimiter() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        saveNamed(bucketCode, "b/2");
+        saveNamed(bucketCode, "a_1");
+        saveNamed(bucketCode, "a%1");
+        saveNamed(bucketCode, "b/1");
+
+        var listing = storageBucketServiceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .prefix("a%")
+                        .limit(10)
+                        .build()
+        ).getBody();
+        assertEquals(List.of("a%1"), listing.getContents().stream().map(BucketFileDescription::getName).toList());
+
+        listing = storageBucketServiceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .limit(10)
+                        .build()
+        ).getBody();
+        var names = listing.getContents()
+                .stream()
+                .map(BucketFileDescription::getName)
+                .toList();
+        assertEquals(List.of("a%1", "a_1", "b/1", "b/2"), names);
+        assertTrue(listing.getCommonPrefixes().isEmpty());
+        assertNull(listing.getContinuationToken());
+    }
+
+    @Test
+    void testStats() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        var empty = storageBucketServiceEmbedded.getStats(bucketCode).getBody();
+        assertEquals(0, empty.getContents());
+        assertEquals(0, empty.getLogicalBytes());
+
+        var first = save(bucketCode, Map.of());
+        save(bucketCode, Map.of());
+        save(bucketCode, Map.of());
+        storageService.delete(first);
+
+        var stats = storageBucketServiceEmbedded.getStats(bucketCode).getBody();
+        assertEquals(2, stats.getContents());
+        assertEquals(2L * UUID.randomUUID().toString().length(), stats.getLogicalBytes());
+        assertTrue(stats.getPhysicalBytes() > 0);
+
+        var rebuilt = storageBucketServiceEmbedded.rebuildStats(bucketCode).getBody();
+        assertEquals(stats.getContents(), rebuilt.getContents());
+        assertEquals(stats.getLogicalBytes(), rebuilt.getLogicalBytes());
+        assertEquals(stats.getPhysicalBytes(), rebuilt.getPhysicalBytes());
+
+        var afterRebuild = storageBucketServiceEmbedded.getStats(bucketCode).getBody();
+        assertEquals(stats.getContents(), afterRebuild.getContents());
+        assertEquals(stats.getPhysicalBytes(), afterRebuild.getPhysicalBytes());
+    }
+
+    @Test
+    void testQuota() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+        storageBucketServiceEmbedded.setQuota(
+                SetBucketQuotaRq.builder()
+                        .bucket(bucketCode)
+                        .maxObjects(2L)
+                        .build()
+        );
+
+        var first = save(bucketCode, Map.of());
+        save(bucketCode, Map.of());
+        assertThrows(
+                BucketQuotaExceededException.class,
+                () -> save(bucketCode, Map.of())
+        );
+
+        storageService.delete(first);
+        assertNotNull(save(bucketCode, Map.of()));
+
+        storageBucketServiceEmbedded.setQuota(
+                SetBucketQuotaRq.builder()
+                        .bucket(bucketCode)
+                        .build()
+        );
+        assertNotNull(save(bucketCode, Map.of()));
+    }
+
+    @Test
+    void testStoragePolicy() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+        storageBucketServiceEmbedded.setStoragePolicy(
+                SetBucketStoragePolicyRq.builder()
+                        .bucket(bucketCode)
+                        .storageFormat(ContentStorageFormat.BLOCK_DEFLATE)
+                        .storageContainer("IN_MEMORY")
+                        .compressionLevel(9)
+                        .build()
+        );
+
+        var data = UUID.randomUUID().toString().repeat(1024).getBytes(StandardCharsets.UTF_8);
+        var contentId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var contentEntity = contentEntityRepository.findById(UUID.fromString(contentId))
+                .orElseThrow();
+        assertEquals(ContentStorageFormat.BLOCK_DEFLATE, contentEntity.getStorageFormat());
+        assertEquals("IN_MEMORY", contentEntity.getStorageContainer());
+        assertArrayEquals(data, storageService.get(contentId).getBody().getData());
+
+        storageService.delete(contentId);
+        assertThrows(
+                FileNotFoundException.class,
+                () -> storageService.get(contentId)
+        );
+    }
+
+    @Test
+    void testStoragePolicyWithUnsupportedContainer() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+
+        var rq = SetBucketStoragePolicyRq.builder()
+                .bucket(bucketCode)
+                .storageContainer(UUID.randomUUID().toString())
+                .build();
+        assertThrows(
+                InvalidStoragePolicyException.class,
+                () -> storageBucketServiceEmbedded.setStoragePolicy(rq)
+        );
+    }
+
+    @Test
+    void testLifecycleTransition() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+        storageBucketServiceEmbedded.setStoragePolicy(
+                SetBucketStoragePolicyRq.builder()
+                        .bucket(bucketCode)
+                        .storageFormat(ContentStorageFormat.BASE64)
+                        .build()
+        );
+
+        var data = UUID.randomUUID().toString().repeat(1024).getBytes(StandardCharsets.UTF_8);
+        var contentId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+        var uid = UUID.fromString(contentId);
+
+        contentLifecycle.transit();
+        assertEquals(
+                ContentStorageFormat.BASE64,
+                contentEntityRepository.findById(uid).orElseThrow().getStorageFormat()
+        );
+
+        storageBucketServiceEmbedded.setStoragePolicy(
+                SetBucketStoragePolicyRq.builder()
+                        .bucket(bucketCode)
+                        .build()
+        );
+        for (int i = 0; i < 100; i++) {
+            if (contentEntityRepository.findById(uid).orElseThrow().getStorageFormat() != ContentStorageFormat.BASE64) {
+                break;
+            }
+            contentLifecycle.transit();
+        }
+
+        var contentEntity = contentEntityRepository.findById(uid)
+                .orElseThrow();
+        assertEquals(ContentStorageFormat.GZIP, contentEntity.getStorageFormat());
+        assertTrue(contentEntity.getEncodedSize() < data.length);
+        assertArrayEquals(data, storageService.get(contentId).getBody().getData());
+
+        storageService.delete(contentId);
+    }
+
+    @Test
+    void testDictionaryDeflate() {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+        storageBucketServiceEmbedded.setStoragePolicy(
+                SetBucketStoragePolicyRq.builder()
+                        .bucket(bucketCode)
+                        .storageFormat(ContentStorageFormat.DICTIONARY_DEFLATE)
+                        .build()
+        );
+
+        var document = "{\"type\":\"order\",\"status\":\"CREATED\",\"customer\":{\"name\":\"%s\"}}";
+        var contentIds = new ArrayList<String>();
+        for (int i = 0; i < 16; i++) {
+            contentIds.add(saveDocument(bucketCode, document.formatted(UUID.randomUUID())));
+        }
+        var untrained = contentEntityRepository.findById(UUID.fromString(contentIds.get(0)))
+                .orElseThrow();
+        var bucketId = bucketRegistry.findByCode(bucketCode)
+                .orElseThrow()
+                .id();
+
+        assertTrue(contentDictionaryTrainer.train(bucketId).isPresent());
+
+        var data = document.formatted(UUID.randomUUID());
+        var contentId = saveDocument(bucketCode, data);
+        contentIds.add(contentId);
+        var trained = contentEntityRepository.findById(UUID.fromString(contentId))
+                .orElseThrow();
+        assertEquals(ContentStorageFormat.DICTIONARY_DEFLATE, trained.getStorageFormat());
+        assertTrue(trained.getEncodedSize() < untrained.getEncodedSize());
+        assertEquals(data, new String(storageService.get(contentId).getBody().getData(), StandardCharsets.UTF_8));
+        assertNotNull(storageService.get(contentIds.get(0)).getBody().getData());
+
+        for (var id : contentIds) {
+            storageService.delete(id);
+        }
+        storageBucketService.delete(bucketCode);
+    }
+
+    @Test
+    void testSaveEncoded() throws IOException {
+        var bucketCode = UUID.randomUUID().toString();
+        storageBucketService.create(bucketCode);
+        storageBucketServiceEmbedded.setStoragePolicy(
+                SetBucketStoragePolicyRq.builder()
+                        .bucket(bucketCode)
+                        .storageFormat(ContentStorageFormat.GZIP)
+                        .build()
+        );
+
+        var data = UUID.randomUUID().toString().repeat(16).getBytes(StandardCharsets.UTF_8);
+        var gzipped = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(gzipped)) {
+            out.write(data);
+        }
+
+        var contentId = storageServiceEmbedded.saveEncoded(
+                SaveEncodedFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .encoding(ContentStorageFormat.GZIP)
+                        .data(gzipped.toByteArray())
+                        .build()
+        ).getBody();
+
+        var encodedFile = storageServiceEmbedded.getEncoded(contentId).getBody();
+        assertEquals(ContentStorageFormat.GZIP, encodedFile.getStorageFormat());
+        assertArrayEquals(gzipped.toByteArray(), encodedFile.getData());
+
+        var file = storageService.get(contentId).getBody();
+        assertArrayEquals(data, file.getData());
+
+        storageService.delete(contentId);
+        storageBucketService.delete(bucketCode);
+    }
+
+    private String saveDocument(String bucketCode, String document) {
+        return storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(document.getBytes(StandardCharsets.UTF_8))
+                        .build()
+        ).getBody();
+    }
+
+    private void saveNamed(String bucketCode, String name) {
+        storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(name)
+                        .meta(Map.of())
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+    }
+
+    private String save(String bucketCode, Map<String, String> meta) {
+        return storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucketCode)
+                        .name(UUID.randomUUID().toString())
+                        .meta(meta)
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        ).getBody();
+    }
 }
@@ -0,0 +1,86 @@
+package com.github.sibdevtools.storage.embedded;
+
+import com.github.sibdevtools.storage.api.dto.BucketFileMetadata;
+import com.github.sibdevtools.storage.api.rq.SaveFileRq;
+import com.github.sibdevtools.storage.api.service.StorageBucketService;
+import com.github.sibdevtools.storage.api.service.StorageService;
+import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.ContentIds;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ActiveProfiles("startup-test")
+@SpringBootTest(
+        properties = {
+                "service.storage.embedded.meta.mode=COMPACT",
+                "service.storage.embedded.meta.indexed-keys=indexed"
+        }
+)
+class StorageServiceEmbeddedCompactMetaIntegrationTest {
+    @Autowired
+    private StorageBucketService storageBucketService;
+    @Autowired
+    private StorageService storageService;
+    @Autowired
+    private ContentMetaEntityRepository contentMetaEntityRepository;
+
+    @Test
+    void testSaveAndGetWithCompactMeta() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var meta = Map.of(
+                "indexed", UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString()
+        );
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var fileId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(meta)
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var uid = ContentIds.parse(fileId).orElseThrow();
+        var metaEntities = contentMetaEntityRepository.findAllByContentUid(uid);
+        assertEquals(1, metaEntities.size());
+        assertEquals("indexed", metaEntities.getFirst().getKey());
+
+        var bucketFile = storageService.get(fileId).getBody();
+        assertArrayEquals(data, bucketFile.getData());
+        assertMeta(meta, bucketFile.getDescription().getMeta());
+
+        var description = storageService.getDescription(fileId).getBody();
+        assertMeta(meta, description.getMeta());
+
+        var bucketContents = storageBucketService.get(bucket).getBody().getContents();
+        assertEquals(1, bucketContents.size());
+        assertMeta(meta, bucketContents.getFirst().getMeta());
+
+        storageService.delete(fileId);
+        assertTrue(contentMetaEntityRepository.findAllByContentUid(uid).isEmpty());
+    }
+
+    private static void assertMeta(Map<String, String> expected,
+                                   BucketFileMetadata actual) {
+        assertEquals(expected.keySet(), actual.getAttributeNames());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+}
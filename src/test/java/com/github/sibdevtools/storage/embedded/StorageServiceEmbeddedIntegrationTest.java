@@ -3,14 +3,25 @@ package com.github.sibdevtools.storage.embedded;
 import com.github.sibdevtools.storage.api.rq.SaveFileRq;
 import com.github.sibdevtools.storage.api.service.StorageBucketService;
 import com.github.sibdevtools.storage.api.service.StorageService;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.service.ContentCache;
+import com.github.sibdevtools.storage.embedded.service.ContentExistenceFilter;
+import com.github.sibdevtools.storage.embedded.service.ContentPrefetcher;
+import com.github.sibdevtools.storage.embedded.service.MemoryBudget;
+import com.github.sibdevtools.storage.embedded.service.StorageServiceEmbedded;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,6 +36,16 @@ class StorageServiceEmbeddedIntegrationTest {
     private StorageBucketService storageBucketService;
     @Autowired
     private StorageService storageService;
+    @Autowired
+    private StorageServiceEmbedded storageServiceEmbedded;
+    @Autowired
+    private ContentExistenceFilter contentExistenceFilter;
+    @Autowired
+    private ContentPrefetcher contentPrefetcher;
+    @Autowired
+    private ContentCache contentCache;
+    @Autowired
+    private MemoryBudget memoryBudget;
 
     @Test
     void testSaveAndGet() {
@@ -84,4 +105,217 @@ class StorageServiceEmbeddedIntegrationTest {
 
         assertEquals(metaValue, meta.get(metaKey));
     }
+
+    @Test
+    void testSaveAndGetRange() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var fileId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var bucketFile = storageServiceEmbedded.get(fileId, 10, 8).getBody();
+
+        assertArrayEquals(Arrays.copyOfRange(data, 10, 18), bucketFile.getData());
+    }
+
+    @Test
+    void testSaveAndGetWithSeveralOrNoMeta() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var meta = Map.of(
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString()
+        );
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var withMetaId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(meta)
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var withMeta = storageService.get(withMetaId).getBody();
+        assertArrayEquals(data, withMeta.getData());
+        var actualMeta = withMeta.getDescription().getMeta();
+        assertEquals(meta.keySet(), actualMeta.getAttributeNames());
+        for (var entry : meta.entrySet()) {
+            assertEquals(entry.getValue(), actualMeta.get(entry.getKey()));
+        }
+
+        var withoutMetaId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var withoutMeta = storageService.getDescription(withoutMetaId).getBody();
+        assertEquals(withoutMetaId, withoutMeta.getId());
+        assertTrue(withoutMeta.getMeta().getAttributeNames().isEmpty());
+    }
+
+    @Test
+    void testSaveAndGetByName() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var name = UUID.randomUUID().toString();
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
+        byte[] data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var fileId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(name)
+                        .meta(Map.of(metaKey, metaValue))
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var bucketFile = storageServiceEmbedded.getByName(bucket, name).getBody();
+        assertArrayEquals(data, bucketFile.getData());
+        assertEquals(fileId, bucketFile.getDescription().getId());
+        assertEquals(metaValue, bucketFile.getDescription().getMeta().get(metaKey));
+
+        var description = storageServiceEmbedded.getDescriptionByName(bucket, name).getBody();
+        assertEquals(fileId, description.getId());
+        assertEquals(name, description.getName());
+
+        var otherName = UUID.randomUUID().toString();
+        assertThrows(
+                FileNotFoundException.class,
+                () -> storageServiceEmbedded.getByName(bucket, otherName)
+        );
+    }
+
+    @Test
+    void testSaveAndGetIfNoneMatch() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        byte[] data = UUID.randomUUID().toString().repeat(512).getBytes(StandardCharsets.UTF_8);
+
+        var fileId = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        var description = (BucketFileDescriptionImpl) storageService.getDescription(fileId).getBody();
+        assertEquals(data.length, description.getSize());
+        assertNotNull(description.getCrc32c());
+        assertNotNull(description.getSha256());
+
+        var modified = storageServiceEmbedded.getIfNoneMatch(fileId, null).getBody();
+        assertTrue(modified.isModified());
+        assertEquals(description.getSha256(), modified.getEtag());
+        assertArrayEquals(data, modified.getFile().getData());
+
+        var notModified = storageServiceEmbedded.getIfNoneMatch(fileId, modified.getEtag()).getBody();
+        assertFalse(notModified.isModified());
+        assertNull(notModified.getFile());
+    }
+
+    @Test
+    void testExistenceFilter() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var savedBeforeRebuild = saveRandom(bucket);
+        contentExistenceFilter.rebuild();
+        var savedAfterRebuild = saveRandom(bucket);
+
+        assertNotNull(storageService.get(savedBeforeRebuild).getBody());
+        assertNotNull(storageService.get(savedAfterRebuild).getBody());
+        assertFalse(contentExistenceFilter.isMissing(UUID.fromString(savedBeforeRebuild)));
+        assertFalse(contentExistenceFilter.isMissing(UUID.fromString(savedAfterRebuild)));
+
+        storageService.delete(savedAfterRebuild);
+        assertThrows(
+                FileNotFoundException.class,
+                () -> storageService.get(savedAfterRebuild)
+        );
+        assertThrows(
+                FileNotFoundException.class,
+                () -> storageService.getDescription(savedAfterRebuild)
+        );
+    }
+
+    @Test
+    void testPrefetch() throws InterruptedException {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var id = saveRandom(bucket);
+        var uid = UUID.fromString(id);
+        assertTrue(contentCache.get(uid).isEmpty());
+
+        contentPrefetcher.prefetch(List.of(id, UUID.randomUUID().toString()));
+
+        for (int i = 0; i < 100 && contentCache.get(uid).isEmpty(); i++) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        var cached = contentCache.get(uid).orElseThrow();
+        assertArrayEquals(cached.getBody().getData(), storageService.get(id).getBody().getData());
+
+        storageService.delete(id);
+        assertTrue(contentCache.get(uid).isEmpty());
+    }
+
+    @Test
+    void testSaveSpilled() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var data = new byte[128 * 1024];
+        new Random().nextBytes(data);
+        var spilled = memoryBudget.getStats().getSpilled();
+
+        var id = storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(data)
+                        .build()
+        ).getBody();
+
+        assertEquals(spilled + 1, memoryBudget.getStats().getSpilled());
+        assertArrayEquals(data, storageService.get(id).getBody().getData());
+        assertArrayEquals(
+                Arrays.copyOfRange(data, 1000, 1100),
+                storageServiceEmbedded.get(id, 1000, 100).getBody().getData()
+        );
+    }
+
+    private String saveRandom(String bucket) {
+        return storageService.save(
+                SaveFileRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .meta(Map.of())
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        ).getBody();
+    }
 }
@@ -0,0 +1,122 @@
+package com.github.sibdevtools.storage.embedded;
+
+import com.github.sibdevtools.storage.api.service.StorageBucketService;
+import com.github.sibdevtools.storage.api.service.StorageService;
+import com.github.sibdevtools.storage.embedded.exception.UploadNotFoundException;
+import com.github.sibdevtools.storage.embedded.rq.InitiateUploadRq;
+import com.github.sibdevtools.storage.embedded.rq.UploadPartRq;
+import com.github.sibdevtools.storage.embedded.service.StorageUploadServiceEmbedded;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ActiveProfiles("startup-test")
+@SpringBootTest
+class StorageUploadServiceEmbeddedIntegrationTest {
+    @Autowired
+    private StorageBucketService storageBucketService;
+    @Autowired
+    private StorageService storageService;
+    @Autowired
+    private StorageUploadServiceEmbedded storageUploadService;
+
+    @Test
+    void testMultipartUpload() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var name = UUID.randomUUID().toString();
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
+
+        var uploadId = storageUploadService.initiate(
+                InitiateUploadRq.builder()
+                        .bucket(bucket)
+                        .name(name)
+                        .meta(Map.of(metaKey, metaValue))
+                        .build()
+        ).getBody();
+        assertNotNull(uploadId);
+
+        var first = UUID.randomUUID().toString();
+        var second = UUID.randomUUID().toString();
+
+        storageUploadService.uploadPart(
+                UploadPartRq.builder()
+                        .uploadId(uploadId)
+                        .partNumber(2)
+                        .data(second.getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+        storageUploadService.uploadPart(
+                UploadPartRq.builder()
+                        .uploadId(uploadId)
+                        .partNumber(1)
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+        storageUploadService.uploadPart(
+                UploadPartRq.builder()
+                        .uploadId(uploadId)
+                        .partNumber(1)
+                        .data(first.getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+
+        var fileId = storageUploadService.complete(uploadId).getBody();
+        assertNotNull(fileId);
+
+        var bucketFile = storageService.get(fileId).getBody();
+        assertEquals(first + second, new String(bucketFile.getData(), StandardCharsets.UTF_8));
+
+        var description = bucketFile.getDescription();
+        assertEquals(name, description.getName());
+        assertEquals(metaValue, description.getMeta().get(metaKey));
+
+        assertThrows(
+                UploadNotFoundException.class,
+                () -> storageUploadService.complete(uploadId)
+        );
+    }
+
+    @Test
+    void testAbortUpload() {
+        var bucket = UUID.randomUUID().toString();
+        storageBucketService.create(bucket);
+
+        var uploadId = storageUploadService.initiate(
+                InitiateUploadRq.builder()
+                        .bucket(bucket)
+                        .name(UUID.randomUUID().toString())
+                        .build()
+        ).getBody();
+
+        storageUploadService.uploadPart(
+                UploadPartRq.builder()
+                        .uploadId(uploadId)
+                        .partNumber(1)
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+
+        storageUploadService.abort(uploadId);
+
+        assertThrows(
+                UploadNotFoundException.class,
+                () -> storageUploadService.complete(uploadId)
+        );
+
+        storageBucketService.delete(bucket);
+    }
+}
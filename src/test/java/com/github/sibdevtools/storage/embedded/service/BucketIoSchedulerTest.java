@@ -0,0 +1,226 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.exception.BucketRateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class BucketIoSchedulerTest {
+    private static final long BUCKET_A = 1L;
+    private static final long BUCKET_B = 2L;
+
+    @Mock
+    private BucketRegistry bucketRegistry;
+    private StorageServiceEmbeddedProperties properties;
+    private BucketIoScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        scheduler = new BucketIoScheduler(bucketRegistry, properties);
+    }
+
+    @Test
+    void testDisabled() {
+        try (var permit = scheduler.acquire(BUCKET_A, 100)) {
+            assertSame(BucketIoScheduler.Permit.NONE, permit);
+        }
+        try (var permit = scheduler.acquire(BUCKET_A, 100)) {
+            assertSame(BucketIoScheduler.Permit.NONE, permit);
+        }
+
+        assertTrue(scheduler.getStats().isEmpty());
+        assertEquals(0, scheduler.getStats(BUCKET_A).getOperations());
+    }
+
+    @Test
+    void testOpsRateLimitRejects() {
+        properties.setIo(io(0, Duration.ofMillis(100), limits(1.0, null, 1), Map.of()));
+        mockBucket(BUCKET_A, "a");
+
+        scheduler.acquire(BUCKET_A, 0).close();
+        var exception = assertThrows(
+                BucketRateLimitExceededException.class,
+                () -> scheduler.acquire(BUCKET_A, 0)
+        );
+        assertEquals(429, exception.getStatus());
+        assertEquals("BUCKET_RATE_LIMIT_EXCEEDED", exception.getCode());
+
+        var stats = scheduler.getStats(BUCKET_A);
+        assertEquals(BUCKET_A, stats.getBucketId());
+        assertEquals(1, stats.getOperations());
+        assertEquals(1, stats.getRejected());
+        assertEquals(0, stats.getQueued());
+    }
+
+    @Test
+    void testOpsRateLimitDelays() {
+        properties.setIo(io(0, Duration.ofSeconds(5), limits(10.0, null, 1), Map.of()));
+        mockBucket(BUCKET_A, "a");
+
+        var startedAt = System.nanoTime();
+        for (int i = 0; i < 12; i++) {
+            scheduler.acquire(BUCKET_A, 0).close();
+        }
+        var elapsed = System.nanoTime() - startedAt;
+
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(150), "Elapsed: " + elapsed);
+        var stats = scheduler.getStats(BUCKET_A);
+        assertEquals(12, stats.getOperations());
+        assertEquals(0, stats.getRejected());
+        assertTrue(stats.getMaxQueueTime().toMillis() >= 50);
+    }
+
+    @Test
+    void testChargedBytesDelayNextOperations() {
+        properties.setIo(io(0, Duration.ofMillis(100), limits(0.0, DataSize.ofBytes(100), 1), Map.of()));
+        mockBucket(BUCKET_A, "a");
+
+        try (var permit = scheduler.acquire(BUCKET_A, 0)) {
+            permit.charge(300);
+        }
+
+        assertThrows(
+                BucketRateLimitExceededException.class,
+                () -> scheduler.acquire(BUCKET_A, 50)
+        );
+    }
+
+    @Test
+    void testOperationLargerThanQueueTimeOfRateIsAdmitted() {
+        properties.setIo(io(0, Duration.ofMillis(100), limits(0.0, DataSize.ofBytes(100), 1), Map.of()));
+        mockBucket(BUCKET_A, "a");
+
+        scheduler.acquire(BUCKET_A, 1_000_000).close();
+
+        assertEquals(1, scheduler.getStats(BUCKET_A).getOperations());
+        assertEquals(0, scheduler.getStats(BUCKET_A).getRejected());
+    }
+
+    @Test
+    void testBucketLimitsOverrideDefaults() {
+        properties.setIo(io(0, Duration.ofMillis(100), limits(0.0, null, 1),
+                Map.of("limited", limits(1.0, null, null))));
+        mockBucket(BUCKET_A, "limited");
+        mockBucket(BUCKET_B, "unlimited");
+
+        scheduler.acquire(BUCKET_A, 0).close();
+        assertThrows(
+                BucketRateLimitExceededException.class,
+                () -> scheduler.acquire(BUCKET_A, 0)
+        );
+        for (int i = 0; i < 10; i++) {
+            scheduler.acquire(BUCKET_B, 0).close();
+        }
+
+        assertEquals(1, scheduler.getStats(BUCKET_A).getRejected());
+        assertEquals(10, scheduler.getStats(BUCKET_B).getOperations());
+        assertEquals(2, scheduler.getStats().size());
+    }
+
+    @Test
+    void testQueueTimeExceeded() {
+        properties.setIo(io(1, Duration.ofMillis(100), limits(0.0, null, 1), Map.of()));
+        mockBucket(BUCKET_A, "a");
+
+        try (var ignored = scheduler.acquire(BUCKET_A, 0)) {
+            assertThrows(
+                    BucketRateLimitExceededException.class,
+                    () -> scheduler.acquire(BUCKET_A, 0)
+            );
+        }
+
+        try (var ignored = scheduler.acquire(BUCKET_A, 0)) {
+            var stats = scheduler.getStats(BUCKET_A);
+            assertEquals(2, stats.getOperations());
+            assertEquals(1, stats.getRejected());
+        }
+    }
+
+    @Test
+    void testWeightedFairQueue() throws Exception {
+        properties.setIo(io(1, Duration.ofSeconds(5), limits(0.0, null, 1),
+                Map.of("heavy", limits(null, null, 2))));
+        mockBucket(BUCKET_A, "light");
+        mockBucket(BUCKET_B, "heavy");
+
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var executor = Executors.newCachedThreadPool();
+        try {
+            var operations = new ArrayList<Future<?>>();
+            try (var ignored = scheduler.acquire(BUCKET_A, 0)) {
+                for (int i = 0; i < 3; i++) {
+                    operations.add(enqueue(executor, BUCKET_A, "a", order));
+                }
+                for (int i = 0; i < 2; i++) {
+                    operations.add(enqueue(executor, BUCKET_B, "b", order));
+                }
+            }
+            for (var operation : operations) {
+                operation.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // light bucket queued first, heavy bucket gets its share without waiting for light bucket backlog
+        assertEquals(List.of("b", "a", "b", "a", "a"), order);
+        assertTrue(scheduler.getStats(BUCKET_B).getTotalQueueTime().toNanos() > 0);
+    }
+
+    private Future<?> enqueue(ExecutorService executor, long bucketId, String name, List<String> order)
+            throws InterruptedException {
+        var queued = scheduler.getStats(bucketId).getQueued();
+        var future = executor.submit(() -> {
+            try (var ignored = scheduler.acquire(bucketId, 0)) {
+                order.add(name);
+            }
+        });
+        while (scheduler.getStats(bucketId).getQueued() == queued) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        // let operation reach fair queue
+        TimeUnit.MILLISECONDS.sleep(50);
+        return future;
+    }
+
+    private void mockBucket(long bucketId, String code) {
+        when(bucketRegistry.findById(bucketId))
+                .thenReturn(Optional.of(new BucketInfo(bucketId, code, false)));
+    }
+
+    private static StorageServiceEmbeddedProperties.Io io(int concurrency,
+                                                         Duration maxQueueTime,
+                                                         StorageServiceEmbeddedProperties.BucketIo defaults,
+                                                         Map<String, StorageServiceEmbeddedProperties.BucketIo> buckets) {
+        return new StorageServiceEmbeddedProperties.Io(true, concurrency, maxQueueTime, defaults, buckets);
+    }
+
+    private static StorageServiceEmbeddedProperties.BucketIo limits(Double opsRate, DataSize bytesRate, Integer weight) {
+        return new StorageServiceEmbeddedProperties.BucketIo(opsRate, bytesRate, weight);
+    }
+}
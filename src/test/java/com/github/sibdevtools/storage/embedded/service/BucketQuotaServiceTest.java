@@ -0,0 +1,193 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.BucketStats;
+import com.github.sibdevtools.storage.embedded.exception.BucketQuotaExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class BucketQuotaServiceTest {
+    private static final long BUCKET_ID = 42L;
+
+    @Mock
+    private BucketStatsService bucketStatsService;
+    private BucketQuotaService service;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new StorageServiceEmbeddedProperties();
+        properties.setQuota(new StorageServiceEmbeddedProperties.Quota(Duration.ofHours(1)));
+        service = new BucketQuotaService(bucketStatsService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReserveWithoutQuota() {
+        service.reserve(new BucketInfo(BUCKET_ID, "bucket", false), 100);
+
+        verifyNoInteractions(bucketStatsService);
+    }
+
+    @Test
+    void testReserveLoadsUsageOnce() {
+        stats(2, 50);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, 4L);
+
+        service.reserve(bucket, 20);
+        service.reserve(bucket, 30);
+
+        var exception = assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+        assertEquals("Bucket objects quota exceeded", exception.getMessage());
+        verify(bucketStatsService, times(1)).get(BUCKET_ID);
+    }
+
+    @Test
+    void testReserveWhenBytesQuotaExceeded() {
+        stats(0, 90);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, null);
+
+        service.reserve(bucket, 10);
+
+        var exception = assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+        assertEquals("Bucket bytes quota exceeded", exception.getMessage());
+    }
+
+    @Test
+    void testReservationReleasedOnRollback() {
+        stats(0, 0);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.reserve(bucket, 100);
+        assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        service.reserve(bucket, 100);
+    }
+
+    @Test
+    void testReservationKeptOnCommit() {
+        stats(0, 0);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.reserve(bucket, 100);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+    }
+
+    @Test
+    void testRefreshWaitsForCommittingTransaction() throws InterruptedException {
+        when(bucketStatsService.get(BUCKET_ID))
+                .thenReturn(BucketStats.builder().build())
+                .thenReturn(BucketStats.builder()
+                        .contents(1)
+                        .physicalBytes(100)
+                        .build());
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 150L, null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.reserve(bucket, 100);
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(it -> it.beforeCommit(false));
+
+        service.invalidate(BUCKET_ID);
+        var refresh = new Thread(() -> service.reserve(bucket, 1));
+        refresh.start();
+        refresh.join(200);
+        assertTrue(refresh.isAlive());
+        verify(bucketStatsService, times(1)).get(BUCKET_ID);
+
+        synchronizations.forEach(it -> it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        refresh.join();
+
+        service.reserve(bucket, 49);
+        assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+    }
+
+    @Test
+    void testDeleteReleasesUsage() {
+        stats(1, 100);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, 1L);
+
+        assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.reserve(bucket, 1)
+        );
+        service.onDeleted(BUCKET_ID, 100);
+
+        service.reserve(bucket, 100);
+    }
+
+    @Test
+    void testInvalidateReloadsUsage() {
+        stats(0, 0);
+        var bucket = new BucketInfo(BUCKET_ID, "bucket", false, 100L, null);
+
+        service.reserve(bucket, 10);
+        service.invalidate(BUCKET_ID);
+        service.reserve(bucket, 10);
+
+        verify(bucketStatsService, times(2)).get(anyLong());
+    }
+
+    private void stats(long contents, long physicalBytes) {
+        when(bucketStatsService.get(BUCKET_ID))
+                .thenReturn(BucketStats.builder()
+                        .contents(contents)
+                        .logicalBytes(physicalBytes)
+                        .physicalBytes(physicalBytes)
+                        .build());
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(it -> it.beforeCommit(false));
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(it -> it.afterCompletion(status));
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class BucketRegistryTest {
+    @Mock
+    private BucketEntityRepository bucketEntityRepository;
+    @Mock
+    private StorageServiceEmbeddedProperties properties;
+    private BucketRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new BucketRegistry(bucketEntityRepository, properties);
+    }
+
+    @Test
+    void testFindByCodeIsCached() {
+        when(properties.getBucketCacheTtl())
+                .thenReturn(Duration.ofMinutes(1));
+
+        var bucketEntity = buildBucket(true);
+        var code = bucketEntity.getCode();
+        when(bucketEntityRepository.findByCode(code))
+                .thenReturn(Optional.of(bucketEntity));
+
+        var bucket = registry.findByCode(code).orElseThrow();
+        assertEquals(bucketEntity.getId(), bucket.id());
+        assertEquals(code, bucket.code());
+        assertTrue(bucket.readonly());
+
+        assertEquals(bucket, registry.findByCode(code).orElseThrow());
+        assertEquals(bucket, registry.findById(bucketEntity.getId()).orElseThrow());
+
+        verify(bucketEntityRepository, times(1))
+                .findByCode(code);
+        verify(bucketEntityRepository, never())
+                .findById(anyLong());
+    }
+
+    @Test
+    void testInvalidate() {
+        when(properties.getBucketCacheTtl())
+                .thenReturn(Duration.ofMinutes(1));
+
+        var bucketEntity = buildBucket(false);
+        var code = bucketEntity.getCode();
+        when(bucketEntityRepository.findByCode(code))
+                .thenReturn(Optional.of(bucketEntity));
+
+        assertFalse(registry.findByCode(code).orElseThrow().readonly());
+
+        bucketEntity.setReadonly(true);
+        registry.invalidate(code);
+
+        assertTrue(registry.findByCode(code).orElseThrow().readonly());
+
+        verify(bucketEntityRepository, times(2))
+                .findByCode(code);
+    }
+
+    @Test
+    void testFindByCodeWhenCacheDisabled() {
+        when(properties.getBucketCacheTtl())
+                .thenReturn(Duration.ZERO);
+
+        var bucketEntity = buildBucket(false);
+        var code = bucketEntity.getCode();
+        when(bucketEntityRepository.findByCode(code))
+                .thenReturn(Optional.of(bucketEntity));
+
+        registry.findByCode(code);
+        registry.findByCode(code);
+
+        verify(bucketEntityRepository, times(2))
+                .findByCode(code);
+    }
+
+    @Test
+    void testMissingBucketIsNotCached() {
+        var code = UUID.randomUUID().toString();
+        when(bucketEntityRepository.findByCode(code))
+                .thenReturn(Optional.empty());
+
+        assertTrue(registry.findByCode(code).isEmpty());
+        assertTrue(registry.findByCode(code).isEmpty());
+
+        verify(bucketEntityRepository, times(2))
+                .findByCode(code);
+    }
+
+    private static BucketEntity buildBucket(boolean readonly) {
+        return BucketEntity.builder()
+                .id(Math.absExact(UUID.randomUUID().hashCode()))
+                .code(UUID.randomUUID().toString())
+                .readonly(readonly)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class ContentCacheTest {
+    private StorageServiceEmbeddedProperties properties;
+    private ContentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setCache(new StorageServiceEmbeddedProperties.Cache(DataSize.ofBytes(100), DataSize.ofBytes(60)));
+        cache = new ContentCache(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testPutAndGet() {
+        var uid = ContentIds.next();
+        var description = description(uid);
+        var data = new byte[]{1, 2, 3};
+
+        cache.put(uid, description, data, cache.mark());
+
+        var cached = cache.get(uid).orElseThrow().getBody();
+        assertSame(description, cached.getDescription());
+        assertArrayEquals(data, cached.getData());
+        assertNotSame(data, cached.getData());
+        assertSame(description, cache.getDescription(uid).orElseThrow());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void testCachedDataIsCopied() {
+        var uid = ContentIds.next();
+        var data = new byte[]{1, 2, 3};
+        cache.put(uid, description(uid), data, cache.mark());
+        data[0] = 0;
+
+        var first = cache.get(uid).orElseThrow().getBody().getData();
+        first[1] = 0;
+        var second = cache.get(uid).orElseThrow().getBody().getData();
+
+        assertNotSame(first, second);
+        assertArrayEquals(new byte[]{1, 2, 3}, second);
+    }
+
+    @Test
+    void testLargeContentIsNotCached() {
+        var uid = ContentIds.next();
+
+        cache.put(uid, description(uid), content(61), cache.mark());
+
+        assertTrue(cache.get(uid).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabledCache() {
+        properties.getCache().setMaxSize(DataSize.ofBytes(0));
+        var uid = ContentIds.next();
+
+        cache.put(uid, description(uid), content(0), cache.mark());
+
+        assertTrue(cache.get(uid).isEmpty());
+    }
+
+    @Test
+    void testLeastRecentlyUsedIsEvicted() {
+        var first = ContentIds.next();
+        var second = ContentIds.next();
+        var third = ContentIds.next();
+        cache.put(first, description(first), content(40), cache.mark());
+        cache.put(second, description(second), content(40), cache.mark());
+        assertTrue(cache.get(first).isPresent());
+
+        cache.put(third, description(third), content(40), cache.mark());
+
+        assertTrue(cache.get(first).isPresent());
+        assertTrue(cache.get(second).isEmpty());
+        assertTrue(cache.get(third).isPresent());
+        assertEquals(80, cache.size());
+    }
+
+    @Test
+    void testContentRemovedWhileLoadIsNotCached() {
+        var uid = ContentIds.next();
+        var mark = cache.mark();
+
+        cache.evict(uid);
+        cache.put(uid, description(uid), content(10), mark);
+
+        assertTrue(cache.get(uid).isEmpty());
+    }
+
+    @Test
+    void testEvictAfterCommit() {
+        var uid = ContentIds.next();
+        cache.put(uid, description(uid), content(10), cache.mark());
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(uid);
+        assertTrue(cache.get(uid).isEmpty());
+        var mark = cache.mark();
+        cache.put(uid, description(uid), content(10), mark);
+        assertTrue(cache.get(uid).isPresent());
+
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(cache.get(uid).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    private static BucketFileDescriptionImpl description(UUID uid) {
+        return BucketFileDescriptionImpl.builder()
+                .id(uid.toString())
+                .build();
+    }
+
+    private static byte[] content(int size) {
+        return new byte[size];
+    }
+}
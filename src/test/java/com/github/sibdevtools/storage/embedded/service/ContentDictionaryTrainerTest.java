@@ -0,0 +1,183 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentDictionary;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentDictionaryEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentDictionaryEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentDictionaryTrainerTest {
+    private static final long BUCKET_ID = 1L;
+    private static final String DOCUMENT = "{\"type\":\"order\",\"status\":\"CREATED\",\"customer\":{\"name\":\"%s\"}}";
+
+    @Mock
+    private BucketEntityRepository bucketEntityRepository;
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private ContentDictionaryEntityRepository contentDictionaryEntityRepository;
+    @Mock
+    private ContentDictionaryService contentDictionaryService;
+    @Mock
+    private StorageServiceEmbedded storageServiceEmbedded;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentDictionaryTrainer trainer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setStorageFormat(ContentStorageFormat.GZIP);
+        properties.setDictionary(new StorageServiceEmbeddedProperties.Dictionary(
+                true,
+                Duration.ofMinutes(10),
+                Duration.ofDays(1),
+                16,
+                2,
+                DataSize.ofKilobytes(16),
+                DataSize.ofKilobytes(32),
+                64
+        ));
+        trainer = new ContentDictionaryTrainer(
+                bucketEntityRepository,
+                contentEntityRepository,
+                contentDictionaryEntityRepository,
+                contentDictionaryService,
+                storageServiceEmbedded,
+                properties
+        );
+    }
+
+    @Test
+    void testTrainOutdatedSkipsBucketsOfOtherFormats() {
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(bucket(null), bucket(ContentStorageFormat.BLOCK_DEFLATE)));
+
+        trainer.trainOutdated();
+
+        verifyNoInteractions(contentEntityRepository, contentDictionaryEntityRepository, contentDictionaryService);
+    }
+
+    @Test
+    void testTrainOutdatedSkipsRecentDictionary() {
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(bucket(ContentStorageFormat.DICTIONARY_DEFLATE)));
+        when(contentDictionaryEntityRepository.findFirstByBucketIdOrderByIdDesc(BUCKET_ID))
+                .thenReturn(Optional.of(ContentDictionaryEntity.builder()
+                        .createdAt(ZonedDateTime.now().minusHours(1))
+                        .build()));
+
+        trainer.trainOutdated();
+
+        verifyNoInteractions(contentEntityRepository, contentDictionaryService);
+    }
+
+    @Test
+    void testTrainOutdatedSkipsBucketWithoutNewContents() {
+        var createdAt = ZonedDateTime.now().minusDays(2);
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(bucket(ContentStorageFormat.DICTIONARY_DEFLATE)));
+        when(contentDictionaryEntityRepository.findFirstByBucketIdOrderByIdDesc(BUCKET_ID))
+                .thenReturn(Optional.of(ContentDictionaryEntity.builder()
+                        .createdAt(createdAt)
+                        .build()));
+        when(contentEntityRepository.existsByBucketIdAndCreatedAtAfter(BUCKET_ID, createdAt))
+                .thenReturn(false);
+
+        trainer.trainOutdated();
+
+        verify(contentEntityRepository, never())
+                .findAllByBucketIdAndOriginalSizeLessThanEqualOrderByCreatedAtDesc(anyLong(), anyLong(), any());
+        verifyNoInteractions(contentDictionaryService);
+    }
+
+    @Test
+    void testTrainOutdatedTrainsBucketWithoutDictionary() {
+        properties.setStorageFormat(ContentStorageFormat.DICTIONARY_DEFLATE);
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(bucket(null)));
+        when(contentDictionaryEntityRepository.findFirstByBucketIdOrderByIdDesc(BUCKET_ID))
+                .thenReturn(Optional.empty());
+        var contents = mockContents(4);
+        var dictionary = new ContentDictionary(7L, new byte[1]);
+        when(contentDictionaryService.save(eq(BUCKET_ID), any(), eq(contents.size())))
+                .thenReturn(dictionary);
+
+        trainer.trainOutdated();
+
+        var dictionaryCaptor = ArgumentCaptor.forClass(byte[].class);
+        verify(contentDictionaryService).save(eq(BUCKET_ID), dictionaryCaptor.capture(), eq(contents.size()));
+        var trained = new String(dictionaryCaptor.getValue(), StandardCharsets.UTF_8);
+        assertTrue(trained.contains("\"status\":\"CREATED\""));
+    }
+
+    @Test
+    void testTrainSkipsUnreadableContents() {
+        var contents = mockContents(2);
+        when(storageServiceEmbedded.getData(contents.get(0).getUid()))
+                .thenThrow(new FileNotFoundException("File not found"));
+
+        var dictionary = trainer.train(BUCKET_ID);
+
+        assertTrue(dictionary.isEmpty());
+        verify(contentDictionaryService, never()).save(anyLong(), any(), anyInt());
+    }
+
+    private List<ContentEntity> mockContents(int count) {
+        var contents = new ArrayList<ContentEntity>();
+        for (int i = 0; i < count; i++) {
+            var content = ContentEntity.builder()
+                    .uid(UUID.randomUUID())
+                    .build();
+            contents.add(content);
+            var data = DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+            lenient().when(storageServiceEmbedded.getData(content.getUid()))
+                    .thenReturn(data);
+        }
+        when(contentEntityRepository.findAllByBucketIdAndOriginalSizeLessThanEqualOrderByCreatedAtDesc(
+                BUCKET_ID,
+                DataSize.ofKilobytes(16).toBytes(),
+                Limit.of(16)
+        )).thenReturn(contents);
+        return contents;
+    }
+
+    private static BucketEntity bucket(ContentStorageFormat storageFormat) {
+        return BucketEntity.builder()
+                .id(BUCKET_ID)
+                .storageFormat(storageFormat)
+                .build();
+    }
+}
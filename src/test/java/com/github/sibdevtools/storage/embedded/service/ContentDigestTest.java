@@ -0,0 +1,53 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class ContentDigestTest {
+
+    @Test
+    void testKnownValues() {
+        var digest = ContentDigest.of("123456789".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(9, digest.getSize());
+        assertEquals(0xE3069283L, digest.getCrc32c());
+        assertEquals("15e2b0d3c33891ebb0f1ef609ec419420c20e320ce94c65fbc8c3312448eb225", digest.getSha256());
+    }
+
+    @Test
+    void testChunkedUpdate() {
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var expected = ContentDigest.of(content);
+
+        var digest = new ContentDigest();
+        digest.update(content, 0, 5);
+        digest.update(content, 5, content.length - 5);
+
+        assertEquals(expected.getSize(), digest.getSize());
+        assertEquals(expected.getCrc32c(), digest.getCrc32c());
+        assertEquals(expected.getSha256(), digest.getSha256());
+    }
+
+    @Test
+    void testUpdateAfterComplete() {
+        var digest = ContentDigest.of(new byte[0]);
+        var sha256 = digest.getSha256();
+
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", sha256);
+        assertEquals(sha256, digest.getSha256());
+
+        var bytes = new byte[1];
+        assertThrows(
+                IllegalStateException.class,
+                () -> digest.update(bytes, 0, 1)
+        );
+    }
+}
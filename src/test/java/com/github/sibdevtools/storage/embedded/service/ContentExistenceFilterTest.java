@@ -0,0 +1,169 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentExistenceFilterTest {
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setExistenceFilter(new StorageServiceEmbeddedProperties.ExistenceFilter(
+                true,
+                Duration.ofHours(1),
+                1000,
+                0.01,
+                DataSize.ofMegabytes(1)
+        ));
+        filter = new ContentExistenceFilter(contentEntityRepository, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testNothingIsMissingBeforeBuild() {
+        assertFalse(filter.isMissing(ContentIds.next()));
+    }
+
+    @Test
+    void testRebuildStreamsContents() {
+        var first = new ArrayList<UUID>();
+        for (int i = 0; i < 1000; i++) {
+            first.add(ContentIds.next());
+        }
+        var last = ContentIds.next();
+        when(contentEntityRepository.findUidsAfter(eq(new UUID(0, 0)), any()))
+                .thenReturn(first);
+        when(contentEntityRepository.findUidsAfter(eq(first.get(999)), any()))
+                .thenReturn(List.of(last));
+
+        filter.rebuild();
+
+        for (var uid : first) {
+            assertFalse(filter.isMissing(uid));
+        }
+        assertFalse(filter.isMissing(last));
+        var missing = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.isMissing(ContentIds.next())) {
+                missing++;
+            }
+        }
+        assertTrue(missing > 90, "Missing: " + missing);
+    }
+
+    @Test
+    void testSavedContentIsNotMissing() {
+        when(contentEntityRepository.findUidsAfter(any(), any()))
+                .thenReturn(List.of());
+        filter.rebuild();
+        var uid = ContentIds.next();
+
+        filter.onSaved(uid);
+
+        assertFalse(filter.isMissing(uid));
+    }
+
+    @Test
+    void testContentSavedWhileRebuildIsNotMissing() {
+        when(contentEntityRepository.findUidsAfter(any(), any()))
+                .thenReturn(List.of());
+        var uid = ContentIds.next();
+        TransactionSynchronizationManager.initSynchronization();
+        filter.onSaved(uid);
+
+        filter.rebuild();
+
+        assertFalse(filter.isMissing(uid));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        filter.rebuild();
+        assertTrue(filter.isMissing(uid));
+    }
+
+    @Test
+    void testDeletedContentIsMissingAfterCommit() {
+        var uid = ContentIds.next();
+        when(contentEntityRepository.findUidsAfter(any(), any()))
+                .thenReturn(List.of(uid));
+        filter.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        filter.onDeleted(uid);
+        assertFalse(filter.isMissing(uid));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertTrue(filter.isMissing(uid));
+    }
+
+    @Test
+    void testDeletedContentIsNotRemovedFromRebuiltFilter() {
+        var uid = ContentIds.next();
+        when(contentEntityRepository.findUidsAfter(any(), any()))
+                .thenReturn(List.of(uid));
+        filter.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        filter.onDeleted(uid);
+        filter.rebuild();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(filter.isMissing(uid));
+    }
+
+    @Test
+    void testDisabledFilterIsDropped() {
+        when(contentEntityRepository.findUidsAfter(any(), any()))
+                .thenReturn(List.of());
+        filter.rebuild();
+        properties.getExistenceFilter().setEnabled(false);
+
+        filter.rebuildScheduled();
+
+        assertFalse(filter.isMissing(ContentIds.next()));
+        verify(contentEntityRepository, times(1)).findUidsAfter(any(), any());
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (var synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
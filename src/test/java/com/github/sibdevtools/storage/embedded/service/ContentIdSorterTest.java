@@ -0,0 +1,82 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class ContentIdSorterTest {
+    @TempDir
+    Path folder;
+
+    @Test
+    void testSortInMemory() {
+        var uids = IntStream.range(0, 5)
+                .mapToObj(it -> UUID.randomUUID())
+                .toList();
+        var runFolder = folder.resolve("sort");
+
+        try (var sorter = new ContentIdSorter(runFolder, 10, ContentReconciler.UID_ORDER)) {
+            uids.forEach(sorter::add);
+
+            assertEquals(5, sorter.size());
+            assertEquals(sorted(uids), collect(sorter));
+            assertTrue(Files.notExists(runFolder));
+        }
+    }
+
+    @Test
+    void testSortThroughRunFiles() throws IOException {
+        var uids = IntStream.range(0, 50)
+                .mapToObj(it -> UUID.randomUUID())
+                .toList();
+        var runFolder = folder.resolve("sort");
+
+        try (var sorter = new ContentIdSorter(runFolder, 7, ContentReconciler.UID_ORDER)) {
+            uids.forEach(sorter::add);
+
+            assertEquals(50, sorter.size());
+            assertEquals(sorted(uids), collect(sorter));
+            try (var files = Files.list(runFolder)) {
+                assertEquals(8, files.count());
+            }
+        }
+        try (var files = Files.list(runFolder)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testAddAfterSort() {
+        try (var sorter = new ContentIdSorter(folder, 10, ContentReconciler.UID_ORDER)) {
+            sorter.sorted();
+
+            var uid = UUID.randomUUID();
+            assertThrows(IllegalStateException.class, () -> sorter.add(uid));
+        }
+    }
+
+    private static List<UUID> sorted(List<UUID> uids) {
+        var sorted = new ArrayList<>(uids);
+        sorted.sort(ContentReconciler.UID_ORDER);
+        return sorted;
+    }
+
+    private static List<UUID> collect(ContentIdSorter sorter) {
+        var collected = new ArrayList<UUID>();
+        sorter.sorted().forEachRemaining(collected::add);
+        return collected;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class ContentIdsTest {
+
+    @Test
+    void testNextHasVersionAndVariant() {
+        var id = ContentIds.next();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void testNextIsTimeOrdered() {
+        var epochMillis = System.currentTimeMillis();
+        var first = ContentIds.next(epochMillis);
+        var second = ContentIds.next(epochMillis + 1);
+
+        assertTrue(first.toString().compareTo(second.toString()) < 0);
+        assertEquals(epochMillis, first.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testParse() {
+        var id = ContentIds.next();
+        assertEquals(id, ContentIds.parse(id.toString()).orElseThrow());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "mock", "0-0-0-0-0", "zzzzzzzz-zzzz-zzzz-zzzz-zzzzzzzzzzzz"})
+    void testParseWhenIdIsInvalid(String id) {
+        assertTrue(ContentIds.parse(id).isEmpty());
+    }
+
+    @Test
+    void testParseRandomUuid() {
+        var id = UUID.randomUUID();
+        assertEquals(id, ContentIds.parse(id.toString()).orElseThrow());
+    }
+}
@@ -0,0 +1,371 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.StoragePolicy;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.ContentWriter;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentLifecycleTest {
+    private static final String CONTAINER = "LOCAL";
+    private static final long BUCKET_ID = 1L;
+    private static final UUID MIN_UID = new UUID(0, 0);
+
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private BucketRegistry bucketRegistry;
+    @Mock
+    private BucketStatsService bucketStatsService;
+    @Mock
+    private BucketQuotaService bucketQuotaService;
+    @Mock
+    private StorageCodec sourceCodec;
+    @Mock
+    private StorageCodec targetCodec;
+    @Mock
+    private StorageContainer storageContainer;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentLifecycle lifecycle;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setDefaultStorageContainer(CONTAINER);
+        properties.setLifecycle(lifecycleProperties(true));
+        lifecycle = new ContentLifecycle(
+                contentEntityRepository,
+                bucketRegistry,
+                bucketStatsService,
+                bucketQuotaService,
+                Map.of(
+                        ContentStorageFormat.BASE64, sourceCodec,
+                        ContentStorageFormat.GZIP, targetCodec
+                ),
+                properties,
+                Map.of(CONTAINER, storageContainer),
+                transactionManager
+        );
+    }
+
+    @Test
+    void testTransitWhenDisabled() {
+        properties.setLifecycle(lifecycleProperties(false));
+
+        lifecycle.transit();
+
+        verifyNoInteractions(contentEntityRepository, storageContainer, bucketRegistry);
+    }
+
+    @Test
+    void testTransitReencodesStoredContent() throws IOException {
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var encoded = "encoded-content".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, encoded.length);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+        var contentId = content.getUid().toString();
+        when(storageContainer.open(BUCKET_ID, contentId))
+                .thenReturn(new ByteArrayRandomAccessContent(encoded));
+        mockDecode(data);
+        mockEncode(StorageCodec.DEFAULT_LEVEL);
+        var out = new ByteArrayOutputStream();
+        mockWrite(contentId, out);
+        when(contentEntityRepository.updateStorageFormat(
+                content.getUid(),
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                data.length,
+                null
+        )).thenReturn(1);
+
+        lifecycle.transit();
+
+        assertArrayEquals(data, out.toByteArray());
+        verify(bucketStatsService).onReencoded(BUCKET_ID, (long) encoded.length, data.length);
+        verify(bucketQuotaService).onResized(BUCKET_ID, data.length - encoded.length);
+        verify(storageContainer, never()).delete(anyLong(), any());
+    }
+
+    @Test
+    void testTransitReencodesInlineContentWithBucketCompressionLevel() throws IOException {
+        properties.setInlineThreshold(1024);
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var encoded = "encoded-content".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, encoded.length);
+        content.setInlineData(encoded);
+        mockContents(content);
+        mockBucket(new StoragePolicy(null, null, 9));
+        mockDecode(data);
+        mockEncode(9);
+        when(contentEntityRepository.updateStorageFormat(
+                content.getUid(),
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                data.length,
+                data
+        )).thenReturn(1);
+
+        lifecycle.transit();
+
+        verifyNoInteractions(storageContainer);
+        verify(bucketStatsService).onReencoded(BUCKET_ID, (long) encoded.length, data.length);
+    }
+
+    @Test
+    void testTransitMovesGrownInlineContentIntoStorageContainer() throws IOException {
+        properties.setInlineThreshold(4);
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var encoded = "enc".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, encoded.length);
+        content.setInlineData(encoded);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+        mockDecode(data);
+        mockEncode(StorageCodec.DEFAULT_LEVEL);
+        var contentId = content.getUid().toString();
+        var out = new ByteArrayOutputStream();
+        mockWrite(contentId, out);
+        when(contentEntityRepository.moveToStorageContainer(
+                content.getUid(),
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                data.length,
+                CONTAINER
+        )).thenReturn(1);
+
+        lifecycle.transit();
+
+        assertArrayEquals(data, out.toByteArray());
+        verify(contentEntityRepository, never()).updateStorageFormat(any(), any(), any(), anyLong(), any());
+        verify(bucketStatsService).onReencoded(BUCKET_ID, (long) encoded.length, data.length);
+        verify(storageContainer, never()).delete(anyLong(), any());
+    }
+
+    @Test
+    void testTransitCompletesInterruptedSwap() {
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var reencoded = "gz".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, 15);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+        when(storageContainer.open(BUCKET_ID, content.getUid().toString()))
+                .thenReturn(new ByteArrayRandomAccessContent(reencoded, ContentStorageFormat.GZIP));
+        when(contentEntityRepository.updateStorageFormat(
+                content.getUid(),
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                reencoded.length,
+                null
+        )).thenReturn(1);
+
+        lifecycle.transit();
+
+        verifyNoInteractions(sourceCodec, targetCodec);
+        verify(storageContainer, never()).write(anyLong(), any(), any(), any());
+        verify(bucketStatsService).onReencoded(BUCKET_ID, 15L, reencoded.length);
+    }
+
+    @Test
+    void testTransitSkipsBucketWithPinnedFormat() {
+        var content = content("content".getBytes(StandardCharsets.UTF_8), 15);
+        mockContents(content);
+        mockBucket(new StoragePolicy(ContentStorageFormat.BASE64, null, null));
+
+        lifecycle.transit();
+
+        verifyNoInteractions(storageContainer, sourceCodec, targetCodec);
+        verify(contentEntityRepository, never()).updateStorageFormat(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testTransitSkipsContentInServiceStorageFormat() {
+        properties.setStorageFormat(ContentStorageFormat.BASE64);
+        var content = content("content".getBytes(StandardCharsets.UTF_8), 15);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+
+        lifecycle.transit();
+
+        verifyNoInteractions(storageContainer, sourceCodec, targetCodec);
+        verify(contentEntityRepository, never()).updateStorageFormat(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testTransitSkipsCorruptedContent() throws IOException {
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var encoded = "encoded-content".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, encoded.length);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+        var contentId = content.getUid().toString();
+        when(storageContainer.open(BUCKET_ID, contentId))
+                .thenReturn(new ByteArrayRandomAccessContent(encoded));
+        mockDecode("conTent".getBytes(StandardCharsets.UTF_8));
+        mockEncode(StorageCodec.DEFAULT_LEVEL);
+        mockWrite(contentId, new ByteArrayOutputStream());
+
+        lifecycle.transit();
+
+        verifyNoInteractions(bucketStatsService);
+        verify(contentEntityRepository, never()).updateStorageFormat(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testTransitRemovesBlobOfConcurrentlyRemovedContent() throws IOException {
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        var encoded = "encoded-content".getBytes(StandardCharsets.UTF_8);
+        var content = content(data, encoded.length);
+        mockContents(content);
+        mockBucket(StoragePolicy.DEFAULT);
+        var contentId = content.getUid().toString();
+        when(storageContainer.open(BUCKET_ID, contentId))
+                .thenReturn(new ByteArrayRandomAccessContent(encoded));
+        mockDecode(data);
+        mockEncode(StorageCodec.DEFAULT_LEVEL);
+        mockWrite(contentId, new ByteArrayOutputStream());
+        when(contentEntityRepository.updateStorageFormat(
+                content.getUid(),
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                data.length,
+                null
+        )).thenReturn(0);
+        when(contentEntityRepository.existsById(content.getUid()))
+                .thenReturn(false);
+
+        lifecycle.transit();
+
+        verify(storageContainer).delete(BUCKET_ID, contentId);
+        verifyNoInteractions(bucketStatsService, bucketQuotaService);
+    }
+
+    @Test
+    void testTransitResumesFromLastContent() {
+        properties.getLifecycle().setBatchSize(1);
+        var content = content("content".getBytes(StandardCharsets.UTF_8), 15);
+        when(contentEntityRepository.findAllByStorageFormatAndModifiedAtBeforeAndUidGreaterThanOrderByUid(
+                eq(ContentStorageFormat.BASE64),
+                any(ZonedDateTime.class),
+                any(UUID.class),
+                eq(Limit.of(1))
+        )).thenReturn(List.of(content));
+        when(bucketRegistry.findById(BUCKET_ID))
+                .thenReturn(Optional.empty());
+
+        lifecycle.transit();
+        lifecycle.transit();
+
+        var uidCaptor = ArgumentCaptor.forClass(UUID.class);
+        verify(contentEntityRepository, times(2)).findAllByStorageFormatAndModifiedAtBeforeAndUidGreaterThanOrderByUid(
+                eq(ContentStorageFormat.BASE64),
+                any(ZonedDateTime.class),
+                uidCaptor.capture(),
+                eq(Limit.of(1))
+        );
+        assertEquals(List.of(MIN_UID, content.getUid()), uidCaptor.getAllValues());
+    }
+
+    private void mockDecode(byte[] data) throws IOException {
+        when(sourceCodec.decodeStream(any(RandomAccessContent.class)))
+                .thenAnswer(it -> new ByteArrayInputStream(data));
+    }
+
+    private void mockEncode(int level) throws IOException {
+        when(targetCodec.encodeStream(eq(BUCKET_ID), any(OutputStream.class), eq(level)))
+                .thenAnswer(it -> it.getArgument(1));
+    }
+
+    private void mockWrite(String contentId, OutputStream out) {
+        doAnswer(it -> it.getArgument(3, ContentWriter.class).write(out))
+                .when(storageContainer)
+                .write(eq(BUCKET_ID), eq(contentId), eq(ContentStorageFormat.GZIP), any());
+    }
+
+    private void mockContents(ContentEntity content) {
+        when(contentEntityRepository.findAllByStorageFormatAndModifiedAtBeforeAndUidGreaterThanOrderByUid(
+                eq(ContentStorageFormat.BASE64),
+                any(ZonedDateTime.class),
+                eq(MIN_UID),
+                eq(Limit.of(2))
+        )).thenReturn(List.of(content));
+    }
+
+    private void mockBucket(StoragePolicy storagePolicy) {
+        when(bucketRegistry.findById(BUCKET_ID))
+                .thenReturn(Optional.of(new BucketInfo(BUCKET_ID, "bucket", false, null, null, storagePolicy)));
+    }
+
+    private static StorageServiceEmbeddedProperties.Lifecycle lifecycleProperties(boolean enabled) {
+        var rules = new ArrayList<StorageServiceEmbeddedProperties.Rule>();
+        rules.add(new StorageServiceEmbeddedProperties.Rule(
+                ContentStorageFormat.BASE64,
+                ContentStorageFormat.GZIP,
+                Duration.ZERO
+        ));
+        return new StorageServiceEmbeddedProperties.Lifecycle(
+                enabled,
+                Duration.ofMinutes(1),
+                2,
+                DataSize.ofBytes(0),
+                rules
+        );
+    }
+
+    private static ContentEntity content(byte[] data, long encodedSize) {
+        var digest = ContentDigest.of(data);
+        return ContentEntity.builder()
+                .uid(UUID.randomUUID())
+                .bucket(BucketEntity.builder()
+                        .id(BUCKET_ID)
+                        .build())
+                .storageFormat(ContentStorageFormat.BASE64)
+                .originalSize(digest.getSize())
+                .encodedSize(encodedSize)
+                .crc32c(digest.getCrc32c())
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.MetaStorageMode;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.MetaCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentMetaServiceTest {
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private ContentMetaEntityRepository contentMetaEntityRepository;
+    @Mock
+    private StorageServiceEmbeddedProperties properties;
+    private StorageServiceEmbeddedProperties.Meta metaProperties;
+    private ContentMetaService service;
+
+    @BeforeEach
+    void setUp() {
+        metaProperties = new StorageServiceEmbeddedProperties.Meta();
+        service = new ContentMetaService(contentEntityRepository, contentMetaEntityRepository, properties);
+    }
+
+    @Test
+    void testSaveInRowsMode() {
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        var meta = Map.of("first", "1", "second", "2");
+        var contentEntity = ContentEntity.builder()
+                .uid(ContentIds.next())
+                .metaData(service.toMetaData(meta))
+                .build();
+        assertNull(contentEntity.getMetaData());
+
+        service.save(contentEntity, meta);
+
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(contentMetaEntityRepository)
+                .saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    void testSaveInCompactMode() {
+        metaProperties.setMode(MetaStorageMode.COMPACT);
+        metaProperties.setIndexedKeys(Set.of("indexed"));
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        var meta = Map.of("indexed", "1", "other", "2");
+        var uid = ContentIds.next();
+        var contentEntity = ContentEntity.builder()
+                .uid(uid)
+                .metaData(service.toMetaData(meta))
+                .build();
+        assertEquals(meta, MetaCodec.decode(contentEntity.getMetaData()));
+
+        service.save(contentEntity, meta);
+
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(contentMetaEntityRepository)
+                .saveAll(captor.capture());
+        var metaEntities = captor.getValue();
+        assertEquals(1, metaEntities.size());
+
+        var metaEntity = (ContentMetaEntity) metaEntities.getFirst();
+        assertEquals("indexed", metaEntity.getKey());
+        assertEquals("1", metaEntity.getValue());
+        assertEquals(uid, metaEntity.getContentUid());
+    }
+
+    @Test
+    void testSaveInCompactModeWithoutIndexedKeys() {
+        metaProperties.setMode(MetaStorageMode.COMPACT);
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        var meta = Map.of("key", "value");
+        var contentEntity = ContentEntity.builder()
+                .uid(ContentIds.next())
+                .metaData(service.toMetaData(meta))
+                .build();
+
+        service.save(contentEntity, meta);
+
+        verifyNoInteractions(contentMetaEntityRepository);
+    }
+
+    @Test
+    void testGetCompact() {
+        var meta = Map.of("key", "value");
+        var contentEntity = ContentEntity.builder()
+                .uid(ContentIds.next())
+                .metaData(MetaCodec.encode(meta))
+                .build();
+
+        assertEquals(meta, service.get(contentEntity));
+        verifyNoInteractions(contentMetaEntityRepository);
+    }
+
+    @Test
+    void testGetRows() {
+        var uid = ContentIds.next();
+        var contentEntity = ContentEntity.builder()
+                .uid(uid)
+                .build();
+        var metaEntity = ContentMetaEntity.builder()
+                .key("key")
+                .value("value")
+                .contentUid(uid)
+                .build();
+        when(contentMetaEntityRepository.findAllByContentUid(uid))
+                .thenReturn(List.of(metaEntity));
+
+        assertEquals(Map.of("key", "value"), service.get(contentEntity));
+    }
+
+    @Test
+    void testCompactInRowsMode() {
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        service.compact();
+
+        verifyNoInteractions(contentEntityRepository, contentMetaEntityRepository);
+    }
+
+    @Test
+    void testCompact() {
+        metaProperties.setMode(MetaStorageMode.COMPACT);
+        metaProperties.setIndexedKeys(Set.of("indexed"));
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        var uid = ContentIds.next();
+        var contentEntity = ContentEntity.builder()
+                .uid(uid)
+                .build();
+        when(contentEntityRepository.findFirst100ByMetaDataIsNull())
+                .thenReturn(List.of(contentEntity));
+
+        var metaEntities = List.of(
+                ContentMetaEntity.builder().key("indexed").value("1").contentUid(uid).build(),
+                ContentMetaEntity.builder().key("other").value("2").contentUid(uid).build()
+        );
+        when(contentMetaEntityRepository.findAllByContentUid(uid))
+                .thenReturn(metaEntities);
+
+        service.compact();
+
+        assertEquals(Map.of("indexed", "1", "other", "2"), MetaCodec.decode(contentEntity.getMetaData()));
+        verify(contentEntityRepository)
+                .save(contentEntity);
+        verify(contentMetaEntityRepository)
+                .deleteAllByContentUidAndKeyNotIn(uid, Set.of("indexed"));
+        verify(contentMetaEntityRepository, never())
+                .deleteAllByContentUid(any());
+    }
+
+    @Test
+    void testIsSearchableInRowsMode() {
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        assertTrue(service.isSearchable(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void testIsSearchableInCompactMode() {
+        metaProperties.setMode(MetaStorageMode.COMPACT);
+        metaProperties.setIndexedKeys(Set.of("indexed"));
+        when(properties.getMeta())
+                .thenReturn(metaProperties);
+
+        assertTrue(service.isSearchable("indexed"));
+        assertFalse(service.isSearchable("other"));
+    }
+}
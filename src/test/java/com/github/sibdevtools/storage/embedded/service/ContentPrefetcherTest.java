@@ -0,0 +1,115 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.api.rs.GetBucketFileRs;
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileImpl;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentPrefetcherTest {
+    @Mock
+    private StorageServiceEmbedded storageServiceEmbedded;
+    @Mock
+    private HotContentTracker hotContentTracker;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setPrefetch(new StorageServiceEmbeddedProperties.Prefetch(1, 10));
+        properties.setWarmUp(new StorageServiceEmbeddedProperties.WarmUp(
+                true,
+                100,
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(1),
+                DataSize.ofBytes(100)
+        ));
+        prefetcher = new ContentPrefetcher(storageServiceEmbedded, hotContentTracker, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetcher.shutdown();
+    }
+
+    @Test
+    void testPrefetch() {
+        var first = ContentIds.next().toString();
+        var second = ContentIds.next().toString();
+        when(storageServiceEmbedded.get(first))
+                .thenThrow(new FileNotFoundException("Content not found"));
+        when(storageServiceEmbedded.get(second))
+                .thenReturn(content(10));
+
+        prefetcher.prefetch(List.of(first, second));
+
+        verify(storageServiceEmbedded, timeout(5000)).get(first);
+        verify(storageServiceEmbedded, timeout(5000)).get(second);
+    }
+
+    @Test
+    void testWarmUpIsLimitedBySize() {
+        var first = ContentIds.next();
+        var second = ContentIds.next();
+        var third = ContentIds.next();
+        var fourth = ContentIds.next();
+        when(hotContentTracker.load())
+                .thenReturn(List.of(first, second, third, fourth));
+        when(storageServiceEmbedded.get(first.toString()))
+                .thenReturn(content(60));
+        when(storageServiceEmbedded.get(second.toString()))
+                .thenThrow(new FileNotFoundException("Content not found"));
+        when(storageServiceEmbedded.get(third.toString()))
+                .thenReturn(content(60));
+
+        assertEquals(2, prefetcher.warmUp());
+
+        verify(storageServiceEmbedded, never()).get(fourth.toString());
+    }
+
+    @Test
+    void testWarmUpIsLimitedByTimeout() {
+        properties.getWarmUp().setTimeout(Duration.ZERO);
+        when(hotContentTracker.load())
+                .thenReturn(List.of(ContentIds.next()));
+
+        assertEquals(0, prefetcher.warmUp());
+
+        verifyNoInteractions(storageServiceEmbedded);
+    }
+
+    @Test
+    void testWarmUpOnStartIfDisabled() {
+        properties.getWarmUp().setEnabled(false);
+
+        prefetcher.warmUpOnStart();
+
+        verifyNoInteractions(hotContentTracker);
+    }
+
+    private static GetBucketFileRs content(int size) {
+        return new GetBucketFileRs(
+                BucketFileImpl.builder()
+                        .data(new byte[size])
+                        .build()
+        );
+    }
+}
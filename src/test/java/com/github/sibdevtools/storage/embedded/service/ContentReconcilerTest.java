@@ -0,0 +1,262 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
+import com.github.sibdevtools.storage.embedded.service.storage.FileStorageContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentReconcilerTest {
+    @Mock
+    private BucketEntityRepository bucketEntityRepository;
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private ContentReadRepository contentReadRepository;
+    @Mock
+    private FileStorageContainer fileStorageContainer;
+    @Mock
+    private StorageServiceEmbedded storageService;
+    @TempDir
+    private Path folder;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setDefaultStorageContainer("FILE");
+        properties.setFolder(folder.toString());
+        properties.setReconcile(new StorageServiceEmbeddedProperties.Reconcile(
+                false,
+                Duration.ofHours(24),
+                false,
+                Duration.ofHours(1),
+                2,
+                2
+        ));
+        reconciler = new ContentReconciler(
+                bucketEntityRepository,
+                contentEntityRepository,
+                contentReadRepository,
+                fileStorageContainer,
+                storageService,
+                properties
+        );
+    }
+
+    @Test
+    void testUidOrderIsUnsigned() {
+        var low = new UUID(0x7FFFFFFFFFFFFFFFL, 0);
+        var high = new UUID(0x8000000000000000L, 0);
+
+        assertTrue(ContentReconciler.UID_ORDER.compare(low, high) < 0);
+        assertTrue(ContentReconciler.UID_ORDER.compare(new UUID(1, -1), new UUID(1, 1)) > 0);
+    }
+
+    @Test
+    void testReconcileWhenOtherStorageContainerIsDefault() {
+        properties.setDefaultStorageContainer("IN_MEMORY");
+        when(fileStorageContainer.getType())
+                .thenReturn("FILE");
+        when(fileStorageContainer.getBucketIds())
+                .thenReturn(List.of(1L));
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of());
+        files(1);
+
+        var report = reconciler.reconcile(false);
+
+        assertEquals(1, report.getBuckets());
+        verify(contentReadRepository)
+                .forEachStoredContent(eq(1L), eq("FILE"), eq(false), any());
+    }
+
+    @Test
+    void testReconcile() {
+        when(fileStorageContainer.getType())
+                .thenReturn("FILE");
+
+        var matched = new UUID(1, 1);
+        var orphan = new UUID(1, 2);
+        var dangling = new UUID(1, 3);
+        var lastOrphan = new UUID(-1, 1);
+        var onlyFolderOrphan = UUID.randomUUID();
+
+        when(fileStorageContainer.getBucketIds())
+                .thenReturn(List.of(1L, 2L));
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(BucketEntity.builder().id(1L).build()));
+        files(1, lastOrphan, matched, orphan);
+        files(2, onlyFolderOrphan);
+        stream(1, matched, dangling);
+        stream(2);
+
+        var report = reconciler.reconcile(false);
+
+        assertEquals(2, report.getBuckets());
+        assertEquals(4, report.getFiles());
+        assertEquals(2, report.getContents());
+        assertEquals(3, report.getOrphanFiles());
+        assertEquals(1, report.getDanglingContents());
+        assertEquals(0, report.getRemovedFiles());
+        assertEquals(0, report.getRemovedContents());
+        assertTrue(report.getOrphanFileIds().containsAll(List.of(
+                orphan.toString(), lastOrphan.toString(), onlyFolderOrphan.toString()
+        )));
+        assertEquals(List.of(dangling.toString()), report.getDanglingContentIds());
+
+        verify(fileStorageContainer, never()).delete(anyLong(), anyString());
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void testReconcileWithRepair() {
+        when(fileStorageContainer.getType())
+                .thenReturn("FILE");
+
+        var oldOrphan = new UUID(1, 1);
+        var newOrphan = new UUID(1, 2);
+        var dangling = new UUID(1, 3);
+        var readonlyDangling = new UUID(1, 4);
+
+        when(fileStorageContainer.getBucketIds())
+                .thenReturn(List.of(1L));
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of(BucketEntity.builder().id(1L).build()));
+        files(1, newOrphan, oldOrphan);
+        stream(1, dangling, readonlyDangling);
+
+        when(fileStorageContainer.getModifiedAt(1, oldOrphan.toString()))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(1))));
+        when(fileStorageContainer.getModifiedAt(1, newOrphan.toString()))
+                .thenReturn(Optional.of(Instant.now()));
+        when(contentEntityRepository.existsById(oldOrphan))
+                .thenReturn(false);
+        when(fileStorageContainer.getModifiedAt(1, dangling.toString()))
+                .thenReturn(Optional.empty());
+        when(fileStorageContainer.getModifiedAt(1, readonlyDangling.toString()))
+                .thenReturn(Optional.empty());
+        doThrow(new BucketReadonlyException("Bucket is readonly"))
+                .when(storageService)
+                .delete(readonlyDangling.toString());
+
+        var report = reconciler.reconcile(true);
+
+        assertEquals(2, report.getOrphanFiles());
+        assertEquals(2, report.getDanglingContents());
+        assertEquals(1, report.getRemovedFiles());
+        assertEquals(1, report.getRemovedContents());
+
+        verify(fileStorageContainer).delete(1, oldOrphan.toString());
+        verify(fileStorageContainer, never()).delete(1, newOrphan.toString());
+        verify(storageService).delete(dangling.toString());
+    }
+
+    @Test
+    void testReconcileWithRepairInBatches() {
+        when(fileStorageContainer.getType())
+                .thenReturn("FILE");
+        when(fileStorageContainer.getBucketIds())
+                .thenReturn(List.of(1L));
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of());
+
+        var orphans = new UUID[2500];
+        for (int i = 0; i < orphans.length; i++) {
+            orphans[i] = new UUID(1, i);
+        }
+        files(1, orphans);
+        stream(1);
+
+        when(fileStorageContainer.getModifiedAt(eq(1L), anyString()))
+                .thenReturn(Optional.of(Instant.now().minus(Duration.ofDays(1))));
+        when(contentEntityRepository.existsById(any()))
+                .thenReturn(false);
+
+        var report = reconciler.reconcile(true);
+
+        assertEquals(orphans.length, report.getOrphanFiles());
+        assertEquals(orphans.length, report.getRemovedFiles());
+        assertEquals(100, report.getOrphanFileIds().size());
+        verify(fileStorageContainer, times(orphans.length)).delete(eq(1L), anyString());
+    }
+
+    @Test
+    void testReconcileWhenContentsAreNotOrdered() {
+        when(fileStorageContainer.getType())
+                .thenReturn("FILE");
+        when(fileStorageContainer.getBucketIds())
+                .thenReturn(List.of(1L));
+        when(bucketEntityRepository.findAll())
+                .thenReturn(List.of());
+        files(1);
+        stream(1, new UUID(1, 2), new UUID(1, 1));
+
+        assertThrows(
+                UnexpectedErrorException.class,
+                () -> reconciler.reconcile(true)
+        );
+        verifyNoInteractions(storageService);
+    }
+
+    @Test
+    void testReconcileScheduledWhenDisabled() {
+        reconciler.reconcileScheduled();
+
+        verifyNoInteractions(fileStorageContainer, contentReadRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void files(long bucketId, UUID... uids) {
+        doAnswer(invocation -> {
+            var consumer = (Consumer<UUID>) invocation.getArgument(1);
+            for (var uid : uids) {
+                consumer.accept(uid);
+            }
+            return null;
+        }).when(fileStorageContainer).forEachContentId(eq(bucketId), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(long bucketId, UUID... uids) {
+        doAnswer(invocation -> {
+            var consumer = (BiConsumer<UUID, ZonedDateTime>) invocation.getArgument(3);
+            for (var uid : uids) {
+                consumer.accept(uid, ZonedDateTime.now().minusDays(1));
+            }
+            return null;
+        }).when(contentReadRepository).forEachStoredContent(eq(bucketId), eq("FILE"), eq(true), any());
+    }
+}
@@ -0,0 +1,266 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.CorruptContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.ScrubStateEntity;
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.CorruptContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ScrubStateEntityRepository;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ContentScrubberTest {
+    private static final String CONTAINER = "LOCAL";
+
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private ScrubStateEntityRepository scrubStateEntityRepository;
+    @Mock
+    private CorruptContentEntityRepository corruptContentEntityRepository;
+    @Mock
+    private StorageCodec storageCodec;
+    @Mock
+    private StorageContainer storageContainer;
+    private StorageServiceEmbeddedProperties properties;
+    private ContentScrubber scrubber;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setDefaultStorageContainer(CONTAINER);
+        properties.setScrub(new StorageServiceEmbeddedProperties.Scrub(
+                true,
+                Duration.ofSeconds(10),
+                Duration.ofDays(1),
+                2,
+                DataSize.ofBytes(0)
+        ));
+        scrubber = new ContentScrubber(
+                contentEntityRepository,
+                scrubStateEntityRepository,
+                corruptContentEntityRepository,
+                Map.of(ContentStorageFormat.BINARY, storageCodec),
+                properties,
+                Map.of(CONTAINER, storageContainer)
+        );
+    }
+
+    @Test
+    void testScrubWhenDisabled() {
+        properties.setScrub(new StorageServiceEmbeddedProperties.Scrub(
+                false,
+                Duration.ofSeconds(10),
+                Duration.ofDays(1),
+                2,
+                DataSize.ofBytes(0)
+        ));
+
+        scrubber.scrub();
+
+        verifyNoInteractions(scrubStateEntityRepository, contentEntityRepository, storageContainer);
+    }
+
+    @Test
+    void testScrubWhenPassRecentlyCompleted() {
+        var state = ScrubStateEntity.builder()
+                .id(ContentScrubber.STATE_ID)
+                .passCompletedAt(ZonedDateTime.now().minusHours(1))
+                .build();
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.of(state));
+
+        scrubber.scrub();
+
+        verifyNoInteractions(contentEntityRepository, storageContainer);
+        verify(scrubStateEntityRepository, never()).save(any());
+    }
+
+    @Test
+    void testScrubBatchResumesFromLastContent() throws IOException {
+        var lastUid = UUID.randomUUID();
+        var state = ScrubStateEntity.builder()
+                .id(ContentScrubber.STATE_ID)
+                .lastUid(lastUid)
+                .checkedCount(5)
+                .passStartedAt(ZonedDateTime.now())
+                .build();
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.of(state));
+
+        var data = "valid".getBytes(StandardCharsets.UTF_8);
+        var first = content(data);
+        var second = content(data);
+        when(contentEntityRepository.findAllByUidGreaterThanOrderByUid(lastUid, Limit.of(2)))
+                .thenReturn(List.of(first, second));
+        when(storageContainer.open(first.getBucket().getId(), first.getUid().toString()))
+                .thenReturn(new ByteArrayRandomAccessContent(data));
+        when(storageContainer.open(second.getBucket().getId(), second.getUid().toString()))
+                .thenReturn(new ByteArrayRandomAccessContent(data));
+        mockDecodeStream();
+
+        scrubber.scrub();
+
+        verify(corruptContentEntityRepository).deleteById(first.getUid());
+        verify(corruptContentEntityRepository).deleteById(second.getUid());
+        verify(corruptContentEntityRepository, never()).deleteAllOfRemovedContents();
+
+        assertEquals(second.getUid(), state.getLastUid());
+        assertEquals(7, state.getCheckedCount());
+        assertEquals(data.length * 2L, state.getCheckedBytes());
+        assertEquals(0, state.getCorruptedCount());
+        verify(scrubStateEntityRepository, times(2)).save(state);
+    }
+
+    @Test
+    void testScrubRegistersCorruptContent() throws IOException {
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.empty());
+
+        var data = "valid".getBytes(StandardCharsets.UTF_8);
+        var content = content(data);
+        when(contentEntityRepository.findAllByUidGreaterThanOrderByUid(new UUID(0, 0), Limit.of(2)))
+                .thenReturn(List.of(content));
+        var corrupted = "vaLid".getBytes(StandardCharsets.UTF_8);
+        when(storageContainer.open(content.getBucket().getId(), content.getUid().toString()))
+                .thenReturn(new ByteArrayRandomAccessContent(corrupted));
+        mockDecodeStream();
+
+        scrubber.scrub();
+
+        var corruptCaptor = ArgumentCaptor.forClass(CorruptContentEntity.class);
+        verify(corruptContentEntityRepository).save(corruptCaptor.capture());
+        var corruptContent = corruptCaptor.getValue();
+        assertEquals(content.getUid(), corruptContent.getContentUid());
+        assertEquals(content.getBucket().getId(), corruptContent.getBucketId());
+        assertEquals("Checksum mismatch", corruptContent.getReason());
+
+        var stateCaptor = ArgumentCaptor.forClass(ScrubStateEntity.class);
+        verify(scrubStateEntityRepository, times(2)).save(stateCaptor.capture());
+        var state = stateCaptor.getValue();
+        assertNull(state.getLastUid());
+        assertNotNull(state.getPassStartedAt());
+        assertNotNull(state.getPassCompletedAt());
+        assertEquals(1, state.getCheckedCount());
+        assertEquals(1, state.getCorruptedCount());
+        verify(corruptContentEntityRepository).deleteAllOfRemovedContents();
+    }
+
+    @Test
+    void testScrubSkipsRemovedContent() {
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.empty());
+
+        var content = content("valid".getBytes(StandardCharsets.UTF_8));
+        when(contentEntityRepository.findAllByUidGreaterThanOrderByUid(new UUID(0, 0), Limit.of(2)))
+                .thenReturn(List.of(content));
+        when(storageContainer.open(content.getBucket().getId(), content.getUid().toString()))
+                .thenThrow(new FileNotFoundException("File not found"));
+        when(contentEntityRepository.existsById(content.getUid()))
+                .thenReturn(false);
+
+        scrubber.scrub();
+
+        verify(corruptContentEntityRepository, never()).save(any());
+        var stateCaptor = ArgumentCaptor.forClass(ScrubStateEntity.class);
+        verify(scrubStateEntityRepository, times(2)).save(stateCaptor.capture());
+        assertEquals(0, stateCaptor.getValue().getCheckedCount());
+    }
+
+    @Test
+    void testScrubRegistersStoredChecksumMismatch() throws IOException {
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.empty());
+
+        var data = "valid".getBytes(StandardCharsets.UTF_8);
+        var content = content(data);
+        when(contentEntityRepository.findAllByUidGreaterThanOrderByUid(new UUID(0, 0), Limit.of(2)))
+                .thenReturn(List.of(content));
+        when(storageContainer.open(content.getBucket().getId(), content.getUid().toString()))
+                .thenReturn(new ByteArrayRandomAccessContent(data) {
+                    @Override
+                    public Integer getCrc32c() {
+                        return 42;
+                    }
+                });
+
+        scrubber.scrub();
+
+        var corruptCaptor = ArgumentCaptor.forClass(CorruptContentEntity.class);
+        verify(corruptContentEntityRepository).save(corruptCaptor.capture());
+        assertEquals("Stored content checksum mismatch", corruptCaptor.getValue().getReason());
+        verify(storageCodec, never()).decodeStream(any(RandomAccessContent.class));
+    }
+
+    @Test
+    void testGetProgress() {
+        var lastUid = UUID.randomUUID();
+        var state = ScrubStateEntity.builder()
+                .id(ContentScrubber.STATE_ID)
+                .lastUid(lastUid)
+                .checkedCount(3)
+                .checkedBytes(42)
+                .corruptedCount(1)
+                .build();
+        when(scrubStateEntityRepository.findById(ContentScrubber.STATE_ID))
+                .thenReturn(Optional.of(state));
+
+        var progress = scrubber.getProgress();
+
+        assertEquals(lastUid.toString(), progress.getLastContentId());
+        assertEquals(3, progress.getCheckedCount());
+        assertEquals(42, progress.getCheckedBytes());
+        assertEquals(1, progress.getCorruptedCount());
+    }
+
+    private void mockDecodeStream() throws IOException {
+        when(storageCodec.decodeStream(any(RandomAccessContent.class)))
+                .thenAnswer(it -> it.getArgument(0, RandomAccessContent.class).openStream());
+    }
+
+    private static ContentEntity content(byte[] data) {
+        var digest = ContentDigest.of(data);
+        return ContentEntity.builder()
+                .uid(UUID.randomUUID())
+                .bucket(BucketEntity.builder()
+                        .id(1L)
+                        .build())
+                .storageFormat(ContentStorageFormat.BINARY)
+                .originalSize(digest.getSize())
+                .encodedSize((long) data.length)
+                .crc32c(digest.getCrc32c())
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class CountingBloomFilterTest {
+
+    @Test
+    void testAddedIdentifiersAreContained() {
+        var filter = CountingBloomFilter.create(1000, 0.01, 1024 * 1024);
+        var uids = new ArrayList<UUID>();
+        for (int i = 0; i < 1000; i++) {
+            var uid = ContentIds.next();
+            uids.add(uid);
+            filter.add(uid);
+        }
+
+        for (var uid : uids) {
+            assertTrue(filter.mightContain(uid));
+        }
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        var filter = CountingBloomFilter.create(10_000, 0.01, 1024 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(ContentIds.next());
+        }
+
+        var falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void testRemove() {
+        var filter = CountingBloomFilter.create(100, 0.01, 1024);
+        var kept = ContentIds.next();
+        var removed = ContentIds.next();
+        filter.add(kept);
+        filter.add(removed);
+
+        filter.remove(removed);
+
+        assertTrue(filter.mightContain(kept));
+        assertFalse(filter.mightContain(removed));
+    }
+
+    @Test
+    void testAddedTwiceIsContainedAfterSingleRemove() {
+        var filter = CountingBloomFilter.create(100, 0.01, 1024);
+        var uid = ContentIds.next();
+        filter.add(uid);
+        filter.add(uid);
+
+        filter.remove(uid);
+
+        assertTrue(filter.mightContain(uid));
+    }
+
+    @Test
+    void testMemoryIsLimited() {
+        var filter = CountingBloomFilter.create(1_000_000, 0.01, 1024);
+
+        assertEquals(1024, filter.memory());
+    }
+
+    @Test
+    void testSizing() {
+        var filter = CountingBloomFilter.create(1000, 0.01, 1024 * 1024);
+
+        assertEquals(7, filter.hashes());
+        assertEquals(4800, filter.memory());
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class HotContentTrackerTest {
+    @TempDir
+    Path folder;
+    private StorageServiceEmbeddedProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setFolder(folder.toString());
+        properties.setWarmUp(new StorageServiceEmbeddedProperties.WarmUp(
+                true,
+                3,
+                Duration.ofMinutes(1),
+                Duration.ofSeconds(30),
+                DataSize.ofMegabytes(1)
+        ));
+    }
+
+    @Test
+    void testPersistAndLoad() {
+        var tracker = new HotContentTracker(properties);
+        var first = ContentIds.next();
+        var second = ContentIds.next();
+        var third = ContentIds.next();
+        var fourth = ContentIds.next();
+        tracker.onRead(first);
+        tracker.onRead(second);
+        tracker.onRead(third);
+        tracker.onRead(first);
+        tracker.onRead(fourth);
+
+        tracker.persist();
+
+        var loaded = new HotContentTracker(properties).load();
+        assertEquals(List.of(fourth, first, third), loaded);
+    }
+
+    @Test
+    void testDeletedContentIsNotPersisted() {
+        var tracker = new HotContentTracker(properties);
+        var kept = ContentIds.next();
+        var deleted = ContentIds.next();
+        tracker.onRead(kept);
+        tracker.onRead(deleted);
+
+        tracker.onDeleted(deleted);
+        tracker.persist();
+
+        assertEquals(List.of(kept), new HotContentTracker(properties).load());
+    }
+
+    @Test
+    void testLoadWithoutPersisted() {
+        assertEquals(List.of(), new HotContentTracker(properties).load());
+    }
+
+    @Test
+    void testNotTrackedIfDisabled() {
+        properties.getWarmUp().setEnabled(false);
+        var tracker = new HotContentTracker(properties);
+
+        tracker.onRead(ContentIds.next());
+        tracker.persist();
+
+        assertFalse(Files.exists(folder.resolve("hot-contents")));
+    }
+
+    @Test
+    void testLoadedContentsArePersistedAgain() {
+        var tracker = new HotContentTracker(properties);
+        var uid = ContentIds.next();
+        tracker.onRead(uid);
+        tracker.persist();
+
+        var restarted = new HotContentTracker(properties);
+        restarted.load();
+        var read = ContentIds.next();
+        restarted.onRead(read);
+        restarted.persist();
+
+        assertEquals(List.of(read, uid), new HotContentTracker(properties).load());
+    }
+}
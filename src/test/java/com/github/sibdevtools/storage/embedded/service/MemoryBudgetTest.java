@@ -0,0 +1,201 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.exception.MemoryBudgetExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class MemoryBudgetTest {
+    @TempDir
+    Path folder;
+    private StorageServiceEmbeddedProperties properties;
+    private MemoryBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StorageServiceEmbeddedProperties();
+        properties.setFolder(folder.toString());
+        properties.setMemory(new StorageServiceEmbeddedProperties.Memory(
+                DataSize.ofBytes(100),
+                DataSize.ofBytes(50),
+                Duration.ofMillis(100),
+                DataSize.ofBytes(200)
+        ));
+        budget = new MemoryBudget(properties);
+    }
+
+    @Test
+    void testReserveAndRelease() {
+        var reservation = budget.reserve(60);
+        assertEquals(60, budget.getStats().getUsed());
+        assertEquals(100, budget.getStats().getLimit());
+
+        reservation.close();
+        reservation.close();
+
+        assertEquals(0, budget.getStats().getUsed());
+    }
+
+    @Test
+    void testReserveLargerThanLimitTakesWholeBudget() {
+        try (var ignored = budget.reserve(1000)) {
+            assertEquals(100, budget.getStats().getUsed());
+        }
+        assertEquals(0, budget.getStats().getUsed());
+    }
+
+    @Test
+    void testGrow() {
+        try (var reservation = budget.reserve(0)) {
+            assertEquals(0, budget.getStats().getUsed());
+
+            reservation.grow(30);
+            assertEquals(30, budget.getStats().getUsed());
+
+            reservation.grow(1000);
+            assertEquals(100, budget.getStats().getUsed());
+        }
+        assertEquals(0, budget.getStats().getUsed());
+    }
+
+    @Test
+    void testGrowRejectedWhenWaitTimeExceeded() {
+        try (var ignored = budget.reserve(60); var reservation = budget.reserve(30)) {
+            assertThrows(
+                    MemoryBudgetExceededException.class,
+                    () -> reservation.grow(20)
+            );
+            assertEquals(90, budget.getStats().getUsed());
+        }
+        assertEquals(0, budget.getStats().getUsed());
+    }
+
+    @Test
+    void testMaxDecodedSize() {
+        assertEquals(200, budget.getMaxDecodedSize());
+
+        properties.getMemory().setMaxDecodedSize(DataSize.ofBytes(0));
+        assertEquals(Long.MAX_VALUE, budget.getMaxDecodedSize());
+    }
+
+    @Test
+    void testDisabled() {
+        properties.getMemory().setMaxInFlight(DataSize.ofBytes(0));
+
+        try (var first = budget.reserve(1000); var second = budget.reserve(1000)) {
+            assertSame(MemoryBudget.Reservation.NONE, first);
+            assertSame(MemoryBudget.Reservation.NONE, second);
+            first.grow(1000);
+        }
+        assertEquals(0, budget.getStats().getLimit());
+    }
+
+    @Test
+    void testRejectedWhenWaitTimeExceeded() {
+        try (var ignored = budget.reserve(60)) {
+            var exception = assertThrows(
+                    MemoryBudgetExceededException.class,
+                    () -> budget.reserve(60)
+            );
+            assertEquals(503, exception.getStatus());
+            assertEquals("MEMORY_BUDGET_EXCEEDED", exception.getCode());
+        }
+
+        var stats = budget.getStats();
+        assertEquals(0, stats.getUsed());
+        assertEquals(0, stats.getWaiting());
+        assertEquals(1, stats.getRejected());
+    }
+
+    @Test
+    void testWaitersAreServedInArrivalOrder() throws Exception {
+        properties.getMemory().setMaxWait(Duration.ofSeconds(5));
+        var order = Collections.synchronizedList(new ArrayList<Integer>());
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            try (var ignored = budget.reserve(50)) {
+                futures.add(executor.submit(() -> {
+                    try (var reservation = budget.reserve(95)) {
+                        order.add(95);
+                    }
+                }));
+                awaitWaiting(1);
+                // fits into the budget, but waits behind the earlier request
+                futures.add(executor.submit(() -> {
+                    try (var reservation = budget.reserve(10)) {
+                        order.add(10);
+                    }
+                }));
+                awaitWaiting(2);
+                assertTrue(order.isEmpty());
+            }
+            for (var future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(95, 10), order);
+        assertEquals(0, budget.getStats().getUsed());
+    }
+
+    @Test
+    void testShouldSpill() {
+        assertFalse(budget.shouldSpill(49));
+        assertTrue(budget.shouldSpill(50));
+
+        properties.getMemory().setSpillThreshold(DataSize.ofBytes(0));
+        assertFalse(budget.shouldSpill(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testSpill() throws IOException {
+        var data = "content".getBytes(StandardCharsets.UTF_8);
+        Path path;
+        try (var spill = budget.spill()) {
+            try (var out = spill.output()) {
+                out.write(data);
+            }
+            assertEquals(data.length, spill.size());
+            assertArrayEquals(data, spill.read());
+
+            try (var files = Files.list(folder.resolve("spill"))) {
+                var paths = files.toList();
+                assertEquals(1, paths.size());
+                path = paths.get(0);
+            }
+        }
+
+        assertTrue(Files.notExists(path));
+        assertEquals(1, budget.getStats().getSpilled());
+    }
+
+    private void awaitWaiting(int waiting) throws InterruptedException {
+        for (int i = 0; i < 500 && budget.getStats().getWaiting() < waiting; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(waiting, budget.getStats().getWaiting());
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class ReadBufferTest {
+
+    @Test
+    void testDrainInRecordOrder() {
+        var buffer = new ReadBuffer<Integer>(8);
+
+        assertFalse(buffer.record(1));
+        assertFalse(buffer.record(2));
+        assertFalse(buffer.record(3));
+        assertTrue(buffer.record(4));
+
+        var drained = new ArrayList<Integer>();
+        assertTrue(buffer.drain(drained::add));
+        assertEquals(List.of(1, 2, 3, 4), drained);
+        assertFalse(buffer.drain(drained::add));
+    }
+
+    @Test
+    void testReadsAreDroppedWhenFull() {
+        var buffer = new ReadBuffer<Integer>(2);
+
+        buffer.record(1);
+        buffer.record(2);
+        assertTrue(buffer.record(3));
+
+        var drained = new ArrayList<Integer>();
+        buffer.drain(drained::add);
+        assertEquals(List.of(1, 2), drained);
+
+        buffer.record(4);
+        buffer.drain(drained::add);
+        assertEquals(List.of(1, 2, 4), drained);
+    }
+}
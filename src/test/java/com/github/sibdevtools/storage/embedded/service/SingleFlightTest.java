@@ -0,0 +1,170 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    @Test
+    void testConcurrentCallsShareSingleLoad() throws Exception {
+        var singleFlight = new SingleFlight<String, String>();
+        var key = UUID.randomUUID().toString();
+        var value = UUID.randomUUID().toString();
+        var loads = new AtomicInteger();
+        var loadStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            var leader = executor.submit(() -> singleFlight.execute(key, () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                await(release);
+                return value;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            var waitersStarted = new CountDownLatch(CALLERS - 1);
+            var waiters = new ArrayList<Future<String>>();
+            for (int i = 1; i < CALLERS; i++) {
+                waiters.add(executor.submit(() -> {
+                    waitersStarted.countDown();
+                    return singleFlight.execute(key, () -> {
+                        loads.incrementAndGet();
+                        return UUID.randomUUID().toString();
+                    });
+                }));
+            }
+            assertTrue(waitersStarted.await(5, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            assertSame(value, leader.get(5, TimeUnit.SECONDS));
+            for (var waiter : waiters) {
+                assertSame(value, waiter.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testErrorIsSharedWithWaiters() throws Exception {
+        var singleFlight = new SingleFlight<String, String>();
+        var key = UUID.randomUUID().toString();
+        var error = new FileNotFoundException("Content not found");
+        var loadStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var leader = executor.submit(() -> singleFlight.execute(key, () -> {
+                loadStarted.countDown();
+                await(release);
+                throw error;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+            var waiterStarted = new CountDownLatch(1);
+            var waiter = executor.submit(() -> {
+                waiterStarted.countDown();
+                return singleFlight.execute(key, () -> "unexpected");
+            });
+            assertTrue(waiterStarted.await(5, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            var leaderException = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertSame(error, leaderException.getCause());
+            var waiterException = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertSame(error, waiterException.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    void testWaitersGetCopyOfValue() throws Exception {
+        var singleFlight = new SingleFlight<String, byte[]>(byte[]::clone);
+        var key = UUID.randomUUID().toString();
+        var value = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var loadStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var leader = executor.submit(() -> singleFlight.execute(key, () -> {
+                loadStarted.countDown();
+                await(release);
+                return value;
+            }));
+            assertTrue(loadStarted.await(5, TimeUnit.SECONDS));
+
+            var waiterStarted = new CountDownLatch(1);
+            var waiter = executor.submit(() -> {
+                waiterStarted.countDown();
+                return singleFlight.execute(key, () -> new byte[0]);
+            });
+            assertTrue(waiterStarted.await(5, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(100);
+            release.countDown();
+
+            assertSame(value, leader.get(5, TimeUnit.SECONDS));
+            var shared = waiter.get(5, TimeUnit.SECONDS);
+            assertNotSame(value, shared);
+            assertArrayEquals(value, shared);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSequentialCallsLoadAgain() {
+        var singleFlight = new SingleFlight<String, Integer>();
+        var key = UUID.randomUUID().toString();
+        var loads = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute(key, loads::incrementAndGet));
+        assertEquals(2, singleFlight.execute(key, loads::incrementAndGet));
+    }
+
+    @Test
+    void testDifferentKeysLoadIndependently() {
+        var singleFlight = new SingleFlight<String, String>();
+        var first = UUID.randomUUID().toString();
+        var second = UUID.randomUUID().toString();
+
+        var actual = singleFlight.execute(first, () -> singleFlight.execute(second, () -> second));
+
+        assertEquals(second, actual);
+        assertEquals(0, singleFlight.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,23 +2,41 @@ package com.github.sibdevtools.storage.embedded.service;
 
 import com.github.sibdevtools.error.exception.ServiceException;
 import com.github.sibdevtools.storage.api.rq.SetReadOnlyModeRq;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.BucketStats;
+import com.github.sibdevtools.storage.embedded.dto.ContentKey;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ContentView;
+import com.github.sibdevtools.storage.embedded.dto.MetaMatchType;
+import com.github.sibdevtools.storage.embedded.dto.MetaPredicate;
 import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
 import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
-import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
 import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidQueryException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidQuotaException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidStoragePolicyException;
 import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
-import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionEntityRepository;
+import com.github.sibdevtools.storage.embedded.rq.ListContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SearchContentRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketQuotaRq;
+import com.github.sibdevtools.storage.embedded.rq.SetBucketStoragePolicyRq;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -40,11 +58,50 @@ class StorageBucketServiceEmbeddedTest {
     private ContentEntityRepository contentEntityRepository;
 
     @Mock
-    private ContentMetaEntityRepository contentMetaEntityRepository;
+    private ContentMetaService contentMetaService;
+
+    @Mock
+    private UploadSessionEntityRepository uploadSessionEntityRepository;
+
+    @Mock
+    private BucketRegistry bucketRegistry;
+
+    @Mock
+    private ContentReadRepository contentReadRepository;
+
+    @Mock
+    private BucketStatsService bucketStatsService;
+
+    @Mock
+    private BucketQuotaService bucketQuotaService;
+    @Mock
+    private ContentDictionaryService contentDictionaryService;
+
+    @Mock
+    private Map<ContentStorageFormat, StorageCodec> storageCodecs;
+
+    @Mock
+    private Map<String, StorageContainer> storageContainers;
 
-    @InjectMocks
     private StorageBucketServiceEmbedded serviceEmbedded;
 
+    @BeforeEach
+    void setUp() {
+        serviceEmbedded = new StorageBucketServiceEmbedded(
+                bucketEntityRepository,
+                contentEntityRepository,
+                contentMetaService,
+                uploadSessionEntityRepository,
+                bucketRegistry,
+                contentReadRepository,
+                bucketStatsService,
+                bucketQuotaService,
+                contentDictionaryService,
+                storageCodecs,
+                storageContainers
+        );
+    }
+
     @Test
     void testCreateBucketSuccessfully() {
         var bucketCode = UUID.randomUUID().toString();
@@ -53,6 +110,10 @@ class StorageBucketServiceEmbeddedTest {
 
         verify(bucketEntityRepository)
                 .saveIfNotExists(bucketCode);
+        verify(bucketStatsService)
+                .create(bucketCode);
+        verify(bucketRegistry)
+                .invalidate(bucketCode);
     }
 
     @Test
@@ -119,6 +180,8 @@ class StorageBucketServiceEmbeddedTest {
         assertEquals(readonly, bucketEntity.isReadonly());
         verify(bucketEntityRepository)
                 .save(bucketEntity);
+        verify(bucketRegistry)
+                .invalidate(bucketCode);
     }
 
     @ParameterizedTest
@@ -174,13 +237,19 @@ class StorageBucketServiceEmbeddedTest {
 
         when(bucketEntityRepository.findByCode(bucketCode))
                 .thenReturn(Optional.of(bucketEntity));
-        when(contentEntityRepository.countAllByBucket(bucketEntity))
-                .thenReturn(0L);
+        when(contentEntityRepository.existsByBucket(bucketEntity))
+                .thenReturn(false);
 
         serviceEmbedded.delete(bucketCode);
 
+        verify(bucketStatsService)
+                .delete(bucketEntity.getId());
+        verify(contentDictionaryService)
+                .delete(bucketEntity.getId());
         verify(bucketEntityRepository)
                 .delete(bucketEntity);
+        verify(bucketRegistry)
+                .invalidate(bucketCode);
     }
 
     @Test
@@ -205,8 +274,8 @@ class StorageBucketServiceEmbeddedTest {
 
         when(bucketEntityRepository.findByCode(bucketCode))
                 .thenReturn(Optional.of(bucketEntity));
-        when(contentEntityRepository.countAllByBucket(bucketEntity))
-                .thenReturn(1L);
+        when(contentEntityRepository.existsByBucket(bucketEntity))
+                .thenReturn(true);
 
         var exception = assertThrows(ServiceException.class, () -> serviceEmbedded.delete(bucketCode));
 
@@ -215,6 +284,30 @@ class StorageBucketServiceEmbeddedTest {
         assertEquals("Bucket not empty", exception.getMessage());
     }
 
+    @Test
+    void testDeleteBucketWithActiveUploads() {
+        var bucketCode = UUID.randomUUID().toString();
+
+        var bucketEntity = new BucketEntity();
+        bucketEntity.setCode(bucketCode);
+
+        when(bucketEntityRepository.findByCode(bucketCode))
+                .thenReturn(Optional.of(bucketEntity));
+        when(contentEntityRepository.existsByBucket(bucketEntity))
+                .thenReturn(false);
+        when(uploadSessionEntityRepository.existsByBucket(bucketEntity))
+                .thenReturn(true);
+
+        var exception = assertThrows(ServiceException.class, () -> serviceEmbedded.delete(bucketCode));
+
+        assertEquals(403, exception.getStatus());
+        assertEquals("BUCKET_NOT_EMPTY", exception.getCode());
+        assertEquals("Bucket has active uploads", exception.getMessage());
+
+        verify(bucketEntityRepository, never())
+                .delete(any(BucketEntity.class));
+    }
+
     @Test
     void testGetBucketSuccessfullyWithContent() {
 
@@ -233,17 +326,16 @@ class StorageBucketServiceEmbeddedTest {
         when(contentEntityRepository.findAllByBucket(bucketEntity))
                 .thenReturn(List.of(contentEntity));
 
-        contentEntity.setUid(UUID.randomUUID().toString());
+        contentEntity.setUid(UUID.randomUUID());
         contentEntity.setName(UUID.randomUUID().toString());
         contentEntity.setCreatedAt(ZonedDateTime.now().minusHours(1));
         contentEntity.setModifiedAt(ZonedDateTime.now());
 
-        var metaEntity = new ContentMetaEntity();
-        metaEntity.setKey(UUID.randomUUID().toString());
-        metaEntity.setValue(UUID.randomUUID().toString());
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
 
-        when(contentMetaEntityRepository.findAllByContentUid(contentEntity.getUid()))
-                .thenReturn(List.of(metaEntity));
+        when(contentMetaService.get(contentEntity))
+                .thenReturn(Map.of(metaKey, metaValue));
 
         when(contentEntityRepository.findAllByBucket(bucketEntity))
                 .thenReturn(List.of(contentEntity));
@@ -267,8 +359,482 @@ class StorageBucketServiceEmbeddedTest {
 
         var bucketContent = bucketContents.getFirst();
 
-        assertEquals(contentEntity.getUid(), bucketContent.getId());
+        assertEquals(contentEntity.getUid().toString(), bucketContent.getId());
         assertEquals(contentEntity.getName(), bucketContent.getName());
-        assertEquals(metaEntity.getValue(), bucketContent.getMeta().get(metaEntity.getKey()));
+        assertEquals(metaValue, bucketContent.getMeta().get(metaKey));
+    }
+
+    @Test
+    void testSearch() {
+        var bucketCode = UUID.randomUUID().toString();
+        var bucketInfo = new BucketInfo(42L, bucketCode, false);
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(bucketInfo));
+
+        var predicate = MetaPredicate.builder()
+                .key("type")
+                .value("report")
+                .match(MetaMatchType.PREFIX)
+                .build();
+        when(contentMetaService.isSearchable("type"))
+                .thenReturn(true);
+
+        var first = ContentIds.next();
+        var second = ContentIds.next();
+        var third = ContentIds.next();
+        when(contentReadRepository.searchByMeta(42L, List.of(predicate), null, 3))
+                .thenReturn(List.of(first, second, third));
+
+        var contentView = ContentView.builder()
+                .uid(first.toString())
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of("type", "report-1"))
+                .build();
+        var secondView = ContentView.builder()
+                .uid(second.toString())
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of("type", "report-2"))
+                .build();
+        when(contentReadRepository.findDescriptionsByIds(List.of(first, second)))
+                .thenReturn(List.of(contentView, secondView));
+
+        var rs = serviceEmbedded.search(
+                SearchContentRq.builder()
+                        .bucket(bucketCode)
+                        .predicates(List.of(predicate))
+                        .limit(2)
+                        .build()
+        );
+        assertNotNull(rs);
+
+        var page = rs.getBody();
+        assertNotNull(page);
+        assertEquals(second.toString(), page.getContinuationToken());
+
+        var contents = page.getContents();
+        assertEquals(2, contents.size());
+        assertEquals(first.toString(), contents.getFirst().getId());
+        assertEquals("report-2", contents.get(1).getMeta().get("type"));
+    }
+
+    @Test
+    void testSearchLastPage() {
+        var bucketCode = UUID.randomUUID().toString();
+        var bucketInfo = new BucketInfo(42L, bucketCode, false);
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(bucketInfo));
+
+        var predicate = MetaPredicate.builder()
+                .key("type")
+                .value("report")
+                .build();
+        when(contentMetaService.isSearchable("type"))
+                .thenReturn(true);
+
+        var after = ContentIds.next();
+        var found = ContentIds.next();
+        when(contentReadRepository.searchByMeta(42L, List.of(predicate), after, 11))
+                .thenReturn(List.of(found));
+
+        var contentView = ContentView.builder()
+                .uid(found.toString())
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findDescriptionsByIds(List.of(found)))
+                .thenReturn(List.of(contentView));
+
+        var rs = serviceEmbedded.search(
+                SearchContentRq.builder()
+                        .bucket(bucketCode)
+                        .predicates(List.of(predicate))
+                        .continuationToken(after.toString())
+                        .limit(10)
+                        .build()
+        );
+
+        var page = rs.getBody();
+        assertNull(page.getContinuationToken());
+        assertEquals(1, page.getContents().size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, 1001})
+    void testSearchWithInvalidLimit(int limit) {
+        var rq = SearchContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .predicates(List.of(new MetaPredicate("key", "value", null)))
+                .limit(limit)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.search(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testSearchWithoutPredicates() {
+        var rq = SearchContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .predicates(List.of())
+                .limit(10)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.search(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testSearchByNotIndexedKey() {
+        when(contentMetaService.isSearchable("key"))
+                .thenReturn(false);
+
+        var rq = SearchContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .predicates(List.of(new MetaPredicate("key", "value", null)))
+                .limit(10)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.search(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testSearchWithInvalidContinuationToken() {
+        when(contentMetaService.isSearchable("key"))
+                .thenReturn(true);
+
+        var rq = SearchContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .predicates(List.of(new MetaPredicate("key", "value", null)))
+                .continuationToken(UUID.randomUUID().toString().substring(1))
+                .limit(10)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.search(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testSearchBucketNotExists() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(contentMetaService.isSearchable("key"))
+                .thenReturn(true);
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.empty());
+
+        var rq = SearchContentRq.builder()
+                .bucket(bucketCode)
+                .predicates(List.of(new MetaPredicate("key", "value", null)))
+                .limit(10)
+                .build();
+
+        assertThrows(
+                BucketNotExistsException.class,
+                () -> serviceEmbedded.search(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testListWithDelimiter() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(new BucketInfo(42L, bucketCode, false)));
+
+        var first = new ContentKey(ContentIds.next(), "tenant/2024/10/a.pdf");
+        var second = new ContentKey(ContentIds.next(), "tenant/2024/readme.txt");
+        var third = new ContentKey(ContentIds.next(), "tenant/2024/zz/b.pdf");
+        when(contentReadRepository.findKeysByName(42L, "tenant/2024/", "tenant/2024/", null, 3))
+                .thenReturn(List.of(first));
+        when(contentReadRepository.findKeysByName(42L, "tenant/2024/", "tenant/2024/100", null, 2))
+                .thenReturn(List.of(second, third));
+
+        var contentView = ContentView.builder()
+                .uid(second.uid().toString())
+                .name(second.name())
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findDescriptionsByIds(List.of(second.uid())))
+                .thenReturn(List.of(contentView));
+
+        var rs = serviceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .prefix("tenant/2024/")
+                        .delimiter("/")
+                        .limit(2)
+                        .build()
+        );
+        assertNotNull(rs);
+
+        var listing = rs.getBody();
+        assertEquals(List.of("tenant/2024/10/"), listing.getCommonPrefixes());
+        assertEquals(1, listing.getContents().size());
+        assertEquals(second.name(), listing.getContents().getFirst().getName());
+        assertNotNull(listing.getContinuationToken());
+
+        when(contentReadRepository.findKeysByName(42L, "tenant/2024/", second.name(), second.uid(), 3))
+                .thenReturn(List.of(third));
+        when(contentReadRepository.findKeysByName(42L, "tenant/2024/", "tenant/2024/zz0", null, 2))
+                .thenReturn(List.of());
+
+        var nextRs = serviceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .prefix("tenant/2024/")
+                        .delimiter("/")
+                        .continuationToken(listing.getContinuationToken())
+                        .limit(2)
+                        .build()
+        );
+        var nextListing = nextRs.getBody();
+        assertTrue(nextListing.getContents().isEmpty());
+        assertEquals(List.of("tenant/2024/zz/"), nextListing.getCommonPrefixes());
+        assertNull(nextListing.getContinuationToken());
+    }
+
+    @Test
+    void testListWithoutDelimiter() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(new BucketInfo(42L, bucketCode, false)));
+
+        var first = new ContentKey(ContentIds.next(), "a/b");
+        var second = new ContentKey(ContentIds.next(), "a/c");
+        when(contentReadRepository.findKeysByName(42L, "", "", null, 2))
+                .thenReturn(List.of(first, second));
+
+        var contentView = ContentView.builder()
+                .uid(first.uid().toString())
+                .name(first.name())
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findDescriptionsByIds(List.of(first.uid())))
+                .thenReturn(List.of(contentView));
+
+        var listing = serviceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .limit(1)
+                        .build()
+        ).getBody();
+
+        assertTrue(listing.getCommonPrefixes().isEmpty());
+        assertEquals(1, listing.getContents().size());
+        assertNotNull(listing.getContinuationToken());
+
+        when(contentReadRepository.findKeysByName(42L, "", first.name(), first.uid(), 2))
+                .thenReturn(List.of(second));
+        var secondView = ContentView.builder()
+                .uid(second.uid().toString())
+                .name(second.name())
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findDescriptionsByIds(List.of(second.uid())))
+                .thenReturn(List.of(secondView));
+
+        var nextListing = serviceEmbedded.list(
+                ListContentRq.builder()
+                        .bucket(bucketCode)
+                        .continuationToken(listing.getContinuationToken())
+                        .limit(1)
+                        .build()
+        ).getBody();
+
+        assertEquals(second.name(), nextListing.getContents().getFirst().getName());
+        assertNull(nextListing.getContinuationToken());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"%%%", "bm8tc2VwYXJhdG9y", "aW52YWxpZC9uYW1l"})
+    void testListWithInvalidContinuationToken(String token) {
+        var rq = ListContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .continuationToken(token)
+                .limit(10)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.list(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1001})
+    void testListWithInvalidLimit(int limit) {
+        var rq = ListContentRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .limit(limit)
+                .build();
+
+        assertThrows(
+                InvalidQueryException.class,
+                () -> serviceEmbedded.list(rq)
+        );
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testGetStats() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(new BucketInfo(42L, bucketCode, false)));
+        var stats = BucketStats.builder()
+                .contents(3)
+                .logicalBytes(300)
+                .physicalBytes(120)
+                .build();
+        when(bucketStatsService.get(42L))
+                .thenReturn(stats);
+
+        var rs = serviceEmbedded.getStats(bucketCode);
+
+        assertSame(stats, rs.getBody());
+        verifyNoInteractions(contentEntityRepository);
+    }
+
+    @Test
+    void testGetStatsBucketNotExists() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.empty());
+
+        assertThrows(
+                BucketNotExistsException.class,
+                () -> serviceEmbedded.getStats(bucketCode)
+        );
+        verifyNoInteractions(bucketStatsService);
+    }
+
+    @Test
+    void testRebuildStats() {
+        var bucketCode = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucketCode))
+                .thenReturn(Optional.of(new BucketInfo(42L, bucketCode, false)));
+        var stats = BucketStats.builder()
+                .contents(1)
+                .build();
+        when(bucketStatsService.rebuild(42L))
+                .thenReturn(stats);
+
+        var rs = serviceEmbedded.rebuildStats(bucketCode);
+
+        assertSame(stats, rs.getBody());
+    }
+
+    @Test
+    void testSetQuota() {
+        var bucketCode = UUID.randomUUID().toString();
+        var bucketEntity = new BucketEntity();
+        bucketEntity.setId(42L);
+        bucketEntity.setCode(bucketCode);
+        when(bucketEntityRepository.findByCode(bucketCode))
+                .thenReturn(Optional.of(bucketEntity));
+
+        serviceEmbedded.setQuota(SetBucketQuotaRq.builder()
+                .bucket(bucketCode)
+                .maxBytes(1024L)
+                .maxObjects(10L)
+                .build());
+
+        assertEquals(1024L, bucketEntity.getMaxBytes());
+        assertEquals(10L, bucketEntity.getMaxObjects());
+        assertNotNull(bucketEntity.getModifiedAt());
+        verify(bucketEntityRepository)
+                .save(bucketEntity);
+        verify(bucketRegistry)
+                .invalidate(bucketCode);
+        verify(bucketQuotaService)
+                .invalidate(42L);
+    }
+
+    @Test
+    void testSetNegativeQuota() {
+        var rq = SetBucketQuotaRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .maxBytes(-1L)
+                .build();
+
+        var exception = assertThrows(
+                InvalidQuotaException.class,
+                () -> serviceEmbedded.setQuota(rq)
+        );
+        assertEquals(400, exception.getStatus());
+        assertEquals("INVALID_QUOTA", exception.getCode());
+        verifyNoInteractions(bucketEntityRepository);
+    }
+
+    @Test
+    void testSetStoragePolicy() {
+        var bucketCode = UUID.randomUUID().toString();
+        var bucketEntity = new BucketEntity();
+        bucketEntity.setId(42L);
+        bucketEntity.setCode(bucketCode);
+        when(storageCodecs.containsKey(ContentStorageFormat.BLOCK_DEFLATE))
+                .thenReturn(true);
+        when(storageContainers.containsKey("FILE"))
+                .thenReturn(true);
+        when(bucketEntityRepository.findByCode(bucketCode))
+                .thenReturn(Optional.of(bucketEntity));
+
+        serviceEmbedded.setStoragePolicy(SetBucketStoragePolicyRq.builder()
+                .bucket(bucketCode)
+                .storageFormat(ContentStorageFormat.BLOCK_DEFLATE)
+                .storageContainer("FILE")
+                .compressionLevel(9)
+                .build());
+
+        assertEquals(ContentStorageFormat.BLOCK_DEFLATE, bucketEntity.getStorageFormat());
+        assertEquals("FILE", bucketEntity.getStorageContainer());
+        assertEquals(9, bucketEntity.getCompressionLevel());
+        assertNotNull(bucketEntity.getModifiedAt());
+        verify(bucketEntityRepository)
+                .save(bucketEntity);
+        verify(bucketRegistry)
+                .invalidate(bucketCode);
+    }
+
+    @Test
+    void testSetStoragePolicyWithUnsupportedContainer() {
+        var rq = SetBucketStoragePolicyRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .storageContainer(UUID.randomUUID().toString())
+                .build();
+
+        var exception = assertThrows(
+                InvalidStoragePolicyException.class,
+                () -> serviceEmbedded.setStoragePolicy(rq)
+        );
+        assertEquals(400, exception.getStatus());
+        assertEquals("INVALID_STORAGE_POLICY", exception.getCode());
+        verifyNoInteractions(bucketEntityRepository);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {-2, 10})
+    void testSetStoragePolicyWithInvalidCompressionLevel(int compressionLevel) {
+        var rq = SetBucketStoragePolicyRq.builder()
+                .bucket(UUID.randomUUID().toString())
+                .compressionLevel(compressionLevel)
+                .build();
+
+        assertThrows(
+                InvalidStoragePolicyException.class,
+                () -> serviceEmbedded.setStoragePolicy(rq)
+        );
+        verifyNoInteractions(bucketEntityRepository);
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,57 @@
 package com.github.sibdevtools.storage.embedded.service;
 
 import com.github.sibdevtools.storage.api.rq.SaveFileRq;
+import com.github.sibdevtools.storage.api.rs.GetBucketFileRs;
 import com.github.sibdevtools.storage.embedded.WhiteBox;
 import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileDescriptionImpl;
+import com.github.sibdevtools.storage.embedded.dto.BucketFileImpl;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.dto.ContentView;
+import com.github.sibdevtools.storage.embedded.dto.StoragePolicy;
 import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
 import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
-import com.github.sibdevtools.storage.embedded.entity.ContentMetaEntity;
 import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.BucketQuotaExceededException;
 import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.ContentAlreadyExistsException;
 import com.github.sibdevtools.storage.embedded.exception.FileNotFoundException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidContentEncodingException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidRangeException;
 import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import com.github.sibdevtools.storage.embedded.rq.SaveEncodedFileRq;
 import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
 import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
-import com.github.sibdevtools.storage.embedded.repository.ContentMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentReadRepository;
 import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ContentWriter;
+import com.github.sibdevtools.storage.embedded.service.storage.RandomAccessContent;
 import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import com.github.sibdevtools.storage.embedded.service.storage.StoredBlob;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -43,13 +65,33 @@ class StorageServiceEmbeddedTest {
     @Mock
     private ContentEntityRepository contentEntityRepository;
     @Mock
-    private ContentMetaEntityRepository contentMetaEntityRepository;
+    private ContentMetaService contentMetaService;
     @Mock
     private Map<ContentStorageFormat, StorageCodec> storageCodecs;
     @Mock
+    private ContentReadRepository contentReadRepository;
+    @Mock
+    private BucketRegistry bucketRegistry;
+    @Mock
+    private BucketStatsService bucketStatsService;
+    @Mock
+    private BucketQuotaService bucketQuotaService;
+    @Mock
+    private ContentExistenceFilter contentExistenceFilter;
+    @Mock
+    private ContentCache contentCache;
+    @Mock
+    private HotContentTracker hotContentTracker;
+    @Mock
+    private MemoryBudget memoryBudget;
+    @Mock
     private StorageServiceEmbeddedProperties properties;
     @Mock
     private Map<String, StorageContainer> storageContainers;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    Path folder;
     private StorageServiceEmbedded service;
 
     @BeforeEach
@@ -57,17 +99,32 @@ class StorageServiceEmbeddedTest {
         service = new StorageServiceEmbedded(
                 bucketEntityRepository,
                 contentEntityRepository,
-                contentMetaEntityRepository,
+                contentMetaService,
+                contentReadRepository,
+                bucketRegistry,
+                bucketStatsService,
+                bucketQuotaService,
+                contentExistenceFilter,
+                contentCache,
+                hotContentTracker,
+                new BucketIoScheduler(bucketRegistry, new StorageServiceEmbeddedProperties()),
+                memoryBudget,
                 storageCodecs,
                 properties,
-                storageContainers
+                storageContainers,
+                transactionManager
         );
+        lenient().when(memoryBudget.reserve(anyLong()))
+                .thenReturn(MemoryBudget.Reservation.NONE);
+        lenient().when(memoryBudget.getMaxDecodedSize())
+                .thenReturn(Long.MAX_VALUE);
     }
 
     @Test
     void testGetContentWhenContentNotExists() {
-        var id = UUID.randomUUID().toString();
-        when(contentEntityRepository.findById(id))
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        when(contentReadRepository.findById(uid))
                 .thenReturn(Optional.empty());
 
         var exception = assertThrows(
@@ -80,18 +137,31 @@ class StorageServiceEmbeddedTest {
         assertEquals("FILE_NOT_FOUND", exception.getCode());
     }
 
+    @Test
+    void testGetWhenIdIsInvalid() {
+        var exception = assertThrows(
+                FileNotFoundException.class,
+                () -> service.get(UUID.randomUUID() + "-mock")
+        );
+
+        assertEquals(404, exception.getStatus());
+        assertEquals("FILE_NOT_FOUND", exception.getCode());
+        verifyNoInteractions(contentReadRepository);
+    }
+
     @Test
     void testGetWhenCodecIsUnsupported() {
         WhiteBox.set(service, "storageCodecs", Collections.emptyMap());
 
-        var id = "mock";
-        var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
-                .thenReturn(Optional.of(contentEntity));
-
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
         var storageFormat = mock(ContentStorageFormat.class);
-        when(contentEntity.getStorageFormat())
-                .thenReturn(storageFormat);
+        var contentView = ContentView.builder()
+                .uid(id)
+                .storageFormat(storageFormat)
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
 
         var exception = assertThrows(
                 UnexpectedErrorException.class,
@@ -104,7 +174,7 @@ class StorageServiceEmbeddedTest {
     }
 
     @Test
-    void testGet() {
+    void testGet() throws IOException {
         var storageFormat = mock(ContentStorageFormat.class);
         var storageCodec = mock(StorageCodec.class);
         var storageCodecs = Map.of(
@@ -112,53 +182,25 @@ class StorageServiceEmbeddedTest {
         );
         WhiteBox.set(service, "storageCodecs", storageCodecs);
 
-        var id = "mock";
-        var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
-                .thenReturn(Optional.of(contentEntity));
-
-        var contentEntityUid = UUID.randomUUID().toString();
-        when(contentEntity.getUid())
-                .thenReturn(contentEntityUid);
-
-        var contentEntityName = UUID.randomUUID().toString();
-        when(contentEntity.getName())
-                .thenReturn(contentEntityName);
-
-        var contentEntityCreatedAt = ZonedDateTime.now().minusMinutes(5);
-        when(contentEntity.getCreatedAt())
-                .thenReturn(contentEntityCreatedAt);
-
-        var contentEntityModifiedAt = ZonedDateTime.now().minusMinutes(1);
-        when(contentEntity.getModifiedAt())
-                .thenReturn(contentEntityModifiedAt);
-
-        when(contentEntity.getStorageFormat())
-                .thenReturn(storageFormat);
-
-        var bucket = mock(BucketEntity.class);
-        when(contentEntity.getBucket())
-                .thenReturn(bucket);
-
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
         var bucketId = 1L;
-        when(bucket.getId())
-                .thenReturn(bucketId);
-
-        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
-        when(storageCodec.decode(any()))
-                .thenReturn(content);
-
-        var contentMetaEntity = mock(ContentMetaEntity.class);
-        when(contentMetaEntityRepository.findAllByContentUid(id))
-                .thenReturn(List.of(contentMetaEntity));
-
-        var contentMetaEntityKey = UUID.randomUUID().toString();
-        when(contentMetaEntity.getKey())
-                .thenReturn(contentMetaEntityKey);
-
-        var contentMetaEntityValue = UUID.randomUUID().toString();
-        when(contentMetaEntity.getValue())
-                .thenReturn(contentMetaEntityValue);
+        var contentName = UUID.randomUUID().toString();
+        var contentCreatedAt = ZonedDateTime.now().minusMinutes(5);
+        var contentModifiedAt = ZonedDateTime.now().minusMinutes(1);
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
+        var contentView = ContentView.builder()
+                .uid(id)
+                .name(contentName)
+                .bucketId(bucketId)
+                .storageFormat(storageFormat)
+                .createdAt(contentCreatedAt)
+                .modifiedAt(contentModifiedAt)
+                .meta(Map.of(metaKey, metaValue))
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
 
         var storageContainerType = UUID.randomUUID().toString();
         when(properties.getDefaultStorageContainer())
@@ -168,6 +210,14 @@ class StorageServiceEmbeddedTest {
         when(storageContainers.get(storageContainerType))
                 .thenReturn(storageContainer);
 
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageContainer.getBlob(bucketId, id))
+                .thenReturn(new StoredBlob(null, encoded));
+        var storedContent = mockOpen(storageContainer, bucketId, id, encoded);
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, encoded, content);
+
         var actualContentRs = service.get(id);
         assertNotNull(actualContentRs);
 
@@ -176,10 +226,10 @@ class StorageServiceEmbeddedTest {
 
         var actualDescription = actualContent.getDescription();
 
-        assertEquals(contentEntityUid, actualDescription.getId());
-        assertEquals(contentEntityName, actualDescription.getName());
-        assertEquals(contentEntityCreatedAt, actualDescription.getCreatedAt());
-        assertEquals(contentEntityModifiedAt, actualDescription.getModifiedAt());
+        assertEquals(id, actualDescription.getId());
+        assertEquals(contentName, actualDescription.getName());
+        assertEquals(contentCreatedAt, actualDescription.getCreatedAt());
+        assertEquals(contentModifiedAt, actualDescription.getModifiedAt());
 
         var actualData = actualContent.getData();
         assertArrayEquals(content, actualData);
@@ -187,50 +237,95 @@ class StorageServiceEmbeddedTest {
         var meta = actualDescription.getMeta();
         assertNotNull(meta);
 
-        assertEquals(contentMetaEntityValue, meta.get(contentMetaEntityKey));
+        assertEquals(metaValue, meta.get(metaKey));
+
+        verify(contentCache)
+                .put(eq(uid), same((BucketFileDescriptionImpl) actualDescription), same(actualData), anyLong());
+        verifyNoInteractions(contentEntityRepository, contentMetaService);
+        verify(memoryBudget)
+                .reserve(encoded.length);
+        verify(storedContent)
+                .close();
     }
 
     @Test
-    void testGetDescription() {
+    void testGetRangeWhenRangeIsInvalid() {
+        var id = UUID.randomUUID().toString();
+
+        var exception = assertThrows(
+                InvalidRangeException.class,
+                () -> service.get(id, -1, 10)
+        );
+
+        assertEquals(416, exception.getStatus());
+        assertEquals("INVALID_RANGE", exception.getCode());
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testGetRange() {
         var storageFormat = mock(ContentStorageFormat.class);
         var storageCodec = mock(StorageCodec.class);
-        var storageCodecs = Map.of(
-                storageFormat, storageCodec
-        );
-        WhiteBox.set(service, "storageCodecs", storageCodecs);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
 
-        var id = "mock";
-        var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
-                .thenReturn(Optional.of(contentEntity));
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var bucketId = 1L;
+        var contentView = ContentView.builder()
+                .uid(id)
+                .bucketId(bucketId)
+                .storageFormat(storageFormat)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
 
-        var contentEntityUid = UUID.randomUUID().toString();
-        when(contentEntity.getUid())
-                .thenReturn(contentEntityUid);
+        var storageContainerType = UUID.randomUUID().toString();
+        when(properties.getDefaultStorageContainer())
+                .thenReturn(storageContainerType);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
 
-        var contentEntityName = UUID.randomUUID().toString();
-        when(contentEntity.getName())
-                .thenReturn(contentEntityName);
+        var randomAccessContent = mock(RandomAccessContent.class);
+        when(storageContainer.open(bucketId, id))
+                .thenReturn(randomAccessContent);
 
-        var contentEntityCreatedAt = ZonedDateTime.now().minusMinutes(5);
-        when(contentEntity.getCreatedAt())
-                .thenReturn(contentEntityCreatedAt);
+        var range = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageCodec.decode(randomAccessContent, 5L, 16))
+                .thenReturn(range);
 
-        var contentEntityModifiedAt = ZonedDateTime.now().minusMinutes(1);
-        when(contentEntity.getModifiedAt())
-                .thenReturn(contentEntityModifiedAt);
+        var actualContentRs = service.get(id, 5L, 16);
+        assertNotNull(actualContentRs);
 
-        var contentMetaEntity = mock(ContentMetaEntity.class);
-        when(contentMetaEntityRepository.findAllByContentUid(id))
-                .thenReturn(List.of(contentMetaEntity));
+        var actualContent = actualContentRs.getBody();
+        assertArrayEquals(range, actualContent.getData());
 
-        var contentMetaEntityKey = UUID.randomUUID().toString();
-        when(contentMetaEntity.getKey())
-                .thenReturn(contentMetaEntityKey);
+        verify(storageContainer, never())
+                .get(anyLong(), any());
+        verify(randomAccessContent)
+                .close();
+    }
 
-        var contentMetaEntityValue = UUID.randomUUID().toString();
-        when(contentMetaEntity.getValue())
-                .thenReturn(contentMetaEntityValue);
+    @Test
+    void testGetDescription() {
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var contentName = UUID.randomUUID().toString();
+        var contentCreatedAt = ZonedDateTime.now().minusMinutes(5);
+        var contentModifiedAt = ZonedDateTime.now().minusMinutes(1);
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
+        var contentView = ContentView.builder()
+                .uid(id)
+                .name(contentName)
+                .createdAt(contentCreatedAt)
+                .modifiedAt(contentModifiedAt)
+                .meta(Map.of(metaKey, metaValue))
+                .build();
+        when(contentReadRepository.findDescriptionById(uid))
+                .thenReturn(Optional.of(contentView));
 
         var actualDescriptionRs = service.getDescription(id);
         assertNotNull(actualDescriptionRs);
@@ -238,21 +333,26 @@ class StorageServiceEmbeddedTest {
         var actualDescription = actualDescriptionRs.getBody();
         assertNotNull(actualDescription);
 
-        assertEquals(contentEntityUid, actualDescription.getId());
-        assertEquals(contentEntityName, actualDescription.getName());
-        assertEquals(contentEntityCreatedAt, actualDescription.getCreatedAt());
-        assertEquals(contentEntityModifiedAt, actualDescription.getModifiedAt());
+        assertEquals(id, actualDescription.getId());
+        assertEquals(contentName, actualDescription.getName());
+        assertEquals(contentCreatedAt, actualDescription.getCreatedAt());
+        assertEquals(contentModifiedAt, actualDescription.getModifiedAt());
 
         var meta = actualDescription.getMeta();
         assertNotNull(meta);
 
-        assertEquals(contentMetaEntityValue, meta.get(contentMetaEntityKey));
+        assertEquals(metaValue, meta.get(metaKey));
+
+        verify(contentReadRepository, never())
+                .findById(any());
+        verifyNoInteractions(storageContainers);
     }
 
     @Test
     void testDeleteWhenAlreadyRemoved() {
-        var id = UUID.randomUUID().toString();
-        when(contentEntityRepository.findById(id))
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        when(contentEntityRepository.findById(uid))
                 .thenReturn(Optional.empty());
 
         try {
@@ -264,17 +364,19 @@ class StorageServiceEmbeddedTest {
 
     @Test
     void testDeleteWhenBucketIsReadOnly() {
-        var id = UUID.randomUUID().toString();
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
         var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
+        when(contentEntityRepository.findById(uid))
                 .thenReturn(Optional.of(contentEntity));
 
         var bucketEntity = mock(BucketEntity.class);
         when(contentEntity.getBucket())
                 .thenReturn(bucketEntity);
 
-        when(bucketEntity.isReadonly())
-                .thenReturn(true);
+        var bucketInfo = new BucketInfo(bucketEntity.getId(), UUID.randomUUID().toString(), true);
+        when(bucketRegistry.findById(bucketInfo.id()))
+                .thenReturn(Optional.of(bucketInfo));
 
         var exception = assertThrows(
                 BucketReadonlyException.class,
@@ -288,17 +390,21 @@ class StorageServiceEmbeddedTest {
 
     @Test
     void testDeleteWhenPhysicallyRemoved() {
-        var id = UUID.randomUUID().toString();
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
         var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
+        when(contentEntityRepository.findById(uid))
                 .thenReturn(Optional.of(contentEntity));
+        when(contentEntity.getUid())
+                .thenReturn(uid);
 
         var bucketEntity = mock(BucketEntity.class);
         when(contentEntity.getBucket())
                 .thenReturn(bucketEntity);
 
-        when(bucketEntity.isReadonly())
-                .thenReturn(false);
+        var bucketInfo = new BucketInfo(bucketEntity.getId(), UUID.randomUUID().toString(), false);
+        when(bucketRegistry.findById(bucketInfo.id()))
+                .thenReturn(Optional.of(bucketInfo));
 
         var storageContainerType = UUID.randomUUID().toString();
         when(properties.getDefaultStorageContainer())
@@ -310,8 +416,8 @@ class StorageServiceEmbeddedTest {
 
         service.delete(id);
 
-        verify(contentMetaEntityRepository)
-                .deleteAllByContentUid(id);
+        verify(contentMetaService)
+                .delete(uid);
 
         verify(contentEntityRepository)
                 .delete(contentEntity);
@@ -319,10 +425,13 @@ class StorageServiceEmbeddedTest {
 
     @Test
     void testDelete() throws IOException {
-        var id = UUID.randomUUID().toString();
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
         var contentEntity = mock(ContentEntity.class);
-        when(contentEntityRepository.findById(id))
+        when(contentEntityRepository.findById(uid))
                 .thenReturn(Optional.of(contentEntity));
+        when(contentEntity.getUid())
+                .thenReturn(uid);
 
         var bucketEntity = mock(BucketEntity.class);
         when(contentEntity.getBucket())
@@ -332,8 +441,9 @@ class StorageServiceEmbeddedTest {
         when(bucketEntity.getId())
                 .thenReturn((long) bucketId);
 
-        when(bucketEntity.isReadonly())
-                .thenReturn(false);
+        var bucketInfo = new BucketInfo(bucketEntity.getId(), UUID.randomUUID().toString(), false);
+        when(bucketRegistry.findById(bucketInfo.id()))
+                .thenReturn(Optional.of(bucketInfo));
 
         var storageContainerType = UUID.randomUUID().toString();
         when(properties.getDefaultStorageContainer())
@@ -343,22 +453,36 @@ class StorageServiceEmbeddedTest {
         when(storageContainers.get(storageContainerType))
                 .thenReturn(storageContainer);
 
+        var bucketIoScheduler = mock(BucketIoScheduler.class);
+        when(bucketIoScheduler.acquire(bucketId, 0))
+                .thenReturn(BucketIoScheduler.Permit.NONE);
+        WhiteBox.set(service, "bucketIoScheduler", bucketIoScheduler);
+
         service.delete(id);
 
-        verify(contentMetaEntityRepository)
-                .deleteAllByContentUid(id);
+        verify(contentMetaService)
+                .delete(uid);
 
         verify(contentEntityRepository)
                 .delete(contentEntity);
-
-        verify(storageContainer)
+        verify(bucketStatsService)
+                .onDeleted(contentEntity);
+        verify(contentExistenceFilter)
+                .onDeleted(uid);
+
+        var inOrder = inOrder(bucketIoScheduler, transactionManager, storageContainer);
+        inOrder.verify(bucketIoScheduler)
+                .acquire(bucketId, 0);
+        inOrder.verify(transactionManager)
+                .getTransaction(any());
+        inOrder.verify(storageContainer)
                 .delete(bucketId, id);
     }
 
     @Test
     void testCreateWhenBucketNotExists() {
         var bucket = UUID.randomUUID().toString();
-        when(bucketEntityRepository.findByCode(bucket))
+        when(bucketRegistry.findByCode(bucket))
                 .thenReturn(Optional.empty());
 
         var rq = SaveFileRq.builder()
@@ -377,12 +501,8 @@ class StorageServiceEmbeddedTest {
     @Test
     void testCreateWhenBucketIsReadOnly() {
         var bucket = UUID.randomUUID().toString();
-        var bucketEntity = mock(BucketEntity.class);
-        when(bucketEntityRepository.findByCode(bucket))
-                .thenReturn(Optional.of(bucketEntity));
-
-        when(bucketEntity.isReadonly())
-                .thenReturn(true);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, true)));
 
         var rq = SaveFileRq.builder()
                 .bucket(bucket)
@@ -407,12 +527,8 @@ class StorageServiceEmbeddedTest {
                 .thenReturn(storageFormat);
 
         var bucket = UUID.randomUUID().toString();
-        var bucketEntity = mock(BucketEntity.class);
-        when(bucketEntityRepository.findByCode(bucket))
-                .thenReturn(Optional.of(bucketEntity));
-
-        when(bucketEntity.isReadonly())
-                .thenReturn(false);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
 
         var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
 
@@ -451,15 +567,15 @@ class StorageServiceEmbeddedTest {
                 .thenReturn(storageFormat);
 
         var bucket = UUID.randomUUID().toString();
-        var bucketEntity = mock(BucketEntity.class);
-        when(bucketEntityRepository.findByCode(bucket))
-                .thenReturn(Optional.of(bucketEntity));
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
 
-        when(bucketEntity.isReadonly())
-                .thenReturn(false);
+        var bucketEntity = mock(BucketEntity.class);
+        when(bucketEntityRepository.getReferenceById(1L))
+                .thenReturn(bucketEntity);
 
-        when(storageCodec.encode(any()))
-                .thenAnswer(it -> it.getArgument(0));
+        when(storageCodec.encode(anyLong(), any(), eq(StorageCodec.DEFAULT_LEVEL)))
+                .thenAnswer(it -> it.getArgument(1));
 
         var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
 
@@ -476,6 +592,10 @@ class StorageServiceEmbeddedTest {
                 .data(content)
                 .build();
 
+        var metaData = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(contentMetaService.toMetaData(meta))
+                .thenReturn(metaData);
+
         var storageContainerType = UUID.randomUUID().toString();
         when(properties.getDefaultStorageContainer())
                 .thenReturn(storageContainerType);
@@ -484,6 +604,11 @@ class StorageServiceEmbeddedTest {
         when(storageContainers.get(storageContainerType))
                 .thenReturn(storageContainer);
 
+        var bucketIoScheduler = mock(BucketIoScheduler.class);
+        when(bucketIoScheduler.acquire(1L, content.length))
+                .thenReturn(BucketIoScheduler.Permit.NONE);
+        WhiteBox.set(service, "bucketIoScheduler", bucketIoScheduler);
+
         var contentUidRs = service.save(rq);
         assertNotNull(contentUidRs);
 
@@ -498,24 +623,742 @@ class StorageServiceEmbeddedTest {
         var contentEntity = contentEntityArgumentCaptor.getValue();
         assertNotNull(contentEntity);
 
-        assertEquals(contentUid, contentEntity.getUid());
+        assertEquals(contentUid, contentEntity.getUid().toString());
         assertEquals(name, contentEntity.getName());
+        verify(contentExistenceFilter)
+                .onSaved(contentEntity.getUid());
         assertEquals(bucketEntity, contentEntity.getBucket());
+        assertEquals(storageFormat, contentEntity.getStorageFormat());
+        assertEquals(storageContainerType, contentEntity.getStorageContainer());
         assertNotNull(contentEntity.getCreatedAt());
         assertNotNull(contentEntity.getModifiedAt());
 
-        var metaEntitiesArgumentCaptor = ArgumentCaptor.forClass(List.class);
-        verify(contentMetaEntityRepository)
-                .saveAll(metaEntitiesArgumentCaptor.capture());
+        assertArrayEquals(metaData, contentEntity.getMetaData());
+
+        var digest = ContentDigest.of(content);
+        assertEquals(content.length, contentEntity.getOriginalSize());
+        assertEquals(content.length, contentEntity.getEncodedSize());
+        assertEquals(digest.getCrc32c(), contentEntity.getCrc32c());
+        assertEquals(digest.getSha256(), contentEntity.getSha256());
+
+        verify(contentMetaService)
+                .save(contentEntity, meta);
+        verify(memoryBudget)
+                .reserve(content.length);
+
+        var inOrder = inOrder(bucketIoScheduler, transactionManager, contentEntityRepository);
+        inOrder.verify(bucketIoScheduler)
+                .acquire(1L, content.length);
+        inOrder.verify(transactionManager)
+                .getTransaction(any());
+        inOrder.verify(contentEntityRepository)
+                .save(contentEntity);
+    }
+
+    @Test
+    void testCreateSpilled() throws IOException {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        when(properties.getStorageFormat())
+                .thenReturn(storageFormat);
 
-        var metaEntities = metaEntitiesArgumentCaptor.getValue();
-        assertNotNull(metaEntities);
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
 
-        assertEquals(1, metaEntities.size());
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var spillPath = Files.createFile(folder.resolve("content.spill"));
+        when(memoryBudget.shouldSpill(content.length))
+                .thenReturn(true);
+        when(memoryBudget.spill())
+                .thenReturn(new SpillFile(spillPath));
+        when(storageCodec.encodeStream(eq(1L), any(), eq(StorageCodec.DEFAULT_LEVEL)))
+                .thenAnswer(it -> it.getArgument(1));
+
+        var storageContainerType = UUID.randomUUID().toString();
+        when(properties.getDefaultStorageContainer())
+                .thenReturn(storageContainerType);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+
+        var written = new ByteArrayOutputStream();
+        doAnswer(it -> {
+            ContentWriter writer = it.getArgument(3);
+            assertEquals(content.length, writer.write(written));
+            return null;
+        }).when(storageContainer).write(eq(1L), any(), eq(storageFormat), any());
+
+        var rq = SaveFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .data(content)
+                .build();
+
+        var contentUid = service.save(rq).getBody();
+
+        var contentEntityArgumentCaptor = ArgumentCaptor.forClass(ContentEntity.class);
+        verify(contentEntityRepository)
+                .save(contentEntityArgumentCaptor.capture());
+
+        var contentEntity = contentEntityArgumentCaptor.getValue();
+        assertEquals(contentUid, contentEntity.getUid().toString());
+        assertEquals(content.length, contentEntity.getOriginalSize());
+        assertEquals(content.length, contentEntity.getEncodedSize());
+        assertNull(contentEntity.getInlineData());
+
+        verify(storageContainer)
+                .write(eq(1L), eq(contentUid), eq(storageFormat), any());
+        assertArrayEquals(content, written.toByteArray());
+        verify(storageCodec, never()).encode(anyLong(), any(), anyInt());
+        verify(memoryBudget)
+                .reserve(content.length);
+        assertTrue(Files.notExists(spillPath));
+    }
+
+    @Test
+    void testCreateWithBucketStoragePolicy() {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        var storageContainerType = UUID.randomUUID().toString();
+        var bucket = UUID.randomUUID().toString();
+        var storagePolicy = new StoragePolicy(storageFormat, storageContainerType, 9);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false, null, null, storagePolicy)));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageCodec.encode(1L, content, 9))
+                .thenReturn(encoded);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+
+        var rq = SaveFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .data(content)
+                .build();
+
+        var contentUid = service.save(rq).getBody();
+
+        var contentEntityArgumentCaptor = ArgumentCaptor.forClass(ContentEntity.class);
+        verify(contentEntityRepository)
+                .save(contentEntityArgumentCaptor.capture());
+
+        var contentEntity = contentEntityArgumentCaptor.getValue();
+        assertEquals(storageFormat, contentEntity.getStorageFormat());
+        assertEquals(storageContainerType, contentEntity.getStorageContainer());
+
+        verify(storageContainer)
+                .save(1L, contentUid, storageFormat, content.length, encoded);
+    }
+
+    @Test
+    void testCreateWhenQuotaExceeded() {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        when(properties.getStorageFormat())
+                .thenReturn(storageFormat);
+
+        var bucket = UUID.randomUUID().toString();
+        var bucketInfo = new BucketInfo(1L, bucket, false, 10L, null);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(bucketInfo));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageCodec.encode(1L, content, StorageCodec.DEFAULT_LEVEL))
+                .thenReturn(content);
+        doThrow(new BucketQuotaExceededException("Bucket bytes quota exceeded"))
+                .when(bucketQuotaService)
+                .reserve(bucketInfo, content.length);
+
+        var rq = SaveFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .data(content)
+                .build();
+
+        var exception = assertThrows(
+                BucketQuotaExceededException.class,
+                () -> service.save(rq)
+        );
+        assertEquals(403, exception.getStatus());
+        assertEquals("BUCKET_QUOTA_EXCEEDED", exception.getCode());
+
+        verify(contentEntityRepository, never())
+                .save(any());
+        verifyNoInteractions(storageContainers, bucketStatsService);
+    }
+
+    @Test
+    void testCreateInline() {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        when(properties.getStorageFormat())
+                .thenReturn(storageFormat);
+        when(properties.getInlineThreshold())
+                .thenReturn(1024);
+
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageCodec.encode(1L, content, StorageCodec.DEFAULT_LEVEL))
+                .thenReturn(content);
+
+        var rq = SaveFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .data(content)
+                .build();
+
+        var contentUidRs = service.save(rq);
+        assertNotNull(contentUidRs);
+
+        var contentEntityArgumentCaptor = ArgumentCaptor.forClass(ContentEntity.class);
+        verify(contentEntityRepository)
+                .save(contentEntityArgumentCaptor.capture());
+
+        var contentEntity = contentEntityArgumentCaptor.getValue();
+        assertArrayEquals(content, contentEntity.getInlineData());
+
+        verifyNoInteractions(storageContainers);
+    }
+
+    @Test
+    void testGetWhenContentIsInline() throws IOException {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var inlineData = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var contentView = ContentView.builder()
+                .uid(id)
+                .name(UUID.randomUUID().toString())
+                .storageFormat(storageFormat)
+                .inlineData(inlineData)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, inlineData, content);
+
+        var actualContentRs = service.get(id);
+        assertNotNull(actualContentRs);
+
+        assertArrayEquals(content, actualContentRs.getBody().getData());
+
+        verifyNoInteractions(storageContainers);
+    }
+
+    @Test
+    void testGetDataBypassesCache() throws IOException {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        var uid = UUID.randomUUID();
+        var inlineData = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var contentView = ContentView.builder()
+                .uid(uid.toString())
+                .name(UUID.randomUUID().toString())
+                .storageFormat(storageFormat)
+                .inlineData(inlineData)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, inlineData, content);
+
+        assertArrayEquals(content, service.getData(uid));
+
+        verifyNoInteractions(contentCache, hotContentTracker, storageContainers);
+    }
+
+    @Test
+    void testDeleteWhenContentIsInline() {
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var bucketEntity = new BucketEntity();
+        var contentEntity = ContentEntity.builder()
+                .uid(uid)
+                .bucket(bucketEntity)
+                .inlineData(new byte[1])
+                .build();
+        when(contentEntityRepository.findById(uid))
+                .thenReturn(Optional.of(contentEntity));
+        when(bucketRegistry.findById(bucketEntity.getId()))
+                .thenReturn(Optional.of(new BucketInfo(bucketEntity.getId(), UUID.randomUUID().toString(), false)));
+
+        service.delete(id);
+
+        verify(contentMetaService)
+                .delete(uid);
+        verify(contentEntityRepository)
+                .delete(contentEntity);
+
+        verifyNoInteractions(storageContainers);
+    }
+
+    @Test
+    void testGetByName() throws IOException {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var name = UUID.randomUUID().toString();
+        var inlineData = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var contentView = ContentView.builder()
+                .uid(UUID.randomUUID().toString())
+                .name(name)
+                .bucketId(1L)
+                .storageFormat(storageFormat)
+                .inlineData(inlineData)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findByName(1L, name))
+                .thenReturn(Optional.of(contentView));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, inlineData, content);
+
+        var actualContentRs = service.getByName(bucket, name);
+        assertNotNull(actualContentRs);
+
+        var bucketFile = actualContentRs.getBody();
+        assertArrayEquals(content, bucketFile.getData());
+        assertEquals(contentView.uid(), bucketFile.getDescription().getId());
+        assertEquals(name, bucketFile.getDescription().getName());
+    }
+
+    @Test
+    void testGetByNameWhenBucketNotExists() {
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.empty());
+
+        var name = UUID.randomUUID().toString();
+        var exception = assertThrows(
+                BucketNotExistsException.class,
+                () -> service.getByName(bucket, name)
+        );
+
+        assertEquals("BUCKET_NOT_EXISTS", exception.getCode());
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testGetDescriptionByNameWhenContentNotExists() {
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var name = UUID.randomUUID().toString();
+        when(contentReadRepository.findDescriptionByName(1L, name))
+                .thenReturn(Optional.empty());
+
+        var exception = assertThrows(
+                FileNotFoundException.class,
+                () -> service.getDescriptionByName(bucket, name)
+        );
+
+        assertEquals(404, exception.getStatus());
+        assertEquals("FILE_NOT_FOUND", exception.getCode());
+    }
+
+    @Test
+    void testCreateWhenNameIsNotUnique() {
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+        when(properties.isUniqueNames())
+                .thenReturn(true);
+
+        var name = UUID.randomUUID().toString();
+        when(contentEntityRepository.existsByBucketIdAndName(1L, name))
+                .thenReturn(true);
+
+        var rq = SaveFileRq.builder()
+                .bucket(bucket)
+                .name(name)
+                .build();
+
+        var exception = assertThrows(
+                ContentAlreadyExistsException.class,
+                () -> service.save(rq)
+        );
+
+        assertEquals(409, exception.getStatus());
+        assertEquals("CONTENT_ALREADY_EXISTS", exception.getCode());
+        verify(contentEntityRepository, never())
+                .save(any());
+    }
+
+    @Test
+    void testGetIfNoneMatchWhenNotModified() {
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var sha256 = UUID.randomUUID().toString();
+        var contentView = ContentView.builder()
+                .uid(id)
+                .sha256(sha256)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
+
+        var rs = service.getIfNoneMatch(id, sha256);
+        assertNotNull(rs);
+
+        var conditionalFile = rs.getBody();
+        assertFalse(conditionalFile.isModified());
+        assertEquals(sha256, conditionalFile.getEtag());
+        assertNull(conditionalFile.getFile());
+
+        verifyNoInteractions(storageCodecs, storageContainers);
+    }
+
+    @Test
+    void testGetIfNoneMatchWhenModified() throws IOException {
+        var storageFormat = mock(ContentStorageFormat.class);
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(storageFormat, storageCodec));
+
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var sha256 = UUID.randomUUID().toString();
+        var inlineData = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var contentView = ContentView.builder()
+                .uid(id)
+                .storageFormat(storageFormat)
+                .inlineData(inlineData)
+                .sha256(sha256)
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, inlineData, content);
+
+        var rs = service.getIfNoneMatch(id, UUID.randomUUID().toString());
+        assertNotNull(rs);
+
+        var conditionalFile = rs.getBody();
+        assertTrue(conditionalFile.isModified());
+        assertEquals(sha256, conditionalFile.getEtag());
+        assertArrayEquals(content, conditionalFile.getFile().getData());
+        assertEquals(sha256, ((BucketFileDescriptionImpl) conditionalFile.getFile().getDescription()).getSha256());
+    }
+
+    @Test
+    void testSaveEncodedStoresMatchingEncodingAsIs() throws IOException {
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(ContentStorageFormat.GZIP, storageCodec));
+
+        var storageContainerType = UUID.randomUUID().toString();
+        var bucket = UUID.randomUUID().toString();
+        var storagePolicy = new StoragePolicy(ContentStorageFormat.GZIP, storageContainerType, null);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false, null, null, storagePolicy)));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, encoded, content);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+
+        var rq = SaveEncodedFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .encoding(ContentStorageFormat.GZIP)
+                .data(encoded)
+                .build();
+
+        var contentUid = service.saveEncoded(rq).getBody();
+
+        var contentEntityArgumentCaptor = ArgumentCaptor.forClass(ContentEntity.class);
+        verify(contentEntityRepository)
+                .save(contentEntityArgumentCaptor.capture());
+
+        var contentEntity = contentEntityArgumentCaptor.getValue();
+        var digest = ContentDigest.of(content);
+        assertEquals(ContentStorageFormat.GZIP, contentEntity.getStorageFormat());
+        assertEquals(digest.getSize(), contentEntity.getOriginalSize());
+        assertEquals(encoded.length, contentEntity.getEncodedSize());
+        assertEquals(digest.getCrc32c(), contentEntity.getCrc32c());
+        assertEquals(digest.getSha256(), contentEntity.getSha256());
+
+        verify(storageCodec, never()).encode(anyLong(), any(), anyInt());
+        verify(storageContainer)
+                .save(1L, contentUid, ContentStorageFormat.GZIP, content.length, encoded);
+    }
+
+    @Test
+    void testSaveEncodedReencodesOtherEncoding() throws IOException {
+        var storageCodec = mock(StorageCodec.class);
+        var encodingCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(
+                ContentStorageFormat.BLOCK_DEFLATE, storageCodec,
+                ContentStorageFormat.GZIP, encodingCodec
+        ));
+
+        var storageContainerType = UUID.randomUUID().toString();
+        var bucket = UUID.randomUUID().toString();
+        var storagePolicy = new StoragePolicy(ContentStorageFormat.BLOCK_DEFLATE, storageContainerType, 9);
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false, null, null, storagePolicy)));
+
+        var content = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var gzipped = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(encodingCodec, gzipped, content);
+        when(storageCodec.encode(1L, content, 9))
+                .thenReturn(encoded);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+
+        var rq = SaveEncodedFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .encoding(ContentStorageFormat.GZIP)
+                .data(gzipped)
+                .build();
+
+        var contentUid = service.saveEncoded(rq).getBody();
+
+        verify(storageContainer)
+                .save(1L, contentUid, ContentStorageFormat.BLOCK_DEFLATE, content.length, encoded);
+    }
+
+    @Test
+    void testSaveEncodedWhenContentDoesNotMatchEncoding() throws IOException {
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(ContentStorageFormat.GZIP, storageCodec));
+
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageCodec.decodeStream(any(InputStream.class)))
+                .thenThrow(new IOException("Not in GZIP format"));
+
+        var rq = SaveEncodedFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .encoding(ContentStorageFormat.GZIP)
+                .data(encoded)
+                .build();
+
+        var exception = assertThrows(
+                InvalidContentEncodingException.class,
+                () -> service.saveEncoded(rq)
+        );
+
+        assertEquals("INVALID_CONTENT_ENCODING", exception.getCode());
+        verify(contentEntityRepository, never()).save(any());
+    }
+
+    @Test
+    void testSaveEncodedWhenDecodedContentExceedsMaxSize() throws IOException {
+        var storageCodec = mock(StorageCodec.class);
+        WhiteBox.set(service, "storageCodecs", Map.of(ContentStorageFormat.GZIP, storageCodec));
+
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        mockDecodeStream(storageCodec, encoded, new byte[1024]);
+        when(memoryBudget.getMaxDecodedSize())
+                .thenReturn(1023L);
+
+        var rq = SaveEncodedFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .encoding(ContentStorageFormat.GZIP)
+                .data(encoded)
+                .build();
+
+        var exception = assertThrows(
+                InvalidContentEncodingException.class,
+                () -> service.saveEncoded(rq)
+        );
+
+        assertEquals("Decoded content exceeds maximum size", exception.getMessage());
+        verify(memoryBudget)
+                .reserve(encoded.length);
+        verify(contentEntityRepository, never()).save(any());
+    }
+
+    @Test
+    void testSaveEncodedWhenEncodingIsUnsupported() {
+        WhiteBox.set(service, "storageCodecs", Map.of());
+
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, false)));
+
+        var rq = SaveEncodedFileRq.builder()
+                .bucket(bucket)
+                .name(UUID.randomUUID().toString())
+                .meta(Map.of())
+                .encoding(ContentStorageFormat.GZIP)
+                .data(new byte[0])
+                .build();
+
+        var exception = assertThrows(
+                InvalidContentEncodingException.class,
+                () -> service.saveEncoded(rq)
+        );
+
+        assertEquals("Unsupported content encoding: GZIP", exception.getMessage());
+    }
+
+    @Test
+    void testGetEncoded() throws IOException {
+        var uid = UUID.randomUUID();
+        var id = uid.toString();
+        var bucketId = 1L;
+        var contentView = ContentView.builder()
+                .uid(id)
+                .name(UUID.randomUUID().toString())
+                .bucketId(bucketId)
+                .storageFormat(ContentStorageFormat.BASE64)
+                .createdAt(ZonedDateTime.now())
+                .modifiedAt(ZonedDateTime.now())
+                .meta(Map.of())
+                .build();
+        when(contentReadRepository.findById(uid))
+                .thenReturn(Optional.of(contentView));
+
+        var storageContainerType = UUID.randomUUID().toString();
+        when(properties.getDefaultStorageContainer())
+                .thenReturn(storageContainerType);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+
+        var encoded = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        when(storageContainer.getBlob(bucketId, id))
+                .thenReturn(new StoredBlob(ContentStorageFormat.GZIP, encoded));
+        mockOpen(storageContainer, bucketId, id, encoded);
+
+        var encodedFile = service.getEncoded(id).getBody();
+
+        assertEquals(ContentStorageFormat.GZIP, encodedFile.getStorageFormat());
+        assertArrayEquals(encoded, encodedFile.getData());
+        assertEquals(contentView.name(), encodedFile.getDescription().getName());
+        verifyNoInteractions(storageCodecs);
+        verify(memoryBudget)
+                .reserve(encoded.length);
+    }
+
+    @Test
+    void testGetWhenContentIsMissingInExistenceFilter() {
+        var uid = UUID.randomUUID();
+        when(contentExistenceFilter.isMissing(uid))
+                .thenReturn(true);
+
+        var id = uid.toString();
+        assertThrows(
+                FileNotFoundException.class,
+                () -> service.get(id)
+        );
+
+        verifyNoInteractions(contentReadRepository);
+    }
+
+    @Test
+    void testDeleteWhenContentIsMissingInExistenceFilter() {
+        var uid = UUID.randomUUID();
+        when(contentExistenceFilter.isMissing(uid))
+                .thenReturn(true);
+
+        assertNotNull(service.delete(uid.toString()));
+
+        verifyNoInteractions(contentEntityRepository);
+        verify(contentExistenceFilter, never()).onDeleted(any());
+    }
+
+    @Test
+    void testGetFromCache() {
+        var uid = UUID.randomUUID();
+        var cached = new GetBucketFileRs(
+                BucketFileImpl.builder()
+                        .description(BucketFileDescriptionImpl.builder().name(UUID.randomUUID().toString()).build())
+                        .data(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8))
+                        .build()
+        );
+        var cachedDescription = (BucketFileDescriptionImpl) cached.getBody().getDescription();
+        when(contentCache.get(uid))
+                .thenReturn(Optional.of(cached));
+        when(contentCache.getDescription(uid))
+                .thenReturn(Optional.of(cachedDescription));
+
+        var id = uid.toString();
+        assertSame(cached, service.get(id));
+        assertSame(cachedDescription, service.getDescription(id).getBody());
+
+        verifyNoInteractions(contentReadRepository);
+        verify(hotContentTracker)
+                .onRead(uid);
+    }
+
+    private static void mockDecodeStream(StorageCodec storageCodec, byte[] encoded, byte[] content) throws IOException {
+        when(storageCodec.decodeStream(any(InputStream.class)))
+                .thenAnswer(it -> {
+                    InputStream in = it.getArgument(0);
+                    assertArrayEquals(encoded, in.readAllBytes());
+                    return new ByteArrayInputStream(content);
+                });
+    }
 
-        var contentMetaEntity = (ContentMetaEntity) metaEntities.getFirst();
-        assertEquals(metaKey, contentMetaEntity.getKey());
-        assertEquals(metaValue, contentMetaEntity.getValue());
-        assertEquals(contentUid, contentMetaEntity.getContentUid());
+    private static RandomAccessContent mockOpen(StorageContainer storageContainer,
+                                                long bucketId,
+                                                String id,
+                                                byte[] encoded) {
+        var storedContent = mock(RandomAccessContent.class);
+        when(storedContent.size())
+                .thenReturn((long) encoded.length);
+        when(storageContainer.open(bucketId, id))
+                .thenReturn(storedContent);
+        return storedContent;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,618 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.BucketInfo;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.entity.BucketEntity;
+import com.github.sibdevtools.storage.embedded.entity.ContentEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadPartEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionEntity;
+import com.github.sibdevtools.storage.embedded.entity.UploadSessionMetaEntity;
+import com.github.sibdevtools.storage.embedded.exception.BucketNotExistsException;
+import com.github.sibdevtools.storage.embedded.exception.BucketQuotaExceededException;
+import com.github.sibdevtools.storage.embedded.exception.BucketReadonlyException;
+import com.github.sibdevtools.storage.embedded.exception.ContentAlreadyExistsException;
+import com.github.sibdevtools.storage.embedded.exception.InvalidUploadException;
+import com.github.sibdevtools.storage.embedded.exception.UploadNotFoundException;
+import com.github.sibdevtools.storage.embedded.repository.BucketEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.ContentEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadPartEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionEntityRepository;
+import com.github.sibdevtools.storage.embedded.repository.UploadSessionMetaEntityRepository;
+import com.github.sibdevtools.storage.embedded.rq.InitiateUploadRq;
+import com.github.sibdevtools.storage.embedded.rq.UploadPartRq;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import com.github.sibdevtools.storage.embedded.service.storage.ContentWriter;
+import com.github.sibdevtools.storage.embedded.service.storage.StorageContainer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class StorageUploadServiceEmbeddedTest {
+    @Mock
+    private BucketEntityRepository bucketEntityRepository;
+    @Mock
+    private ContentEntityRepository contentEntityRepository;
+    @Mock
+    private ContentMetaService contentMetaService;
+    @Mock
+    private UploadSessionEntityRepository uploadSessionEntityRepository;
+    @Mock
+    private UploadSessionMetaEntityRepository uploadSessionMetaEntityRepository;
+    @Mock
+    private UploadPartEntityRepository uploadPartEntityRepository;
+    @Mock
+    private BucketRegistry bucketRegistry;
+    @Mock
+    private BucketStatsService bucketStatsService;
+    @Mock
+    private BucketQuotaService bucketQuotaService;
+    @Mock
+    private ContentExistenceFilter contentExistenceFilter;
+    @Mock
+    private Map<ContentStorageFormat, StorageCodec> storageCodecs;
+    @Mock
+    private StorageServiceEmbeddedProperties properties;
+    @Mock
+    private Map<String, StorageContainer> storageContainers;
+    private StorageUploadServiceEmbedded service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StorageUploadServiceEmbedded(
+                bucketEntityRepository,
+                contentEntityRepository,
+                contentMetaService,
+                uploadSessionEntityRepository,
+                uploadSessionMetaEntityRepository,
+                uploadPartEntityRepository,
+                bucketRegistry,
+                bucketStatsService,
+                bucketQuotaService,
+                contentExistenceFilter,
+                new BucketIoScheduler(bucketRegistry, new StorageServiceEmbeddedProperties()),
+                storageCodecs,
+                properties,
+                storageContainers
+        );
+    }
+
+    @Test
+    void testInitiateWhenBucketNotExists() {
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.empty());
+
+        var rq = InitiateUploadRq.builder()
+                .bucket(bucket)
+                .build();
+
+        var exception = assertThrows(
+                BucketNotExistsException.class,
+                () -> service.initiate(rq)
+        );
+        assertEquals(404, exception.getStatus());
+        assertEquals("Bucket does not exists", exception.getMessage());
+    }
+
+    @Test
+    void testInitiateWhenBucketIsReadOnly() {
+        var bucket = UUID.randomUUID().toString();
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(1L, bucket, true)));
+
+        var rq = InitiateUploadRq.builder()
+                .bucket(bucket)
+                .build();
+
+        var exception = assertThrows(
+                BucketReadonlyException.class,
+                () -> service.initiate(rq)
+        );
+        assertEquals(403, exception.getStatus());
+        assertEquals("Bucket is readonly", exception.getMessage());
+    }
+
+    @Test
+    void testInitiate() {
+        var bucket = UUID.randomUUID().toString();
+        var bucketId = 1L;
+        when(bucketRegistry.findByCode(bucket))
+                .thenReturn(Optional.of(new BucketInfo(bucketId, bucket, false)));
+        var bucketEntity = mock(BucketEntity.class);
+        when(bucketEntityRepository.getReferenceById(bucketId))
+                .thenReturn(bucketEntity);
+
+        var upload = new StorageServiceEmbeddedProperties.Upload(Duration.ofHours(1), Duration.ofMinutes(1));
+        when(properties.getUpload())
+                .thenReturn(upload);
+
+        var name = UUID.randomUUID().toString();
+        var metaKey = UUID.randomUUID().toString();
+        var metaValue = UUID.randomUUID().toString();
+        var rq = InitiateUploadRq.builder()
+                .bucket(bucket)
+                .name(name)
+                .meta(Map.of(metaKey, metaValue))
+                .build();
+
+        var rs = service.initiate(rq);
+        assertNotNull(rs);
+
+        var uploadId = rs.getBody();
+        assertNotNull(uploadId);
+
+        var sessionCaptor = ArgumentCaptor.forClass(UploadSessionEntity.class);
+        verify(uploadSessionEntityRepository)
+                .save(sessionCaptor.capture());
+
+        var session = sessionCaptor.getValue();
+        assertEquals(uploadId, session.getUid());
+        assertEquals(name, session.getName());
+        assertEquals(bucketEntity, session.getBucket());
+        assertTrue(session.getExpiresAt().isAfter(session.getCreatedAt()));
+
+        var metaCaptor = ArgumentCaptor.forClass(List.class);
+        verify(uploadSessionMetaEntityRepository)
+                .saveAll(metaCaptor.capture());
+
+        var metaEntities = metaCaptor.getValue();
+        assertEquals(1, metaEntities.size());
+
+        var metaEntity = (UploadSessionMetaEntity) metaEntities.getFirst();
+        assertEquals(metaKey, metaEntity.getKey());
+        assertEquals(metaValue, metaEntity.getValue());
+        assertEquals(uploadId, metaEntity.getUploadUid());
+    }
+
+    @Test
+    void testUploadPartWhenPartNumberIsNotPositive() {
+        var rq = UploadPartRq.builder()
+                .uploadId(UUID.randomUUID().toString())
+                .partNumber(0)
+                .data(new byte[0])
+                .build();
+
+        var exception = assertThrows(
+                InvalidUploadException.class,
+                () -> service.uploadPart(rq)
+        );
+        assertEquals(400, exception.getStatus());
+        assertEquals("INVALID_UPLOAD", exception.getCode());
+        assertEquals("Part number should be positive", exception.getMessage());
+    }
+
+    @Test
+    void testUploadPartWhenSessionExpired() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .expiresAt(ZonedDateTime.now().minusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findById(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+
+        var rq = UploadPartRq.builder()
+                .uploadId(uploadId)
+                .partNumber(1)
+                .data(new byte[0])
+                .build();
+
+        var exception = assertThrows(
+                UploadNotFoundException.class,
+                () -> service.uploadPart(rq)
+        );
+        assertEquals(404, exception.getStatus());
+        assertEquals("UPLOAD_NOT_FOUND", exception.getCode());
+    }
+
+    @Test
+    void testUploadPart() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .bucket(new BucketEntity())
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findById(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+
+        var storageContainer = mockStorageContainer();
+
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var rq = UploadPartRq.builder()
+                .uploadId(uploadId)
+                .partNumber(2)
+                .data(data)
+                .build();
+
+        service.uploadPart(rq);
+
+        verify(storageContainer)
+                .savePart(uploadId, 2, data);
+
+        var partCaptor = ArgumentCaptor.forClass(UploadPartEntity.class);
+        verify(uploadPartEntityRepository)
+                .save(partCaptor.capture());
+
+        var part = partCaptor.getValue();
+        assertEquals(uploadId, part.getUploadUid());
+        assertEquals(2, part.getPartNumber());
+        assertEquals(data.length, part.getSize());
+    }
+
+    @Test
+    void testUploadPartUpdatesExistingPart() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .bucket(new BucketEntity())
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findById(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+
+        mockStorageContainer();
+
+        var partEntity = UploadPartEntity.builder()
+                .id(42L)
+                .uploadUid(uploadId)
+                .partNumber(2)
+                .size(1)
+                .build();
+        when(uploadPartEntityRepository.findByUploadUidAndPartNumber(uploadId, 2))
+                .thenReturn(Optional.of(partEntity));
+
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var rq = UploadPartRq.builder()
+                .uploadId(uploadId)
+                .partNumber(2)
+                .data(data)
+                .build();
+
+        service.uploadPart(rq);
+
+        verify(uploadPartEntityRepository)
+                .save(partEntity);
+        assertEquals(data.length, partEntity.getSize());
+    }
+
+    @Test
+    void testUploadPartWhenSessionRemovedConcurrently() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .bucket(new BucketEntity())
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findById(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.empty());
+
+        mockStorageContainer();
+
+        var rq = UploadPartRq.builder()
+                .uploadId(uploadId)
+                .partNumber(2)
+                .data(new byte[1])
+                .build();
+
+        var exception = assertThrows(
+                UploadNotFoundException.class,
+                () -> service.uploadPart(rq)
+        );
+        assertEquals("UPLOAD_NOT_FOUND", exception.getCode());
+        verify(uploadPartEntityRepository, never())
+                .save(any());
+    }
+
+    @Test
+    void testCompleteWhenNoParts() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .bucket(new BucketEntity())
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(uploadPartEntityRepository.findAllByUploadUidOrderByPartNumber(uploadId))
+                .thenReturn(List.of());
+
+        var exception = assertThrows(
+                InvalidUploadException.class,
+                () -> service.complete(uploadId)
+        );
+        assertEquals("Upload has no parts", exception.getMessage());
+    }
+
+    @Test
+    void testCompleteWhenNameIsNotUnique() {
+        var uploadId = UUID.randomUUID().toString();
+        var name = UUID.randomUUID().toString();
+        var bucketEntity = BucketEntity.builder()
+                .id(1L)
+                .build();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .name(name)
+                .bucket(bucketEntity)
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(properties.isUniqueNames())
+                .thenReturn(true);
+        when(contentEntityRepository.existsByBucketIdAndName(1L, name))
+                .thenReturn(true);
+
+        var exception = assertThrows(
+                ContentAlreadyExistsException.class,
+                () -> service.complete(uploadId)
+        );
+        assertEquals("CONTENT_ALREADY_EXISTS", exception.getCode());
+        verifyNoInteractions(uploadPartEntityRepository);
+    }
+
+    @Test
+    void testComplete() throws IOException {
+        var storageFormat = ContentStorageFormat.BINARY;
+        var storageCodec = mock(StorageCodec.class);
+        when(storageCodecs.get(storageFormat))
+                .thenReturn(storageCodec);
+        when(properties.getStorageFormat())
+                .thenReturn(storageFormat);
+        when(storageCodec.encodeStream(eq(42L), any(), eq(StorageCodec.DEFAULT_LEVEL)))
+                .thenAnswer(it -> it.getArgument(1));
+
+        var bucketEntity = new BucketEntity();
+        bucketEntity.setId(42);
+        var bucketInfo = new BucketInfo(42L, UUID.randomUUID().toString(), false);
+        when(bucketRegistry.findById(42L))
+                .thenReturn(Optional.of(bucketInfo));
+
+        var uploadId = UUID.randomUUID().toString();
+        var name = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .name(name)
+                .bucket(bucketEntity)
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+
+        var parts = List.of(
+                UploadPartEntity.builder().uploadUid(uploadId).partNumber(1).build(),
+                UploadPartEntity.builder().uploadUid(uploadId).partNumber(3).build()
+        );
+        when(uploadPartEntityRepository.findAllByUploadUidOrderByPartNumber(uploadId))
+                .thenReturn(parts);
+
+        var metaEntity = UploadSessionMetaEntity.builder()
+                .key(UUID.randomUUID().toString())
+                .value(UUID.randomUUID().toString())
+                .uploadUid(uploadId)
+                .build();
+        when(uploadSessionMetaEntityRepository.findAllByUploadUid(uploadId))
+                .thenReturn(List.of(metaEntity));
+
+        var storageContainer = mockStorageContainer();
+        when(storageContainer.getPart(eq(uploadId), anyInt()))
+                .thenAnswer(it -> new ByteArrayInputStream(
+                        "part-%d;".formatted(it.<Integer>getArgument(1)).getBytes(StandardCharsets.UTF_8)
+                ));
+        var out = new ByteArrayOutputStream();
+        doAnswer(it -> {
+            it.<ContentWriter>getArgument(3).write(out);
+            return null;
+        }).when(storageContainer)
+                .write(eq(42L), any(), eq(storageFormat), any());
+
+        var rs = service.complete(uploadId);
+        assertNotNull(rs);
+
+        var uid = rs.getBody();
+        assertNotNull(uid);
+
+        var contentCaptor = ArgumentCaptor.forClass(ContentEntity.class);
+        verify(contentEntityRepository)
+                .save(contentCaptor.capture());
+
+        var contentEntity = contentCaptor.getValue();
+        assertEquals(uid, contentEntity.getUid().toString());
+        assertEquals(name, contentEntity.getName());
+        assertEquals(storageFormat, contentEntity.getStorageFormat());
+
+        var expectedDigest = ContentDigest.of("part-1;part-3;".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expectedDigest.getSize(), contentEntity.getOriginalSize());
+        assertEquals(expectedDigest.getSize(), contentEntity.getEncodedSize());
+        assertEquals(expectedDigest.getCrc32c(), contentEntity.getCrc32c());
+        assertEquals(expectedDigest.getSha256(), contentEntity.getSha256());
+
+        verify(bucketQuotaService)
+                .reserve(bucketInfo, expectedDigest.getSize());
+        verify(bucketStatsService)
+                .onSaved(contentEntity);
+        verify(contentMetaService)
+                .save(contentEntity, Map.of(metaEntity.getKey(), metaEntity.getValue()));
+
+        verify(storageContainer)
+                .write(eq(42L), eq(uid), eq(storageFormat), any());
+        assertEquals("part-1;part-3;", out.toString(StandardCharsets.UTF_8));
+
+        verify(uploadPartEntityRepository)
+                .deleteAllByUploadUid(uploadId);
+        verify(uploadSessionMetaEntityRepository)
+                .deleteAllByUploadUid(uploadId);
+        verify(uploadSessionEntityRepository)
+                .delete(sessionEntity);
+        verify(storageContainer)
+                .deleteParts(uploadId);
+    }
+
+    @Test
+    void testCompleteWhenQuotaExceeded() {
+        var storageFormat = ContentStorageFormat.BINARY;
+        var storageCodec = mock(StorageCodec.class);
+        when(storageCodecs.get(storageFormat))
+                .thenReturn(storageCodec);
+        when(properties.getStorageFormat())
+                .thenReturn(storageFormat);
+
+        var bucketEntity = new BucketEntity();
+        bucketEntity.setId(42);
+        var bucketInfo = new BucketInfo(42L, UUID.randomUUID().toString(), false, 1L, null);
+        when(bucketRegistry.findById(42L))
+                .thenReturn(Optional.of(bucketInfo));
+
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .name(UUID.randomUUID().toString())
+                .bucket(bucketEntity)
+                .expiresAt(ZonedDateTime.now().plusMinutes(1))
+                .build();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+        when(uploadPartEntityRepository.findAllByUploadUidOrderByPartNumber(uploadId))
+                .thenReturn(List.of(UploadPartEntity.builder().uploadUid(uploadId).partNumber(1).build()));
+
+        var storageContainer = mockStorageContainer();
+        doThrow(new BucketQuotaExceededException("Bucket bytes quota exceeded"))
+                .when(bucketQuotaService)
+                .reserve(eq(bucketInfo), anyLong());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(
+                    BucketQuotaExceededException.class,
+                    () -> service.complete(uploadId)
+            );
+            verify(storageContainer, never())
+                    .delete(anyLong(), any());
+
+            var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        var uidCaptor = ArgumentCaptor.forClass(String.class);
+        verify(storageContainer)
+                .write(eq(42L), uidCaptor.capture(), eq(storageFormat), any());
+        verify(storageContainer)
+                .delete(42L, uidCaptor.getValue());
+        verify(contentEntityRepository, never())
+                .save(any());
+        verify(uploadSessionEntityRepository, never())
+                .delete(any());
+    }
+
+    @Test
+    void testAbortWhenSessionNotExists() {
+        var uploadId = UUID.randomUUID().toString();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.empty());
+
+        service.abort(uploadId);
+
+        verify(uploadSessionEntityRepository, never())
+                .delete(any());
+    }
+
+    @Test
+    void testAbortExpired() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .build();
+        when(uploadSessionEntityRepository.findFirst100ByExpiresAtBefore(any()))
+                .thenReturn(List.of(sessionEntity));
+
+        var storageContainer = mockStorageContainer();
+
+        service.abortExpired();
+
+        verify(uploadSessionEntityRepository)
+                .delete(sessionEntity);
+        verify(storageContainer)
+                .deleteParts(uploadId);
+    }
+
+    @Test
+    void testAbortRemovesPartsAfterCommit() {
+        var uploadId = UUID.randomUUID().toString();
+        var sessionEntity = UploadSessionEntity.builder()
+                .uid(uploadId)
+                .build();
+        when(uploadSessionEntityRepository.findForUpdate(uploadId))
+                .thenReturn(Optional.of(sessionEntity));
+
+        var storageContainer = mockStorageContainer();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.abort(uploadId);
+
+            verify(uploadSessionEntityRepository)
+                    .delete(sessionEntity);
+            verify(storageContainer, never())
+                    .deleteParts(any());
+
+            var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            synchronizations.get(0).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(storageContainer)
+                .deleteParts(uploadId);
+    }
+
+    private StorageContainer mockStorageContainer() {
+        var storageContainerType = UUID.randomUUID().toString();
+        when(properties.getDefaultStorageContainer())
+                .thenReturn(storageContainerType);
+
+        var storageContainer = mock(StorageContainer.class);
+        when(storageContainers.get(storageContainerType))
+                .thenReturn(storageContainer);
+        return storageContainer;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.sibdevtools.storage.embedded.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testReserveWithinBurst() {
+        var bucket = new TokenBucket(10, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.reserve(1, 0));
+        }
+    }
+
+    @Test
+    void testReserveOverBurstReturnsDelay() {
+        var bucket = new TokenBucket(10, 0);
+
+        assertEquals(0, bucket.reserve(10, 0));
+        assertEquals(SECOND / 10, bucket.reserve(1, 0));
+        assertEquals(SECOND * 3 / 10, bucket.reserve(2, 0));
+    }
+
+    @Test
+    void testReserveIsCappedAtCapacity() {
+        var bucket = new TokenBucket(10, 0);
+
+        assertEquals(0, bucket.reserve(1000, 0));
+        assertEquals(SECOND, bucket.reserve(1000, 0));
+        bucket.refund(1000);
+
+        assertEquals(0, bucket.reserve(0, 0));
+        assertEquals(SECOND / 10, bucket.reserve(1, 0));
+    }
+
+    @Test
+    void testRefill() {
+        var bucket = new TokenBucket(10, 0);
+
+        assertEquals(0, bucket.reserve(10, 0));
+        assertEquals(0, bucket.reserve(5, SECOND / 2));
+        assertEquals(0, bucket.reserve(10, SECOND * 10));
+        assertEquals(SECOND / 10, bucket.reserve(1, SECOND * 10));
+    }
+
+    @Test
+    void testRefund() {
+        var bucket = new TokenBucket(10, 0);
+
+        assertEquals(0, bucket.reserve(10, 0));
+        assertTrue(bucket.reserve(5, 0) > 0);
+        bucket.refund(5);
+
+        assertEquals(SECOND / 10, bucket.reserve(1, 0));
+    }
+
+    @Test
+    void testNotPositiveRateIsUnlimited() {
+        var bucket = new TokenBucket(0, 0);
+
+        assertEquals(0, bucket.reserve(Long.MAX_VALUE, 0));
+        assertEquals(0, bucket.reserve(Long.MAX_VALUE, 0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.sibdevtools.storage.embedded.service.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class DictionaryTrainerTest {
+    private static final String DOCUMENT = "<order><status>CREATED</status><customer><name>%s</name></customer></order>";
+
+    @Test
+    void testTrainOnCommonSegments() {
+        var samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 16; i++) {
+            samples.add(DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        var dictionary = DictionaryTrainer.train(samples, 1024);
+
+        var text = new String(dictionary, StandardCharsets.ISO_8859_1);
+        assertTrue(text.contains("<order><status>CREATED</status><customer><name>"));
+        assertTrue(text.contains("</name></customer></order>"));
+
+        var source = DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        assertTrue(deflate(source, dictionary) < deflate(source, null));
+    }
+
+    @Test
+    void testTrainRespectsDictionarySize() {
+        var samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 4; i++) {
+            samples.add(DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        var dictionary = DictionaryTrainer.train(samples, 16);
+
+        assertTrue(dictionary.length <= 16);
+    }
+
+    @Test
+    void testTrainWhenSamplesHaveNothingInCommon() {
+        var samples = List.of(
+                UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8)
+        );
+
+        var dictionary = DictionaryTrainer.train(samples, 1024);
+
+        assertEquals(0, dictionary.length);
+    }
+
+    @Test
+    void testTrainWhenNotEnoughSamples() {
+        var samples = List.of(DOCUMENT.formatted("name").getBytes(StandardCharsets.UTF_8));
+
+        var dictionary = DictionaryTrainer.train(samples, 1024);
+
+        assertEquals(0, dictionary.length);
+    }
+
+    private static int deflate(byte[] source, byte[] dictionary) {
+        var deflater = new Deflater();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(source);
+            deflater.finish();
+            var buffer = new byte[source.length * 2 + 64];
+            var length = 0;
+            while (!deflater.finished()) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return length;
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.sibdevtools.storage.embedded.service.codec;
+
+import com.github.sibdevtools.storage.embedded.exception.UnexpectedErrorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class MetaCodecTest {
+
+    @Test
+    void testEncodeDecodeCycle() {
+        var meta = new HashMap<String, String>();
+        for (int i = 0; i < 15; i++) {
+            meta.put(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        }
+        meta.put("\u043a\u043b\u044e\u0447", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435");
+        meta.put("empty", "");
+
+        var encoded = MetaCodec.encode(meta);
+        var decoded = MetaCodec.decode(encoded);
+
+        assertEquals(meta, decoded);
+    }
+
+    @Test
+    void testEncodeDecodeEmpty() {
+        var encoded = MetaCodec.encode(Map.of());
+        assertTrue(MetaCodec.decode(encoded).isEmpty());
+    }
+
+    @Test
+    void testDecodeWhenVersionIsUnsupported() {
+        var encoded = MetaCodec.encode(Map.of());
+        encoded[0] = 42;
+
+        var exception = assertThrows(
+                UnexpectedErrorException.class,
+                () -> MetaCodec.decode(encoded)
+        );
+        assertEquals("Unsupported meta data version: 42", exception.getMessage());
+    }
+
+    @Test
+    void testDecodeWhenTruncated() {
+        var encoded = MetaCodec.encode(Map.of("key", "value"));
+        var truncated = new byte[encoded.length - 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+        assertThrows(
+                UnexpectedErrorException.class,
+                () -> MetaCodec.decode(truncated)
+        );
+    }
+}
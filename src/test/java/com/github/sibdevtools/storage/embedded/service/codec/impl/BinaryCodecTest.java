@@ -1,12 +1,14 @@
 package com.github.sibdevtools.storage.embedded.service.codec.impl;
 
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,6 +35,16 @@ class BinaryCodecTest {
         assertArrayEquals(source, decoded);
     }
 
+    @Test
+    void testDecodeRange() {
+        var source = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        var content = new ByteArrayRandomAccessContent(codec.encode(source));
+
+        var decoded = codec.decode(content, 3, 10);
+
+        assertArrayEquals(Arrays.copyOfRange(source, 3, 13), decoded);
+    }
+
     @Test
     void testGetFormat() {
         var format = codec.getFormat();
@@ -0,0 +1,121 @@
+package com.github.sibdevtools.storage.embedded.service.codec.impl;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+class BlockDeflateCodecTest {
+    private final BlockDeflateCodec codec = new BlockDeflateCodec(16);
+
+    @Test
+    void testEncodeDecodeCycle() {
+        var source = UUID.randomUUID().toString().repeat(4).getBytes(StandardCharsets.UTF_8);
+
+        var encoded = codec.encode(source);
+        assertNotNull(encoded);
+
+        var decoded = codec.decode(encoded);
+
+        assertArrayEquals(source, decoded);
+    }
+
+    @Test
+    void testEncodeDecodeCycleWhenEmpty() {
+        var encoded = codec.encode(new byte[0]);
+
+        var decoded = codec.decode(encoded);
+
+        assertEquals(0, decoded.length);
+    }
+
+    @Test
+    void testEncodeWithLevel() {
+        var source = "a".repeat(64).getBytes(StandardCharsets.UTF_8);
+
+        var stored = codec.encode(source, 0);
+        var compressed = codec.encode(source, 9);
+
+        assertTrue(compressed.length < stored.length);
+        assertArrayEquals(source, codec.decode(stored));
+        assertArrayEquals(source, codec.decode(compressed));
+    }
+
+    @Test
+    void testEncodeStreamDecodeCycle() throws IOException {
+        var source = UUID.randomUUID().toString().repeat(3).getBytes(StandardCharsets.UTF_8);
+
+        var out = new ByteArrayOutputStream();
+        try (var encoder = codec.encodeStream(out)) {
+            encoder.write(source, 0, 7);
+            encoder.write(source[7]);
+            encoder.write(source, 8, source.length - 8);
+        }
+
+        assertArrayEquals(source, codec.decode(out.toByteArray()));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0,10",
+            "5,16",
+            "15,2",
+            "16,16",
+            "30,100",
+            "143,1",
+            "144,10",
+            "500,10"
+    })
+    void testDecodeRange(long offset, int length) {
+        var source = UUID.randomUUID().toString().repeat(4).getBytes(StandardCharsets.UTF_8);
+        var content = new ByteArrayRandomAccessContent(codec.encode(source));
+
+        var decoded = codec.decode(content, offset, length);
+
+        var from = (int) Math.min(source.length, offset);
+        var to = (int) Math.min(source.length, offset + length);
+        assertArrayEquals(Arrays.copyOfRange(source, from, to), decoded);
+    }
+
+    @Test
+    void testDecodeStream() throws IOException {
+        var source = UUID.randomUUID().toString().repeat(4).getBytes(StandardCharsets.UTF_8);
+        var content = new ByteArrayRandomAccessContent(codec.encode(source));
+
+        try (var decoded = codec.decodeStream(content)) {
+            assertEquals(source[0] & 0xFF, decoded.read());
+            assertArrayEquals(Arrays.copyOfRange(source, 1, source.length), decoded.readAllBytes());
+            assertEquals(-1, decoded.read());
+        }
+    }
+
+    @Test
+    void testDecodeWhenContentIsCorrupted() {
+        var source = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var exception = assertThrows(ServiceException.class, () -> codec.decode(source));
+        assertEquals("Can't decode block deflate content, trailer is corrupted", exception.getMessage());
+        assertEquals("UNEXPECTED_ERROR", exception.getCode());
+    }
+
+    @Test
+    void testGetFormat() {
+        var format = codec.getFormat();
+        assertEquals(ContentStorageFormat.BLOCK_DEFLATE, format);
+    }
+
+}
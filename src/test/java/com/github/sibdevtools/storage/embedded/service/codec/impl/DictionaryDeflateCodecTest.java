@@ -0,0 +1,126 @@
+package com.github.sibdevtools.storage.embedded.service.codec.impl;
+
+import com.github.sibdevtools.error.exception.ServiceException;
+import com.github.sibdevtools.storage.embedded.dto.ContentDictionary;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.service.ContentDictionaryService;
+import com.github.sibdevtools.storage.embedded.service.codec.StorageCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author sibmaks
+ * @since 0.2.0
+ */
+@ExtendWith(MockitoExtension.class)
+class DictionaryDeflateCodecTest {
+    private static final String DOCUMENT = "{\"type\":\"order\",\"status\":\"CREATED\",\"customer\":{\"name\":\"%s\"}}";
+
+    @Mock
+    private ContentDictionaryService contentDictionaryService;
+    @InjectMocks
+    private DictionaryDeflateCodec codec;
+
+    @Test
+    void testEncodeDecodeCycle() {
+        var source = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var encoded = codec.encode(source);
+        assertNotNull(encoded);
+
+        var decoded = codec.decode(encoded);
+
+        assertArrayEquals(source, decoded);
+        verifyNoInteractions(contentDictionaryService);
+    }
+
+    @Test
+    void testEncodeDecodeCycleWithDictionary() {
+        var bucketId = 42L;
+        var dictionary = new ContentDictionary(7L, DOCUMENT.formatted("").getBytes(StandardCharsets.UTF_8));
+        when(contentDictionaryService.findLatest(bucketId))
+                .thenReturn(Optional.of(dictionary));
+        when(contentDictionaryService.get(dictionary.id()))
+                .thenReturn(dictionary);
+
+        var source = DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+        var withDictionary = codec.encode(bucketId, source, StorageCodec.DEFAULT_LEVEL);
+        var withoutDictionary = codec.encode(source);
+
+        assertTrue(withDictionary.length < withoutDictionary.length);
+        assertArrayEquals(source, codec.decode(withDictionary));
+    }
+
+    @Test
+    void testEncodeWithoutBucketDictionary() {
+        var bucketId = 42L;
+        when(contentDictionaryService.findLatest(bucketId))
+                .thenReturn(Optional.empty());
+
+        var source = DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+        var encoded = codec.encode(bucketId, source, StorageCodec.DEFAULT_LEVEL);
+
+        assertArrayEquals(source, codec.decode(encoded));
+        verify(contentDictionaryService, never()).get(anyLong());
+    }
+
+    @Test
+    void testEncodeStreamDecodeCycleWithDictionary() throws IOException {
+        var bucketId = 42L;
+        var dictionary = new ContentDictionary(7L, DOCUMENT.formatted("").getBytes(StandardCharsets.UTF_8));
+        when(contentDictionaryService.findLatest(bucketId))
+                .thenReturn(Optional.of(dictionary));
+        when(contentDictionaryService.get(dictionary.id()))
+                .thenReturn(dictionary);
+
+        var source = DOCUMENT.formatted(UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+
+        var out = new ByteArrayOutputStream();
+        try (var encoder = codec.encodeStream(bucketId, out, 9)) {
+            encoder.write(source, 0, 10);
+            encoder.write(source, 10, source.length - 10);
+        }
+
+        assertArrayEquals(source, codec.decode(out.toByteArray()));
+    }
+
+    @Test
+    void testDecodeWhenContentIsCorrupted() {
+        var source = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var exception = assertThrows(ServiceException.class, () -> codec.decode(source));
+        assertEquals("Can't decode dictionary deflate content, header is corrupted", exception.getMessage());
+        assertEquals("UNEXPECTED_ERROR", exception.getCode());
+    }
+
+    @Test
+    void testDecodeWhenContentIsTruncated() {
+        var source = UUID.randomUUID().toString().repeat(16).getBytes(StandardCharsets.UTF_8);
+        var encoded = codec.encode(source);
+        var truncated = new byte[encoded.length - 8];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+        var exception = assertThrows(ServiceException.class, () -> codec.decode(truncated));
+        assertEquals("UNEXPECTED_ERROR", exception.getCode());
+    }
+
+    @Test
+    void testGetFormat() {
+        var format = codec.getFormat();
+        assertEquals(ContentStorageFormat.DICTIONARY_DEFLATE, format);
+    }
+}
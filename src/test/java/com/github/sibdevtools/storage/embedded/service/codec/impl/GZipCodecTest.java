@@ -2,12 +2,18 @@ package com.github.sibdevtools.storage.embedded.service.codec.impl;
 
 import com.github.sibdevtools.error.exception.ServiceException;
 import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
+import com.github.sibdevtools.storage.embedded.service.storage.ByteArrayRandomAccessContent;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +49,51 @@ class GZipCodecTest {
 
     }
 
+    @Test
+    void testEncodeStreamDecodeCycle() throws IOException {
+        var source = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var out = new ByteArrayOutputStream();
+        try (var encoder = codec.encodeStream(out)) {
+            encoder.write(source, 0, 10);
+            encoder.write(source, 10, source.length - 10);
+        }
+
+        var decoded = codec.decode(out.toByteArray());
+
+        assertArrayEquals(source, decoded);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0,10",
+            "100,40",
+            "140,100",
+            "500,10"
+    })
+    void testDecodeRange(long offset, int length) {
+        var source = UUID.randomUUID().toString().repeat(4).getBytes(StandardCharsets.UTF_8);
+        var content = new ByteArrayRandomAccessContent(codec.encode(source));
+
+        var decoded = codec.decode(content, offset, length);
+
+        var from = (int) Math.min(source.length, offset);
+        var to = (int) Math.min(source.length, offset + length);
+        assertArrayEquals(Arrays.copyOfRange(source, from, to), decoded);
+    }
+
+    @Test
+    void testEncodeWithLevel() {
+        var source = UUID.randomUUID().toString().repeat(64).getBytes(StandardCharsets.UTF_8);
+
+        var stored = codec.encode(source, 0);
+        var compressed = codec.encode(source, 9);
+
+        assertTrue(compressed.length < stored.length);
+        assertArrayEquals(source, codec.decode(stored));
+        assertArrayEquals(source, codec.decode(compressed));
+    }
+
     @Test
     void testGetFormat() {
         var format = codec.getFormat();
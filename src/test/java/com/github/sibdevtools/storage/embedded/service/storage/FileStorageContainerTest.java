@@ -2,14 +2,24 @@ package com.github.sibdevtools.storage.embedded.service.storage;
 
 import com.github.sibdevtools.error.exception.ServiceException;
 import com.github.sibdevtools.storage.embedded.conf.StorageServiceEmbeddedProperties;
+import com.github.sibdevtools.storage.embedded.dto.ContentStorageFormat;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -70,4 +80,202 @@ class FileStorageContainerTest {
         assertEquals("UNEXPECTED_ERROR", exception.getCode());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testOpenAndReadRange(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+
+        var uid = UUID.randomUUID().toString();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.save(1, uid, data);
+
+        try (var content = container.open(1, uid)) {
+            assertEquals(data.length, content.size());
+            assertArrayEquals(Arrays.copyOfRange(data, 4, 12), content.read(4, 8));
+            assertArrayEquals(Arrays.copyOfRange(data, 30, data.length), content.read(30, 100));
+            assertEquals(0, content.read(data.length, 1).length);
+        }
+    }
+
+    @Test
+    void testOpenWhenContentNotExists(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+
+        var exception = assertThrows(
+                ServiceException.class,
+                () -> container.open(1, UUID.randomUUID().toString())
+        );
+
+        assertEquals(404, exception.getStatus());
+        assertEquals("FILE_NOT_FOUND", exception.getCode());
+    }
+
+    @Test
+    void testWriteAndParts(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+        when(properties.getBufferSize())
+                .thenReturn(16);
+
+        var uploadId = UUID.randomUUID().toString();
+        container.savePart(uploadId, 2, "world".getBytes(StandardCharsets.UTF_8));
+        container.savePart(uploadId, 1, "hello ".getBytes(StandardCharsets.UTF_8));
+
+        var uid = UUID.randomUUID().toString();
+        container.write(1, uid, ContentStorageFormat.BINARY, out -> {
+            var length = 0L;
+            for (int part = 1; part <= 2; part++) {
+                try (var in = container.getPart(uploadId, part)) {
+                    length += in.transferTo(out);
+                }
+            }
+            return length;
+        });
+        container.deleteParts(uploadId);
+
+        assertEquals("hello world", new String(container.get(1, uid), StandardCharsets.UTF_8));
+        assertThrows(
+                ServiceException.class,
+                () -> container.getPart(uploadId, 1)
+        );
+    }
+
+    @Test
+    void testSaveFramedAndGet(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+        when(properties.getBufferSize())
+                .thenReturn(16);
+
+        var uid = UUID.randomUUID();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.save(1, uid.toString(), ContentStorageFormat.GZIP, 128, data);
+
+        assertArrayEquals(data, container.get(1, uid.toString()));
+
+        try (var content = container.open(1, uid.toString())) {
+            assertEquals(data.length, content.size());
+            assertArrayEquals(Arrays.copyOfRange(data, 4, 12), content.read(4, 8));
+        }
+
+        var header = container.readHeader(1, uid.toString()).orElseThrow();
+        assertEquals(ContentStorageFormat.GZIP, header.format());
+        assertEquals(128, header.originalLength());
+        assertEquals(data.length, header.payloadLength());
+        assertEquals(uid, header.uid());
+    }
+
+    @Test
+    void testWriteFramed(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+        when(properties.getBufferSize())
+                .thenReturn(4);
+
+        var uid = UUID.randomUUID();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.write(1, uid.toString(), ContentStorageFormat.BLOCK_DEFLATE, out -> {
+            out.write(data);
+            out.close();
+            return 1024;
+        });
+
+        assertArrayEquals(data, container.get(1, uid.toString()));
+
+        var header = container.readHeader(1, uid.toString()).orElseThrow();
+        assertEquals(ContentStorageFormat.BLOCK_DEFLATE, header.format());
+        assertEquals(1024, header.originalLength());
+        assertEquals(data.length, header.payloadLength());
+        assertEquals(BlobFrame.crc32c(data), header.payloadCrc32c());
+        assertEquals(uid, header.uid());
+    }
+
+    @Test
+    void testGetWhenFramedContentIsCorrupted(@TempDir Path folder) throws IOException {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+        when(properties.getBufferSize())
+                .thenReturn(16);
+
+        var uid = UUID.randomUUID().toString();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.save(1, uid, ContentStorageFormat.BINARY, data.length, data);
+
+        var path = folder.resolve("1").resolve(uid + ".data");
+        var stored = Files.readAllBytes(path);
+        stored[stored.length - 1] ^= 1;
+        Files.write(path, stored);
+
+        var exception = assertThrows(
+                ServiceException.class,
+                () -> container.get(1, uid)
+        );
+        assertEquals("UNEXPECTED_ERROR", exception.getCode());
+        assertEquals("Blob checksum mismatch: %s".formatted(path), exception.getMessage());
+    }
+
+    @Test
+    void testOpenWhenFramedContentIsTruncated(@TempDir Path folder) throws IOException {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+
+        var uid = UUID.randomUUID().toString();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.save(1, uid, ContentStorageFormat.BINARY, data.length, data);
+
+        var path = folder.resolve("1").resolve(uid + ".data");
+        var stored = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(stored, stored.length - 1));
+
+        var exception = assertThrows(
+                ServiceException.class,
+                () -> container.open(1, uid)
+        );
+        assertEquals("Blob is truncated: %s".formatted(path), exception.getMessage());
+    }
+
+    @Test
+    void testGetLegacyContent(@TempDir Path folder) {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+        when(properties.getBufferSize())
+                .thenReturn(16);
+
+        var uid = UUID.randomUUID().toString();
+        var data = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        container.save(1, uid, data);
+
+        assertArrayEquals(data, container.get(1, uid));
+        assertTrue(container.readHeader(1, uid).isEmpty());
+    }
+
+    @Test
+    void testListBucketsAndContents(@TempDir Path folder) throws IOException {
+        when(properties.getFolder())
+                .thenReturn(folder.toString());
+
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        container.save(1, first.toString(), new byte[]{1});
+        container.save(1, second.toString(), new byte[]{2});
+        container.save(2, UUID.randomUUID().toString(), new byte[]{3});
+        container.savePart(UUID.randomUUID().toString(), 1, new byte[]{4});
+        Files.write(folder.resolve("1").resolve("unknown.data"), new byte[]{5});
+        Files.write(folder.resolve("1").resolve("%s.tmp".formatted(UUID.randomUUID())), new byte[]{6});
+
+        var bucketIds = container.getBucketIds();
+        assertEquals(2, bucketIds.size());
+        assertTrue(bucketIds.containsAll(List.of(1L, 2L)));
+
+        var contentIds = new ArrayList<UUID>();
+        container.forEachContentId(1, contentIds::add);
+        assertEquals(2, contentIds.size());
+        assertTrue(contentIds.containsAll(List.of(first, second)));
+
+        container.forEachContentId(3, uid -> fail("Unexpected content: %s".formatted(uid)));
+
+        assertTrue(container.getModifiedAt(1, first.toString()).isPresent());
+        assertTrue(container.getModifiedAt(3, first.toString()).isEmpty());
+    }
+}